@@ -0,0 +1,60 @@
+package com.example.backend.dto;
+
+import com.example.backend.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the {@code List<BeneficioDTO>} returned by the list
+ * endpoints, with the ObjectMapper defaults Spring MVC uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<BeneficioDTO> beneficios;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, BeneficioDTO.class));
+        // Fixed seed so every run serializes the same payload
+        Random random = new Random(42);
+        beneficios = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            Money valor = Money.ofCents(random.nextInt(10_000_000));
+            beneficios.add(new BeneficioDTO((long) i, "Beneficio " + i, "Descrição " + i, valor,
+                                            random.nextInt(4) != 0, (long) random.nextInt(100)));
+        }
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return writer.writeValueAsBytes(beneficios);
+    }
+}
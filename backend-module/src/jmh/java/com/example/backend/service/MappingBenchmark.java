@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO mapping and validation in {@link BeneficioService}, without Spring or a
+ * database; the accounts are not sharded, so {@code toDTO} never queries shards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MappingBenchmark {
+
+    private BeneficioService service;
+    private Beneficio entity;
+    private BeneficioDTO valid;
+    private BeneficioDTO invalid;
+
+    @Setup
+    public void setUp() {
+        service = new BeneficioService();
+        ReflectionTestUtils.setField(service, "shardedBalances", new ShardedBalanceService());
+        entity = new Beneficio("Beneficio A", "Descrição A", Money.parse("1000.00"), true);
+        entity.setId(1L);
+        entity.setVersion(3L);
+        valid = new BeneficioDTO(1L, "Beneficio A", "Descrição A", Money.parse("1000.00"), true, 3L);
+        invalid = new BeneficioDTO(1L, "Beneficio A", "Descrição A", Money.parse("-1.00"), true, 3L);
+    }
+
+    @Benchmark
+    public BeneficioDTO toDTO() {
+        return service.toDTO(entity);
+    }
+
+    @Benchmark
+    public Beneficio toEntity() {
+        return service.toEntity(valid);
+    }
+
+    @Benchmark
+    public BeneficioDTO validateValid() {
+        service.validateBeneficioDTO(valid);
+        return valid;
+    }
+
+    // Rejections build an exception per call; this is the cost of a 400 before any I/O
+    @Benchmark
+    public Object validateInvalid() {
+        try {
+            service.validateBeneficioDTO(invalid);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
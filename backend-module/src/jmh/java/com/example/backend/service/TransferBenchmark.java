@@ -0,0 +1,71 @@
+package com.example.backend.service;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.money.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link BeneficioService#transfer} end to end against the embedded H2 database,
+ * single-threaded, alternating A→B and B→A so balances never run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class TransferBenchmark {
+
+    private static final Money AMOUNT = Money.parse("1.00");
+
+    private ConfigurableApplicationContext context;
+    private BeneficioService service;
+    private TransferRequestDTO forward;
+    private TransferRequestDTO backward;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.jpa.show-sql=false", "--spring.main.banner-mode=off", "--logging.level.root=WARN");
+        service = context.getBean(BeneficioService.class);
+        Long a = account("JMH A");
+        Long b = account("JMH B");
+        forward = new TransferRequestDTO(a, b, AMOUNT);
+        backward = new TransferRequestDTO(b, a, AMOUNT);
+    }
+
+    private Long account(String nome) {
+        return service.create(new BeneficioDTO(null, nome, null, Money.parse("1000000.00"), true, null)).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void transfer() {
+        flip = !flip;
+        service.transfer(flip ? forward : backward);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes every JDBC statement through {@link SqlStatementListener}, replacing
+ * {@code spring.jpa.show-sql}: statements are counted and timed per request and only
+ * the slow ones, plus a sample of the rest, are logged.
+ */
+@Configuration
+@ConditionalOnProperty(name = "beneficio.sql.tracking.enabled", matchIfMissing = true)
+public class SqlStatementConfig {
+
+    // Static and built from the Environment so the DataSource can be wrapped before anything uses it
+    @Bean
+    static SqlStatementListener sqlStatementListener(Environment environment) {
+        return new SqlStatementListener(
+            environment.getProperty("beneficio.sql.slow-threshold-ms", Long.class, 100L),
+            environment.getProperty("beneficio.sql.log-sample-rate", Double.class, 0.0),
+            environment.getProperty("beneficio.sql.log-queue-size", Integer.class, 1000));
+    }
+
+    @Bean
+    static BeanPostProcessor sqlStatementDataSourceProxy(SqlStatementListener listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource).listener(listener).build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlStatementFilter> sqlStatementFilter() {
+        FilterRegistrationBean<SqlStatementFilter> registration = new FilterRegistrationBean<>(new SqlStatementFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Opens a {@link SqlStatements} scope per request and reports it in the
+ * {@value #COUNT_HEADER} and {@value #TIME_HEADER} response headers.
+ *
+ * Headers cannot be added once the body starts going out, so they are written when the
+ * handler first asks for the output stream (or at the end, for responses without a
+ * body). Statements run while the body is streamed, as in {@code GET /stream} or on an
+ * SSE connection, are not included.
+ */
+public class SqlStatementFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-Sql-Statements";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStatements statements = SqlStatements.open(request.getMethod() + " " + request.getRequestURI())) {
+            StatementHeaders wrapped = new StatementHeaders(response, statements);
+            chain.doFilter(request, wrapped);
+            wrapped.write();
+        }
+    }
+
+    private static final class StatementHeaders extends HttpServletResponseWrapper {
+        private final SqlStatements statements;
+        private boolean written;
+
+        private StatementHeaders(HttpServletResponse response, SqlStatements statements) {
+            super(response);
+            this.statements = statements;
+        }
+
+        private void write() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(COUNT_HEADER, Integer.toString(statements.count()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", statements.millis()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            write();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            write();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            write();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            write();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            write();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            write();
+            super.sendRedirect(location);
+        }
+    }
+}
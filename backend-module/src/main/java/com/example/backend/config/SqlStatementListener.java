@@ -0,0 +1,124 @@
+package com.example.backend.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts every JDBC execution in the calling thread's {@link SqlStatements} scopes and
+ * logs the ones slower than {@code slow-threshold-ms}, plus a random
+ * {@code log-sample-rate} fraction of the rest.
+ *
+ * Log lines are written by a single background thread fed through a bounded queue, so
+ * the thread that ran the statement never waits on the appender. Entries that do not
+ * fit are dropped, and the count is reported with the next line written. A JDBC batch
+ * counts as one execution.
+ */
+public class SqlStatementListener implements QueryExecutionListener, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.backend.sql");
+    private static final String START = SqlStatementListener.class.getName() + ".start";
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final BlockingQueue<Entry> pending;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    public SqlStatementListener(long slowThresholdMs, double sampleRate, int queueSize) {
+        this(slowThresholdMs, sampleRate, queueSize, true);
+    }
+
+    // Tests leave the writer stopped and look at what was queued
+    SqlStatementListener(long slowThresholdMs, double sampleRate, int queueSize, boolean startWriter) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.sampleRate = sampleRate;
+        this.pending = new ArrayBlockingQueue<>(queueSize);
+        this.writer = new Thread(this::drain, "sql-statement-log");
+        this.writer.setDaemon(true);
+        if (startWriter) {
+            this.writer.start();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        long elapsed = start != null ? System.nanoTime() - start : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        SqlStatements.record(elapsed);
+
+        boolean slow = elapsed >= slowThresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        List<String> queries = new ArrayList<>(queryInfoList.size());
+        for (QueryInfo query : queryInfoList) {
+            queries.add(query.getQuery());
+        }
+        Entry entry = new Entry(slow, elapsed, SqlStatements.currentLabel(),
+            execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.isSuccess(), queries);
+        if (!pending.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    long droppedCount() {
+        return dropped.get();
+    }
+
+    List<Entry> queued() {
+        return new ArrayList<>(pending);
+    }
+
+    @Override
+    public void close() {
+        writer.interrupt();
+    }
+
+    private void drain() {
+        long reported = 0;
+        try {
+            while (true) {
+                Entry entry = pending.take();
+                long total = dropped.get();
+                if (total > reported) {
+                    log.warn("{} SQL log entries dropped, the queue was full", total - reported);
+                    reported = total;
+                }
+                write(entry);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(Entry entry) {
+        String batch = entry.batchSize > 0 ? " batch=" + entry.batchSize : "";
+        String outcome = entry.success ? "" : " (failed)";
+        String request = entry.request != null ? entry.request : "-";
+        String sql = String.join("; ", entry.queries);
+        if (entry.slow) {
+            log.warn("slow SQL {} ms [{}]{}{} {}", String.format("%.1f", entry.nanos / 1e6), request, batch, outcome, sql);
+        } else {
+            log.info("sampled SQL {} ms [{}]{}{} {}", String.format("%.1f", entry.nanos / 1e6), request, batch, outcome, sql);
+        }
+    }
+
+    record Entry(boolean slow, long nanos, String request, int batchSize, boolean success, List<String> queries) {
+    }
+}
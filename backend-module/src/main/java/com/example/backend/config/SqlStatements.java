@@ -0,0 +1,78 @@
+package com.example.backend.config;
+
+/**
+ * Statements executed, and time spent executing them, by the current thread while the
+ * scope is open. {@link SqlStatementFilter} opens one per HTTP request; tests can open
+ * their own around a service call to pin how many statements it issues.
+ *
+ * Scopes nest: a statement counts in every open scope of the thread. Work handed to
+ * other threads (the transfer pipeline's writer, the SSE sender) is not attributed.
+ */
+public final class SqlStatements implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatements> CURRENT = new ThreadLocal<>();
+
+    private final String label;
+    private final SqlStatements outer;
+    private int count;
+    private long nanos;
+
+    private SqlStatements(String label, SqlStatements outer) {
+        this.label = label;
+        this.outer = outer;
+    }
+
+    public static SqlStatements open() {
+        return open(null);
+    }
+
+    /**
+     * Opens a scope whose {@code label} (e.g. "GET /api/v1/beneficios/1") is attached
+     * to the statements it logs.
+     */
+    public static SqlStatements open(String label) {
+        SqlStatements scope = new SqlStatements(label, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(long elapsedNanos) {
+        for (SqlStatements scope = CURRENT.get(); scope != null; scope = scope.outer) {
+            scope.count++;
+            scope.nanos += elapsedNanos;
+        }
+    }
+
+    // Label of the innermost labelled scope
+    static String currentLabel() {
+        for (SqlStatements scope = CURRENT.get(); scope != null; scope = scope.outer) {
+            if (scope.label != null) {
+                return scope.label;
+            }
+        }
+        return null;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    public double millis() {
+        return nanos / 1e6;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (outer != null) {
+                CURRENT.set(outer);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
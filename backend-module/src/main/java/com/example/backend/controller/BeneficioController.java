@@ -1,88 +1,465 @@
 package com.example.backend.controller;
 
+import com.example.backend.config.SqlStatementFilter;
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.BeneficioChangesDTO;
 import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BeneficioStatsDTO;
+import com.example.backend.dto.BulkUpsertResultDTO;
+import com.example.backend.dto.ImportFormat;
+import com.example.backend.dto.ImportJobDTO;
 import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.TransferIdempotency;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.service.BeneficioEventBroadcaster;
+import com.example.backend.service.BeneficioImportService;
+import com.example.backend.service.BeneficioMetrics;
+import com.example.backend.service.BeneficioSearchService;
 import com.example.backend.service.BeneficioService;
+import com.example.backend.service.BeneficioStatsService;
+import com.example.backend.service.BeneficioTextIndex;
+import com.example.backend.service.BulkUpsertService;
+import com.example.backend.service.IdempotentTransferService;
+import com.example.backend.service.TransferPipeline;
+import com.example.backend.service.WriteAdmissionLimiter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/beneficios")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {BeneficioController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG,
+    HttpHeaders.RETRY_AFTER, SqlStatementFilter.COUNT_HEADER, SqlStatementFilter.TIME_HEADER})
 @Tag(name = "Beneficios", description = "API para gerenciamento de benefícios")
 public class BeneficioController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String CSV_VALUE = "text/csv";
+
     @Autowired
     private BeneficioService service;
 
+    @Autowired
+    private TransferPipeline pipeline;
+
+    @Autowired
+    private IdempotentTransferService idempotentTransfers;
+
+    @Autowired
+    private BulkUpsertService bulkUpserts;
+
+    @Autowired
+    private BeneficioImportService imports;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private BeneficioSearchService search;
+
+    @Autowired
+    private BeneficioTextIndex textIndex;
+
+    @Autowired
+    private BeneficioEventBroadcaster broadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BeneficioMetrics metrics;
+
+    @Autowired
+    private WriteAdmissionLimiter admission;
+
     @GetMapping
-    @Operation(summary = "Listar todos os benefícios", description = "Retorna lista completa de benefícios")
-    @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
-    public ResponseEntity<List<BeneficioDTO>> findAll() {
-        return ResponseEntity.ok(service.findAll());
+    @Operation(summary = "Listar todos os benefícios",
+               description = "Retorna lista completa de benefícios. Com 'after' ou 'limit' retorna uma página "
+                       + "ordenada por ID e o cursor da próxima página no header X-Next-Cursor. A lista completa "
+                       + "tem ETag e responde 304 ao If-None-Match quando nada mudou")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Lista não mudou desde o ETag informado"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros de paginação inválidos")
+    })
+    public ResponseEntity<List<BeneficioDTO>> findAll(
+            WebRequest webRequest,
+            @Parameter(description = "Cursor: retorna apenas benefícios com ID maior que este valor")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Tamanho máximo da página (1-" + BeneficioService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            String etag = etag(service.collectionVersionTag());
+            if (webRequest.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            return conditional(etag).body(service.findAll());
+        }
+
+        List<BeneficioDTO> page = service.findPage(after, limit);
+        int pageSize = limit != null ? limit : BeneficioService.DEFAULT_PAGE_SIZE;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping(value = "/stream", produces = NDJSON_VALUE)
+    @Operation(summary = "Exportar todos os benefícios em streaming",
+               description = "Retorna todos os benefícios como NDJSON (um objeto JSON por linha), "
+                       + "enviados em blocos sem carregar a tabela inteira em memória")
+    @ApiResponse(responseCode = "200", description = "Stream iniciado com sucesso")
+    public ResponseEntity<StreamingResponseBody> stream() {
+        ObjectWriter writer = objectMapper.writerFor(BeneficioDTO.class);
+        StreamingResponseBody body = out -> service.streamAll(chunk -> {
+            try {
+                for (BeneficioDTO dto : chunk) {
+                    out.write(writer.writeValueAsBytes(dto));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
     }
 
     @GetMapping("/ativos")
-    @Operation(summary = "Listar benefícios ativos", description = "Retorna apenas benefícios com status ativo")
-    @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
-    public ResponseEntity<List<BeneficioDTO>> findAllActive() {
-        return ResponseEntity.ok(service.findAllActive());
+    @Operation(summary = "Listar benefícios ativos",
+               description = "Retorna apenas benefícios com status ativo; responde 304 ao If-None-Match quando nada mudou")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Lista não mudou desde o ETag informado")
+    })
+    public ResponseEntity<List<BeneficioDTO>> findAllActive(WebRequest webRequest) {
+        String versionTag = service.collectionVersionTag();
+        String etag = etag(versionTag);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return conditional(etag).body(service.findAllActive(versionTag));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Listar alterações desde um cursor",
+               description = "Retorna os benefícios criados ou alterados e os IDs removidos depois do cursor "
+                       + "'since', além do cursor a usar na próxima chamada. Sem 'since' retorna todos os benefícios")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Alterações retornadas com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    public ResponseEntity<BeneficioChangesDTO> findChanges(
+            @Parameter(description = "Cursor 'next' retornado pela chamada anterior")
+            @RequestParam(required = false) Long since) {
+        return ResponseEntity.ok(service.findChanges(since));
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Estatísticas dos benefícios",
+               description = "Retorna a quantidade de benefícios, quantos estão ativos, a soma dos saldos e a "
+                       + "distribuição por faixa de saldo. Os valores são mantidos a cada escrita, sem varrer a tabela")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    })
+    public ResponseEntity<BeneficioStatsDTO> stats() {
+        return ResponseEntity.ok(stats.stats());
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Buscar benefícios",
+               description = "Filtra por prefixo do nome, faixa de valor e status, ordena de forma crescente por id, "
+                       + "nome ou valor e retorna uma página com o cursor da próxima no header X-Next-Cursor. "
+                       + "Cada combinação é atendida por um índice; o valor de contas fragmentadas é o saldo lógico")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Página retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Filtros, ordenação, cursor ou limite inválidos")
+    })
+    public ResponseEntity<List<BeneficioDTO>> search(
+            @Parameter(description = "Prefixo do nome (diferencia maiúsculas de minúsculas)")
+            @RequestParam(required = false) String nome,
+            @Parameter(description = "Valor mínimo, inclusive")
+            @RequestParam(required = false) String valorMin,
+            @Parameter(description = "Valor máximo, inclusive")
+            @RequestParam(required = false) String valorMax,
+            @Parameter(description = "Status do benefício")
+            @RequestParam(required = false) Boolean ativo,
+            @Parameter(description = "Ordenação crescente: id (padrão), nome ou valor")
+            @RequestParam(required = false) String sort,
+            @Parameter(description = "Cursor X-Next-Cursor retornado pela página anterior, com a mesma ordenação")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Tamanho máximo da página (1-" + BeneficioService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        BeneficioSearchService.Sort order = BeneficioSearchService.Sort.parse(sort);
+        List<BeneficioDTO> page = search.search(nome, valorMin != null ? Money.parse(valorMin) : null,
+                valorMax != null ? Money.parse(valorMax) : null, ativo, order, after, limit);
+        int pageSize = limit != null ? limit : BeneficioService.DEFAULT_PAGE_SIZE;
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, search.cursor(order, page.get(page.size() - 1)));
+        }
+        return response.body(page);
+    }
+
+    @GetMapping("/search/text")
+    @Operation(summary = "Buscar benefícios por trecho de texto",
+               description = "Retorna os benefícios cujo nome ou descrição contém o trecho informado, sem diferenciar "
+                       + "maiúsculas, minúsculas e acentos, do mais relevante ao menos relevante: primeiro os que "
+                       + "contêm o trecho no nome. Usa um índice de trigramas em memória, sem varrer a tabela")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados retornados com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Trecho com menos de " + BeneficioTextIndex.MIN_QUERY_LENGTH
+                + " caracteres ou limite inválido")
+    })
+    public ResponseEntity<List<BeneficioDTO>> searchText(
+            @Parameter(description = "Trecho a procurar no nome e na descrição", required = true)
+            @RequestParam(required = false) String q,
+            @Parameter(description = "Quantidade máxima de resultados (1-" + BeneficioService.MAX_PAGE_SIZE + ")")
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(textIndex.search(q, limit));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar alterações em tempo real",
+               description = "Abre um stream Server-Sent Events que recebe um evento 'beneficio-changed' com os IDs "
+                       + "alterados sempre que um create, update, delete ou transferência faz commit. Clientes lentos "
+                       + "são desconectados e devem se atualizar via /changes ao reconectar")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream aberto com sucesso"),
+        @ApiResponse(responseCode = "503", description = "Limite de conexões atingido")
+    })
+    public SseEmitter events() {
+        return broadcaster.subscribe();
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Buscar benefício por ID", description = "Retorna um benefício específico pelo ID")
+    @Operation(summary = "Buscar benefício por ID",
+               description = "Retorna um benefício específico pelo ID; responde 304 ao If-None-Match quando ele não mudou")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Benefício encontrado"),
+        @ApiResponse(responseCode = "304", description = "Benefício não mudou desde o ETag informado"),
         @ApiResponse(responseCode = "404", description = "Benefício não encontrado")
     })
     public ResponseEntity<BeneficioDTO> findById(
-            @Parameter(description = "ID do benefício") @PathVariable Long id) {
-        try {
-            return ResponseEntity.ok(service.findById(id));
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
+            @Parameter(description = "ID do benefício") @PathVariable Long id, WebRequest webRequest) {
+        String versionTag = service.versionTag(id)
+                .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, id));
+        String etag = etag(versionTag);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
         }
+        return conditional(etag).body(service.findById(id, versionTag));
+    }
+
+    // The tag is read before the body, and a cached body is only used if it was loaded
+    // at that same tag, so a body is never older than the ETag sent with it
+    private static String etag(String versionTag) {
+        return "\"" + versionTag + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder conditional(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
     }
 
     @PostMapping
     @Operation(summary = "Criar novo benefício", description = "Cria um novo benefício no sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "Benefício criado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
     })
     public ResponseEntity<?> create(@RequestBody BeneficioDTO dto) {
-        try {
+        long start = System.nanoTime();
+        try (WriteAdmissionLimiter.Permit permit = admission.acquire()) {
             BeneficioDTO created = service.create(dto);
             return ResponseEntity.status(HttpStatus.CREATED).body(created);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        } finally {
+            metrics.crud("create", start);
+        }
+    }
+
+    @PostMapping(value = "/lote", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON_VALUE})
+    @Operation(summary = "Criar ou atualizar benefícios em lote",
+               description = "Recebe um array JSON ou NDJSON (um objeto por linha). Itens sem id são criados e "
+                       + "itens com id atualizam o benefício. O corpo é lido e validado em streaming e gravado em "
+                       + "blocos, uma transação por bloco; o resultado traz o resumo de cada bloco")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; itens rejeitados listados por bloco"),
+        @ApiResponse(responseCode = "400", description = "Corpo ilegível a partir de um item; os blocos anteriores foram gravados"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
+    })
+    public ResponseEntity<BulkUpsertResultDTO> upsertBulk(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        try (WriteAdmissionLimiter.Permit permit = admission.acquireBulk();
+             MappingIterator<BeneficioDTO> values = objectMapper.readerFor(BeneficioDTO.class).readValues(body)) {
+            BulkUpsertResultDTO result = bulkUpserts.upsert(items(values));
+            return result.getCode() != null ? ResponseEntity.badRequest().body(result) : ResponseEntity.ok(result);
+        } finally {
+            metrics.crud("bulk", start);
         }
     }
 
+    // A JSON array and NDJSON read the same way; a malformed item ends the body there
+    private static Iterator<BeneficioDTO> items(MappingIterator<BeneficioDTO> values) {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    return values.hasNextValue();
+                } catch (IOException e) {
+                    throw unreadable(e);
+                }
+            }
+
+            @Override
+            public BeneficioDTO next() {
+                try {
+                    BeneficioDTO item = values.nextValue();
+                    index++;
+                    return item;
+                } catch (IOException e) {
+                    throw unreadable(e);
+                }
+            }
+
+            private BeneficioException unreadable(IOException e) {
+                String reason = e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+                return new BeneficioException(ErrorCode.BULK_ITEM_UNREADABLE, index, reason);
+            }
+        };
+    }
+
+    @PostMapping(value = "/importacoes", params = "arquivo")
+    @Operation(summary = "Importar arquivo do servidor",
+               description = "Inicia em segundo plano a importação de um arquivo CSV ou NDJSON do diretório de "
+                       + "importação. O arquivo é lido em streaming e gravado em blocos; linhas rejeitadas vão para "
+                       + "um arquivo à parte. Acompanhe o progresso em GET /importacoes/{id}")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Importação iniciada"),
+        @ApiResponse(responseCode = "400", description = "Arquivo inexistente, fora do diretório de importação ou de formato desconhecido"),
+        @ApiResponse(responseCode = "503", description = "Limite de importações simultâneas atingido")
+    })
+    public ResponseEntity<ImportJobDTO> startImport(
+            @Parameter(description = "Nome do arquivo, relativo a beneficio.import.source-dir")
+            @RequestParam String arquivo,
+            @Parameter(description = "CSV ou NDJSON; por padrão vem da extensão (.csv, .ndjson, .jsonl)")
+            @RequestParam(required = false) ImportFormat formato) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(imports.start(arquivo, formato));
+    }
+
+    @PostMapping(value = "/importacoes", params = "!arquivo", consumes = {CSV_VALUE, NDJSON_VALUE})
+    @Operation(summary = "Importar arquivo enviado",
+               description = "Grava o corpo (text/csv ou application/x-ndjson) no servidor e inicia sua importação "
+                       + "em segundo plano, como a importação de um arquivo do servidor")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Importação iniciada"),
+        @ApiResponse(responseCode = "503", description = "Limite de importações simultâneas atingido")
+    })
+    public ResponseEntity<ImportJobDTO> uploadImport(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) throws IOException {
+        ImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))
+                ? ImportFormat.CSV : ImportFormat.NDJSON;
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(imports.upload(body, format));
+    }
+
+    @GetMapping("/importacoes/{id}")
+    @Operation(summary = "Consultar importação",
+               description = "Retorna o estado, o progresso (bytes e linhas lidos), os contadores e a vazão da "
+                       + "execução atual de uma importação")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Importação encontrada"),
+        @ApiResponse(responseCode = "404", description = "Importação não encontrada")
+    })
+    public ResponseEntity<ImportJobDTO> findImport(
+            @Parameter(description = "ID da importação") @PathVariable String id) {
+        return ResponseEntity.ok(imports.find(id));
+    }
+
+    @PostMapping("/importacoes/{id}/retomar")
+    @Operation(summary = "Retomar importação",
+               description = "Retoma uma importação interrompida ou com falha a partir do último bloco gravado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Importação retomada"),
+        @ApiResponse(responseCode = "404", description = "Importação não encontrada"),
+        @ApiResponse(responseCode = "409", description = "Importação em andamento ou já concluída"),
+        @ApiResponse(responseCode = "503", description = "Limite de importações simultâneas atingido")
+    })
+    public ResponseEntity<ImportJobDTO> resumeImport(
+            @Parameter(description = "ID da importação") @PathVariable String id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(imports.resume(id));
+    }
+
+    @GetMapping(value = "/importacoes/{id}/rejeitados", produces = NDJSON_VALUE)
+    @Operation(summary = "Baixar linhas rejeitadas",
+               description = "Retorna as linhas rejeitadas da importação como NDJSON: número da linha, código, "
+                       + "mensagem e conteúdo original")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Linhas rejeitadas até o momento"),
+        @ApiResponse(responseCode = "404", description = "Importação não encontrada")
+    })
+    public ResponseEntity<Resource> importRejects(
+            @Parameter(description = "ID da importação") @PathVariable String id) {
+        Path rejects = imports.rejects(id);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE));
+        return Files.exists(rejects) ? response.body(new FileSystemResource(rejects)) : response.build();
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Atualizar benefício", description = "Atualiza um benefício existente")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Benefício atualizado com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos"),
-        @ApiResponse(responseCode = "404", description = "Benefício não encontrado")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou benefício não encontrado"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
     })
     public ResponseEntity<?> update(
             @Parameter(description = "ID do benefício") @PathVariable Long id,
             @RequestBody BeneficioDTO dto) {
-        try {
+        long start = System.nanoTime();
+        try (WriteAdmissionLimiter.Permit permit = admission.acquire(id)) {
             BeneficioDTO updated = service.update(id, dto);
             return ResponseEntity.ok(updated);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        } finally {
+            metrics.crud("update", start);
         }
     }
 
@@ -90,31 +467,106 @@ public class BeneficioController {
     @Operation(summary = "Deletar benefício", description = "Remove um benefício do sistema")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "204", description = "Benefício deletado com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Benefício não encontrado")
+        @ApiResponse(responseCode = "404", description = "Benefício não encontrado"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
     })
     public ResponseEntity<?> delete(
             @Parameter(description = "ID do benefício") @PathVariable Long id) {
-        try {
+        long start = System.nanoTime();
+        try (WriteAdmissionLimiter.Permit permit = admission.acquire(id)) {
             service.delete(id);
             return ResponseEntity.noContent().build();
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.notFound().build();
+        } finally {
+            metrics.crud("delete", start);
+        }
+    }
+
+    @PostMapping("/{id}/shards")
+    @Operation(summary = "Dividir saldo em shards",
+               description = "Divide o saldo de um benefício muito disputado em N sub-saldos para que "
+                       + "transferências concorrentes não disputem a mesma linha. O valor retornado continua "
+                       + "sendo o saldo total")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Saldo dividido com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Quantidade de shards inválida ou benefício não encontrado"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
+    })
+    public ResponseEntity<?> split(
+            @Parameter(description = "ID do benefício") @PathVariable Long id,
+            @Parameter(description = "Quantidade de shards") @RequestParam int count) {
+        try (WriteAdmissionLimiter.Permit permit = admission.acquireBulk(id)) {
+            return ResponseEntity.ok(service.split(id, count));
+        }
+    }
+
+    @DeleteMapping("/{id}/shards")
+    @Operation(summary = "Unificar shards", description = "Junta os sub-saldos de um benefício em um único saldo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Shards unificados com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Benefício não encontrado ou sem shards"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
+    })
+    public ResponseEntity<?> merge(
+            @Parameter(description = "ID do benefício") @PathVariable Long id) {
+        try (WriteAdmissionLimiter.Permit permit = admission.acquireBulk(id)) {
+            return ResponseEntity.ok(service.merge(id));
         }
     }
 
     @PostMapping("/transferir")
     @Operation(summary = "Transferir valor entre benefícios", 
-               description = "Transfere valor de um benefício para outro com validação de saldo e locking")
+               description = "Transfere valor de um benefício para outro com validação de saldo e locking. "
+                       + "Com o header Idempotency-Key a transferência é executada no máximo uma vez e as "
+                       + "repetições recebem o resultado original")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Transferência realizada com sucesso"),
-        @ApiResponse(responseCode = "400", description = "Dados inválidos ou saldo insuficiente")
+        @ApiResponse(responseCode = "400", description = "Dados inválidos ou saldo insuficiente; o campo code identifica o motivo"),
+        @ApiResponse(responseCode = "409", description = "Idempotency-Key já usada para outra transferência"),
+        @ApiResponse(responseCode = "503", description = "Fila de transferências cheia ou espera esgotada (modo pipeline)"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
     })
-    public ResponseEntity<?> transfer(@RequestBody TransferRequestDTO request) {
-        try {
-            service.transfer(request);
+    public ResponseEntity<?> transfer(
+            @Parameter(description = "Chave única da transferência, reenviada pelo cliente em caso de retry")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody TransferRequestDTO request) {
+        try (WriteAdmissionLimiter.Permit permit = admission.acquire(request.getFromId(), request.getToId())) {
+            if (idempotencyKey != null) {
+                TransferIdempotency outcome = idempotentTransfers.transfer(idempotencyKey, request);
+                if (!Boolean.TRUE.equals(outcome.getApplied())) {
+                    throw BeneficioException.withMessage(
+                        outcome.getErrorCode() != null ? outcome.getErrorCode() : ErrorCode.INVALID_REQUEST,
+                        outcome.getMessage());
+                }
+                return ResponseEntity.ok().body(outcome.getMessage());
+            }
+            if (pipeline.isEnabled()) {
+                pipeline.transfer(request);
+            } else {
+                service.transfer(request);
+            }
             return ResponseEntity.ok().body("Transferência realizada com sucesso");
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/transferir/lote")
+    @Operation(summary = "Transferir valores em lote",
+               description = "Liquida várias transferências em uma única transação. Em ALL_OR_NOTHING qualquer "
+                       + "item rejeitado cancela o lote inteiro; em BEST_EFFORT apenas os itens válidos são aplicados")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; resultado por item no corpo"),
+        @ApiResponse(responseCode = "400", description = "Lote inválido ou cancelado por item rejeitado"),
+        @ApiResponse(responseCode = "429", description = "Limite de escritas simultâneas atingido; tente novamente após o Retry-After")
+    })
+    public ResponseEntity<?> transferBatch(
+            @RequestBody List<TransferRequestDTO> requests,
+            @Parameter(description = "ALL_OR_NOTHING (default) ou BEST_EFFORT")
+            @RequestParam(defaultValue = "ALL_OR_NOTHING") BatchTransferMode mode) {
+        try (WriteAdmissionLimiter.Permit permit = admission.acquireBulk()) {
+            BatchTransferResultDTO result = service.transferBatch(requests, mode);
+            if (mode == BatchTransferMode.ALL_OR_NOTHING && result.getRejected() > 0) {
+                return ResponseEntity.badRequest().body(result);
+            }
+            return ResponseEntity.ok(result);
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import com.example.backend.money.Money;
+
+public class BalanceBucketDTO {
+    private Money min;
+    private Money max;
+    private long count;
+    private long activeCount;
+
+    // Constructors
+    public BalanceBucketDTO() {
+    }
+
+    public BalanceBucketDTO(Money min, Money max, long count, long activeCount) {
+        this.min = min;
+        this.max = max;
+        this.count = count;
+        this.activeCount = activeCount;
+    }
+
+    // Getters and Setters
+    public Money getMin() {
+        return min;
+    }
+
+    public void setMin(Money min) {
+        this.min = min;
+    }
+
+    public Money getMax() {
+        return max;
+    }
+
+    public void setMax(Money max) {
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(long activeCount) {
+        this.activeCount = activeCount;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+public enum BatchTransferMode {
+    // Any rejected item aborts the whole batch; nothing is written
+    ALL_OR_NOTHING,
+    // Valid items are applied, rejected items are reported and skipped
+    BEST_EFFORT
+}
@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class BatchTransferResultDTO {
+    private BatchTransferMode mode;
+    private int applied;
+    private int rejected;
+    private List<TransferResultDTO> results;
+
+    // Constructors
+    public BatchTransferResultDTO() {
+    }
+
+    public BatchTransferResultDTO(BatchTransferMode mode, int applied, int rejected, List<TransferResultDTO> results) {
+        this.mode = mode;
+        this.applied = applied;
+        this.rejected = rejected;
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public BatchTransferMode getMode() {
+        return mode;
+    }
+
+    public void setMode(BatchTransferMode mode) {
+        this.mode = mode;
+    }
+
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<TransferResultDTO> getResults() {
+        return results;
+    }
+
+    public void setResults(List<TransferResultDTO> results) {
+        this.results = results;
+    }
+}
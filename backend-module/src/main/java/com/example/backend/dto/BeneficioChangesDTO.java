@@ -0,0 +1,44 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+public class BeneficioChangesDTO {
+    private List<BeneficioDTO> changed;
+    private List<Long> deleted;
+    private long next;
+
+    // Constructors
+    public BeneficioChangesDTO() {
+    }
+
+    public BeneficioChangesDTO(List<BeneficioDTO> changed, List<Long> deleted, long next) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.next = next;
+    }
+
+    // Getters and Setters
+    public List<BeneficioDTO> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<BeneficioDTO> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public long getNext() {
+        return next;
+    }
+
+    public void setNext(long next) {
+        this.next = next;
+    }
+}
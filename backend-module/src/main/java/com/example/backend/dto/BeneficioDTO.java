@@ -1,12 +1,12 @@
 package com.example.backend.dto;
 
-import java.math.BigDecimal;
+import com.example.backend.money.Money;
 
 public class BeneficioDTO {
     private Long id;
     private String nome;
     private String descricao;
-    private BigDecimal valor;
+    private Money valor;
     private Boolean ativo;
     private Long version;
 
@@ -14,7 +14,7 @@ public class BeneficioDTO {
     public BeneficioDTO() {
     }
 
-    public BeneficioDTO(Long id, String nome, String descricao, BigDecimal valor, Boolean ativo, Long version) {
+    public BeneficioDTO(Long id, String nome, String descricao, Money valor, Boolean ativo, Long version) {
         this.id = id;
         this.nome = nome;
         this.descricao = descricao;
@@ -48,11 +48,11 @@ public class BeneficioDTO {
         this.descricao = descricao;
     }
 
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
 
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
 
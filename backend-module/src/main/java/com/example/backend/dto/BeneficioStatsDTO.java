@@ -0,0 +1,55 @@
+package com.example.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class BeneficioStatsDTO {
+    private long count;
+    private long activeCount;
+    private BigDecimal valorTotal;
+    private List<BalanceBucketDTO> buckets;
+
+    // Constructors
+    public BeneficioStatsDTO() {
+    }
+
+    public BeneficioStatsDTO(long count, long activeCount, BigDecimal valorTotal, List<BalanceBucketDTO> buckets) {
+        this.count = count;
+        this.activeCount = activeCount;
+        this.valorTotal = valorTotal;
+        this.buckets = buckets;
+    }
+
+    // Getters and Setters
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public long getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(long activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public BigDecimal getValorTotal() {
+        return valorTotal;
+    }
+
+    public void setValorTotal(BigDecimal valorTotal) {
+        this.valorTotal = valorTotal;
+    }
+
+    public List<BalanceBucketDTO> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<BalanceBucketDTO> buckets) {
+        this.buckets = buckets;
+    }
+}
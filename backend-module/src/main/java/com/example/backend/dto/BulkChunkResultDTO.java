@@ -0,0 +1,119 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkChunkResultDTO {
+
+    public enum Status {
+        APPLIED,
+        // Nothing in the chunk was written; the other chunks are unaffected
+        FAILED
+    }
+
+    private int chunk;
+    // Positions of the chunk's first and last items in the request body
+    private int firstIndex;
+    private int lastIndex;
+    private Status status;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    private long millis;
+    // Why the chunk failed; set on FAILED chunks only
+    private String message;
+    // Rejected items, up to beneficio.bulk.max-reported-errors per request
+    private List<BulkItemErrorDTO> errors;
+
+    // Constructors
+    public BulkChunkResultDTO() {
+    }
+
+    public BulkChunkResultDTO(int chunk, int firstIndex) {
+        this.chunk = chunk;
+        this.firstIndex = firstIndex;
+        this.lastIndex = firstIndex - 1;
+        this.errors = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public int getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(int chunk) {
+        this.chunk = chunk;
+    }
+
+    public int getFirstIndex() {
+        return firstIndex;
+    }
+
+    public void setFirstIndex(int firstIndex) {
+        this.firstIndex = firstIndex;
+    }
+
+    public int getLastIndex() {
+        return lastIndex;
+    }
+
+    public void setLastIndex(int lastIndex) {
+        this.lastIndex = lastIndex;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public void setMillis(long millis) {
+        this.millis = millis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<BulkItemErrorDTO> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkItemErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
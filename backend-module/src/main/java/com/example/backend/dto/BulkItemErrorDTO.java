@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.ErrorCode;
+
+public class BulkItemErrorDTO {
+    private int index;
+    private Long id;
+    private ErrorCode code;
+    private String message;
+
+    // Constructors
+    public BulkItemErrorDTO() {
+    }
+
+    public BulkItemErrorDTO(int index, Long id, ErrorCode code, String message) {
+        this.index = index;
+        this.id = id;
+        this.code = code;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    public void setCode(ErrorCode code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.ErrorCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkUpsertResultDTO {
+    private int received;
+    private int inserted;
+    private int updated;
+    private int rejected;
+    // Items in FAILED chunks
+    private int failed;
+    private List<BulkChunkResultDTO> chunks = new ArrayList<>();
+    // Set when the body could not be read to the end; the chunks before that point were still applied
+    private ErrorCode code;
+    private String message;
+
+    // Constructors
+    public BulkUpsertResultDTO() {
+    }
+
+    // Getters and Setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BulkChunkResultDTO> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<BulkChunkResultDTO> chunks) {
+        this.chunks = chunks;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    public void setCode(ErrorCode code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
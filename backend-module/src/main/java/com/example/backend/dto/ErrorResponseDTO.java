@@ -0,0 +1,54 @@
+package com.example.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Body of every error response: a stable {@code code} (see
+ * {@link com.example.backend.exception.ErrorCode}), a human-readable message and the
+ * HTTP status. {@code timestamp}, and {@code details} on a 500, are kept from the
+ * body the API returned before codes existed, so older clients still find them.
+ */
+@JsonPropertyOrder({"timestamp", "code", "message", "details", "status"})
+public class ErrorResponseDTO {
+
+    private final LocalDateTime timestamp = LocalDateTime.now();
+    private final String code;
+    private final String message;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final String details;
+    private final int status;
+
+    public ErrorResponseDTO(String code, String message, int status) {
+        this(code, message, null, status);
+    }
+
+    public ErrorResponseDTO(String code, String message, String details, int status) {
+        this.code = code;
+        this.message = message;
+        this.details = details;
+        this.status = status;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
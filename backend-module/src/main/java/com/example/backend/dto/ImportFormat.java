@@ -0,0 +1,8 @@
+package com.example.backend.dto;
+
+public enum ImportFormat {
+    // Header line with the columns id (optional), nome, descricao, valor and ativo; one record per line
+    CSV,
+    // One BeneficioDTO JSON object per line
+    NDJSON
+}
@@ -1,17 +1,17 @@
 package com.example.backend.dto;
 
-import java.math.BigDecimal;
+import com.example.backend.money.Money;
 
 public class TransferRequestDTO {
     private Long fromId;
     private Long toId;
-    private BigDecimal amount;
+    private Money amount;
 
     // Constructors
     public TransferRequestDTO() {
     }
 
-    public TransferRequestDTO(Long fromId, Long toId, BigDecimal amount) {
+    public TransferRequestDTO(Long fromId, Long toId, Money amount) {
         this.fromId = fromId;
         this.toId = toId;
         this.amount = amount;
@@ -34,11 +34,11 @@ public class TransferRequestDTO {
         this.toId = toId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 }
@@ -0,0 +1,93 @@
+package com.example.backend.dto;
+
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+
+public class TransferResultDTO {
+
+    public enum Status {
+        APPLIED,
+        REJECTED,
+        // Valid on its own, but not written because the batch was aborted
+        NOT_APPLIED
+    }
+
+    private int index;
+    private Long fromId;
+    private Long toId;
+    private Money amount;
+    private Status status;
+    // Set on rejected items only
+    private ErrorCode code;
+    private String message;
+
+    // Constructors
+    public TransferResultDTO() {
+    }
+
+    public TransferResultDTO(int index, Long fromId, Long toId, Money amount, Status status, String message) {
+        this.index = index;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getFromId() {
+        return fromId;
+    }
+
+    public void setFromId(Long fromId) {
+        this.fromId = fromId;
+    }
+
+    public Long getToId() {
+        return toId;
+    }
+
+    public void setToId(Long toId) {
+        this.toId = toId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    public void setCode(ErrorCode code) {
+        this.code = code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,14 +1,20 @@
 package com.example.backend.entity;
 
+import com.example.backend.money.Money;
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 
 @Entity
 @Table(name = "BENEFICIO")
 public class Beneficio {
 
+    // IDs come from BENEFICIO_ID_SEQ in blocks of ID_BLOCK_SIZE (pooled-lo: each
+    // sequence value is the first ID of a block), so inserts need no round trip per
+    // row and Hibernate can batch them
+    public static final int ID_BLOCK_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "beneficio_id")
+    @SequenceGenerator(name = "beneficio_id", sequenceName = "BENEFICIO_ID_SEQ", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(name = "NOME", nullable = false, length = 100)
@@ -18,7 +24,7 @@ public class Beneficio {
     private String descricao;
 
     @Column(name = "VALOR", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valor;
+    private Money valor;
 
     @Column(name = "ATIVO")
     private Boolean ativo = true;
@@ -27,11 +33,19 @@ public class Beneficio {
     @Column(name = "VERSION")
     private Long version;
 
+    // Number of BENEFICIO_SHARD rows holding part of the balance; 0 when not sharded
+    @Column(name = "SHARD_COUNT", nullable = false)
+    private Integer shardCount = 0;
+
+    // Sequence value of the last write, for delta sync; see ChangeSequence
+    @Column(name = "CHANGE_SEQ", nullable = false)
+    private Long changeSeq = 0L;
+
     // Constructors
     public Beneficio() {
     }
 
-    public Beneficio(String nome, String descricao, BigDecimal valor, Boolean ativo) {
+    public Beneficio(String nome, String descricao, Money valor, Boolean ativo) {
         this.nome = nome;
         this.descricao = descricao;
         this.valor = valor;
@@ -63,11 +77,11 @@ public class Beneficio {
         this.descricao = descricao;
     }
 
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
 
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
 
@@ -86,4 +100,20 @@ public class Beneficio {
     public void setVersion(Long version) {
         this.version = version;
     }
+
+    public Integer getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(Integer shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 }
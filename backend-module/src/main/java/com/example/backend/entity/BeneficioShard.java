@@ -0,0 +1,117 @@
+package com.example.backend.entity;
+
+import com.example.backend.money.Money;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One sub-balance of a sharded beneficio. Shard rows are only written through
+ * {@code ShardedBalanceService}, which keeps them in step with
+ * {@link Beneficio#getShardCount()}.
+ */
+@Entity
+@Table(name = "BENEFICIO_SHARD")
+@IdClass(BeneficioShard.Key.class)
+public class BeneficioShard {
+
+    @Id
+    @Column(name = "BENEFICIO_ID")
+    private Long beneficioId;
+
+    @Id
+    @Column(name = "SHARD")
+    private Integer shard;
+
+    @Column(name = "VALOR", nullable = false, precision = 15, scale = 2)
+    private Money valor;
+
+    @Version
+    @Column(name = "VERSION")
+    private Long version;
+
+    @Column(name = "CHANGE_SEQ", nullable = false)
+    private Long changeSeq = 0L;
+
+    // Constructors
+    public BeneficioShard() {
+    }
+
+    public BeneficioShard(Long beneficioId, Integer shard, Money valor) {
+        this.beneficioId = beneficioId;
+        this.shard = shard;
+        this.valor = valor;
+    }
+
+    // Getters and Setters
+    public Long getBeneficioId() {
+        return beneficioId;
+    }
+
+    public void setBeneficioId(Long beneficioId) {
+        this.beneficioId = beneficioId;
+    }
+
+    public Integer getShard() {
+        return shard;
+    }
+
+    public void setShard(Integer shard) {
+        this.shard = shard;
+    }
+
+    public Money getValor() {
+        return valor;
+    }
+
+    public void setValor(Money valor) {
+        this.valor = valor;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public static class Key implements Serializable {
+
+        private Long beneficioId;
+        private Integer shard;
+
+        public Key() {
+        }
+
+        public Key(Long beneficioId, Integer shard) {
+            this.beneficioId = beneficioId;
+            this.shard = shard;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(beneficioId, other.beneficioId) && Objects.equals(shard, other.shard);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(beneficioId, shard);
+        }
+    }
+}
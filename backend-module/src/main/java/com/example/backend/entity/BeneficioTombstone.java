@@ -0,0 +1,66 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Marks a deleted beneficio so that clients syncing through
+ * {@code GET /api/v1/beneficios/changes} learn about the deletion. IDs are never
+ * reused, so {@link #isNew()} lets {@code save} INSERT without selecting the row first.
+ */
+@Entity
+@Table(name = "BENEFICIO_TOMBSTONE")
+public class BeneficioTombstone implements Persistable<Long> {
+
+    @Id
+    @Column(name = "BENEFICIO_ID")
+    private Long beneficioId;
+
+    @Column(name = "CHANGE_SEQ", nullable = false)
+    private Long changeSeq;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public BeneficioTombstone() {
+    }
+
+    public BeneficioTombstone(Long beneficioId, Long changeSeq) {
+        this.beneficioId = beneficioId;
+        this.changeSeq = changeSeq;
+    }
+
+    @Override
+    public Long getId() {
+        return beneficioId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    // Getters and Setters
+    public Long getBeneficioId() {
+        return beneficioId;
+    }
+
+    public void setBeneficioId(Long beneficioId) {
+        this.beneficioId = beneficioId;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.backend.entity;
+
+import com.example.backend.dto.ImportFormat;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of an import job. The offset and counters are written in the same
+ * transaction as each chunk of rows, so after a crash the job resumes exactly after
+ * the last committed chunk.
+ */
+@Entity
+@Table(name = "IMPORT_JOB")
+public class ImportJob {
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        // Stopped by an error; can be resumed
+        FAILED,
+        // Stopped by a shutdown; can be resumed
+        INTERRUPTED
+    }
+
+    @Id
+    @Column(name = "ID", length = 36)
+    private String id;
+
+    @Column(name = "SOURCE", nullable = false, length = 1000)
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "FORMAT", nullable = false, length = 10)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "STATUS", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "SOURCE_SIZE", nullable = false)
+    private long sourceSize;
+
+    // Where the next run starts reading
+    @Column(name = "BYTE_OFFSET", nullable = false)
+    private long byteOffset;
+
+    @Column(name = "LINES_READ", nullable = false)
+    private long linesRead;
+
+    @Column(name = "INSERTED", nullable = false)
+    private long inserted;
+
+    @Column(name = "UPDATED", nullable = false)
+    private long updated;
+
+    @Column(name = "REJECTED", nullable = false)
+    private long rejected;
+
+    @Column(name = "FAILED", nullable = false)
+    private long failed;
+
+    // Length of the rejects file at this checkpoint; anything after it is rewritten on resume
+    @Column(name = "REJECTS_SIZE", nullable = false)
+    private long rejectsSize;
+
+    @Column(name = "MESSAGE", length = 500)
+    private String message;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "UPDATED_AT", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ImportJob() {
+    }
+
+    public ImportJob(String id, String source, ImportFormat format) {
+        this.id = id;
+        this.source = source;
+        this.format = format;
+        this.status = Status.RUNNING;
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = createdAt;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getSourceSize() {
+        return sourceSize;
+    }
+
+    public void setSourceSize(long sourceSize) {
+        this.sourceSize = sourceSize;
+    }
+
+    public long getByteOffset() {
+        return byteOffset;
+    }
+
+    public void setByteOffset(long byteOffset) {
+        this.byteOffset = byteOffset;
+    }
+
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    public void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getRejectsSize() {
+        return rejectsSize;
+    }
+
+    public void setRejectsSize(long rejectsSize) {
+        this.rejectsSize = rejectsSize;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
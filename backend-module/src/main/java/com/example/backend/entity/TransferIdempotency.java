@@ -0,0 +1,144 @@
+package com.example.backend.entity;
+
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+import java.time.LocalDateTime;
+
+/**
+ * Stored outcome of a transfer sent with an {@code Idempotency-Key} header. Rows are
+ * inserted once and never updated: {@link #isNew()} makes {@code save} always
+ * INSERT, so a key already stored by a concurrent request fails on the primary key
+ * instead of being merged over.
+ */
+@Entity
+@Table(name = "TRANSFER_IDEMPOTENCY")
+public class TransferIdempotency implements Persistable<String> {
+
+    @Id
+    @Column(name = "IDEMPOTENCY_KEY", length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "FROM_ID")
+    private Long fromId;
+
+    @Column(name = "TO_ID")
+    private Long toId;
+
+    @Column(name = "AMOUNT", precision = 15, scale = 2)
+    private Money amount;
+
+    @Column(name = "APPLIED", nullable = false)
+    private Boolean applied;
+
+    @Column(name = "MESSAGE", length = 500)
+    private String message;
+
+    // Null when applied
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ERROR_CODE", length = 50)
+    private ErrorCode errorCode;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    // Constructors
+    public TransferIdempotency() {
+    }
+
+    public TransferIdempotency(String idempotencyKey, Long fromId, Long toId, Money amount,
+                               Boolean applied, String message, LocalDateTime createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.amount = amount;
+        this.applied = applied;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    // Getters and Setters
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public Long getFromId() {
+        return fromId;
+    }
+
+    public void setFromId(Long fromId) {
+        this.fromId = fromId;
+    }
+
+    public Long getToId() {
+        return toId;
+    }
+
+    public void setToId(Long toId) {
+        this.toId = toId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+
+    public Boolean getApplied() {
+        return applied;
+    }
+
+    public void setApplied(Boolean applied) {
+        this.applied = applied;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+
+    public void setErrorCode(ErrorCode errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.exception;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A write was shed by the admission limiter before doing any work; answered with
+ * 429 and a {@code Retry-After} header. Thrown on every rejection under overload, so
+ * it carries no stack trace.
+ */
+public class AdmissionRejectedException extends RejectedExecutionException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backend.exception;
+
+/**
+ * A request rejected by a business rule, identified by its {@link ErrorCode}.
+ *
+ * Rejections are an expected outcome (most failed transfers are simply short of
+ * balance), so this exception records no stack trace and builds its message only when
+ * something asks for it. It extends {@link IllegalArgumentException} so that code
+ * treating invalid input as non-retryable keeps doing so.
+ */
+public class BeneficioException extends IllegalArgumentException {
+
+    private final ErrorCode code;
+    private final Object first;
+    private final Object second;
+    private String message;
+
+    public BeneficioException(ErrorCode code) {
+        this(code, null, null);
+    }
+
+    public BeneficioException(ErrorCode code, Object arg) {
+        this(code, arg, null);
+    }
+
+    public BeneficioException(ErrorCode code, Object first, Object second) {
+        this.code = code;
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+     * Recreates a rejection whose message was stored earlier, e.g. an idempotent
+     * transfer replayed from {@code TRANSFER_IDEMPOTENCY}.
+     */
+    public static BeneficioException withMessage(ErrorCode code, String message) {
+        BeneficioException e = new BeneficioException(code);
+        e.message = message;
+        return e;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            message = code.format(first, second);
+        }
+        return message;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backend.exception;
+
+import com.example.backend.dto.ErrorResponseDTO;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable error codes returned in the {@code code} field of every error response.
+ * Clients should branch on the code; the message is for people and may change.
+ *
+ * Each code carries its HTTP status, the {@code reason} tag it is counted under in
+ * {@code beneficio.transfer.rejections}, and a message template whose {@code {}}
+ * placeholders are filled with the exception's arguments.
+ */
+public enum ErrorCode {
+
+    // Transfer validation and business rules
+    TRANSFER_REQUEST_REQUIRED(HttpStatus.BAD_REQUEST, "invalid-request", "Transfer request cannot be null"),
+    TRANSFER_IDS_REQUIRED(HttpStatus.BAD_REQUEST, "invalid-request", "IDs cannot be null"),
+    AMOUNT_NOT_POSITIVE(HttpStatus.BAD_REQUEST, "invalid-request", "Amount must be positive"),
+    SAME_BENEFICIO(HttpStatus.BAD_REQUEST, "invalid-request", "Cannot transfer to the same beneficio"),
+    SOURCE_NOT_FOUND(HttpStatus.BAD_REQUEST, "source-not-found", "Source beneficio not found: {}"),
+    DESTINATION_NOT_FOUND(HttpStatus.BAD_REQUEST, "destination-not-found", "Destination beneficio not found: {}"),
+    SOURCE_INACTIVE(HttpStatus.BAD_REQUEST, "source-inactive", "Source beneficio is not active"),
+    DESTINATION_INACTIVE(HttpStatus.BAD_REQUEST, "destination-inactive", "Destination beneficio is not active"),
+    INSUFFICIENT_BALANCE(HttpStatus.BAD_REQUEST, "insufficient-balance",
+            "Insufficient balance. Available: {}, Required: {}"),
+    BALANCE_LIMIT_EXCEEDED(HttpStatus.BAD_REQUEST, "other", "Balance of beneficio {} would exceed the maximum"),
+    BATCH_EMPTY(HttpStatus.BAD_REQUEST, "invalid-request", "Transfer list cannot be empty"),
+    BATCH_TOO_LARGE(HttpStatus.BAD_REQUEST, "invalid-request", "Transfer list cannot exceed {} items"),
+    IDEMPOTENCY_KEY_INVALID(HttpStatus.BAD_REQUEST, "invalid-request",
+            "Idempotency-Key must be between 1 and {} characters"),
+    IDEMPOTENCY_KEY_REUSED(HttpStatus.CONFLICT, "other",
+            "Idempotency-Key {} was already used for a different transfer"),
+    TRANSFER_PIPELINE_TIMEOUT(HttpStatus.SERVICE_UNAVAILABLE, "other",
+            "Transfer was not settled within {} ms; its outcome is unknown"),
+
+    // Beneficio CRUD, reads and shards
+    BENEFICIO_NOT_FOUND(HttpStatus.NOT_FOUND, "other", "Beneficio not found: {}"),
+    // Update, split and merge have always answered a missing beneficio with 400
+    BENEFICIO_TO_CHANGE_NOT_FOUND(HttpStatus.BAD_REQUEST, "other", "Beneficio not found: {}"),
+    NOME_REQUIRED(HttpStatus.BAD_REQUEST, "other", "Nome is required"),
+    VALOR_NEGATIVE(HttpStatus.BAD_REQUEST, "other", "Valor must be non-negative"),
+    NOME_TOO_LONG(HttpStatus.BAD_REQUEST, "other", "Nome must be at most {} characters"),
+    DESCRICAO_TOO_LONG(HttpStatus.BAD_REQUEST, "other", "Descricao must be at most {} characters"),
+    BULK_ITEM_UNREADABLE(HttpStatus.BAD_REQUEST, "other", "Item {} could not be read: {}"),
+    PAGE_LIMIT_INVALID(HttpStatus.BAD_REQUEST, "other", "Limit must be between 1 and {}"),
+    SINCE_NEGATIVE(HttpStatus.BAD_REQUEST, "other", "Since must not be negative"),
+    SHARD_COUNT_INVALID(HttpStatus.BAD_REQUEST, "other", "Shard count must be between 2 and {}"),
+    NOT_SHARDED(HttpStatus.BAD_REQUEST, "other", "Beneficio is not sharded: {}"),
+    SEARCH_SORT_INVALID(HttpStatus.BAD_REQUEST, "other", "Sort must be one of {}"),
+    SEARCH_CURSOR_INVALID(HttpStatus.BAD_REQUEST, "other", "Cursor is not valid for a search sorted by {}"),
+    VALOR_RANGE_INVALID(HttpStatus.BAD_REQUEST, "other", "valorMin must not be greater than valorMax"),
+    TEXT_QUERY_TOO_SHORT(HttpStatus.BAD_REQUEST, "other", "Query must have at least {} characters"),
+
+    // Import jobs
+    IMPORT_NOT_FOUND(HttpStatus.NOT_FOUND, "other", "Import not found: {}"),
+    IMPORT_SOURCE_INVALID(HttpStatus.BAD_REQUEST, "other",
+            "Import source is not a readable file in the import directory: {}"),
+    IMPORT_FORMAT_REQUIRED(HttpStatus.BAD_REQUEST, "other", "Cannot tell the format of {}; send formato=CSV or NDJSON"),
+    IMPORT_HEADER_INVALID(HttpStatus.BAD_REQUEST, "other", "CSV header must have the columns nome and valor: {}"),
+    IMPORT_NOT_RESUMABLE(HttpStatus.CONFLICT, "other", "Import {} is {}"),
+
+    // Not raised as BeneficioException; used to shape the other error responses
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST, "other", "{}"),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS, "other", "{}"),
+    SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "other", "{}"),
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "other", "Erro interno do servidor");
+
+    private final HttpStatus status;
+    private final String reason;
+    private final String template;
+    private final boolean fixed;
+
+    ErrorCode(HttpStatus status, String reason, String template) {
+        this.status = status;
+        this.reason = reason;
+        this.template = template;
+        this.fixed = !template.contains("{}");
+    }
+
+    public HttpStatus status() {
+        return status;
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    String format(Object first, Object second) {
+        if (fixed) {
+            return template;
+        }
+        StringBuilder message = new StringBuilder(template.length() + 32);
+        int from = 0;
+        int arg = 0;
+        for (int at = template.indexOf("{}"); at >= 0; at = template.indexOf("{}", from)) {
+            message.append(template, from, at).append(arg++ == 0 ? first : second);
+            from = at + 2;
+        }
+        return message.append(template, from, template.length()).toString();
+    }
+
+    /**
+     * Body for an error with this code; a null message stands for the fixed one.
+     */
+    public ErrorResponseDTO response(String message) {
+        return response(message, null);
+    }
+
+    public ErrorResponseDTO response(String message, String details) {
+        return new ErrorResponseDTO(name(), message != null || !fixed ? message : template, details, status.value());
+    }
+}
@@ -1,40 +1,69 @@
 package com.example.backend.exception;
 
-import org.springframework.http.HttpStatus;
+import com.example.backend.dto.ErrorResponseDTO;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
-import java.time.LocalDateTime;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Every error response is built here, as an {@link ErrorResponseDTO} carrying the
+ * {@link ErrorCode}, so all endpoints report errors the same way.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @ExceptionHandler(BeneficioException.class)
+    public ResponseEntity<ErrorResponseDTO> handleBeneficioException(BeneficioException ex) {
+        return respond(ex.getCode(), ex.getMessage());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Object> handleIllegalArgumentException(
-            IllegalArgumentException ex, WebRequest request) {
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", ex.getMessage());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponseDTO> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return respond(ErrorCode.INVALID_REQUEST, ex.getMessage());
+    }
+
+    // Amounts outside DECIMAL(15,2) or with more than two decimals (see Money)
+    @ExceptionHandler(ArithmeticException.class)
+    public ResponseEntity<ErrorResponseDTO> handleArithmeticException(ArithmeticException ex) {
+        return respond(ErrorCode.INVALID_REQUEST, ex.getMessage());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponseDTO> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        Throwable cause = ex.getMostSpecificCause();
+        return respond(ErrorCode.INVALID_REQUEST, cause instanceof JsonMappingException mapping
+                ? mapping.getOriginalMessage() : "Request body could not be read");
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleAdmissionRejectedException(AdmissionRejectedException ex) {
+        return ResponseEntity.status(ErrorCode.TOO_MANY_REQUESTS.status())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ErrorCode.TOO_MANY_REQUESTS.response(ex.getMessage()));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRejectedExecutionException(RejectedExecutionException ex) {
+        return respond(ErrorCode.SERVICE_UNAVAILABLE, ex.getMessage());
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Object> handleGlobalException(
-            Exception ex, WebRequest request) {
-        
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("message", "Erro interno do servidor");
-        body.put("details", ex.getMessage());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<ErrorResponseDTO> handleGlobalException(Exception ex) {
+        log.error("Unhandled error", ex);
+        return ResponseEntity.status(ErrorCode.INTERNAL_ERROR.status())
+                .body(ErrorCode.INTERNAL_ERROR.response(null, ex.getMessage()));
+    }
+
+    private static ResponseEntity<ErrorResponseDTO> respond(ErrorCode code, String message) {
+        return ResponseEntity.status(code.status()).body(code.response(message));
     }
 }
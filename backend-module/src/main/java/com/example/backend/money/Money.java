@@ -0,0 +1,184 @@
+package com.example.backend.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+
+/**
+ * An amount of money with two decimal places, held as a {@code long} number of cents.
+ *
+ * Balances are stored as {@code DECIMAL(15,2)}, so every value, including the result of
+ * {@link #plus} and {@link #minus}, must fit in 15 digits; anything larger throws
+ * {@link ArithmeticException} instead of wrapping around or failing at the database.
+ * Comparisons and arithmetic never allocate a {@link BigDecimal}; one is only built at
+ * the JDBC boundary ({@link MoneyConverter}). JSON carries the same number as before,
+ * e.g. {@code 1000.00} (see {@link MoneyJson}).
+ *
+ * It extends {@link Number} because Hibernate only allows arithmetic on numeric types,
+ * and JPQL such as {@code b.valor - :amount} must keep working on the converted column.
+ * Aggregates like {@code sum()} are still typed by Hibernate and come back as
+ * {@link BigDecimal}.
+ */
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money extends Number implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    // Largest magnitude of DECIMAL(15,2), in cents
+    public static final long MAX_CENTS = 999_999_999_999_999L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(checked(cents));
+    }
+
+    /**
+     * Exact conversion; a value with a non-zero third decimal place is rejected rather
+     * than rounded.
+     */
+    public static Money of(BigDecimal value) {
+        try {
+            return ofCents(value.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Not a valid amount of money: " + value.toPlainString());
+        }
+    }
+
+    /**
+     * Parses a plain decimal such as {@code 12}, {@code -0.5} or {@code 1000.00}. Other
+     * notations (exponents) go through {@link BigDecimal}.
+     */
+    public static Money parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int decimals = -1;
+        long cents = 0;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (decimals < 0) {
+                    if (++digits > 13) {
+                        return of(new BigDecimal(text.toString()));
+                    }
+                    units = units * 10 + (c - '0');
+                } else if (++decimals <= SCALE) {
+                    cents = cents * 10 + (c - '0');
+                } else if (c != '0') {
+                    throw new ArithmeticException("Not a valid amount of money: " + text);
+                }
+            } else {
+                return of(new BigDecimal(text.toString()));
+            }
+        }
+        if (digits == 0 && decimals <= 0) {
+            throw new NumberFormatException("Not a number: " + text);
+        }
+        for (int d = Math.max(decimals, 0); d < SCALE; d++) {
+            cents *= 10;
+        }
+        long value = units * 100 + cents;
+        return ofCents(negative ? -value : value);
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return other.cents == 0 ? this : ofCents(cents + other.cents);
+    }
+
+    public Money minus(Money other) {
+        return other.cents == 0 ? this : ofCents(cents - other.cents);
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+
+    // Number conversions follow BigDecimal: whole units, fraction truncated
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+
+    @Override
+    public long longValue() {
+        return cents / 100;
+    }
+
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+
+    @Override
+    public double doubleValue() {
+        return cents / 100.0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && cents == other.cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Plain notation with two decimals, e.g. {@code -12.05}.
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents);
+        long fraction = abs % 100;
+        StringBuilder text = new StringBuilder(20);
+        if (cents < 0) {
+            text.append('-');
+        }
+        return text.append(abs / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction).toString();
+    }
+
+    private static long checked(long cents) {
+        if (cents > MAX_CENTS || cents < -MAX_CENTS) {
+            throw new ArithmeticException("Amount of money out of range: " + cents + " cents");
+        }
+        return cents;
+    }
+}
@@ -1,12 +1,139 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.BeneficioDTO;
 import com.example.backend.entity.Beneficio;
+import com.example.backend.money.Money;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface BeneficioRepository extends JpaRepository<Beneficio, Long> {
-    List<Beneficio> findByAtivoTrue();
+
+    // Read paths select straight into BeneficioDTO: no entities are instantiated,
+    // snapshotted for dirty checking or kept in the persistence context. valor is the
+    // logical balance; the shard subquery only runs for sharded accounts
+    String SELECT_DTO = "select new com.example.backend.dto.BeneficioDTO(b.id, b.nome, b.descricao, "
+            + "case when b.shardCount > 0 then b.valor + (select coalesce(sum(s.valor), 0) "
+            + "from BeneficioShard s where s.beneficioId = b.id) else b.valor end, "
+            + "b.ativo, b.version) from Beneficio b ";
+
+    String READ_FETCH_SIZE = "500";
+
+    // Declared query methods get no transaction of their own; the DTO reads are
+    // annotated so a call outside the service layer still runs read-only
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = READ_FETCH_SIZE))
+    @Query(SELECT_DTO + "order by b.id")
+    @Transactional(readOnly = true)
+    List<BeneficioDTO> findAllDTOs();
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = READ_FETCH_SIZE))
+    @Query(SELECT_DTO + "where b.ativo = true order by b.id")
+    @Transactional(readOnly = true)
+    List<BeneficioDTO> findActiveDTOs();
+
+    // Keyset page: rows strictly after the cursor, ordered by the primary key
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = READ_FETCH_SIZE))
+    @Query(SELECT_DTO + "where b.id > :after order by b.id")
+    @Transactional(readOnly = true)
+    List<BeneficioDTO> findDTOsAfter(@Param("after") Long after, Limit limit);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = READ_FETCH_SIZE))
+    @Query(SELECT_DTO + "where b.id in :ids order by b.id")
+    @Transactional(readOnly = true)
+    List<BeneficioDTO> findDTOsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(SELECT_DTO + "where b.id = :id")
+    @Transactional(readOnly = true)
+    Optional<BeneficioDTO> findDTOById(@Param("id") Long id);
+
+    List<Beneficio> findByShardCountGreaterThan(Integer shardCount);
+
+    // Locks every row in a single statement, in ascending ID order, so that
+    // concurrent transfers over the same accounts can never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Beneficio b where b.id in :ids order by b.id")
+    List<Beneficio> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Guarded single-statement debit/credit used by ConditionalUpdateTransferStrategy;
+    // both return the number of rows updated (0 or 1). The credit only matches while
+    // the balance is at most ceiling, so the sum still fits in DECIMAL(15,2)
+    @Modifying
+    @Query("update Beneficio b set b.valor = b.valor - :amount, b.version = b.version + 1, b.changeSeq = :seq "
+            + "where b.id = :id and b.ativo = true and b.valor >= :amount")
+    int debit(@Param("id") Long id, @Param("amount") Money amount, @Param("seq") long seq);
+
+    @Modifying
+    @Query("update Beneficio b set b.valor = b.valor + :amount, b.version = b.version + 1, b.changeSeq = :seq "
+            + "where b.id = :id and b.ativo = true and b.valor <= :ceiling")
+    int credit(@Param("id") Long id, @Param("amount") Money amount, @Param("ceiling") Money ceiling,
+               @Param("seq") long seq);
+
+    @Query("select b.id from Beneficio b where b.changeSeq > :since and b.changeSeq <= :upTo")
+    List<Long> findIdsChangedBetween(@Param("since") long since, @Param("upTo") long upTo);
+
+    @Query("select b.ativo as ativo, b.valor as valor from Beneficio b where b.id = :id")
+    Optional<TransferState> findTransferStateById(@Param("id") Long id);
+
+    // Logical balance, read back by the guarded UPDATE paths so the stats buckets follow
+    @Query("select case when b.shardCount > 0 then b.valor + (select coalesce(sum(s.valor), 0) "
+            + "from BeneficioShard s where s.beneficioId = b.id) else b.valor end from Beneficio b where b.id = :id")
+    Optional<Money> findBalanceById(@Param("id") Long id);
+
+    @Query("select b.shardCount from Beneficio b where b.id = :id")
+    Optional<Integer> findShardCountById(@Param("id") Long id);
+
+    interface TransferState {
+        Boolean getAtivo();
+
+        Money getValor();
+    }
+
+    // Version-only reads behind the ETags of BeneficioController; shard rows change
+    // without bumping BENEFICIO.VERSION, so their versions are folded in as well
+    @Query("select b.version as version, b.shardCount as shardCount, "
+            + "(select coalesce(sum(s.version), 0) from BeneficioShard s where s.beneficioId = b.id) as shardVersions "
+            + "from Beneficio b where b.id = :id")
+    Optional<RowVersion> findRowVersionById(@Param("id") Long id);
+
+    // BENEFICIO_COMMITS grows on every committed write (see ChangeSequence); the count
+    // comes from the primary key index
+    @Query(value = "SELECT COUNT(*) AS rowCount, "
+            + "(SELECT COALESCE(SUM(c.COMMITS), 0) FROM BENEFICIO_COMMITS c) AS commits FROM BENEFICIO",
+            nativeQuery = true)
+    TableVersion findTableVersion();
+
+    interface RowVersion {
+        Long getVersion();
+
+        Integer getShardCount();
+
+        Long getShardVersions();
+    }
+
+    interface TableVersion {
+        Long getRowCount();
+
+        Long getCommits();
+    }
+
+    // Must be consumed inside a transaction and closed by the caller
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = READ_FETCH_SIZE))
+    @Query(SELECT_DTO + "order by b.id")
+    Stream<BeneficioDTO> streamAllDTOs();
 }
@@ -0,0 +1,47 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.BeneficioShard;
+import com.example.backend.money.Money;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface BeneficioShardRepository extends JpaRepository<BeneficioShard, BeneficioShard.Key> {
+
+    // Guarded single-shard debit/credit; both return the number of rows updated (0 or 1)
+    @Modifying
+    @Query("update BeneficioShard s set s.valor = s.valor - :amount, s.version = s.version + 1, s.changeSeq = :seq "
+            + "where s.beneficioId = :id and s.shard = :shard and s.valor >= :amount")
+    int debit(@Param("id") Long id, @Param("shard") int shard, @Param("amount") Money amount,
+              @Param("seq") long seq);
+
+    @Modifying
+    @Query("update BeneficioShard s set s.valor = s.valor + :amount, s.version = s.version + 1, s.changeSeq = :seq "
+            + "where s.beneficioId = :id and s.shard = :shard")
+    int credit(@Param("id") Long id, @Param("shard") int shard, @Param("amount") Money amount,
+               @Param("seq") long seq);
+
+    @Query("select distinct s.beneficioId from BeneficioShard s where s.changeSeq > :since and s.changeSeq <= :upTo")
+    List<Long> findBeneficioIdsChangedBetween(@Param("since") long since, @Param("upTo") long upTo);
+
+    // Locks every shard of one account in ascending shard order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from BeneficioShard s where s.beneficioId = :id order by s.shard")
+    List<BeneficioShard> findAllForUpdate(@Param("id") Long id);
+
+    // sum() is typed by Hibernate itself, so the converter does not apply to the result
+    @Query("select coalesce(sum(s.valor), 0) from BeneficioShard s where s.beneficioId = :id")
+    BigDecimal sumValor(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from BeneficioShard s where s.beneficioId = :id")
+    int deleteByBeneficioId(@Param("id") Long id);
+}
@@ -0,0 +1,16 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.BeneficioTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BeneficioTombstoneRepository extends JpaRepository<BeneficioTombstone, Long> {
+
+    @Query("select t.beneficioId from BeneficioTombstone t where t.changeSeq > :since and t.changeSeq <= :upTo")
+    List<Long> findIdsChangedBetween(@Param("since") long since, @Param("upTo") long upTo);
+}
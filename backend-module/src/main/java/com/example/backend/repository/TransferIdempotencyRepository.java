@@ -0,0 +1,20 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.TransferIdempotency;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface TransferIdempotencyRepository extends JpaRepository<TransferIdempotency, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from TransferIdempotency t where t.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
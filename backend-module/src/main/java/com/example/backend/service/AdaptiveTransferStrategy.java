@@ -0,0 +1,67 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optimistic by default, pessimistic for accounts that keep conflicting. Every
+ * optimistic-lock failure is charged to both accounts in {@link ContentionTracker};
+ * while either account is contended the transfer takes row locks instead, so hot
+ * accounts stop burning retries and cold ones keep running lock-free.
+ */
+@Component("adaptive")
+public class AdaptiveTransferStrategy implements TransferStrategy {
+
+    @Autowired
+    private OptimisticTransferStrategy optimistic;
+
+    @Autowired
+    private PessimisticTransferStrategy pessimistic;
+
+    @Autowired
+    private ContentionTracker contention;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter pessimisticFallbacks;
+
+    @PostConstruct
+    void registerMetrics() {
+        pessimisticFallbacks = Counter.builder("beneficio.transfer.contention.fallbacks")
+                .description("Transfers sent to the pessimistic strategy because an account was contended")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void transfer(TransferRequestDTO request) {
+        if (contention.isContended(request.getFromId()) || contention.isContended(request.getToId())) {
+            pessimisticFallbacks.increment();
+            pessimistic.transfer(request);
+            return;
+        }
+        try {
+            optimistic.transfer(request);
+        } catch (RuntimeException e) {
+            if (TransferRetryPolicy.isRetryable(e)) {
+                contention.recordConflict(request.getFromId());
+                contention.recordConflict(request.getToId());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public int maxAttempts() {
+        return optimistic.maxAttempts();
+    }
+
+    @Override
+    public TransferStrategy lastAttempt() {
+        return pessimistic;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published inside the transaction that changes one or more beneficios; listeners
+ * that must only see committed data use {@code @TransactionalEventListener}.
+ *
+ * {@code membershipChanged} is set when a row may have been created, deleted, or
+ * activated/deactivated, i.e. when the set of active beneficios may differ.
+ */
+public class BeneficioChangedEvent {
+
+    private final List<Long> ids;
+    private final boolean membershipChanged;
+
+    public BeneficioChangedEvent(Collection<Long> ids, boolean membershipChanged) {
+        this.ids = List.copyOf(ids);
+        this.membershipChanged = membershipChanged;
+    }
+
+    public static BeneficioChangedEvent balances(Long... ids) {
+        return new BeneficioChangedEvent(List.of(ids), false);
+    }
+
+    public static BeneficioChangedEvent rows(Long... ids) {
+        return new BeneficioChangedEvent(List.of(ids), true);
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public boolean isMembershipChanged() {
+        return membershipChanged;
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed {@link BeneficioChangedEvent}s to Server-Sent Events subscribers.
+ *
+ * Each event is serialized once and offered to a bounded queue per subscriber; a
+ * small shared pool of sender threads drains the queues, so an idle connection holds
+ * no thread and a slow one never blocks the transaction that published the event.
+ * A subscriber whose queue is full is disconnected rather than skipped: its client
+ * reconnects and catches up through {@code GET /changes}, so no change is silently
+ * lost. A periodic heartbeat comment detects connections that went away.
+ *
+ * Servlet writes block, so a client that stops reading could hold a sender thread
+ * for as long as the container's own write timeout. A send still running after
+ * {@code send-timeout-ms} gets its subscriber disconnected and its thread written
+ * off: the pool grows by one until that send returns, so stalled clients never
+ * leave the healthy ones without a thread. Emitters are only ever completed by the
+ * sender, so closing a subscriber never waits on a blocked write.
+ */
+@Component
+public class BeneficioEventBroadcaster {
+
+    static final String EVENT_NAME = "beneficio-changed";
+
+    // Values of Subscriber.sendingSince besides a System.nanoTime() reading: no send
+    // running, and a send that was given up on while it was still running
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long STALLED = Long.MIN_VALUE + 1;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${beneficio.events.buffer-size:64}")
+    private int bufferSize = 64;
+
+    @Value("${beneficio.events.max-subscribers:10000}")
+    private int maxSubscribers = 10000;
+
+    @Value("${beneficio.events.sender-threads:2}")
+    private int senderThreads = 2;
+
+    @Value("${beneficio.events.timeout-ms:1800000}")
+    private long timeoutMs = 1800000;
+
+    @Value("${beneficio.events.reconnect-ms:3000}")
+    private long reconnectMs = 3000;
+
+    @Value("${beneficio.events.send-timeout-ms:10000}")
+    private long sendTimeoutMs = 10000;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor sender;
+    private Counter dropped;
+    private Counter stalled;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, "beneficio-events-sender-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dropped = Counter.builder("beneficio.events.dropped")
+                .description("SSE subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        stalled = Counter.builder("beneficio.events.stalled")
+                .description("SSE subscribers disconnected because a write did not finish in time")
+                .register(meterRegistry);
+        Gauge.builder("beneficio.events.subscribers", subscribers, Set::size)
+                .description("Open SSE connections")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+            // A send stuck on a stalled client would hold up the shutdown
+            if (subscriber.sendingSince.get() == IDLE) {
+                complete(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Opens a new subscription; fails with {@link RejectedExecutionException} when
+     * {@code max-subscribers} connections are already open.
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many event subscribers, try again later");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        subscribers.add(subscriber);
+        // Flushes the response headers and tells the client how soon to reconnect
+        offer(subscriber, SseEmitter.event().reconnectTime(reconnectMs).comment("connected").build());
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChanged(BeneficioChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        broadcast(SseEmitter.event().name(EVENT_NAME).data(toJson(event)).build());
+    }
+
+    @Scheduled(fixedDelayString = "${beneficio.events.heartbeat-ms:15000}",
+               initialDelayString = "${beneficio.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        broadcast(SseEmitter.event().comment("heartbeat").build());
+    }
+
+    /**
+     * Disconnects subscribers whose current write has been running for longer than
+     * {@code send-timeout-ms}, and adds a sender thread in place of each of them.
+     */
+    @Scheduled(fixedDelayString = "${beneficio.events.send-timeout-ms:10000}",
+               initialDelayString = "${beneficio.events.send-timeout-ms:10000}")
+    public void cutOffStalledSends() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince.get();
+            if (since != IDLE && since != STALLED && now - since > timeoutNanos
+                    && subscriber.sendingSince.compareAndSet(since, STALLED)) {
+                stalled.increment();
+                resize(1);
+                close(subscriber);
+            }
+        }
+    }
+
+    private void broadcast(Set<DataWithMediaType> data) {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, data);
+        }
+    }
+
+    private void offer(Subscriber subscriber, Set<DataWithMediaType> data) {
+        if (!subscriber.pending.offer(data)) {
+            dropped.increment();
+            close(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<DataWithMediaType> data;
+            while (!subscriber.closed && (data = subscriber.pending.poll()) != null) {
+                send(subscriber, data);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter was already completed
+            close(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (subscriber.closed) {
+            complete(subscriber);
+        } else if (!subscriber.pending.isEmpty()) {
+            // An event may have been queued after the loop saw an empty queue
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<DataWithMediaType> data) throws IOException {
+        subscriber.sendingSince.set(System.nanoTime());
+        try {
+            subscriber.emitter.send(data);
+        } finally {
+            if (subscriber.sendingSince.getAndSet(IDLE) == STALLED) {
+                // This thread was replaced while it was stuck; give the slot back
+                resize(-1);
+            }
+        }
+    }
+
+    // Completion runs on a sender thread, after any send to the same emitter returned
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (subscribers.remove(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void complete(Subscriber subscriber) {
+        if (subscriber.completed.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private synchronized void resize(int delta) {
+        // Maximum before core when growing and core before maximum when shrinking,
+        // so that core never exceeds maximum
+        if (delta > 0) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+        } else {
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+        }
+    }
+
+    private String toJson(BeneficioChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> pending;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        // System.nanoTime() when the running send started, or IDLE or STALLED
+        private final AtomicLong sendingSince = new AtomicLong(IDLE);
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> pending) {
+            this.emitter = emitter;
+            this.pending = pending;
+        }
+    }
+}
@@ -0,0 +1,657 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BulkChunkResultDTO;
+import com.example.backend.dto.BulkItemErrorDTO;
+import com.example.backend.dto.ImportFormat;
+import com.example.backend.dto.ImportJobDTO;
+import com.example.backend.entity.ImportJob;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.repository.ImportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports beneficios from CSV or NDJSON files as background jobs, in memory that does
+ * not depend on the file size.
+ *
+ * The file is read through a {@link FileChannel} into one buffer of
+ * {@code beneficio.import.buffer-size} bytes and each line is parsed straight from it,
+ * checked with the same rules as {@code POST /api/v1/beneficios}, and handed to
+ * {@link BulkUpsertService}, which writes the valid rows in chunks. Lines that cannot be
+ * read or fail validation, updates of missing beneficios and rows of chunks that could
+ * not be committed go to a rejects file (NDJSON, one record per line with the line
+ * number, code, message and original content) instead of the database.
+ *
+ * Every chunk's transaction also updates the job's {@code IMPORT_JOB} row with the
+ * offset just past the chunk and the length of the rejects file, so a job that stops
+ * (error, shutdown, crash) can be resumed from its last committed chunk: the file is
+ * read again from that offset and the rejects file is cut back to that length. A job
+ * left {@code RUNNING} by an instance that went away becomes resumable once its row
+ * has not been updated for {@code beneficio.import.stale-after-ms}.
+ */
+@Service
+public class BeneficioImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BeneficioImportService.class);
+
+    @Autowired
+    private BeneficioService beneficioService;
+
+    @Autowired
+    private BulkUpsertService bulkUpserts;
+
+    @Autowired
+    private ImportJobRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Files that can be imported by name; uploads are stored in work-dir
+    @Value("${beneficio.import.source-dir:imports}")
+    private String sourceDir = "imports";
+
+    // Uploaded files and rejects files
+    @Value("${beneficio.import.work-dir:imports/work}")
+    private String workDir = "imports/work";
+
+    @Value("${beneficio.import.buffer-size:65536}")
+    private int bufferSize = 65536;
+
+    @Value("${beneficio.import.max-concurrent-jobs:1}")
+    private int maxConcurrentJobs = 1;
+
+    @Value("${beneficio.import.stale-after-ms:60000}")
+    private long staleAfterMs = 60000;
+
+    private final Map<String, Job> active = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean stopping;
+
+    private Counter insertedRows;
+    private Counter updatedRows;
+    private Counter rejectedRows;
+    private Counter failedRows;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(maxConcurrentJobs, task -> {
+            Thread thread = new Thread(task, "beneficio-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        insertedRows = rows("inserted");
+        updatedRows = rows("updated");
+        rejectedRows = rows("rejected");
+        failedRows = rows("failed");
+        Gauge.builder("beneficio.import.active", active, Map::size)
+                .description("Import jobs currently running on this instance")
+                .register(meterRegistry);
+    }
+
+    private Counter rows(String outcome) {
+        return Counter.builder("beneficio.import.rows")
+                .description("Rows handled by import jobs, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Running jobs stop at their next line and stay resumable from their last checkpoint
+    @PreDestroy
+    void stop() throws InterruptedException {
+        stopping = true;
+        executor.shutdownNow();
+        // Let them record that before the datasource goes away
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Starts importing {@code file}, a name relative to {@code beneficio.import.source-dir}.
+     * Without {@code format} it is taken from the extension (.csv, .ndjson or .jsonl).
+     */
+    public ImportJobDTO start(String file, ImportFormat format) {
+        ImportFormat resolved = format != null ? format : formatOf(file);
+        return launch(new ImportJob(UUID.randomUUID().toString(), resolveSource(file).toString(), resolved));
+    }
+
+    // Symbolic links and ".." are resolved first, so nothing outside source-dir can be named
+    private Path resolveSource(String file) {
+        try {
+            Path root = Paths.get(sourceDir).toRealPath();
+            Path source = root.resolve(file).toRealPath();
+            if (source.startsWith(root) && Files.isRegularFile(source) && Files.isReadable(source)) {
+                return source;
+            }
+        } catch (IOException | InvalidPathException e) {
+            // reported below
+        }
+        throw new BeneficioException(ErrorCode.IMPORT_SOURCE_INVALID, file);
+    }
+
+    /**
+     * Stores {@code body} in {@code beneficio.import.work-dir} and starts importing it.
+     */
+    public ImportJobDTO upload(InputStream body, ImportFormat format) throws IOException {
+        if (format == null) {
+            throw new BeneficioException(ErrorCode.IMPORT_FORMAT_REQUIRED, "upload");
+        }
+        ensureCapacity();
+        String id = UUID.randomUUID().toString();
+        Path target = Files.createDirectories(Paths.get(workDir))
+                .resolve(id + "." + format.name().toLowerCase(Locale.ROOT));
+        try (ReadableByteChannel in = Channels.newChannel(body);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long copied;
+            while ((copied = out.transferFrom(in, position, bufferSize)) > 0) {
+                position += copied;
+            }
+        }
+        return launch(new ImportJob(id, target.toAbsolutePath().toString(), format));
+    }
+
+    /**
+     * Restarts a stopped job from its last checkpoint.
+     */
+    public ImportJobDTO resume(String id) {
+        ImportJob row = repository.findById(id)
+                .orElseThrow(() -> new BeneficioException(ErrorCode.IMPORT_NOT_FOUND, id));
+        if (active.containsKey(id) || row.getStatus() == ImportJob.Status.COMPLETED
+                || row.getStatus() == ImportJob.Status.RUNNING
+                    && row.getUpdatedAt().isAfter(LocalDateTime.now().minus(Duration.ofMillis(staleAfterMs)))) {
+            throw new BeneficioException(ErrorCode.IMPORT_NOT_RESUMABLE, id,
+                    active.containsKey(id) ? ImportJob.Status.RUNNING : row.getStatus());
+        }
+        row.setStatus(ImportJob.Status.RUNNING);
+        row.setMessage(null);
+        row.setUpdatedAt(LocalDateTime.now());
+        return launch(row);
+    }
+
+    public ImportJobDTO find(String id) {
+        Job job = active.get(id);
+        if (job != null) {
+            return job.progress();
+        }
+        return repository.findById(id)
+                .map(BeneficioImportService::toDTO)
+                .orElseThrow(() -> new BeneficioException(ErrorCode.IMPORT_NOT_FOUND, id));
+    }
+
+    /**
+     * The job's rejects file, which may not exist yet (or ever, if nothing was rejected).
+     */
+    public Path rejects(String id) {
+        if (!active.containsKey(id) && !repository.existsById(id)) {
+            throw new BeneficioException(ErrorCode.IMPORT_NOT_FOUND, id);
+        }
+        return rejectsPath(id);
+    }
+
+    private Path rejectsPath(String id) {
+        return Paths.get(workDir).resolve(id + ".rejeitados.ndjson");
+    }
+
+    static ImportFormat formatOf(String file) {
+        String name = file.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new BeneficioException(ErrorCode.IMPORT_FORMAT_REQUIRED, file);
+    }
+
+    private void ensureCapacity() {
+        if (active.size() >= maxConcurrentJobs) {
+            throw new RejectedExecutionException("Too many imports running; try again later");
+        }
+    }
+
+    private synchronized ImportJobDTO launch(ImportJob row) {
+        ensureCapacity();
+        repository.save(row);
+        Job job = new Job(row);
+        active.put(row.getId(), job);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            active.remove(row.getId());
+            throw e;
+        }
+        return job.progress();
+    }
+
+    private static ImportJobDTO toDTO(ImportJob row) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(row.getId());
+        dto.setSource(Paths.get(row.getSource()).getFileName().toString());
+        dto.setFormat(row.getFormat());
+        dto.setStatus(row.getStatus());
+        dto.setSourceSize(row.getSourceSize());
+        dto.setBytesRead(row.getByteOffset());
+        dto.setProgress(row.getSourceSize() > 0 ? 100.0 * row.getByteOffset() / row.getSourceSize() : 0);
+        dto.setLinesRead(row.getLinesRead());
+        dto.setInserted(row.getInserted());
+        dto.setUpdated(row.getUpdated());
+        dto.setRejected(row.getRejected());
+        dto.setFailed(row.getFailed());
+        dto.setMessage(row.getMessage());
+        dto.setCreatedAt(row.getCreatedAt());
+        dto.setUpdatedAt(row.getUpdatedAt());
+        return dto;
+    }
+
+    // One line of the rejects file
+    private record Reject(long line, ErrorCode code, String message, String content) {
+    }
+
+    /**
+     * One run of a job. Reading, checkpoints and the counters below all happen on the
+     * job's thread; the counters are volatile so {@link #progress()} can read them.
+     */
+    private final class Job implements Runnable, Iterator<BeneficioDTO>, BulkUpsertService.Listener {
+
+        private final ImportJob row;
+
+        private FileChannel source;
+        private ImportLineReader lines;
+        private ImportRowParser parser;
+        private RejectsFile rejects;
+
+        private volatile long linesRead;
+        private volatile long bytesRead;
+        private volatile long inserted;
+        private volatile long updated;
+        private volatile long rejected;
+        private volatile long failed;
+        private long runStart;
+        private long runStartLines;
+        private long runStartBytes;
+
+        private BeneficioDTO next;
+        // Line number, offset and length of each row handed to the current chunk
+        private long[] pendingLines = new long[64];
+        private long[] pendingOffsets = new long[64];
+        private int[] pendingLengths = new int[64];
+        private int pending;
+        // Rejects file length once the current chunk was read; a retried transaction rewrites from here
+        private long chunkMark = -1;
+
+        private Job(ImportJob row) {
+            this.row = row;
+            this.linesRead = row.getLinesRead();
+            this.bytesRead = row.getByteOffset();
+            this.inserted = row.getInserted();
+            this.updated = row.getUpdated();
+            this.rejected = row.getRejected();
+            this.failed = row.getFailed();
+        }
+
+        @Override
+        public void run() {
+            runStart = System.nanoTime();
+            runStartLines = linesRead;
+            runStartBytes = bytesRead;
+            ImportJob.Status status;
+            String message = null;
+            ImportJob end = row;
+            try {
+                importFile();
+                status = ImportJob.Status.COMPLETED;
+                log.info("Import {} completed: {} lines, {} inserted, {} updated, {} rejected, {} failed ({} lines/s)",
+                        row.getId(), linesRead, inserted, updated, rejected, failed, (long) linesPerSecond());
+            } catch (BeneficioException e) {
+                status = ImportJob.Status.FAILED;
+                message = e.getMessage();
+                end = null;
+            } catch (RuntimeException | IOException e) {
+                status = stopping || e instanceof CancellationException
+                        ? ImportJob.Status.INTERRUPTED : ImportJob.Status.FAILED;
+                message = e.getMessage();
+                end = null;
+                log.warn("Import {} stopped after line {} ({})", row.getId(), linesRead, status, e);
+            } finally {
+                closeQuietly();
+            }
+            // A shutdown interrupt must not stop the final update
+            Thread.interrupted();
+            try {
+                // row may hold a checkpoint whose transaction rolled back; the stored one is the last committed
+                if (end == null) {
+                    end = repository.findById(row.getId()).orElse(row);
+                }
+                end.setStatus(status);
+                end.setMessage(message != null && message.length() > 500 ? message.substring(0, 500) : message);
+                end.setUpdatedAt(LocalDateTime.now());
+                repository.save(end);
+            } catch (RuntimeException e) {
+                log.error("Could not record the end of import {}", row.getId(), e);
+            } finally {
+                active.remove(row.getId());
+            }
+        }
+
+        private void importFile() throws IOException {
+            Files.createDirectories(Paths.get(workDir));
+            source = FileChannel.open(Paths.get(row.getSource()), StandardOpenOption.READ);
+            rejects = new RejectsFile(FileChannel.open(rejectsPath(row.getId()), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE),
+                    row.getRejectsSize(), bufferSize);
+            row.setSourceSize(source.size());
+
+            lines = new ImportLineReader(source, bufferSize, 0);
+            if (row.getFormat() == ImportFormat.CSV) {
+                if (!lines.next() || lines.isTooLong()) {
+                    throw new BeneficioException(ErrorCode.IMPORT_HEADER_INVALID, "missing");
+                }
+                parser = ImportRowParser.csv(lines.array(), lines.start(), lines.length());
+                if (linesRead == 0) {
+                    linesRead = 1;
+                }
+            } else {
+                parser = ImportRowParser.ndjson(objectMapper.readerFor(BeneficioDTO.class));
+            }
+            if (row.getByteOffset() > lines.position()) {
+                source.position(row.getByteOffset());
+                lines = new ImportLineReader(source, bufferSize, row.getByteOffset());
+            }
+
+            bulkUpserts.upsert(this, this);
+
+            // Lines rejected after the last chunk are only in the rejects file so far
+            rejects.sync();
+            checkpoint(lines.position(), linesRead, inserted, updated, rejected, failed);
+        }
+
+        // Reads up to the next valid row, sending the others to the rejects file
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                while (lines.next()) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Import interrupted");
+                    }
+                    long line = ++linesRead;
+                    bytesRead = lines.position();
+                    if (lines.isTooLong()) {
+                        reject(line, new BeneficioException(ErrorCode.BULK_ITEM_UNREADABLE, line,
+                                "line longer than " + bufferSize + " bytes"), null);
+                        continue;
+                    }
+                    if (lines.length() == 0) {
+                        continue;
+                    }
+                    try {
+                        BeneficioDTO dto = parser.parse(lines.array(), lines.start(), lines.length());
+                        beneficioService.validateBeneficioDTO(dto);
+                        add(line);
+                        next = dto;
+                        return true;
+                    } catch (BeneficioException e) {
+                        reject(line, e, content());
+                    } catch (IOException | IllegalArgumentException e) {
+                        reject(line, new BeneficioException(ErrorCode.BULK_ITEM_UNREADABLE, line, e.getMessage()),
+                                content());
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public BeneficioDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            BeneficioDTO dto = next;
+            next = null;
+            return dto;
+        }
+
+        private String content() {
+            return new String(lines.array(), lines.start(), lines.length(), StandardCharsets.UTF_8);
+        }
+
+        private void add(long line) {
+            if (pending == pendingLines.length) {
+                pendingLines = Arrays.copyOf(pendingLines, pending * 2);
+                pendingOffsets = Arrays.copyOf(pendingOffsets, pending * 2);
+                pendingLengths = Arrays.copyOf(pendingLengths, pending * 2);
+            }
+            pendingLines[pending] = line;
+            pendingOffsets[pending] = lines.offset();
+            pendingLengths[pending] = lines.length();
+            pending++;
+        }
+
+        private void reject(long line, BeneficioException e, String content) throws IOException {
+            rejects.write(objectMapper.writeValueAsBytes(new Reject(line, e.getCode(), e.getMessage(), content)));
+            rejected++;
+            rejectedRows.increment();
+        }
+
+        // Rejects a row of the current chunk, re-reading its line from the file
+        private void reject(int index, ErrorCode code, String message) throws IOException {
+            ByteBuffer content = ByteBuffer.allocate(pendingLengths[index]);
+            while (content.hasRemaining()
+                    && source.read(content, pendingOffsets[index] + content.position()) >= 0) {
+                // keep reading
+            }
+            rejects.write(objectMapper.writeValueAsBytes(new Reject(pendingLines[index], code, message,
+                    new String(content.array(), 0, content.position(), StandardCharsets.UTF_8))));
+        }
+
+        @Override
+        public void beforeCommit(BulkChunkResultDTO chunk, List<BulkItemErrorDTO> missing) {
+            try {
+                if (chunkMark < 0) {
+                    chunkMark = rejects.size();
+                } else {
+                    rejects.truncate(chunkMark);
+                }
+                for (BulkItemErrorDTO error : missing) {
+                    reject(error.getIndex() - chunk.getFirstIndex(), error.getCode(), error.getMessage());
+                }
+                rejects.sync();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // lines has not moved since the chunk's last row
+            checkpoint(lines.position(), linesRead, inserted + chunk.getInserted(), updated + chunk.getUpdated(),
+                    rejected + missing.size(), failed);
+        }
+
+        @Override
+        public void afterChunk(BulkChunkResultDTO chunk) {
+            if (chunk.getStatus() == BulkChunkResultDTO.Status.APPLIED) {
+                inserted += chunk.getInserted();
+                updated += chunk.getUpdated();
+                rejected += chunk.getRejected();
+                insertedRows.increment(chunk.getInserted());
+                updatedRows.increment(chunk.getUpdated());
+                rejectedRows.increment(chunk.getRejected());
+            } else {
+                try {
+                    if (chunkMark >= 0) {
+                        rejects.truncate(chunkMark);
+                    }
+                    for (int i = 0; i < pending; i++) {
+                        reject(i, ErrorCode.INTERNAL_ERROR, chunk.getMessage());
+                    }
+                    rejects.sync();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                failed += pending;
+                failedRows.increment(pending);
+                checkpoint(lines.position(), linesRead, inserted, updated, rejected, failed);
+            }
+            pending = 0;
+            chunkMark = -1;
+        }
+
+        private void checkpoint(long offset, long linesRead, long inserted, long updated, long rejected, long failed) {
+            row.setByteOffset(offset);
+            row.setLinesRead(linesRead);
+            row.setInserted(inserted);
+            row.setUpdated(updated);
+            row.setRejected(rejected);
+            row.setFailed(failed);
+            row.setRejectsSize(rejects.size());
+            row.setUpdatedAt(LocalDateTime.now());
+            repository.save(row);
+        }
+
+        private double linesPerSecond() {
+            double seconds = (System.nanoTime() - runStart) / 1e9;
+            return seconds > 0 ? (linesRead - runStartLines) / seconds : 0;
+        }
+
+        private ImportJobDTO progress() {
+            ImportJobDTO dto = toDTO(row);
+            dto.setStatus(ImportJob.Status.RUNNING);
+            dto.setBytesRead(bytesRead);
+            dto.setProgress(dto.getSourceSize() > 0 ? 100.0 * bytesRead / dto.getSourceSize() : 0);
+            dto.setLinesRead(linesRead);
+            dto.setInserted(inserted);
+            dto.setUpdated(updated);
+            dto.setRejected(rejected);
+            dto.setFailed(failed);
+            double seconds = (System.nanoTime() - runStart) / 1e9;
+            if (runStart != 0 && seconds > 0) {
+                dto.setLinesPerSecond((linesRead - runStartLines) / seconds);
+                dto.setBytesPerSecond((bytesRead - runStartBytes) / seconds);
+            }
+            return dto;
+        }
+
+        private void closeQuietly() {
+            try {
+                if (rejects != null) {
+                    rejects.close();
+                }
+                if (source != null) {
+                    source.close();
+                }
+            } catch (IOException e) {
+                log.warn("Could not close the files of import {}", row.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Append-only file written through a fixed buffer; {@link #sync()} makes everything
+     * written so far durable, and {@link #truncate} drops what came after a checkpoint.
+     */
+    private static final class RejectsFile {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long size;
+
+        private RejectsFile(FileChannel channel, long size, int bufferSize) throws IOException {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            this.size = size;
+            channel.truncate(size);
+            channel.position(size);
+        }
+
+        void write(byte[] record) throws IOException {
+            if (buffer.remaining() < record.length + 1) {
+                flush();
+            }
+            if (buffer.remaining() < record.length + 1) {
+                write(ByteBuffer.wrap(record));
+                write(ByteBuffer.wrap(new byte[] {'\n'}));
+            } else {
+                buffer.put(record).put((byte) '\n');
+            }
+            size += record.length + 1;
+        }
+
+        long size() {
+            return size;
+        }
+
+        void sync() throws IOException {
+            flush();
+            channel.force(false);
+        }
+
+        void truncate(long length) throws IOException {
+            flush();
+            channel.truncate(length);
+            channel.position(length);
+            size = length;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+}
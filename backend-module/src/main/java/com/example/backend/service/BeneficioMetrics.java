@@ -0,0 +1,202 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferResultDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Timers, counters and gauges for transfers and for create, update and delete;
+ * request handling as a whole is covered by {@code http.server.requests}. Every item
+ * of a batch, whether sent to {@code /transferir/lote} or grouped by the
+ * {@link TransferPipeline}, counts as one transfer with its own outcome.
+ *
+ * A transfer attempt is split into phases: {@code validate} (request checks),
+ * {@code lock} (waiting for {@code SELECT ... FOR UPDATE}), {@code apply} (reads,
+ * rules and writes, excluding lock waits) and {@code commit} (flush, commit and
+ * after-commit callbacks). A batch records each phase once, as one attempt. Timers only publish fixed-bucket histograms, which are
+ * recorded with atomic increments; no client-side percentiles are computed.
+ * Every meter is registered up front so the hot path never looks one up.
+ */
+@Component
+public class BeneficioMetrics {
+
+    static final String PHASE_VALIDATE = "validate";
+    static final String PHASE_LOCK = "lock";
+    static final String PHASE_APPLY = "apply";
+    static final String PHASE_COMMIT = "commit";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Lock wait accumulated by the current thread, so apply can leave it out
+    private final ThreadLocal<long[]> lockNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    private Timer validate;
+    private Timer lock;
+    private Timer apply;
+    private Timer commit;
+    private Timer succeeded;
+    private Timer rejected;
+    private Timer failed;
+    private final Map<ErrorCode, Counter> rejections = new EnumMap<>(ErrorCode.class);
+    private Counter otherRejections;
+    private final Map<String, Timer> crud = new ConcurrentHashMap<>();
+
+    public BeneficioMetrics() {
+    }
+
+    public BeneficioMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        start();
+    }
+
+    @PostConstruct
+    void start() {
+        validate = phase(PHASE_VALIDATE);
+        lock = phase(PHASE_LOCK);
+        apply = phase(PHASE_APPLY);
+        commit = phase(PHASE_COMMIT);
+        succeeded = outcome("success");
+        rejected = outcome("rejected");
+        failed = outcome("failed");
+        // Codes sharing a reason share its counter
+        for (ErrorCode code : ErrorCode.values()) {
+            rejections.put(code, Counter.builder("beneficio.transfer.rejections")
+                    .description("Transfers rejected by a business rule, by reason")
+                    .tag("reason", code.reason())
+                    .register(meterRegistry));
+        }
+        otherRejections = Counter.builder("beneficio.transfer.rejections")
+                .description("Transfers rejected by a business rule, by reason")
+                .tag("reason", "other")
+                .register(meterRegistry);
+        for (String operation : new String[] {"create", "update", "delete", "bulk"}) {
+            crud.put(operation, Timer.builder("beneficio.crud")
+                    .description("Beneficio create, update, delete and bulk upsert, including commit")
+                    .tag("operation", operation)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        Gauge.builder("beneficio.transfer.in-flight", inFlight, AtomicInteger::get)
+                .description("Transfers currently being processed")
+                .register(meterRegistry);
+    }
+
+    private Timer phase(String phase) {
+        return Timer.builder("beneficio.transfer.phase")
+                .description("Time spent in each phase of a transfer attempt")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Timer outcome(String outcome) {
+        return Timer.builder("beneficio.transfer")
+                .description("Transfers end to end, including retries, by outcome")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public long started() {
+        return started(1);
+    }
+
+    /**
+     * Starts {@code transfers} transfers at once, for a batch.
+     */
+    public long started(int transfers) {
+        inFlight.addAndGet(transfers);
+        return System.nanoTime();
+    }
+
+    public void succeeded(long start) {
+        finish(succeeded, start);
+    }
+
+    public void rejected(long start, IllegalArgumentException rejection) {
+        rejected(start, rejection instanceof BeneficioException e ? e.getCode() : null);
+    }
+
+    private void rejected(long start, ErrorCode code) {
+        (code != null ? rejections.get(code) : otherRejections).increment();
+        finish(rejected, start);
+    }
+
+    /**
+     * Records the outcome of one item of a batch. An item left out because another one
+     * aborted the batch counts as rejected, but not under a reason of its own.
+     */
+    public void settled(long start, TransferResultDTO item) {
+        switch (item.getStatus()) {
+            case APPLIED -> finish(succeeded, start);
+            case REJECTED -> rejected(start, item.getCode());
+            case NOT_APPLIED -> finish(rejected, start);
+        }
+    }
+
+    public void failed(long start) {
+        finish(failed, start);
+    }
+
+    private void finish(Timer timer, long start) {
+        inFlight.decrementAndGet();
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    public void validated(long nanos) {
+        validate.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void applied(long nanos) {
+        apply.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void committed(long nanos) {
+        commit.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs a row-locking query, recording the wait under the {@code lock} phase.
+     */
+    public <T> T lock(Supplier<T> acquire) {
+        long start = System.nanoTime();
+        try {
+            return acquire.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            lock.record(elapsed, TimeUnit.NANOSECONDS);
+            lockNanos.get()[0] += elapsed;
+        }
+    }
+
+    /**
+     * Total lock wait of the current thread so far; the difference between two reads
+     * is the wait in between.
+     */
+    public long lockNanos() {
+        return lockNanos.get()[0];
+    }
+
+    /**
+     * Records a create, update or delete that started at {@code start} ({@link System#nanoTime()}).
+     */
+    public void crud(String operation, long start) {
+        crud.get(operation).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
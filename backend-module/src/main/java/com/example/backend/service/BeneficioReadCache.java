@@ -0,0 +1,187 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Near-cache in front of {@link BeneficioService#findById} and
+ * {@link BeneficioService#findAllActive}. Entries are DTOs keyed by ID with size and
+ * time based eviction; the active list is cached whole, next to them.
+ *
+ * An entry loaded by {@code findById} remembers the version tag of the row (its
+ * {@code VERSION} plus its shard versions) read before the DTO, and is only served
+ * to a caller that just read the same tag. That covers changes committed by other
+ * instances and commits whose event has not been handled yet.
+ *
+ * Entries are also evicted when a {@link BeneficioChangedEvent} commits. To stop a
+ * reader that loaded a row before the commit from putting the old copy back
+ * afterwards, callers take a {@link #stamp()} before loading and {@link #put} drops
+ * the value if its ID was invalidated after that stamp. A put never replaces an entry
+ * with a higher {@code version}. The active list works the same way with the
+ * collection version tag: it is only served to a caller that just read the tag it
+ * was loaded at, and any commit moves that tag.
+ */
+@Component
+public class BeneficioReadCache {
+
+    private static final int STRIPES = 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${beneficio.cache.find-by-id.enabled:true}")
+    private boolean findByIdEnabled = true;
+
+    @Value("${beneficio.cache.find-all-active.enabled:true}")
+    private boolean findAllActiveEnabled = true;
+
+    @Value("${beneficio.cache.max-size:10000}")
+    private long maxSize = 10000;
+
+    @Value("${beneficio.cache.ttl-ms:30000}")
+    private long ttlMs = 30000;
+
+    private Cache<Long, Entry> entries;
+    private volatile ActiveList activeList;
+
+    // Sequence number of the last invalidation per ID stripe, and of the active list
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STRIPES);
+    private final AtomicLong activeInvalidatedAt = new AtomicLong();
+
+    private Counter findByIdHits;
+    private Counter findByIdMisses;
+    private Counter findAllActiveHits;
+    private Counter findAllActiveMisses;
+
+    @PostConstruct
+    void start() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        findByIdHits = lookups("find-by-id", "hit");
+        findByIdMisses = lookups("find-by-id", "miss");
+        findAllActiveHits = lookups("find-all-active", "hit");
+        findAllActiveMisses = lookups("find-all-active", "miss");
+    }
+
+    private Counter lookups(String cache, String result) {
+        return Counter.builder("beneficio.cache.lookups")
+                .description("Near-cache lookups by cache and result")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public boolean isFindByIdEnabled() {
+        return findByIdEnabled;
+    }
+
+    public boolean isFindAllActiveEnabled() {
+        return findAllActiveEnabled;
+    }
+
+    /**
+     * Position in the invalidation sequence; take it before loading from the database.
+     */
+    public long stamp() {
+        return sequence.get();
+    }
+
+    /**
+     * Cached DTO for {@code id} if it was loaded at {@code versionTag}, the tag the
+     * caller has just read from the database.
+     */
+    public BeneficioDTO findById(Long id, String versionTag) {
+        if (!findByIdEnabled) {
+            return null;
+        }
+        Entry cached = entries.getIfPresent(id);
+        BeneficioDTO dto = cached != null && versionTag.equals(cached.versionTag) ? cached.dto : null;
+        (dto != null ? findByIdHits : findByIdMisses).increment();
+        return dto;
+    }
+
+    /**
+     * Cached active list if it was loaded at {@code versionTag}, the collection tag the
+     * caller has just read from the database.
+     */
+    public List<BeneficioDTO> activeList(String versionTag) {
+        if (!findAllActiveEnabled) {
+            return null;
+        }
+        ActiveList cached = activeList;
+        List<BeneficioDTO> dtos = cached != null && versionTag.equals(cached.versionTag)
+                && cached.expiresAtNanos - System.nanoTime() > 0 ? cached.dtos : null;
+        (dtos != null ? findAllActiveHits : findAllActiveMisses).increment();
+        return dtos;
+    }
+
+    /**
+     * Caches a DTO loaded after reading {@code versionTag}; {@code findById} serves it
+     * only to callers that read the same tag.
+     */
+    public void put(BeneficioDTO dto, String versionTag, long stamp) {
+        if (dto.getId() == null || invalidatedAt.get(stripe(dto.getId())) > stamp) {
+            return;
+        }
+        entries.asMap().merge(dto.getId(), new Entry(dto, versionTag), BeneficioReadCache::newer);
+        // Lost a race with an invalidation between the check and the merge
+        if (invalidatedAt.get(stripe(dto.getId())) > stamp) {
+            entries.invalidate(dto.getId());
+        }
+    }
+
+    public void putActiveList(List<BeneficioDTO> dtos, String versionTag, long stamp) {
+        if (findAllActiveEnabled && activeInvalidatedAt.get() <= stamp) {
+            activeList = new ActiveList(List.copyOf(dtos), versionTag,
+                    System.nanoTime() + Duration.ofMillis(ttlMs).toNanos());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onChanged(BeneficioChangedEvent event) {
+        long seq = sequence.incrementAndGet();
+        for (Long id : event.getIds()) {
+            invalidatedAt.accumulateAndGet(stripe(id), seq, Math::max);
+            entries.invalidate(id);
+        }
+        // Every commit moves the collection tag, so the list could not be served again
+        activeInvalidatedAt.accumulateAndGet(seq, Math::max);
+        activeList = null;
+    }
+
+    private static Entry newer(Entry current, Entry candidate) {
+        Long currentVersion = current.dto.getVersion();
+        Long candidateVersion = candidate.dto.getVersion();
+        if (currentVersion != null && candidateVersion != null && currentVersion > candidateVersion) {
+            return current;
+        }
+        return candidate;
+    }
+
+    private static int stripe(Long id) {
+        return (int) (id ^ (id >>> 32)) & (STRIPES - 1);
+    }
+
+    private record Entry(BeneficioDTO dto, String versionTag) {
+    }
+
+    private record ActiveList(List<BeneficioDTO> dtos, String versionTag, long expiresAtNanos) {
+    }
+}
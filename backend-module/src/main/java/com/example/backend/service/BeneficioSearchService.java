@@ -0,0 +1,230 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Filtered, sorted and keyset-paged reads behind {@code GET /api/v1/beneficios/search}.
+ *
+ * Every query is shaped to run on an index: {@code IDX_BENEFICIO_NOME (NOME, ID)} for
+ * the nome prefix and nome order, {@code IDX_BENEFICIO_VALOR (SHARD_COUNT, VALOR, ID)}
+ * for the valor range and valor order, and the primary key otherwise. {@code ATIVO} has
+ * two values and is only ever applied as a filter on the rows the index returns.
+ *
+ * The valor of a sharded account is its logical balance, which no index can hold. When
+ * the search filters or sorts on valor it therefore runs two queries: one over
+ * unsharded rows ({@code SHARD_COUNT = 0}), which the valor index serves in order, and
+ * one over the few sharded accounts ({@code SHARD_COUNT > 0}, a range of the same
+ * index) that compares their logical balances. Both are ordered the same way and are
+ * merged here. Sorting is ascending only: H2 cannot read an index backwards, so a
+ * descending order would sort the whole filtered set for every page.
+ *
+ * The cursor is opaque to clients; it holds the sort, the sort key and the ID of the
+ * last row returned.
+ */
+@Service
+public class BeneficioSearchService {
+
+    public enum Sort {
+        ID, NOME, VALOR;
+
+        public static Sort parse(String value) {
+            if (value == null) {
+                return ID;
+            }
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BeneficioException(ErrorCode.SEARCH_SORT_INVALID, Arrays.toString(values()));
+            }
+        }
+    }
+
+    // A statement and its arguments, kept apart so tests can EXPLAIN exactly what runs
+    record SearchQuery(String sql, Object[] args) {
+    }
+
+    private enum Branch { ALL, UNSHARDED, SHARDED }
+
+    private static final String LOGICAL_VALOR = "b.VALOR + COALESCE((SELECT SUM(s.VALOR) FROM BENEFICIO_SHARD s "
+            + "WHERE s.BENEFICIO_ID = b.ID), 0)";
+
+    private static final RowMapper<BeneficioDTO> ROW_MAPPER = (rs, rowNum) -> new BeneficioDTO(
+            rs.getLong("ID"), rs.getString("NOME"), rs.getString("DESCRICAO"), Money.of(rs.getBigDecimal("VALOR")),
+            rs.getObject("ATIVO", Boolean.class), rs.getObject("VERSION", Long.class));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Transactional(readOnly = true)
+    public List<BeneficioDTO> search(String nome, Money valorMin, Money valorMax, Boolean ativo,
+                                     Sort sort, String after, Integer limit) {
+        int size = limit != null ? limit : BeneficioService.DEFAULT_PAGE_SIZE;
+        if (size <= 0 || size > BeneficioService.MAX_PAGE_SIZE) {
+            throw new BeneficioException(ErrorCode.PAGE_LIMIT_INVALID, BeneficioService.MAX_PAGE_SIZE);
+        }
+        List<SearchQuery> queries = queries(nome, valorMin, valorMax, ativo, sort, after, size);
+        List<BeneficioDTO> rows = new ArrayList<>();
+        for (SearchQuery query : queries) {
+            rows.addAll(jdbcTemplate.query(query.sql(), ROW_MAPPER, query.args()));
+        }
+        if (queries.size() == 1) {
+            return rows;
+        }
+        rows.sort(order(sort));
+        return rows.size() > size ? new ArrayList<>(rows.subList(0, size)) : rows;
+    }
+
+    /**
+     * Cursor for the page after {@code last}, the final row of a page sorted by {@code sort}.
+     */
+    public String cursor(Sort sort, BeneficioDTO last) {
+        String key = switch (sort) {
+            case ID -> "";
+            case NOME -> last.getNome();
+            case VALOR -> Long.toString(last.getValor().cents());
+        };
+        String raw = sort.name() + ':' + last.getId() + ':' + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    List<SearchQuery> queries(String nome, Money valorMin, Money valorMax, Boolean ativo,
+                              Sort sort, String after, int size) {
+        if (valorMin != null && valorMax != null && valorMax.isLessThan(valorMin)) {
+            throw new BeneficioException(ErrorCode.VALOR_RANGE_INVALID);
+        }
+        Cursor cursor = after != null ? Cursor.parse(after, sort) : null;
+        String prefix = nome != null && !nome.isEmpty() ? escapeLike(nome) + '%' : null;
+        if (valorMin == null && valorMax == null && sort != Sort.VALOR) {
+            return List.of(query(Branch.ALL, prefix, valorMin, valorMax, ativo, sort, cursor, size));
+        }
+        return List.of(query(Branch.UNSHARDED, prefix, valorMin, valorMax, ativo, sort, cursor, size),
+                query(Branch.SHARDED, prefix, valorMin, valorMax, ativo, sort, cursor, size));
+    }
+
+    private static SearchQuery query(Branch branch, String prefix, Money valorMin, Money valorMax, Boolean ativo,
+                                     Sort sort, Cursor cursor, int size) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        List<Object> args = new ArrayList<>();
+        String a;
+        switch (branch) {
+            case ALL -> {
+                a = "b.";
+                sql.append("b.ID, b.NOME, b.DESCRICAO, CASE WHEN b.SHARD_COUNT > 0 THEN ").append(LOGICAL_VALOR)
+                        .append(" ELSE b.VALOR END AS VALOR, b.ATIVO, b.VERSION FROM BENEFICIO b WHERE 1 = 1");
+            }
+            case UNSHARDED -> {
+                a = "b.";
+                sql.append("b.ID, b.NOME, b.DESCRICAO, b.VALOR, b.ATIVO, b.VERSION FROM BENEFICIO b ")
+                        .append("WHERE b.SHARD_COUNT = 0");
+            }
+            default -> {
+                // H2 pushes the outer conditions into the derived table and, without the
+                // hint, may pick a primary key range over most of the table instead
+                a = "t.";
+                sql.append("t.ID, t.NOME, t.DESCRICAO, t.VALOR, t.ATIVO, t.VERSION FROM (")
+                        .append("SELECT b.ID, b.NOME, b.DESCRICAO, ").append(LOGICAL_VALOR)
+                        .append(" AS VALOR, b.ATIVO, b.VERSION FROM BENEFICIO b USE INDEX (IDX_BENEFICIO_VALOR) ")
+                        .append("WHERE b.SHARD_COUNT > 0) t ")
+                        .append("WHERE 1 = 1");
+            }
+        }
+        if (prefix != null) {
+            sql.append(" AND ").append(a).append("NOME LIKE ? ESCAPE '\\'");
+            args.add(prefix);
+        }
+        if (ativo != null) {
+            sql.append(" AND ").append(a).append("ATIVO = ?");
+            args.add(ativo);
+        }
+        if (valorMin != null) {
+            sql.append(" AND ").append(a).append("VALOR >= ?");
+            args.add(valorMin.toBigDecimal());
+        }
+        if (valorMax != null) {
+            sql.append(" AND ").append(a).append("VALOR <= ?");
+            args.add(valorMax.toBigDecimal());
+        }
+        // Keyset condition written as a range on the leading sort column plus a
+        // tie-break, so the index range starts at the cursor
+        if (sort == Sort.ID) {
+            sql.append(" AND ").append(a).append("ID > ?");
+            args.add(cursor != null ? cursor.id : 0L);
+        } else if (cursor != null) {
+            String column = a + sort.name();
+            sql.append(" AND ").append(column).append(" >= ? AND (").append(column).append(" > ? OR ")
+                    .append(a).append("ID > ?)");
+            args.add(cursor.key);
+            args.add(cursor.key);
+            args.add(cursor.id);
+        }
+        sql.append(" ORDER BY ");
+        if (sort != Sort.ID) {
+            // The constant SHARD_COUNT leads the valor index, so naming it lets H2 read the index in order
+            if (branch == Branch.UNSHARDED && sort == Sort.VALOR) {
+                sql.append("b.SHARD_COUNT, ");
+            }
+            sql.append(a).append(sort.name()).append(", ");
+        }
+        sql.append(a).append("ID LIMIT ?");
+        args.add(size);
+        return new SearchQuery(sql.toString(), args.toArray());
+    }
+
+    private static Comparator<BeneficioDTO> order(Sort sort) {
+        Comparator<BeneficioDTO> byId = Comparator.comparing(BeneficioDTO::getId);
+        return switch (sort) {
+            case ID -> byId;
+            case NOME -> Comparator.comparing(BeneficioDTO::getNome).thenComparing(byId);
+            case VALOR -> Comparator.comparing(BeneficioDTO::getValor).thenComparing(byId);
+        };
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static final class Cursor {
+
+        private final long id;
+        // Bound as the sort column's type: String for NOME, BigDecimal for VALOR
+        private final Object key;
+
+        private Cursor(long id, Object key) {
+            this.id = id;
+            this.key = key;
+        }
+
+        static Cursor parse(String value, Sort sort) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":", 3);
+                if (parts.length == 3 && parts[0].equals(sort.name())) {
+                    Object key = switch (sort) {
+                        case ID -> null;
+                        case NOME -> parts[2];
+                        case VALOR -> Money.ofCents(Long.parseLong(parts[2])).toBigDecimal();
+                    };
+                    return new Cursor(Long.parseLong(parts[1]), key);
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                // Not a cursor written by this service
+            }
+            throw new BeneficioException(ErrorCode.SEARCH_CURSOR_INVALID, sort);
+        }
+    }
+}
@@ -1,52 +1,272 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.BeneficioChangesDTO;
 import com.example.backend.dto.BeneficioDTO;
 import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.dto.TransferResultDTO;
 import com.example.backend.entity.Beneficio;
+import com.example.backend.entity.BeneficioShard;
+import com.example.backend.entity.BeneficioTombstone;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
 import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.TableVersion;
+import com.example.backend.repository.BeneficioTombstoneRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class BeneficioService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int STREAM_CHUNK_SIZE = 500;
+    static final int LOCK_CHUNK_SIZE = 1000;
+    // Column lengths of NOME and DESCRICAO
+    static final int NOME_MAX_LENGTH = 100;
+    static final int DESCRICAO_MAX_LENGTH = 255;
+
     @Autowired
     private BeneficioRepository repository;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransferRetryPolicy retryPolicy;
+
+    @Autowired
+    private Map<String, TransferStrategy> transferStrategies;
+
+    @Value("${beneficio.transfer.strategy:pessimistic}")
+    private String transferStrategyName = "pessimistic";
+
+    private TransferStrategy transferStrategy;
+
+    @Autowired
+    private ShardedBalanceService shardedBalances;
+
+    @Autowired
+    private BeneficioReadCache readCache;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BeneficioMetrics metrics;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private BeneficioTextIndex textIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${beneficio.transfer.batch.max-size:10000}")
+    private int maxBatchSize = 10000;
+
+    @Value("${beneficio.transfer.batch.jdbc-batch-size:500}")
+    private int jdbcBatchSize = 500;
+
+    @PostConstruct
+    void selectTransferStrategy() {
+        transferStrategy = transferStrategies.get(transferStrategyName);
+        if (transferStrategy == null) {
+            throw new IllegalStateException("Unknown transfer strategy '" + transferStrategyName
+                    + "', expected one of " + transferStrategies.keySet());
+        }
+    }
+
+    @Transactional(readOnly = true)
     public List<BeneficioDTO> findAll() {
-        return repository.findAll().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return repository.findAllDTOs();
+    }
+
+    @Transactional(readOnly = true)
+    public List<BeneficioDTO> findPage(Long after, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new BeneficioException(ErrorCode.PAGE_LIMIT_INVALID, MAX_PAGE_SIZE);
+        }
+        long cursor = after != null ? after : 0L;
+        return repository.findDTOsAfter(cursor, Limit.of(size));
+    }
+
+    /**
+     * Streams every beneficio ordered by ID, handing them to {@code chunkConsumer}
+     * in chunks of at most {@link #STREAM_CHUNK_SIZE}. Rows are read as DTOs, so
+     * nothing accumulates in the persistence context and memory use does not grow
+     * with the table size. The list handed to the consumer is reused between chunks
+     * and must not be retained.
+     *
+     * @return number of rows streamed
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<List<BeneficioDTO>> chunkConsumer) {
+        long count = 0;
+        List<BeneficioDTO> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        try (Stream<BeneficioDTO> stream = repository.streamAllDTOs()) {
+            Iterator<BeneficioDTO> it = stream.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                count++;
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    chunkConsumer.accept(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+        return count;
     }
 
     public List<BeneficioDTO> findAllActive() {
-        return repository.findByAtivoTrue().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        if (!readCache.isFindAllActiveEnabled()) {
+            return repository.findActiveDTOs();
+        }
+        return findAllActive(collectionVersionTag());
+    }
+
+    /**
+     * Active beneficios, served from the near-cache only if it was loaded at
+     * {@code versionTag}, the collection tag the caller has just read. The tag is read
+     * before the rows, so a loaded list is never older than it. Not transactional: a
+     * cache hit must not take a connection, and a miss runs in the repository's own
+     * read-only transaction.
+     */
+    public List<BeneficioDTO> findAllActive(String versionTag) {
+        long stamp = readCache.stamp();
+        List<BeneficioDTO> cached = readCache.activeList(versionTag);
+        if (cached != null) {
+            return cached;
+        }
+        List<BeneficioDTO> active = repository.findActiveDTOs();
+        readCache.putActiveList(active, versionTag, stamp);
+        return active;
     }
 
     public BeneficioDTO findById(Long id) {
-        Beneficio beneficio = repository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Beneficio not found: " + id));
-        return toDTO(beneficio);
+        if (!readCache.isFindByIdEnabled()) {
+            return repository.findDTOById(id)
+                    .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, id));
+        }
+        return findById(id, versionTag(id).orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, id)));
+    }
+
+    /**
+     * Same as {@link #findById(Long)} for a caller that has just read the row's
+     * {@link #versionTag}: a cached copy is served only if it was loaded at that tag,
+     * so the DTO is never older than the tag.
+     */
+    public BeneficioDTO findById(Long id, String versionTag) {
+        BeneficioDTO cached = readCache.findById(id, versionTag);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = readCache.stamp();
+        BeneficioDTO dto = repository.findDTOById(id)
+                .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, id));
+        if (readCache.isFindByIdEnabled()) {
+            readCache.put(dto, versionTag, stamp);
+        }
+        return dto;
+    }
+
+    /**
+     * Opaque tag that changes whenever the beneficio changes, read without loading the
+     * entity; empty if the beneficio does not exist.
+     */
+    public Optional<String> versionTag(Long id) {
+        return repository.findRowVersionById(id).map(v -> v.getShardCount() != null && v.getShardCount() > 0
+                ? id + "." + v.getVersion() + "." + v.getShardCount() + "." + v.getShardVersions()
+                : id + "." + v.getVersion());
+    }
+
+    /**
+     * Opaque tag that changes whenever any beneficio is created, updated, deleted or
+     * has its balance moved: the row count plus the number of committed writes. The
+     * highest change sequence would not do, as sequence values commit out of order.
+     */
+    public String collectionVersionTag() {
+        TableVersion v = repository.findTableVersion();
+        return v.getRowCount() + "." + v.getCommits();
+    }
+
+    /**
+     * Beneficios written after the cursor {@code since}, the IDs deleted after it and
+     * the cursor for the next call. Without a cursor every beneficio is returned.
+     *
+     * The next cursor is {@link ChangeSequence#watermark()}, read before the rows: a
+     * transaction still open at that point commits with a higher value and is picked
+     * up by the next call. A row may therefore be returned twice, never missed.
+     */
+    @Transactional(readOnly = true)
+    public BeneficioChangesDTO findChanges(Long since) {
+        long upTo = changes.watermark();
+        if (since == null) {
+            return new BeneficioChangesDTO(repository.findAllDTOs(), List.of(), upTo);
+        }
+        if (since < 0) {
+            throw new BeneficioException(ErrorCode.SINCE_NEGATIVE);
+        }
+        if (since >= upTo) {
+            return new BeneficioChangesDTO(List.of(), List.of(), since);
+        }
+        SortedSet<Long> ids = new TreeSet<>(repository.findIdsChangedBetween(since, upTo));
+        ids.addAll(shardedBalances.changedBetween(since, upTo));
+        List<BeneficioDTO> rows = ids.isEmpty() ? List.of() : repository.findDTOsByIds(ids);
+        return new BeneficioChangesDTO(rows, tombstoneRepository.findIdsChangedBetween(since, upTo), upTo);
     }
 
     @Transactional
     public BeneficioDTO create(BeneficioDTO dto) {
         validateBeneficioDTO(dto);
         Beneficio beneficio = toEntity(dto);
+        beneficio.setChangeSeq(changes.next());
         beneficio = repository.save(beneficio);
+        stats.added(beneficio.getValor(), beneficio.getAtivo());
+        textIndex.indexed(beneficio);
+        eventPublisher.publishEvent(BeneficioChangedEvent.rows(beneficio.getId()));
         return toDTO(beneficio);
     }
 
@@ -54,99 +274,405 @@ public class BeneficioService {
     public BeneficioDTO update(Long id, BeneficioDTO dto) {
         validateBeneficioDTO(dto);
         Beneficio beneficio = repository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Beneficio not found: " + id));
+                .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_TO_CHANGE_NOT_FOUND, id));
+        Money before = balance(beneficio);
+        Boolean wasAtivo = beneficio.getAtivo();
         
-        beneficio.setNome(dto.getNome());
-        beneficio.setDescricao(dto.getDescricao());
-        beneficio.setValor(dto.getValor());
-        beneficio.setAtivo(dto.getAtivo());
+        applyUpdate(beneficio, dto);
+        beneficio.setChangeSeq(changes.next());
         
         beneficio = repository.save(beneficio);
+        stats.changed(before, wasAtivo, dto.getValor(), beneficio.getAtivo());
+        textIndex.indexed(beneficio);
+        eventPublisher.publishEvent(BeneficioChangedEvent.rows(id));
         return toDTO(beneficio);
     }
 
     @Transactional
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Beneficio not found: " + id);
-        }
-        repository.deleteById(id);
+        Beneficio beneficio = repository.findById(id)
+                .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, id));
+        stats.removed(balance(beneficio), beneficio.getAtivo());
+        repository.delete(beneficio);
+        long seq = changes.next();
+        tombstoneRepository.save(new BeneficioTombstone(id, seq));
+        textIndex.removed(id, seq);
+        eventPublisher.publishEvent(BeneficioChangedEvent.rows(id));
     }
 
-    @Transactional
+    /**
+     * Transfers {@code amount} between two beneficios using the configured
+     * {@link TransferStrategy}. Each attempt runs in its own transaction so that lock
+     * timeouts, deadlocks and optimistic-lock conflicts can be retried by
+     * {@link TransferRetryPolicy}. Transfers touching a sharded account are always
+     * applied by {@link ShardedBalanceService}.
+     */
     public void transfer(TransferRequestDTO request) {
-        // Validate input
-        if (request.getFromId() == null || request.getToId() == null) {
-            throw new IllegalArgumentException("IDs cannot be null");
+        transfer(request, transferStrategy);
+    }
+
+    /**
+     * Same as {@link #transfer(TransferRequestDTO)}, but runs {@code claim} first inside
+     * every attempt's transaction, so whatever it writes commits or rolls back together
+     * with the transfer.
+     */
+    void transfer(TransferRequestDTO request, Runnable claim) {
+        transfer(request, transferStrategy, claim);
+    }
+
+    void transfer(TransferRequestDTO request, TransferStrategy strategy) {
+        transfer(request, strategy, null);
+    }
+
+    private void transfer(TransferRequestDTO request, TransferStrategy strategy, Runnable claim) {
+        long start = metrics.started();
+        try {
+            validateTransferRequest(request);
+            metrics.validated(System.nanoTime() - start);
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            int attempts = strategy.maxAttempts() > 0 ? strategy.maxAttempts() : retryPolicy.getMaxAttempts();
+            retryPolicy.execute(attempts, attempt -> {
+                TransferStrategy current = attempt < attempts ? strategy : strategy.lastAttempt();
+                boolean sharded = shardedBalances.isSharded(request.getFromId());
+                try {
+                    commitTransfer(tx, request, current, claim);
+                } catch (BeneficioException e) {
+                    // Sharded by another instance since this one last looked: the debit
+                    // hit the empty base row, so try again on the sharded path
+                    if (e.getCode() != ErrorCode.INSUFFICIENT_BALANCE || sharded
+                            || !shardedBalances.refresh(request.getFromId())) {
+                        throw e;
+                    }
+                    commitTransfer(tx, request, current, claim);
+                }
+                return null;
+            });
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(start, e);
+            throw e;
+        } catch (RuntimeException | Error e) {
+            metrics.failed(start);
+            throw e;
         }
-        
-        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be positive");
+        metrics.succeeded(start);
+    }
+
+    private void commitTransfer(TransactionTemplate tx, TransferRequestDTO request, TransferStrategy strategy,
+                                Runnable claim) {
+        long[] applied = new long[1];
+        tx.execute(status -> {
+            if (claim != null) {
+                claim.run();
+            }
+            long applyStart = System.nanoTime();
+            long lockedBefore = metrics.lockNanos();
+            if (shardedBalances.involvesSharded(request)) {
+                shardedBalances.transfer(request);
+            } else {
+                strategy.transfer(request);
+            }
+            applied[0] = System.nanoTime();
+            metrics.applied(applied[0] - applyStart - (metrics.lockNanos() - lockedBefore));
+            eventPublisher.publishEvent(BeneficioChangedEvent.balances(request.getFromId(), request.getToId()));
+            return null;
+        });
+        metrics.committed(System.nanoTime() - applied[0]);
+    }
+
+    /**
+     * Splits the balance of a hot beneficio into {@code count} shards.
+     */
+    public BeneficioDTO split(Long id, int count) {
+        shardedBalances.split(id, count);
+        return findById(id);
+    }
+
+    /**
+     * Folds the shards of a beneficio back into a single balance.
+     */
+    public BeneficioDTO merge(Long id) {
+        shardedBalances.merge(id);
+        return findById(id);
+    }
+
+    void validateTransferRequest(TransferRequestDTO request) {
+        TransferRules.validate(request);
+    }
+
+    /**
+     * Settles a list of transfers in a single transaction. Every account involved is
+     * locked once, in ascending ID order, the transfers are applied in memory in list
+     * order, and only the balances that actually changed are written back with JDBC
+     * batch updates.
+     *
+     * In {@link BatchTransferMode#ALL_OR_NOTHING} mode a single rejected item aborts the
+     * batch and nothing is written; in {@link BatchTransferMode#BEST_EFFORT} mode rejected
+     * items are skipped and the rest are applied.
+     */
+    public BatchTransferResultDTO transferBatch(List<TransferRequestDTO> requests, BatchTransferMode mode) {
+        int transfers = requests != null ? requests.size() : 0;
+        long start = metrics.started(transfers);
+        BatchTransferResultDTO result;
+        try {
+            result = settleBatch(requests, mode);
+        } catch (IllegalArgumentException e) {
+            for (int i = 0; i < transfers; i++) {
+                metrics.rejected(start, e);
+            }
+            throw e;
+        } catch (RuntimeException | Error e) {
+            for (int i = 0; i < transfers; i++) {
+                metrics.failed(start);
+            }
+            throw e;
         }
-        
-        if (request.getFromId().equals(request.getToId())) {
-            throw new IllegalArgumentException("Cannot transfer to the same beneficio");
+        for (TransferResultDTO item : result.getResults()) {
+            metrics.settled(start, item);
         }
+        return result;
+    }
 
-        // Use pessimistic locking to prevent concurrent modifications
-        Beneficio from = entityManager.find(Beneficio.class, request.getFromId(), LockModeType.PESSIMISTIC_WRITE);
-        Beneficio to = entityManager.find(Beneficio.class, request.getToId(), LockModeType.PESSIMISTIC_WRITE);
+    /**
+     * {@link #transferBatch} without the per-item outcomes, for callers that started
+     * the transfers earlier and record them themselves. Phases are recorded here.
+     */
+    BatchTransferResultDTO settleBatch(List<TransferRequestDTO> requests, BatchTransferMode mode) {
+        if (requests == null || requests.isEmpty()) {
+            throw new BeneficioException(ErrorCode.BATCH_EMPTY);
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new BeneficioException(ErrorCode.BATCH_TOO_LARGE, maxBatchSize);
+        }
+        BatchTransferMode effectiveMode = mode != null ? mode : BatchTransferMode.ALL_OR_NOTHING;
 
-        // Validate entities exist
-        if (from == null) {
-            throw new IllegalArgumentException("Source beneficio not found: " + request.getFromId());
+        // Reject malformed items up front; only well-formed ones take part in locking
+        long validateStart = System.nanoTime();
+        BeneficioException[] invalid = new BeneficioException[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            invalid[i] = TransferRules.check(requests.get(i));
         }
-        
-        if (to == null) {
-            throw new IllegalArgumentException("Destination beneficio not found: " + request.getToId());
+        metrics.validated(System.nanoTime() - validateStart);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return retryPolicy.execute(() -> {
+            long[] applied = new long[1];
+            BatchTransferResultDTO result = tx.execute(status -> {
+                long applyStart = System.nanoTime();
+                long lockedBefore = metrics.lockNanos();
+                BatchTransferResultDTO settled = applyBatch(requests, invalid, effectiveMode);
+                applied[0] = System.nanoTime();
+                metrics.applied(applied[0] - applyStart - (metrics.lockNanos() - lockedBefore));
+                return settled;
+            });
+            metrics.committed(System.nanoTime() - applied[0]);
+            return result;
+        });
+    }
+
+    private BatchTransferResultDTO applyBatch(List<TransferRequestDTO> requests, BeneficioException[] invalid,
+                                              BatchTransferMode mode) {
+        TransferResultDTO[] results = new TransferResultDTO[requests.size()];
+        SortedSet<Long> ids = new TreeSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequestDTO request = requests.get(i);
+            if (invalid[i] != null) {
+                results[i] = result(i, request, TransferResultDTO.Status.REJECTED, invalid[i]);
+            } else {
+                ids.add(request.getFromId());
+                ids.add(request.getToId());
+            }
         }
 
-        // Validate both beneficios are active
-        if (!from.getAtivo()) {
-            throw new IllegalArgumentException("Source beneficio is not active");
+        // Lock every involved account once, in ascending ID order. A sharded account
+        // is locked on its own, base row then shards, so the global order holds
+        Map<Long, Beneficio> accounts = new HashMap<>();
+        Map<Long, List<BeneficioShard>> shards = new HashMap<>();
+        List<Long> sortedIds = new ArrayList<>(ids);
+        List<Long> pending = new ArrayList<>(LOCK_CHUNK_SIZE);
+        for (Long id : sortedIds) {
+            if (shardedBalances.isSharded(id)) {
+                lockAccounts(pending, accounts);
+                pending.clear();
+                lockAccounts(List.of(id), accounts);
+                Beneficio account = accounts.get(id);
+                if (account != null) {
+                    shards.put(id, metrics.lock(() -> shardedBalances.lockShards(account)));
+                }
+                continue;
+            }
+            pending.add(id);
+            if (pending.size() == LOCK_CHUNK_SIZE) {
+                lockAccounts(pending, accounts);
+                pending.clear();
+            }
         }
-        
-        if (!to.getAtivo()) {
-            throw new IllegalArgumentException("Destination beneficio is not active");
+        lockAccounts(pending, accounts);
+        List<Long> staleShards = new ArrayList<>();
+        for (Beneficio account : accounts.values()) {
+            if (ShardedBalanceService.hasShards(account) && !shards.containsKey(account.getId())) {
+                staleShards.add(account.getId());
+            }
+        }
+        if (!staleShards.isEmpty()) {
+            // Sharded by another instance: its shards were not locked, so retry with the cache refreshed
+            staleShards.forEach(shardedBalances::refresh);
+            throw new ConcurrencyFailureException("Shard cache was stale for beneficios " + staleShards);
         }
 
-        // Validate sufficient balance
-        if (from.getValor().compareTo(request.getAmount()) < 0) {
-            throw new IllegalArgumentException(
-                String.format("Insufficient balance. Available: %s, Required: %s", 
-                    from.getValor(), request.getAmount())
-            );
+        // Apply in request order against running balances, in cents and indexed like
+        // sortedIds so the loop neither boxes nor allocates per item
+        long[] opening = new long[sortedIds.size()];
+        for (int i = 0; i < opening.length; i++) {
+            Long id = sortedIds.get(i);
+            Beneficio account = accounts.get(id);
+            if (account != null) {
+                opening[i] = shards.containsKey(id)
+                        ? ShardedBalanceService.total(account, shards.get(id)).cents()
+                        : account.getValor().cents();
+            }
+        }
+        long[] balances = opening.clone();
+        int rejected = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                rejected++;
+                continue;
+            }
+            TransferRequestDTO request = requests.get(i);
+            int fromIndex = Collections.binarySearch(sortedIds, request.getFromId());
+            int toIndex = Collections.binarySearch(sortedIds, request.getToId());
+            Beneficio from = accounts.get(request.getFromId());
+            Beneficio to = accounts.get(request.getToId());
+            BeneficioException rejection = TransferRules.rejection(request, from, to,
+                    balances[fromIndex], balances[toIndex]);
+            if (rejection != null) {
+                results[i] = result(i, request, TransferResultDTO.Status.REJECTED, rejection);
+                rejected++;
+                continue;
+            }
+            balances[fromIndex] -= request.getAmount().cents();
+            balances[toIndex] += request.getAmount().cents();
+            results[i] = result(i, request, TransferResultDTO.Status.APPLIED, null);
         }
 
-        // Perform the transfer
-        from.setValor(from.getValor().subtract(request.getAmount()));
-        to.setValor(to.getValor().add(request.getAmount()));
+        if (rejected > 0 && mode == BatchTransferMode.ALL_OR_NOTHING) {
+            for (TransferResultDTO result : results) {
+                if (result.getStatus() == TransferResultDTO.Status.APPLIED) {
+                    result.setStatus(TransferResultDTO.Status.NOT_APPLIED);
+                }
+            }
+            return new BatchTransferResultDTO(mode, 0, rejected, Arrays.asList(results));
+        }
 
-        repository.save(from);
-        repository.save(to);
+        // Write back only balances that changed; rows are already locked
+        List<Map.Entry<Long, Money>> changed = new ArrayList<>();
+        List<Long> changedIds = new ArrayList<>();
+        for (int i = 0; i < balances.length; i++) {
+            Long id = sortedIds.get(i);
+            Beneficio account = accounts.get(id);
+            if (account == null || balances[i] == opening[i]) {
+                continue;
+            }
+            changedIds.add(id);
+            stats.changed(Money.ofCents(opening[i]), account.getAtivo(), Money.ofCents(balances[i]), account.getAtivo());
+            if (shards.containsKey(id)) {
+                List<BeneficioShard> accountShards = shards.get(id);
+                shardedBalances.redistribute(account, accountShards, Money.ofCents(balances[i]), accountShards.size());
+            } else {
+                changed.add(Map.entry(id, Money.ofCents(balances[i])));
+            }
+        }
+        if (!shards.isEmpty()) {
+            entityManager.flush();
+        }
+        if (!changed.isEmpty()) {
+            long seq = changes.next();
+            jdbcTemplate.batchUpdate(
+                "UPDATE BENEFICIO SET VALOR = ?, VERSION = VERSION + 1, CHANGE_SEQ = ? WHERE ID = ?",
+                changed, jdbcBatchSize, (ps, entry) -> {
+                    ps.setBigDecimal(1, entry.getValue().toBigDecimal());
+                    ps.setLong(2, seq);
+                    ps.setLong(3, entry.getKey());
+                });
+        }
+        // The managed copies are stale now that the rows were written over JDBC
+        accounts.values().forEach(entityManager::detach);
+        if (!changedIds.isEmpty()) {
+            eventPublisher.publishEvent(new BeneficioChangedEvent(changedIds, false));
+        }
+
+        return new BatchTransferResultDTO(mode, requests.size() - rejected, rejected, Arrays.asList(results));
     }
 
-    private void validateBeneficioDTO(BeneficioDTO dto) {
+    private void lockAccounts(List<Long> ids, Map<Long, Beneficio> accounts) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Beneficio locked : metrics.lock(() -> repository.findAllByIdForUpdate(ids))) {
+            accounts.put(locked.getId(), locked);
+        }
+    }
+
+    private static TransferResultDTO result(int index, TransferRequestDTO request,
+                                            TransferResultDTO.Status status, BeneficioException rejection) {
+        TransferResultDTO result = request == null
+                ? new TransferResultDTO(index, null, null, null, status, null)
+                : new TransferResultDTO(index, request.getFromId(), request.getToId(),
+                                        request.getAmount(), status, null);
+        if (rejection != null) {
+            result.setCode(rejection.getCode());
+            result.setMessage(rejection.getMessage());
+        }
+        return result;
+    }
+
+    // Mapping and validation are package-private for the JMH benchmarks in src/jmh/java
+    void validateBeneficioDTO(BeneficioDTO dto) {
         if (dto.getNome() == null || dto.getNome().trim().isEmpty()) {
-            throw new IllegalArgumentException("Nome is required");
+            throw new BeneficioException(ErrorCode.NOME_REQUIRED);
+        }
+        if (dto.getValor() == null || dto.getValor().isNegative()) {
+            throw new BeneficioException(ErrorCode.VALOR_NEGATIVE);
+        }
+        if (dto.getNome().length() > NOME_MAX_LENGTH) {
+            throw new BeneficioException(ErrorCode.NOME_TOO_LONG, NOME_MAX_LENGTH);
+        }
+        if (dto.getDescricao() != null && dto.getDescricao().length() > DESCRICAO_MAX_LENGTH) {
+            throw new BeneficioException(ErrorCode.DESCRICAO_TOO_LONG, DESCRICAO_MAX_LENGTH);
         }
-        if (dto.getValor() == null || dto.getValor().compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Valor must be non-negative");
+    }
+
+    // Copies an update onto a managed beneficio; valor is the logical balance, so a
+    // sharded account gets it spread over its shards
+    void applyUpdate(Beneficio beneficio, BeneficioDTO dto) {
+        beneficio.setNome(dto.getNome());
+        beneficio.setDescricao(dto.getDescricao());
+        if (ShardedBalanceService.hasShards(beneficio)) {
+            shardedBalances.setTotal(beneficio, dto.getValor());
+        } else {
+            beneficio.setValor(dto.getValor());
         }
+        beneficio.setAtivo(dto.getAtivo());
     }
 
-    private BeneficioDTO toDTO(Beneficio entity) {
+    // valor is the logical balance: the base row plus the shards of a sharded account
+    BeneficioDTO toDTO(Beneficio entity) {
         return new BeneficioDTO(
             entity.getId(),
             entity.getNome(),
             entity.getDescricao(),
-            entity.getValor(),
+            balance(entity),
             entity.getAtivo(),
             entity.getVersion()
         );
     }
 
-    private Beneficio toEntity(BeneficioDTO dto) {
+    Money balance(Beneficio entity) {
+        Money shardTotal = shardedBalances.shardTotal(entity);
+        return shardTotal != null ? entity.getValor().plus(shardTotal) : entity.getValor();
+    }
+
+    Beneficio toEntity(BeneficioDTO dto) {
         Beneficio entity = new Beneficio();
         entity.setNome(dto.getNome());
         entity.setDescricao(dto.getDescricao());
@@ -0,0 +1,453 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BalanceBucketDTO;
+import com.example.backend.dto.BeneficioStatsDTO;
+import com.example.backend.money.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the summary behind {@code GET /api/v1/beneficios/stats}: how many beneficios
+ * there are, how many are active, the sum of their balances and how many fall in each
+ * balance bucket. Balances are logical balances (base row plus shards).
+ *
+ * Writes report what they changed through {@link #added}, {@link #removed} and
+ * {@link #changed}. The deltas are collected per transaction and, just before it
+ * commits, added to one randomly chosen stripe of {@code BENEFICIO_STATS} and
+ * {@code BENEFICIO_STATS_BUCKET}. Pending entity changes are flushed first, so the
+ * summary rows are always the last rows a transaction locks. A transfer changes
+ * neither the count nor the total and only writes when a balance crosses a bucket
+ * boundary. The strategies that change balances with guarded UPDATEs read the
+ * balance back afterwards to report it.
+ *
+ * {@link #verify()} recounts the table in parallel ID-range chunks and adds any
+ * difference to stripe 0. The chunks are read by separate connections at different
+ * moments, so a recount is only trusted if no write on this instance was in progress
+ * from before the first chunk until the stored totals were read (see
+ * {@link ChangeSequence#quietPoint()}); otherwise the run is skipped. Like the change
+ * watermark this is exact for a single instance: writes from other instances during a
+ * recount can make a correction wrong until the next run.
+ */
+@Service
+public class BeneficioStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BeneficioStatsService.class);
+
+    // Lower bound of each balance bucket, in cents; the last bucket has no upper bound
+    // and negative balances count in the first
+    static final long[] BUCKET_FLOORS = {
+        0L, 100_00L, 500_00L, 1_000_00L, 5_000_00L, 10_000_00L, 50_000_00L, 100_000_00L, 1_000_000_00L
+    };
+    static final int BUCKETS = BUCKET_FLOORS.length;
+
+    private static final String CHUNK_SQL =
+        "SELECT BUCKET, COUNT(*), SUM(CASE WHEN ATIVO THEN 1 ELSE 0 END), SUM(BALANCE) FROM ("
+            + "SELECT " + bucketCase("BALANCE") + " AS BUCKET, ATIVO, BALANCE FROM ("
+            + "SELECT b.ATIVO, b.VALOR + COALESCE((SELECT SUM(s.VALOR) FROM BENEFICIO_SHARD s "
+            + "WHERE s.BENEFICIO_ID = b.ID), 0) AS BALANCE FROM BENEFICIO b WHERE b.ID BETWEEN ? AND ?) v) c "
+            + "GROUP BY BUCKET";
+
+    public enum Verification { OK, CORRECTED, BUSY }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${beneficio.stats.stripes:16}")
+    private int stripes = 16;
+
+    @Value("${beneficio.stats.verify-threads:4}")
+    private int verifyThreads = 4;
+
+    @Value("${beneficio.stats.verify-chunk-size:10000}")
+    private int verifyChunkSize = 10000;
+
+    private ExecutorService verifier;
+    private final Map<Verification, Counter> verifications = new EnumMap<>(Verification.class);
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threads = new AtomicInteger();
+        verifier = Executors.newFixedThreadPool(verifyThreads, task -> {
+            Thread thread = new Thread(task, "beneficio-stats-verifier-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Verification outcome : Verification.values()) {
+            verifications.put(outcome, Counter.builder("beneficio.stats.verifications")
+                    .description("Recounts of the beneficio summary, by outcome")
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        // A new summary starts at zero and is filled in from the table
+        if (createMissingStripes()) {
+            verify();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        verifier.shutdownNow();
+    }
+
+    public void added(Money balance, Boolean ativo) {
+        changed(null, null, balance, ativo);
+    }
+
+    public void removed(Money balance, Boolean ativo) {
+        changed(balance, ativo, null, null);
+    }
+
+    /**
+     * Records that a beneficio went from {@code before} to {@code after} in the current
+     * transaction; a null balance means the beneficio does not exist on that side.
+     */
+    public void changed(Money before, Boolean wasAtivo, Money after, Boolean isAtivo) {
+        int from = before != null ? bucket(before.cents()) : -1;
+        int to = after != null ? bucket(after.cents()) : -1;
+        boolean was = Boolean.TRUE.equals(wasAtivo);
+        boolean is = Boolean.TRUE.equals(isAtivo);
+        long valor = (after != null ? after.cents() : 0) - (before != null ? before.cents() : 0);
+        if (from == to && was == is && valor == 0) {
+            return;
+        }
+        Counts delta = pending();
+        delta.valor += valor;
+        if (from >= 0) {
+            delta.add(from, was, -1);
+        }
+        if (to >= 0) {
+            delta.add(to, is, 1);
+        }
+    }
+
+    /**
+     * Current summary, read from the stripes in a single statement.
+     */
+    public BeneficioStatsDTO stats() {
+        Counts stored = stored();
+        List<BalanceBucketDTO> buckets = new ArrayList<>(BUCKETS);
+        for (int b = 0; b < BUCKETS; b++) {
+            buckets.add(new BalanceBucketDTO(
+                Money.ofCents(BUCKET_FLOORS[b]),
+                b + 1 < BUCKETS ? Money.ofCents(BUCKET_FLOORS[b + 1]) : null,
+                stored.buckets[b],
+                stored.bucketAtivos[b]));
+        }
+        return new BeneficioStatsDTO(stored.beneficios, stored.ativos,
+                BigDecimal.valueOf(stored.valor, Money.SCALE), buckets);
+    }
+
+    @Scheduled(fixedDelayString = "${beneficio.stats.verify-interval-ms:300000}",
+               initialDelayString = "${beneficio.stats.verify-interval-ms:300000}")
+    public void verifyPeriodically() {
+        try {
+            verify();
+        } catch (RuntimeException e) {
+            log.warn("Could not verify the beneficio summary", e);
+        }
+    }
+
+    /**
+     * Recounts the table and corrects the summary if it drifted. Returns
+     * {@link Verification#BUSY} without changing anything when a write was in progress.
+     */
+    public synchronized Verification verify() {
+        Verification outcome = recountAndCorrect();
+        verifications.get(outcome).increment();
+        return outcome;
+    }
+
+    private Verification recountAndCorrect() {
+        long quiet = changes.quietPoint();
+        if (quiet < 0) {
+            return Verification.BUSY;
+        }
+        Counts drift = recount();
+        drift.subtract(stored());
+        if (changes.quietPoint() != quiet) {
+            return Verification.BUSY;
+        }
+        if (drift.isZero()) {
+            return Verification.OK;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> write(drift, 0));
+        log.info("Corrected beneficio summary drift: {} beneficios, {} active, {} cents",
+                drift.beneficios, drift.ativos, drift.valor);
+        return Verification.CORRECTED;
+    }
+
+    Counts recount() {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(ID) AS LO, MAX(ID) AS HI FROM BENEFICIO");
+        Counts total = new Counts();
+        if (range.get("LO") == null) {
+            return total;
+        }
+        long lo = ((Number) range.get("LO")).longValue();
+        long hi = ((Number) range.get("HI")).longValue();
+        List<Future<Counts>> chunks = new ArrayList<>();
+        for (long start = lo; ; start += verifyChunkSize) {
+            long first = start;
+            long last = hi - start < verifyChunkSize ? hi : start + verifyChunkSize - 1;
+            chunks.add(verifier.submit(() -> countChunk(first, last)));
+            if (last == hi) {
+                break;
+            }
+        }
+        try {
+            for (Future<Counts> chunk : chunks) {
+                total.add(chunk.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recounting beneficios", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } finally {
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+        return total;
+    }
+
+    private Counts countChunk(long first, long last) {
+        Counts counts = new Counts();
+        jdbcTemplate.query(CHUNK_SQL, rs -> {
+            int bucket = rs.getInt(1);
+            counts.buckets[bucket] = rs.getLong(2);
+            counts.bucketAtivos[bucket] = rs.getLong(3);
+            counts.beneficios += counts.buckets[bucket];
+            counts.ativos += counts.bucketAtivos[bucket];
+            counts.valor += cents(rs.getBigDecimal(4));
+        }, first, last);
+        return counts;
+    }
+
+    // One statement, so the totals and the buckets come from the same snapshot
+    private Counts stored() {
+        Counts counts = new Counts();
+        jdbcTemplate.query(
+            "SELECT -1, SUM(BENEFICIOS), SUM(ATIVOS), SUM(VALOR_TOTAL) FROM BENEFICIO_STATS "
+                + "UNION ALL SELECT BUCKET, SUM(BENEFICIOS), SUM(ATIVOS), 0 FROM BENEFICIO_STATS_BUCKET GROUP BY BUCKET",
+            rs -> {
+                int bucket = rs.getInt(1);
+                if (bucket < 0) {
+                    counts.beneficios = rs.getLong(2);
+                    counts.ativos = rs.getLong(3);
+                    BigDecimal valor = rs.getBigDecimal(4);
+                    counts.valor = valor != null ? cents(valor) : 0;
+                } else if (bucket < BUCKETS) {
+                    counts.buckets[bucket] = rs.getLong(2);
+                    counts.bucketAtivos[bucket] = rs.getLong(3);
+                }
+            });
+        return counts;
+    }
+
+    // Deltas of the current transaction, written by its beforeCommit
+    private Counts pending() {
+        Counts delta = (Counts) TransactionSynchronizationManager.getResource(this);
+        if (delta != null) {
+            return delta;
+        }
+        // Makes the transaction visible to ChangeSequence.quietPoint(), which the verifier relies on
+        changes.next();
+        Counts created = new Counts();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                flushEntities();
+                write(created, ThreadLocalRandom.current().nextInt(stripes));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(BeneficioStatsService.this);
+            }
+        });
+        return created;
+    }
+
+    // Translated as the commit would have translated it, so retries still recognize conflicts
+    private void flushEntities() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private void write(Counts delta, int stripe) {
+        if (delta.beneficios != 0 || delta.ativos != 0 || delta.valor != 0) {
+            jdbcTemplate.update(
+                "UPDATE BENEFICIO_STATS SET BENEFICIOS = BENEFICIOS + ?, ATIVOS = ATIVOS + ?, "
+                    + "VALOR_TOTAL = VALOR_TOTAL + ? WHERE STRIPE = ?",
+                delta.beneficios, delta.ativos, BigDecimal.valueOf(delta.valor, Money.SCALE), stripe);
+        }
+        // Ascending bucket order, so writers on the same stripe lock its rows in the same order
+        List<Integer> moved = new ArrayList<>();
+        for (int b = 0; b < BUCKETS; b++) {
+            if (delta.buckets[b] != 0 || delta.bucketAtivos[b] != 0) {
+                moved.add(b);
+            }
+        }
+        if (!moved.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "UPDATE BENEFICIO_STATS_BUCKET SET BENEFICIOS = BENEFICIOS + ?, ATIVOS = ATIVOS + ? "
+                    + "WHERE STRIPE = ? AND BUCKET = ?",
+                moved, moved.size(), (ps, bucket) -> {
+                    ps.setLong(1, delta.buckets[bucket]);
+                    ps.setLong(2, delta.bucketAtivos[bucket]);
+                    ps.setInt(3, stripe);
+                    ps.setInt(4, bucket);
+                });
+        }
+    }
+
+    // Inserts zeroed rows for stripes and buckets that do not exist yet; true if the
+    // summary was empty
+    private boolean createMissingStripes() {
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT STRIPE FROM BENEFICIO_STATS", Integer.class));
+        Set<Long> existingBuckets = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT CAST(STRIPE AS BIGINT) * " + BUCKETS + " + BUCKET FROM BENEFICIO_STATS_BUCKET", Long.class));
+        List<Integer> missing = new ArrayList<>();
+        List<int[]> missingBuckets = new ArrayList<>();
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (!existing.contains(stripe)) {
+                missing.add(stripe);
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                if (!existingBuckets.contains((long) stripe * BUCKETS + b)) {
+                    missingBuckets.add(new int[] {stripe, b});
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO BENEFICIO_STATS (STRIPE, BENEFICIOS, ATIVOS, VALOR_TOTAL) VALUES (?, 0, 0, 0)",
+                    missing, missing.size(), (ps, stripe) -> ps.setInt(1, stripe));
+        }
+        if (!missingBuckets.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO BENEFICIO_STATS_BUCKET (STRIPE, BUCKET, BENEFICIOS, ATIVOS) VALUES (?, ?, 0, 0)",
+                    missingBuckets, missingBuckets.size(), (ps, key) -> {
+                        ps.setInt(1, key[0]);
+                        ps.setInt(2, key[1]);
+                    });
+        }
+        return existing.isEmpty();
+    }
+
+    static int bucket(long cents) {
+        int bucket = BUCKETS - 1;
+        while (bucket > 0 && cents < BUCKET_FLOORS[bucket]) {
+            bucket--;
+        }
+        return bucket;
+    }
+
+    // CASE expression giving the bucket of a balance column, highest bucket first
+    private static String bucketCase(String balance) {
+        StringBuilder sql = new StringBuilder("CASE");
+        for (int b = BUCKETS - 1; b > 0; b--) {
+            sql.append(" WHEN ").append(balance).append(" >= ")
+               .append(BigDecimal.valueOf(BUCKET_FLOORS[b], Money.SCALE).toPlainString())
+               .append(" THEN ").append(b);
+        }
+        return sql.append(" ELSE 0 END").toString();
+    }
+
+    private static long cents(BigDecimal value) {
+        return value.movePointRight(Money.SCALE).longValueExact();
+    }
+
+    // Totals and per-bucket counts; used both for deltas and for whole recounts
+    static final class Counts {
+        long beneficios;
+        long ativos;
+        long valor;
+        final long[] buckets = new long[BUCKETS];
+        final long[] bucketAtivos = new long[BUCKETS];
+
+        void add(int bucket, boolean ativo, int sign) {
+            beneficios += sign;
+            buckets[bucket] += sign;
+            if (ativo) {
+                ativos += sign;
+                bucketAtivos[bucket] += sign;
+            }
+        }
+
+        void add(Counts other) {
+            combine(other, 1);
+        }
+
+        void subtract(Counts other) {
+            combine(other, -1);
+        }
+
+        boolean isZero() {
+            if (beneficios != 0 || ativos != 0 || valor != 0) {
+                return false;
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                if (buckets[b] != 0 || bucketAtivos[b] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void combine(Counts other, int sign) {
+            beneficios += sign * other.beneficios;
+            ativos += sign * other.ativos;
+            valor += sign * other.valor;
+            for (int b = 0; b < BUCKETS; b++) {
+                buckets[b] += sign * other.buckets[b];
+                bucketAtivos[b] += sign * other.bucketAtivos[b];
+            }
+        }
+    }
+}
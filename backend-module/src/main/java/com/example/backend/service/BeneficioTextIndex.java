@@ -0,0 +1,426 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.repository.BeneficioRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over {@code nome} and {@code descricao}, behind
+ * {@code GET /api/v1/beneficios/search/text}. A substring search in the database is a
+ * {@code LIKE '%x%'} that no index can serve; here it costs an intersection of the
+ * posting lists of the query's trigrams.
+ *
+ * Text is folded to lower case without accents before it is split into trigrams, and
+ * each field has its own posting lists, keyed by the three characters packed into a
+ * {@code long}. Posting lists are {@link SortedIdSet}s. The folded text of every
+ * beneficio is kept as well: it confirms that a candidate really contains the query
+ * (its trigrams may be present but not adjacent), and it gives the trigrams to remove
+ * when the beneficio changes.
+ *
+ * The index is built at startup from a streaming scan. Afterwards
+ * {@link BeneficioService} and {@link BulkUpsertService} report every written or
+ * deleted beneficio through {@link #indexed} and {@link #removed}; the changes are
+ * collected per transaction and applied after it commits, so a rolled back write never
+ * shows up. A change only replaces one with a higher {@code CHANGE_SEQ}. A delete
+ * leaves a tombstone with its value, so that the callback of an older update running
+ * after it, or a row the startup scan read before the delete, cannot bring the
+ * beneficio back. Tombstones are purged once the {@link ChangeSequence} watermark has
+ * passed them, as no transaction holding a lower value is still open by then. Writes
+ * from other instances or made with plain SQL are not seen until the next start.
+ */
+@Component
+public class BeneficioTextIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(BeneficioTextIndex.class);
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final int NOME = 0;
+    private static final int DESCRICAO = 1;
+    private static final int BUILD_CHUNK_SIZE = 1000;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Rough costs on a 64-bit JVM with compressed references: a HashMap node, its
+    // table slot and the boxed key; a Doc with two strings and their arrays
+    private static final long ENTRY_BYTES = 56;
+    private static final long DOC_BYTES = 112;
+
+    // Better hits first: a match in nome, then an earlier match, then a shorter field
+    private static final Comparator<Hit> RANK = Comparator.comparingInt(Hit::field)
+            .thenComparingInt(Hit::position)
+            .thenComparingInt(Hit::length)
+            .thenComparingLong(Hit::id);
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    // All guarded by lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, SortedIdSet> postings = new HashMap<>();
+    private final Map<Long, Doc> docs = new HashMap<>();
+    // IDs whose entry in docs is a tombstone, oldest first
+    private final ArrayDeque<Long> tombstones = new ArrayDeque<>();
+    private int builds;
+    private long textChars;
+
+    // Folded text and the CHANGE_SEQ that wrote it; a null nome marks a removal
+    private record Doc(long seq, String nome, String descricao) {
+    }
+
+    private record Hit(long id, int field, int position, int length) {
+    }
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("beneficio.text-index.documents", this,
+                        index -> index.read(index::documents))
+                .description("Beneficios in the text index")
+                .register(meterRegistry);
+        Gauge.builder("beneficio.text-index.trigrams", this, index -> index.read(index.postings::size))
+                .description("Posting lists in the text index, one per field and trigram")
+                .register(meterRegistry);
+        Gauge.builder("beneficio.text-index.memory", this, BeneficioTextIndex::memoryBytes)
+                .description("Estimated heap used by the text index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        build();
+    }
+
+    /**
+     * Loads every beneficio with one streaming read. Rows already indexed by a write that
+     * committed in the meantime are left alone.
+     */
+    void build() {
+        long start = System.nanoTime();
+        // Tombstones stay while the scan runs: it may have read rows deleted since
+        lock.writeLock().lock();
+        try {
+            builds++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        try {
+            tx.executeWithoutResult(status -> {
+                List<BeneficioDTO> chunk = new ArrayList<>(BUILD_CHUNK_SIZE);
+                try (Stream<BeneficioDTO> rows = repository.streamAllDTOs()) {
+                    Iterator<BeneficioDTO> it = rows.iterator();
+                    while (it.hasNext()) {
+                        chunk.add(it.next());
+                        if (chunk.size() == BUILD_CHUNK_SIZE) {
+                            load(chunk);
+                            chunk.clear();
+                        }
+                    }
+                }
+                load(chunk);
+            });
+        } finally {
+            lock.writeLock().lock();
+            try {
+                builds--;
+                postings.values().forEach(SortedIdSet::trim);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        Timer.builder("beneficio.text-index.build")
+                .description("Time to build the text index at startup")
+                .register(meterRegistry)
+                .record(elapsed);
+        log.info("Text index built: {} beneficios, {} trigrams, ~{} KiB in {} ms",
+                read(this::documents), read(postings::size), memoryBytes() / 1024, elapsed.toMillis());
+    }
+
+    private void load(List<BeneficioDTO> rows) {
+        lock.writeLock().lock();
+        try {
+            for (BeneficioDTO row : rows) {
+                if (!docs.containsKey(row.getId())) {
+                    add(row.getId(), new Doc(0, normalize(row.getNome()), normalize(row.getDescricao())));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the current nome and descricao of {@code beneficio} once the surrounding
+     * transaction commits. The entity must have its ID and {@code changeSeq} set.
+     */
+    public void indexed(Beneficio beneficio) {
+        change(beneficio.getId(), new Doc(beneficio.getChangeSeq(),
+                normalize(beneficio.getNome()), normalize(beneficio.getDescricao())));
+    }
+
+    /**
+     * Drops beneficio {@code id}, deleted with change value {@code seq}, once the
+     * surrounding transaction commits.
+     */
+    public void removed(Long id, long seq) {
+        change(id, new Doc(seq, null, null));
+    }
+
+    private void change(Long id, Doc doc) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(id, doc));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Doc> pending = (Map<Long, Doc>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Doc> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(created);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BeneficioTextIndex.this);
+                }
+            });
+            pending = created;
+        }
+        pending.put(id, doc);
+    }
+
+    private void apply(Map<Long, Doc> batch) {
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Doc> change : batch.entrySet()) {
+                Long id = change.getKey();
+                Doc doc = change.getValue();
+                Doc current = docs.get(id);
+                // Callbacks of two commits on the same row may run out of order
+                if (current != null && current.seq() > doc.seq()) {
+                    continue;
+                }
+                if (current != null && current.nome() != null) {
+                    remove(id, current);
+                }
+                if (doc.nome() != null) {
+                    add(id, doc);
+                } else if (current == null || current.nome() != null) {
+                    docs.put(id, doc);
+                    tombstones.add(id);
+                }
+            }
+            purgeTombstones();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(long id, Doc doc) {
+        docs.put(id, doc);
+        textChars += doc.nome().length() + doc.descricao().length();
+        forEachTrigram(NOME, doc.nome(), key -> postings.computeIfAbsent(key, k -> new SortedIdSet()).add(id));
+        forEachTrigram(DESCRICAO, doc.descricao(), key -> postings.computeIfAbsent(key, k -> new SortedIdSet()).add(id));
+    }
+
+    private void remove(long id, Doc doc) {
+        textChars -= doc.nome().length() + doc.descricao().length();
+        LongConsumer drop = key -> {
+            SortedIdSet ids = postings.get(key);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        };
+        forEachTrigram(NOME, doc.nome(), drop);
+        forEachTrigram(DESCRICAO, doc.descricao(), drop);
+    }
+
+    // Oldest first; stops at the first tombstone an open transaction may still overtake
+    private void purgeTombstones() {
+        if (builds > 0 || tombstones.isEmpty()) {
+            return;
+        }
+        long watermark = changes.watermark();
+        while (!tombstones.isEmpty() && docs.get(tombstones.peekFirst()).seq() <= watermark) {
+            docs.remove(tombstones.removeFirst());
+        }
+    }
+
+    /**
+     * IDs of the beneficios whose nome or descricao contains {@code query}, ignoring case
+     * and accents, best match first: matches in nome before matches only in descricao,
+     * then by position of the match, then by length of the field, then by ID.
+     */
+    public List<Long> rankedIds(String query, int limit) {
+        String folded = normalize(query);
+        if (folded.length() < MIN_QUERY_LENGTH) {
+            throw new BeneficioException(ErrorCode.TEXT_QUERY_TOO_SHORT, MIN_QUERY_LENGTH);
+        }
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachCandidate(NOME, folded, id -> {
+                String nome = docs.get(id).nome();
+                int at = nome.indexOf(folded);
+                if (at >= 0) {
+                    hits.add(new Hit(id, NOME, at, nome.length()));
+                }
+            });
+            forEachCandidate(DESCRICAO, folded, id -> {
+                Doc doc = docs.get(id);
+                int at = doc.descricao().indexOf(folded);
+                if (at >= 0 && !doc.nome().contains(folded)) {
+                    hits.add(new Hit(id, DESCRICAO, at, doc.descricao().length()));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(RANK);
+        List<Long> ids = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            ids.add(hits.get(i).id());
+        }
+        return ids;
+    }
+
+    /**
+     * The best {@code limit} matches of {@link #rankedIds}, read with one query. A
+     * beneficio deleted since it was ranked is left out.
+     */
+    public List<BeneficioDTO> search(String query, Integer limit) {
+        int size = limit != null ? limit : BeneficioService.DEFAULT_PAGE_SIZE;
+        if (size <= 0 || size > BeneficioService.MAX_PAGE_SIZE) {
+            throw new BeneficioException(ErrorCode.PAGE_LIMIT_INVALID, BeneficioService.MAX_PAGE_SIZE);
+        }
+        List<Long> ids = rankedIds(query, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BeneficioDTO> rows = new HashMap<>();
+        for (BeneficioDTO dto : repository.findDTOsByIds(ids)) {
+            rows.put(dto.getId(), dto);
+        }
+        List<BeneficioDTO> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            BeneficioDTO dto = rows.get(id);
+            if (dto != null) {
+                ranked.add(dto);
+            }
+        }
+        return ranked;
+    }
+
+    // IDs present in the posting list of every trigram of text; walks the shortest list
+    private void forEachCandidate(int field, String text, LongConsumer action) {
+        List<SortedIdSet> lists = new ArrayList<>();
+        boolean[] missing = {false};
+        forEachTrigram(field, text, key -> {
+            SortedIdSet ids = postings.get(key);
+            if (ids == null) {
+                missing[0] = true;
+            } else {
+                lists.add(ids);
+            }
+        });
+        if (missing[0] || lists.isEmpty()) {
+            return;
+        }
+        lists.sort(Comparator.comparingInt(SortedIdSet::size));
+        SortedIdSet shortest = lists.get(0);
+        candidates:
+        for (int i = 0; i < shortest.size(); i++) {
+            long id = shortest.get(i);
+            for (int j = 1; j < lists.size(); j++) {
+                if (!lists.get(j).contains(id)) {
+                    continue candidates;
+                }
+            }
+            action.accept(id);
+        }
+    }
+
+    private static void forEachTrigram(int field, String text, LongConsumer action) {
+        for (int i = 0; i + MIN_QUERY_LENGTH <= text.length(); i++) {
+            action.accept((long) field << 48 | (long) text.charAt(i) << 32
+                    | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+    }
+
+    /**
+     * Lower case without accents, so that "José" and "jose" index the same.
+     */
+    static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        return MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private int documents() {
+        return docs.size() - tombstones.size();
+    }
+
+    long memoryBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = docs.size() * (ENTRY_BYTES + DOC_BYTES) + textChars;
+            for (SortedIdSet ids : postings.values()) {
+                bytes += ENTRY_BYTES + ids.bytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
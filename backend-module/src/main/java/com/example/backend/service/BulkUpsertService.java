@@ -0,0 +1,287 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BulkChunkResultDTO;
+import com.example.backend.dto.BulkItemErrorDTO;
+import com.example.backend.dto.BulkUpsertResultDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates and updates beneficios in bulk. Items without an {@code id} are inserted and
+ * items with one update that beneficio; the result is summarized per chunk.
+ *
+ * Items are validated as they are read, so a body of any size is never held in memory:
+ * valid items accumulate until {@code beneficio.bulk.chunk-size} items have been read,
+ * and each chunk is then written in its own transaction. Inserts take their IDs from
+ * the pooled {@code BENEFICIO_ID_SEQ} (one sequence call per
+ * {@link Beneficio#ID_BLOCK_SIZE} rows) and go out, like the updates, in JDBC batches
+ * of {@code beneficio.bulk.jdbc-batch-size}. The persistence context is cleared after
+ * every chunk.
+ *
+ * Invalid items are rejected individually. A chunk that cannot be committed is
+ * reported as failed and the following chunks are still written.
+ *
+ * A {@link Listener} sees every chunk, including from inside its transaction, so a
+ * long-running caller can record its own progress atomically with the rows.
+ */
+@Service
+public class BulkUpsertService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkUpsertService.class);
+
+    @Autowired
+    private BeneficioService beneficioService;
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransferRetryPolicy retryPolicy;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private BeneficioTextIndex textIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${beneficio.bulk.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${beneficio.bulk.jdbc-batch-size:500}")
+    private int jdbcBatchSize = 500;
+
+    @Value("${beneficio.bulk.max-reported-errors:1000}")
+    private int maxReportedErrors = 1000;
+
+    /**
+     * Callbacks for callers that track chunks themselves. {@code items} are not read
+     * while a chunk is being written, so a reader's position then is just past the
+     * chunk's last item.
+     */
+    public interface Listener {
+
+        /**
+         * Runs inside the chunk's transaction, after its rows are written and before the
+         * commit, and runs again if the transaction is retried. {@code missing} are the
+         * updates whose beneficio does not exist.
+         */
+        default void beforeCommit(BulkChunkResultDTO chunk, List<BulkItemErrorDTO> missing) {
+        }
+
+        /**
+         * Runs once the chunk has been committed or, with status FAILED, given up on.
+         */
+        default void afterChunk(BulkChunkResultDTO chunk) {
+        }
+    }
+
+    /**
+     * Reads {@code items} to the end, writing them chunk by chunk. If {@code next()}
+     * throws a {@link BeneficioException} (e.g. a malformed line), the items read up to
+     * that point are still written and the error is reported in the result.
+     */
+    public BulkUpsertResultDTO upsert(Iterator<BeneficioDTO> items) {
+        return upsert(items, null);
+    }
+
+    /**
+     * As {@link #upsert(Iterator)}, reporting each chunk to {@code listener} instead of
+     * keeping it in the result, so memory stays flat however many chunks there are.
+     */
+    public BulkUpsertResultDTO upsert(Iterator<BeneficioDTO> items, Listener listener) {
+        BulkUpsertResultDTO result = new BulkUpsertResultDTO();
+        Chunk chunk = new Chunk(0, 0);
+        try {
+            while (items.hasNext()) {
+                BeneficioDTO item = items.next();
+                chunk.add(item, result);
+                if (chunk.size() == chunkSize) {
+                    write(chunk, result, listener);
+                    chunk = new Chunk(chunk.result.getChunk() + 1, chunk.result.getLastIndex() + 1);
+                }
+            }
+        } catch (BeneficioException e) {
+            result.setCode(e.getCode());
+            result.setMessage(e.getMessage());
+        }
+        if (chunk.size() > 0) {
+            write(chunk, result, listener);
+        }
+        return result;
+    }
+
+    private void write(Chunk chunk, BulkUpsertResultDTO result, Listener listener) {
+        long start = System.nanoTime();
+        BulkChunkResultDTO summary = chunk.result;
+        if (!chunk.valid.isEmpty()) {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            try {
+                List<BulkItemErrorDTO> missing = retryPolicy.execute(() -> tx.execute(status -> apply(chunk, listener)));
+                for (BulkItemErrorDTO error : missing) {
+                    reject(summary, error, result);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Bulk upsert chunk {} (items {}-{}) failed",
+                        summary.getChunk(), summary.getFirstIndex(), summary.getLastIndex(), e);
+                summary.setInserted(0);
+                summary.setUpdated(0);
+                summary.setStatus(BulkChunkResultDTO.Status.FAILED);
+                summary.setMessage(e.getMessage());
+                result.setFailed(result.getFailed() + chunk.valid.size());
+            }
+        }
+        if (summary.getStatus() == null) {
+            summary.setStatus(BulkChunkResultDTO.Status.APPLIED);
+        }
+        summary.setMillis((System.nanoTime() - start) / 1_000_000);
+        result.setInserted(result.getInserted() + summary.getInserted());
+        result.setUpdated(result.getUpdated() + summary.getUpdated());
+        if (listener != null) {
+            listener.afterChunk(summary);
+        } else {
+            result.getChunks().add(summary);
+        }
+    }
+
+    // One transaction; returns the updates whose beneficio does not exist
+    private List<BulkItemErrorDTO> apply(Chunk chunk, Listener listener) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+        long seq = changes.next();
+
+        // Rows to update are loaded with one query
+        Set<Long> updateIds = new HashSet<>();
+        for (BeneficioDTO item : chunk.valid) {
+            if (item.getId() != null) {
+                updateIds.add(item.getId());
+            }
+        }
+        Map<Long, Beneficio> existing = new HashMap<>();
+        if (!updateIds.isEmpty()) {
+            repository.findAllById(updateIds).forEach(b -> existing.put(b.getId(), b));
+        }
+
+        List<BulkItemErrorDTO> missing = new ArrayList<>();
+        List<Beneficio> written = new ArrayList<>(chunk.valid.size());
+        for (int i = 0; i < chunk.valid.size(); i++) {
+            BeneficioDTO item = chunk.valid.get(i);
+            if (item.getId() == null) {
+                Beneficio beneficio = beneficioService.toEntity(item);
+                beneficio.setChangeSeq(seq);
+                entityManager.persist(beneficio);
+                stats.added(beneficio.getValor(), beneficio.getAtivo());
+                written.add(beneficio);
+                continue;
+            }
+            Beneficio beneficio = existing.get(item.getId());
+            if (beneficio == null) {
+                BeneficioException e = new BeneficioException(ErrorCode.BENEFICIO_NOT_FOUND, item.getId());
+                missing.add(new BulkItemErrorDTO(chunk.indexes[i], item.getId(), e.getCode(), e.getMessage()));
+                continue;
+            }
+            Money before = beneficioService.balance(beneficio);
+            Boolean wasAtivo = beneficio.getAtivo();
+            beneficioService.applyUpdate(beneficio, item);
+            beneficio.setChangeSeq(seq);
+            stats.changed(before, wasAtivo, item.getValor(), beneficio.getAtivo());
+            written.add(beneficio);
+        }
+        chunk.result.setInserted(chunk.inserts);
+        chunk.result.setUpdated(chunk.valid.size() - chunk.inserts - missing.size());
+        if (listener != null) {
+            listener.beforeCommit(chunk.result, missing);
+        }
+        entityManager.flush();
+
+        List<Long> ids = new ArrayList<>(written.size());
+        for (Beneficio beneficio : written) {
+            ids.add(beneficio.getId());
+            textIndex.indexed(beneficio);
+        }
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new BeneficioChangedEvent(ids, true));
+        }
+        // Nothing from this chunk is needed again; keep the context from growing
+        entityManager.clear();
+        return missing;
+    }
+
+    private void reject(BulkChunkResultDTO summary, BulkItemErrorDTO error, BulkUpsertResultDTO result) {
+        summary.setRejected(summary.getRejected() + 1);
+        result.setRejected(result.getRejected() + 1);
+        if (result.getRejected() <= maxReportedErrors) {
+            summary.getErrors().add(error);
+        }
+    }
+
+    // Items read for one chunk: the valid ones and their positions in the body
+    private final class Chunk {
+        private final BulkChunkResultDTO result;
+        private final List<BeneficioDTO> valid = new ArrayList<>();
+        private final int[] indexes = new int[chunkSize];
+        private int inserts;
+
+        private Chunk(int number, int firstIndex) {
+            this.result = new BulkChunkResultDTO(number, firstIndex);
+        }
+
+        private void add(BeneficioDTO item, BulkUpsertResultDTO total) {
+            int index = result.getLastIndex() + 1;
+            result.setLastIndex(index);
+            total.setReceived(total.getReceived() + 1);
+            if (item == null) {
+                reject(result, new BulkItemErrorDTO(index, null, ErrorCode.INVALID_REQUEST, "Item cannot be null"), total);
+                return;
+            }
+            try {
+                beneficioService.validateBeneficioDTO(item);
+            } catch (BeneficioException e) {
+                reject(result, new BulkItemErrorDTO(index, item.getId(), e.getCode(), e.getMessage()), total);
+                return;
+            }
+            indexes[valid.size()] = index;
+            valid.add(item);
+            if (item.getId() == null) {
+                inserts++;
+            }
+        }
+
+        private int size() {
+            return result.getLastIndex() - result.getFirstIndex() + 1;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hands out the values written to {@code CHANGE_SEQ} by every write to a beneficio,
+ * one value per transaction, and tracks which of them may still commit.
+ *
+ * Values are taken from {@code BENEFICIO_CHANGE_SEQ} in blocks of {@link #BLOCK_SIZE}
+ * (the sequence's increment), so most transactions never touch the database for one.
+ * Because transactions commit out of order, a reader must not skip past a value
+ * whose transaction is still open: {@link #watermark()} is the highest value below
+ * which every transaction on this instance has finished. The watermark is exact for
+ * a single instance; writers on other instances are not tracked.
+ *
+ * For the same reason the highest committed value says nothing about whether a
+ * commit happened, so every transaction holding a value also adds one to a stripe of
+ * {@code BENEFICIO_COMMITS} just before it commits; the sum of the stripes grows on
+ * every commit from any instance. The counter is written after the pending entity changes
+ * are flushed, so its row lock is always the last one a writer takes.
+ */
+@Component
+public class ChangeSequence {
+
+    static final int BLOCK_SIZE = 50;
+
+    static final int COMMIT_STRIPES = 16;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // All guarded by this
+    private long nextValue = 1;
+    private long blockEnd = 0;
+    private long highest;
+    private final TreeSet<Long> open = new TreeSet<>();
+
+    @PostConstruct
+    void start() {
+        Long committed = jdbcTemplate.queryForObject(
+            "SELECT GREATEST("
+                + "(SELECT COALESCE(MAX(CHANGE_SEQ), 0) FROM BENEFICIO), "
+                + "(SELECT COALESCE(MAX(CHANGE_SEQ), 0) FROM BENEFICIO_SHARD), "
+                + "(SELECT COALESCE(MAX(CHANGE_SEQ), 0) FROM BENEFICIO_TOMBSTONE))", Long.class);
+        synchronized (this) {
+            highest = committed != null ? committed : 0;
+        }
+        Set<Integer> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT STRIPE FROM BENEFICIO_COMMITS", Integer.class));
+        List<Integer> missing = new ArrayList<>();
+        for (int stripe = 0; stripe < COMMIT_STRIPES; stripe++) {
+            if (!existing.contains(stripe)) {
+                missing.add(stripe);
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO BENEFICIO_COMMITS (STRIPE, COMMITS) VALUES (?, 0)",
+                    missing, missing.size(), (ps, stripe) -> ps.setInt(1, stripe));
+        }
+    }
+
+    /**
+     * Value to stamp on everything the current transaction writes; the same value is
+     * returned for the rest of the transaction.
+     */
+    public long next() {
+        Long current = (Long) TransactionSynchronizationManager.getResource(this);
+        if (current != null) {
+            return current;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Change sequence values can only be taken inside a transaction");
+        }
+        long seq = allocate();
+        TransactionSynchronizationManager.bindResource(this, seq);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                flushEntities();
+                jdbcTemplate.update("UPDATE BENEFICIO_COMMITS SET COMMITS = COMMITS + 1 WHERE STRIPE = ?",
+                        ThreadLocalRandom.current().nextInt(COMMIT_STRIPES));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ChangeSequence.this);
+                release(seq);
+            }
+        });
+        return seq;
+    }
+
+    /**
+     * Highest value such that no transaction holding it or a lower one is still open.
+     */
+    public synchronized long watermark() {
+        return open.isEmpty() ? highest : open.first() - 1;
+    }
+
+    /**
+     * Highest value handed out so far if no transaction holding one is open, otherwise
+     * -1. Two equal non-negative readings mean that no write on this instance was in
+     * progress at any point between them.
+     */
+    public synchronized long quietPoint() {
+        return open.isEmpty() ? highest : -1;
+    }
+
+    private synchronized long allocate() {
+        if (nextValue > blockEnd) {
+            Long start = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR BENEFICIO_CHANGE_SEQ", Long.class);
+            nextValue = start;
+            blockEnd = start + BLOCK_SIZE - 1;
+        }
+        long seq = nextValue++;
+        open.add(seq);
+        highest = Math.max(highest, seq);
+        return seq;
+    }
+
+    private synchronized void release(long seq) {
+        open.remove(seq);
+    }
+
+    // Translated as the commit would have translated it, so retries still recognize conflicts
+    private void flushEntities() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.TransferState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Applies the transfer as two guarded UPDATE statements without loading entities:
+ * the debit only matches an active row with enough balance, the credit only matches
+ * an active row whose balance stays within {@link Money#MAX_CENTS}. Each statement takes the row lock itself, and the two are issued in
+ * ascending ID order so opposing transfers cannot deadlock.
+ *
+ * When a statement matches no row the account is read once to tell a missing or
+ * inactive account apart from insufficient funds or a full balance; the exception then rolls back
+ * whichever statement already ran. When it matches, the balance is read back under
+ * the row lock the statement took, so {@link BeneficioStatsService} can move the
+ * account between balance buckets.
+ */
+@Component("conditional-update")
+public class ConditionalUpdateTransferStrategy implements TransferStrategy {
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Override
+    public void transfer(TransferRequestDTO request) {
+        if (request.getFromId() < request.getToId()) {
+            debit(request);
+            credit(request);
+        } else {
+            credit(request);
+            debit(request);
+        }
+    }
+
+    void debit(TransferRequestDTO request) {
+        if (repository.debit(request.getFromId(), request.getAmount(), changes.next()) == 1) {
+            repository.findBalanceById(request.getFromId()).ifPresent(after ->
+                    stats.changed(after.plus(request.getAmount()), true, after, true));
+            return;
+        }
+        Optional<TransferState> state = repository.findTransferStateById(request.getFromId());
+        if (state.isEmpty()) {
+            throw new BeneficioException(ErrorCode.SOURCE_NOT_FOUND, request.getFromId());
+        }
+        if (!Boolean.TRUE.equals(state.get().getAtivo())) {
+            throw new BeneficioException(ErrorCode.SOURCE_INACTIVE);
+        }
+        throw new BeneficioException(ErrorCode.INSUFFICIENT_BALANCE, state.get().getValor(), request.getAmount());
+    }
+
+    void credit(TransferRequestDTO request) {
+        Money ceiling = Money.ofCents(Money.MAX_CENTS - request.getAmount().cents());
+        if (repository.credit(request.getToId(), request.getAmount(), ceiling, changes.next()) == 1) {
+            repository.findBalanceById(request.getToId()).ifPresent(after ->
+                    stats.changed(after.minus(request.getAmount()), true, after, true));
+            return;
+        }
+        Optional<TransferState> state = repository.findTransferStateById(request.getToId());
+        if (state.isEmpty()) {
+            throw new BeneficioException(ErrorCode.DESTINATION_NOT_FOUND, request.getToId());
+        }
+        if (!Boolean.TRUE.equals(state.get().getAtivo())) {
+            throw new BeneficioException(ErrorCode.DESTINATION_INACTIVE);
+        }
+        throw new BeneficioException(ErrorCode.BALANCE_LIMIT_EXCEEDED, request.getToId());
+    }
+}
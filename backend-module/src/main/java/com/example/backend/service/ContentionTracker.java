@@ -0,0 +1,58 @@
+package com.example.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps an exponentially decaying count of recent optimistic-lock conflicts per
+ * account. An account whose score reaches {@code threshold} is considered contended
+ * until enough conflict-free time has passed for the score to decay below it.
+ */
+@Component
+public class ContentionTracker {
+
+    @Value("${beneficio.transfer.contention.threshold:3}")
+    private double threshold = 3;
+
+    @Value("${beneficio.transfer.contention.half-life-ms:10000}")
+    private long halfLifeMs = 10000;
+
+    @Value("${beneficio.transfer.contention.max-tracked-accounts:10000}")
+    private int maxTrackedAccounts = 10000;
+
+    private final ConcurrentMap<Long, Score> scores = new ConcurrentHashMap<>();
+
+    public void recordConflict(Long accountId) {
+        long now = System.currentTimeMillis();
+        scores.compute(accountId, (id, score) -> score == null
+                ? new Score(1, now)
+                : new Score(score.decayedTo(now, halfLifeMs) + 1, now));
+        if (scores.size() > maxTrackedAccounts) {
+            prune(now);
+        }
+    }
+
+    public boolean isContended(Long accountId) {
+        Score score = scores.get(accountId);
+        return score != null && score.decayedTo(System.currentTimeMillis(), halfLifeMs) >= threshold;
+    }
+
+    int trackedAccounts() {
+        return scores.size();
+    }
+
+    // Drops accounts whose score has decayed to noise
+    private void prune(long now) {
+        scores.entrySet().removeIf(e -> e.getValue().decayedTo(now, halfLifeMs) < 0.5);
+    }
+
+    private record Score(double value, long updatedAt) {
+        double decayedTo(long now, long halfLifeMs) {
+            long elapsed = Math.max(0, now - updatedAt);
+            return value * Math.pow(0.5, (double) elapsed / halfLifeMs);
+        }
+    }
+}
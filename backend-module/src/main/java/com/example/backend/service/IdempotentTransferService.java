@@ -0,0 +1,193 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.TransferIdempotency;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.repository.TransferIdempotencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs transfers at most once per {@code Idempotency-Key}. The outcome of the first
+ * request with a key (applied, or rejected with its message) is stored in
+ * {@code TRANSFER_IDEMPOTENCY} and replayed to every retry without touching the
+ * account locks; a bounded LRU with TTL eviction sits in front of the table.
+ *
+ * The key row is inserted in the transfer's own transaction before any account is
+ * locked, so a duplicate running on another instance blocks on the primary key and
+ * then fails instead of moving money twice. For that reason keyed transfers never go
+ * through the {@link TransferPipeline}, even when it is enabled: a pipelined transfer
+ * can still commit after its caller gave up waiting, with no key stored. Concurrent
+ * duplicates on the same instance wait for the first request. Transient failures
+ * (lock timeouts) are not stored, so the client can retry them with the same key.
+ */
+@Service
+public class IdempotentTransferService {
+
+    static final int MAX_KEY_LENGTH = 100;
+    static final String APPLIED_MESSAGE = "Transferência realizada com sucesso";
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private TransferIdempotencyRepository repository;
+
+    @Value("${beneficio.transfer.idempotency.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    @Value("${beneficio.transfer.idempotency.cache-ttl-ms:600000}")
+    private long cacheTtlMs = 600000;
+
+    @Value("${beneficio.transfer.idempotency.retention-hours:24}")
+    private long retentionHours = 24;
+
+    private final Map<String, CachedOutcome> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedOutcome> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final Map<String, CompletableFuture<TransferIdempotency>> inFlight = new ConcurrentHashMap<>();
+
+    public TransferIdempotency transfer(String key, TransferRequestDTO request) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BeneficioException(ErrorCode.IDEMPOTENCY_KEY_INVALID, MAX_KEY_LENGTH);
+        }
+        TransferIdempotency stored = lookup(key);
+        if (stored != null) {
+            return replay(stored, request);
+        }
+
+        CompletableFuture<TransferIdempotency> mine = new CompletableFuture<>();
+        CompletableFuture<TransferIdempotency> first = inFlight.putIfAbsent(key, mine);
+        if (first != null) {
+            return replay(await(first), request);
+        }
+        try {
+            // The first request may have finished between the lookup and putIfAbsent
+            stored = lookup(key);
+            TransferIdempotency outcome = stored != null ? stored : execute(key, request);
+            remember(outcome);
+            mine.complete(outcome);
+            return replay(outcome, request);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private TransferIdempotency execute(String key, TransferRequestDTO request) {
+        try {
+            // A fresh row per attempt: a rolled-back attempt leaves its instance unusable
+            service.transfer(request, () -> repository.saveAndFlush(outcome(key, request, null, APPLIED_MESSAGE)));
+            return outcome(key, request, null, APPLIED_MESSAGE);
+        } catch (IllegalArgumentException e) {
+            ErrorCode code = e instanceof BeneficioException rejection ? rejection.getCode() : ErrorCode.INVALID_REQUEST;
+            return store(outcome(key, request, code, e.getMessage()));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance claimed the key first and its transfer won
+            return repository.findById(key).orElseThrow(() -> e);
+        }
+    }
+
+    private TransferIdempotency store(TransferIdempotency outcome) {
+        try {
+            return repository.saveAndFlush(outcome);
+        } catch (DataIntegrityViolationException e) {
+            return repository.findById(outcome.getIdempotencyKey()).orElseThrow(() -> e);
+        }
+    }
+
+    private TransferIdempotency lookup(String key) {
+        synchronized (cache) {
+            CachedOutcome cached = cache.get(key);
+            if (cached != null) {
+                if (cached.expiresAtNanos - System.nanoTime() > 0) {
+                    return cached.outcome;
+                }
+                cache.remove(key);
+            }
+        }
+        TransferIdempotency stored = repository.findById(key).orElse(null);
+        if (stored != null) {
+            remember(stored);
+        }
+        return stored;
+    }
+
+    private void remember(TransferIdempotency outcome) {
+        CachedOutcome cached = new CachedOutcome(outcome,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cacheTtlMs));
+        synchronized (cache) {
+            cache.put(outcome.getIdempotencyKey(), cached);
+        }
+    }
+
+    // A key may only be replayed for the request it was first used with
+    private static TransferIdempotency replay(TransferIdempotency outcome, TransferRequestDTO request) {
+        boolean sameRequest = Objects.equals(outcome.getFromId(), request.getFromId())
+                && Objects.equals(outcome.getToId(), request.getToId())
+                && Objects.equals(outcome.getAmount(), request.getAmount());
+        if (!sameRequest) {
+            throw new BeneficioException(ErrorCode.IDEMPOTENCY_KEY_REUSED, outcome.getIdempotencyKey());
+        }
+        return outcome;
+    }
+
+    private static TransferIdempotency await(CompletableFuture<TransferIdempotency> first) {
+        try {
+            return first.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // A null code means the transfer was applied
+    private TransferIdempotency outcome(String key, TransferRequestDTO request, ErrorCode code, String message) {
+        TransferIdempotency outcome = new TransferIdempotency(key, request.getFromId(), request.getToId(),
+                request.getAmount(), code == null, message, LocalDateTime.now());
+        outcome.setErrorCode(code);
+        return outcome;
+    }
+
+    /**
+     * Drops stored outcomes older than {@code retention-hours}; a retry arriving after
+     * that runs as a new transfer.
+     */
+    @Scheduled(fixedDelayString = "${beneficio.transfer.idempotency.purge-interval-ms:3600000}",
+               initialDelayString = "${beneficio.transfer.idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        repository.deleteCreatedBefore(LocalDateTime.now().minus(Duration.ofHours(retentionHours)));
+    }
+
+    private static final class CachedOutcome {
+        private final TransferIdempotency outcome;
+        private final long expiresAtNanos;
+
+        private CachedOutcome(TransferIdempotency outcome, long expiresAtNanos) {
+            this.outcome = outcome;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
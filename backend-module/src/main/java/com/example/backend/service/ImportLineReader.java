@@ -0,0 +1,145 @@
+package com.example.backend.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Splits a channel into lines through one fixed-size buffer, without decoding them:
+ * the current line is a range of {@link #array()}, valid until the next call to
+ * {@link #next()}. Lines end at {@code \n} (a preceding {@code \r} is dropped).
+ *
+ * A line that does not fit in the buffer is skipped up to its end and reported with
+ * {@link #isTooLong()}, so memory never depends on the input.
+ */
+final class ImportLineReader {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] bytes;
+
+    // File offset of bytes[0]
+    private long base;
+    // Next unread byte and end of the data in bytes
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    private int start;
+    private int length;
+    private boolean tooLong;
+
+    /**
+     * @param position the channel's current offset, reported back by {@link #position()}
+     */
+    ImportLineReader(ReadableByteChannel channel, int bufferSize, long position) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.bytes = buffer.array();
+        this.base = position;
+    }
+
+    /**
+     * Moves to the next line; false at the end of the channel.
+     */
+    boolean next() throws IOException {
+        tooLong = false;
+        int scan = pos;
+        while (true) {
+            for (int i = scan; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    return line(i, i + 1);
+                }
+            }
+            if (eof) {
+                return pos < limit && line(limit, limit);
+            }
+            if (pos == 0 && limit == bytes.length) {
+                skipRestOfLine();
+                return true;
+            }
+            scan = limit - pos;
+            fill();
+        }
+    }
+
+    private boolean line(int end, int nextPos) {
+        start = pos;
+        length = end > start && bytes[end - 1] == '\r' ? end - 1 - start : end - start;
+        pos = nextPos;
+        return true;
+    }
+
+    // The buffer is full and holds no line end: drop bytes up to the next one
+    private void skipRestOfLine() throws IOException {
+        tooLong = true;
+        start = 0;
+        length = 0;
+        while (true) {
+            base += limit;
+            pos = 0;
+            limit = 0;
+            fill();
+            for (int i = 0; i < limit; i++) {
+                if (bytes[i] == '\n') {
+                    pos = i + 1;
+                    return;
+                }
+            }
+            if (eof) {
+                pos = limit;
+                return;
+            }
+        }
+    }
+
+    // Moves the unread bytes to the front and reads more after them
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(bytes, pos, bytes, 0, limit - pos);
+            base += pos;
+            limit -= pos;
+            pos = 0;
+        }
+        buffer.limit(bytes.length).position(limit);
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    int start() {
+        return start;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Offset of the current line's first byte.
+     */
+    long offset() {
+        return base + start;
+    }
+
+    boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * Offset just past the current line, i.e. where reading would resume.
+     */
+    long position() {
+        return base + pos;
+    }
+}
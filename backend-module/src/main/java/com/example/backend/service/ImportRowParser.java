@@ -0,0 +1,160 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Turns one line of an import file, as a range of bytes, into a {@link BeneficioDTO}.
+ * Throws {@link IOException} or {@link IllegalArgumentException} for a line it cannot read.
+ */
+interface ImportRowParser {
+
+    BeneficioDTO parse(byte[] bytes, int start, int length) throws IOException;
+
+    static ImportRowParser ndjson(ObjectReader reader) {
+        return (bytes, start, length) -> reader.readValue(bytes, start, length);
+    }
+
+    /**
+     * CSV with the given header line. Fields are separated by commas and may be quoted
+     * with {@code "}, doubled inside the field; a record cannot span lines.
+     */
+    static ImportRowParser csv(byte[] bytes, int start, int length) {
+        return new Csv(bytes, start, length);
+    }
+
+    final class Csv implements ImportRowParser {
+
+        private static final int ID = 0;
+        private static final int NOME = 1;
+        private static final int DESCRICAO = 2;
+        private static final int VALOR = 3;
+        private static final int ATIVO = 4;
+        private static final String[] COLUMNS = {"id", "nome", "descricao", "valor", "ativo"};
+
+        // Header position -> one of the constants above, or -1 for a column we ignore
+        private final int[] columns;
+        private final String[] values = new String[COLUMNS.length];
+        // Unescaped quoted field; a field is never longer than its line
+        private byte[] scratch = new byte[256];
+
+        private Csv(byte[] bytes, int start, int length) {
+            // A UTF-8 byte order mark is not part of the first column name
+            if (length >= 3 && bytes[start] == (byte) 0xEF && bytes[start + 1] == (byte) 0xBB
+                    && bytes[start + 2] == (byte) 0xBF) {
+                start += 3;
+                length -= 3;
+            }
+            String header = new String(bytes, start, length, StandardCharsets.UTF_8);
+            String[] names = header.split(",", -1);
+            columns = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i].trim().replace("\"", "").toLowerCase(Locale.ROOT);
+                columns[i] = Arrays.asList(COLUMNS).indexOf(name);
+            }
+            int[] sorted = columns.clone();
+            Arrays.sort(sorted);
+            if (Arrays.binarySearch(sorted, NOME) < 0 || Arrays.binarySearch(sorted, VALOR) < 0) {
+                throw new BeneficioException(ErrorCode.IMPORT_HEADER_INVALID, header);
+            }
+        }
+
+        @Override
+        public BeneficioDTO parse(byte[] bytes, int start, int length) {
+            Arrays.fill(values, null);
+            int end = start + length;
+            int i = start;
+            int column = 0;
+            while (true) {
+                int field = column < columns.length ? columns[column] : -1;
+                if (i < end && bytes[i] == '"') {
+                    i = quoted(bytes, i + 1, end, field);
+                } else {
+                    int from = i;
+                    while (i < end && bytes[i] != ',') {
+                        i++;
+                    }
+                    if (field >= 0) {
+                        values[field] = new String(bytes, from, i - from, StandardCharsets.UTF_8);
+                    }
+                }
+                column++;
+                if (i >= end) {
+                    break;
+                }
+                i++;
+            }
+            if (column != columns.length) {
+                throw new IllegalArgumentException("expected " + columns.length + " fields, found " + column);
+            }
+
+            BeneficioDTO dto = new BeneficioDTO();
+            dto.setId(blank(values[ID]) ? null : Long.valueOf(values[ID].trim()));
+            dto.setNome(values[NOME]);
+            dto.setDescricao(blank(values[DESCRICAO]) ? null : values[DESCRICAO]);
+            dto.setValor(blank(values[VALOR]) ? null : money(values[VALOR].trim()));
+            dto.setAtivo(blank(values[ATIVO]) ? null : bool(values[ATIVO].trim()));
+            return dto;
+        }
+
+        // Reads a quoted field starting after its opening quote; returns the index after the closing one
+        private int quoted(byte[] bytes, int i, int end, int field) {
+            if (scratch.length < end - i) {
+                scratch = new byte[end - i];
+            }
+            int n = 0;
+            while (true) {
+                if (i >= end) {
+                    throw new IllegalArgumentException("unterminated quoted field");
+                }
+                if (bytes[i] == '"') {
+                    if (i + 1 < end && bytes[i + 1] == '"') {
+                        scratch[n++] = '"';
+                        i += 2;
+                        continue;
+                    }
+                    i++;
+                    break;
+                }
+                scratch[n++] = bytes[i++];
+            }
+            if (i < end && bytes[i] != ',') {
+                throw new IllegalArgumentException("unexpected character after quoted field");
+            }
+            if (field >= 0) {
+                values[field] = new String(scratch, 0, n, StandardCharsets.UTF_8);
+            }
+            return i;
+        }
+
+        private static boolean blank(String value) {
+            return value == null || value.isBlank();
+        }
+
+        private static Money money(String value) {
+            try {
+                return Money.parse(value);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException(e.getMessage());
+            }
+        }
+
+        private static Boolean bool(String value) {
+            if (value.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            }
+            if (value.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+            throw new IllegalArgumentException("ativo must be true or false: " + value);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Reads both accounts without locks and relies on the {@code @Version} column: the
+ * flush issues {@code UPDATE ... WHERE ID = ? AND VERSION = ?}, so a transfer that
+ * raced with another commit on either row fails with an optimistic-lock exception
+ * and is retried by {@link BeneficioService} with its own retry budget. The last
+ * attempt locks the rows instead, so a transfer that keeps losing races under heavy
+ * contention still goes through.
+ */
+@Component("optimistic")
+public class OptimisticTransferStrategy implements TransferStrategy {
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private PessimisticTransferStrategy pessimistic;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${beneficio.transfer.optimistic.max-attempts:10}")
+    private int maxAttempts = 10;
+
+    @Override
+    public void transfer(TransferRequestDTO request) {
+        Beneficio from = null;
+        Beneficio to = null;
+        for (Beneficio b : repository.findAllById(List.of(request.getFromId(), request.getToId()))) {
+            if (b.getId().equals(request.getFromId())) {
+                from = b;
+            } else if (b.getId().equals(request.getToId())) {
+                to = b;
+            }
+        }
+
+        BeneficioException rejection = TransferRules.rejection(request, from, to,
+                from != null ? from.getValor().cents() : 0, to != null ? to.getValor().cents() : 0);
+        if (rejection != null) {
+            throw rejection;
+        }
+
+        long seq = changes.next();
+        Money fromBefore = from.getValor();
+        Money toBefore = to.getValor();
+        from.setValor(fromBefore.minus(request.getAmount()));
+        from.setChangeSeq(seq);
+        to.setValor(toBefore.plus(request.getAmount()));
+        to.setChangeSeq(seq);
+        stats.changed(fromBefore, from.getAtivo(), from.getValor(), from.getAtivo());
+        stats.changed(toBefore, to.getAtivo(), to.getValor(), to.getAtivo());
+
+        // Version-checked UPDATEs run here, so conflicts surface inside the strategy
+        entityManager.flush();
+    }
+
+    @Override
+    public int maxAttempts() {
+        return maxAttempts;
+    }
+
+    @Override
+    public TransferStrategy lastAttempt() {
+        return pessimistic;
+    }
+}
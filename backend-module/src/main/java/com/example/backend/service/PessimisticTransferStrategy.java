@@ -0,0 +1,68 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Default strategy: locks both rows with {@code SELECT ... FOR UPDATE}, checks the
+ * rules in Java and lets dirty checking write the new balances.
+ */
+@Component("pessimistic")
+public class PessimisticTransferStrategy implements TransferStrategy {
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private BeneficioMetrics metrics;
+
+    @Override
+    public void transfer(TransferRequestDTO request) {
+        // Lock both rows in one round trip, lowest ID first
+        List<Long> ids = request.getFromId() < request.getToId()
+                ? List.of(request.getFromId(), request.getToId())
+                : List.of(request.getToId(), request.getFromId());
+        Beneficio from = null;
+        Beneficio to = null;
+        for (Beneficio locked : metrics.lock(() -> repository.findAllByIdForUpdate(ids))) {
+            if (locked.getId().equals(request.getFromId())) {
+                from = locked;
+            } else if (locked.getId().equals(request.getToId())) {
+                to = locked;
+            }
+        }
+
+        BeneficioException rejection = TransferRules.rejection(request, from, to,
+                from != null ? from.getValor().cents() : 0, to != null ? to.getValor().cents() : 0);
+        if (rejection != null) {
+            throw rejection;
+        }
+
+        // Perform the transfer
+        long seq = changes.next();
+        Money fromBefore = from.getValor();
+        Money toBefore = to.getValor();
+        from.setValor(fromBefore.minus(request.getAmount()));
+        from.setChangeSeq(seq);
+        to.setValor(toBefore.plus(request.getAmount()));
+        to.setChangeSeq(seq);
+        stats.changed(fromBefore, from.getAtivo(), from.getValor(), from.getAtivo());
+        stats.changed(toBefore, to.getAtivo(), to.getValor(), to.getAtivo());
+
+        repository.save(from);
+        repository.save(to);
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.entity.BeneficioShard;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.TransferState;
+import com.example.backend.repository.BeneficioShardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of hot accounts across {@code BENEFICIO_SHARD} rows so that
+ * concurrent transfers stop queueing on a single row lock. The logical balance of a
+ * beneficio is always {@code BENEFICIO.VALOR} plus the sum of its shards.
+ *
+ * Transfers touching a sharded account debit or credit one randomly chosen shard
+ * with a guarded UPDATE. When that shard is short, the fallback locks the base row
+ * and every shard (in shard order) and collects the amount from all of them.
+ * Accounts are always visited in ascending ID order, and within an account the base
+ * row before its shards, which keeps the sharded path deadlock-free against the
+ * other transfer strategies and against batch transfers.
+ *
+ * Which accounts are sharded is cached per instance and refreshed by the periodic
+ * rebalance. A stale cache is safe: a credit to the base row still counts towards
+ * the logical balance, a debit that misses the shards ends up in the fallback, and a
+ * debit rejected against the empty base row of an account sharded elsewhere makes
+ * the caller {@link #refresh} the account and try again on the sharded path.
+ *
+ * After a shard write the logical balance is read back for
+ * {@link BeneficioStatsService}. Only that shard is locked, so two transfers on
+ * different shards of one account can each miss the other's change and report the
+ * same bucket move; the stats verifier corrects that.
+ */
+@Service
+public class ShardedBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedBalanceService.class);
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private BeneficioShardRepository shardRepository;
+
+    @Autowired
+    private ConditionalUpdateTransferStrategy conditionalUpdate;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TransferRetryPolicy retryPolicy;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private BeneficioMetrics metrics;
+
+    @Value("${beneficio.shards.max-count:64}")
+    private int maxShardCount = 64;
+
+    // Shard count of every sharded account, as last seen by this instance
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    private Counter collectFallbacks;
+
+    @PostConstruct
+    void start() {
+        collectFallbacks = Counter.builder("beneficio.shards.collect.fallbacks")
+                .description("Sharded debits that had to collect funds from every shard")
+                .register(meterRegistry);
+        Gauge.builder("beneficio.shards.accounts", shardCounts, Map::size)
+                .description("Accounts whose balance is split across shards")
+                .register(meterRegistry);
+        refreshShardCounts();
+    }
+
+    public boolean isSharded(Long id) {
+        return shardCounts.containsKey(id);
+    }
+
+    public boolean involvesSharded(TransferRequestDTO request) {
+        return !shardCounts.isEmpty()
+                && (isSharded(request.getFromId()) || isSharded(request.getToId()));
+    }
+
+    /**
+     * Re-reads the shard count of one account after a caller found the cache stale.
+     * Returns whether the account is sharded.
+     */
+    public boolean refresh(Long id) {
+        int count = repository.findShardCountById(id).orElse(0);
+        remember(id, count);
+        return count > 0;
+    }
+
+    static boolean hasShards(Beneficio account) {
+        return account.getShardCount() != null && account.getShardCount() > 0;
+    }
+
+    /**
+     * Moves the logical balance of a beneficio into {@code count} shards, leaving the
+     * base row at zero. An already sharded account is re-split into the new count.
+     */
+    @Transactional
+    public void split(Long id, int count) {
+        if (count < 2 || count > maxShardCount) {
+            throw new BeneficioException(ErrorCode.SHARD_COUNT_INVALID, maxShardCount);
+        }
+        Beneficio account = lockAccount(id);
+        List<BeneficioShard> shards = lockShards(account);
+        redistribute(account, shards, total(account, shards), count);
+    }
+
+    /**
+     * Folds every shard back into the base row.
+     */
+    @Transactional
+    public void merge(Long id) {
+        Beneficio account = lockAccount(id);
+        if (!hasShards(account)) {
+            throw new BeneficioException(ErrorCode.NOT_SHARDED, id);
+        }
+        List<BeneficioShard> shards = lockShards(account);
+        redistribute(account, shards, total(account, shards), 0);
+    }
+
+    /**
+     * Sets the logical balance of a sharded account, spreading it evenly across its
+     * shards. Must run inside the caller's transaction.
+     */
+    public void setTotal(Beneficio account, Money total) {
+        lockAccount(account.getId());
+        redistribute(account, lockShards(account), total, account.getShardCount());
+    }
+
+    /**
+     * Applies a transfer in which at least one side is sharded. Must run inside the
+     * caller's transaction; non-sharded sides go through guarded UPDATEs on the base
+     * row, exactly like {@link ConditionalUpdateTransferStrategy}.
+     */
+    public void transfer(TransferRequestDTO request) {
+        if (request.getFromId() < request.getToId()) {
+            debit(request);
+            credit(request);
+        } else {
+            credit(request);
+            debit(request);
+        }
+    }
+
+    private void debit(TransferRequestDTO request) {
+        Long id = request.getFromId();
+        Integer count = shardCounts.get(id);
+        if (count == null) {
+            conditionalUpdate.debit(request);
+            return;
+        }
+        requireActive(id, true);
+        int shard = ThreadLocalRandom.current().nextInt(count);
+        if (shardRepository.debit(id, shard, request.getAmount(), changes.next()) == 1) {
+            repository.findBalanceById(id).ifPresent(after ->
+                    stats.changed(after.plus(request.getAmount()), true, after, true));
+            return;
+        }
+        collect(request);
+    }
+
+    private void credit(TransferRequestDTO request) {
+        Long id = request.getToId();
+        Integer count = shardCounts.get(id);
+        if (count == null) {
+            conditionalUpdate.credit(request);
+            return;
+        }
+        requireActive(id, false);
+        int shard = ThreadLocalRandom.current().nextInt(count);
+        if (shardRepository.credit(id, shard, request.getAmount(), changes.next()) == 1) {
+            repository.findBalanceById(id).ifPresent(after ->
+                    stats.changed(after.minus(request.getAmount()), true, after, true));
+            return;
+        }
+        // The shard is gone (merged or re-split elsewhere); the base row still counts
+        conditionalUpdate.credit(request);
+    }
+
+    // The chosen shard was short: take the amount from the whole account and even it out
+    private void collect(TransferRequestDTO request) {
+        collectFallbacks.increment();
+        List<Beneficio> locked = metrics.lock(() -> repository.findAllByIdForUpdate(List.of(request.getFromId())));
+        Beneficio account = locked.stream()
+                .findFirst()
+                .orElseThrow(() -> new BeneficioException(ErrorCode.SOURCE_NOT_FOUND, request.getFromId()));
+        if (!Boolean.TRUE.equals(account.getAtivo())) {
+            throw new BeneficioException(ErrorCode.SOURCE_INACTIVE);
+        }
+        List<BeneficioShard> shards = metrics.lock(() -> lockShards(account));
+        Money available = total(account, shards);
+        if (available.isLessThan(request.getAmount())) {
+            throw new BeneficioException(ErrorCode.INSUFFICIENT_BALANCE, available, request.getAmount());
+        }
+        Money after = available.minus(request.getAmount());
+        redistribute(account, shards, after, shards.size());
+        stats.changed(available, true, after, true);
+    }
+
+    private void requireActive(Long id, boolean source) {
+        Optional<TransferState> state = repository.findTransferStateById(id);
+        if (state.isEmpty()) {
+            throw new BeneficioException(source ? ErrorCode.SOURCE_NOT_FOUND : ErrorCode.DESTINATION_NOT_FOUND, id);
+        }
+        if (!Boolean.TRUE.equals(state.get().getAtivo())) {
+            throw new BeneficioException(source ? ErrorCode.SOURCE_INACTIVE : ErrorCode.DESTINATION_INACTIVE);
+        }
+    }
+
+    /**
+     * Locks the shards of an account whose base row is already locked. Returns an
+     * empty list for accounts that are not sharded.
+     */
+    public List<BeneficioShard> lockShards(Beneficio account) {
+        return hasShards(account) ? shardRepository.findAllForUpdate(account.getId()) : List.of();
+    }
+
+    public static Money total(Beneficio account, List<BeneficioShard> shards) {
+        long total = account.getValor().cents();
+        for (BeneficioShard shard : shards) {
+            total += shard.getValor().cents();
+        }
+        return Money.ofCents(total);
+    }
+
+    /**
+     * Rewrites a locked account so that its logical balance is {@code total}, spread
+     * evenly over {@code count} shards (or kept in the base row when {@code count} is
+     * zero). Shards are created or removed as needed; unchanged rows are not written,
+     * and an account already in that layout is left alone: no new change sequence and
+     * no change event.
+     */
+    public void redistribute(Beneficio account, List<BeneficioShard> shards, Money total, int count) {
+        Long id = account.getId();
+        afterCommit(() -> remember(id, count));
+        Money[] parts = count == 0 ? new Money[0] : splitEvenly(total, count);
+        if (isLaidOut(account, shards, total, parts)) {
+            return;
+        }
+        if (count == 0) {
+            account.setValor(total);
+        } else {
+            account.setValor(Money.ZERO);
+            for (int i = 0; i < count; i++) {
+                if (i < shards.size()) {
+                    shards.get(i).setValor(parts[i]);
+                } else {
+                    shardRepository.save(new BeneficioShard(id, i, parts[i]));
+                }
+            }
+        }
+        for (int i = count; i < shards.size(); i++) {
+            shardRepository.delete(shards.get(i));
+        }
+        account.setShardCount(count);
+        account.setChangeSeq(changes.next());
+        eventPublisher.publishEvent(BeneficioChangedEvent.balances(id));
+    }
+
+    // Whether the base row and shards already hold exactly these parts
+    private static boolean isLaidOut(Beneficio account, List<BeneficioShard> shards, Money total, Money[] parts) {
+        int count = parts.length;
+        if (account.getShardCount() == null || account.getShardCount() != count || shards.size() != count) {
+            return false;
+        }
+        if (!account.getValor().equals(count == 0 ? total : Money.ZERO)) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!shards.get(i).getValor().equals(parts[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void remember(Long id, int count) {
+        if (count == 0) {
+            shardCounts.remove(id);
+        } else {
+            shardCounts.put(id, count);
+        }
+    }
+
+    // Equal shares rounded down to the cent; shard 0 absorbs the remainder
+    static Money[] splitEvenly(Money total, int count) {
+        long share = total.cents() / count;
+        Money[] parts = new Money[count];
+        Arrays.fill(parts, Money.ofCents(share));
+        parts[0] = Money.ofCents(total.cents() - share * (count - 1));
+        return parts;
+    }
+
+    /**
+     * Accounts with a shard written with a change sequence in {@code (since, upTo]}.
+     */
+    public List<Long> changedBetween(long since, long upTo) {
+        return shardRepository.findBeneficioIdsChangedBetween(since, upTo);
+    }
+
+    public Money shardTotal(Beneficio account) {
+        return hasShards(account) ? Money.of(shardRepository.sumValor(account.getId())) : null;
+    }
+
+    /**
+     * Periodically evens out the shards of every sharded account and sweeps any
+     * balance left in the base row back into them. Also picks up accounts sharded or
+     * merged by other instances.
+     */
+    @Scheduled(fixedDelayString = "${beneficio.shards.rebalance-interval-ms:60000}",
+               initialDelayString = "${beneficio.shards.rebalance-interval-ms:60000}")
+    public void rebalanceAll() {
+        refreshShardCounts();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (Long id : new ArrayList<>(shardCounts.keySet())) {
+            try {
+                retryPolicy.execute(() -> tx.execute(status -> {
+                    rebalance(id);
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance shards of beneficio {}", id, e);
+            }
+        }
+    }
+
+    void rebalance(Long id) {
+        Optional<Beneficio> locked = repository.findAllByIdForUpdate(List.of(id)).stream().findFirst();
+        if (locked.isEmpty() || !hasShards(locked.get())) {
+            shardCounts.remove(id);
+            return;
+        }
+        Beneficio account = locked.get();
+        List<BeneficioShard> shards = lockShards(account);
+        redistribute(account, shards, total(account, shards), account.getShardCount());
+    }
+
+    void refreshShardCounts() {
+        Map<Long, Integer> current = new HashMap<>();
+        for (Beneficio account : repository.findByShardCountGreaterThan(0)) {
+            current.put(account.getId(), account.getShardCount());
+        }
+        shardCounts.keySet().retainAll(current.keySet());
+        shardCounts.putAll(current);
+    }
+
+    private Beneficio lockAccount(Long id) {
+        return repository.findAllByIdForUpdate(List.of(id)).stream()
+                .findFirst()
+                .orElseThrow(() -> new BeneficioException(ErrorCode.BENEFICIO_TO_CHANGE_NOT_FOUND, id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
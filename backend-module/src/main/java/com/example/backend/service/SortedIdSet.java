@@ -0,0 +1,74 @@
+package com.example.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Set of IDs kept as a sorted {@code long[]}: 8 bytes per ID and no boxing. Adding an
+ * ID larger than every other one (the common case, since IDs come from a sequence) is
+ * an append; any other add or remove shifts the tail of the array. Not thread-safe.
+ */
+final class SortedIdSet {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] ids = EMPTY;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long get(int index) {
+        return ids[index];
+    }
+
+    boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+
+    boolean add(long id) {
+        int at;
+        if (size == 0 || ids[size - 1] < id) {
+            at = size;
+        } else {
+            at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return false;
+            }
+            at = -at - 1;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(ids, at, ids, at + 1, size - at);
+        ids[at] = id;
+        size++;
+        return true;
+    }
+
+    boolean remove(long id) {
+        int at = Arrays.binarySearch(ids, 0, size, id);
+        if (at < 0) {
+            return false;
+        }
+        System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+        size--;
+        return true;
+    }
+
+    // Drops the spare capacity left by growth, e.g. once a bulk build is done
+    void trim() {
+        if (ids.length > size) {
+            ids = size == 0 ? EMPTY : Arrays.copyOf(ids, size);
+        }
+    }
+
+    // Approximate heap footprint: this object plus its array
+    long bytes() {
+        return 16 + 16 + 8L * ids.length;
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.dto.TransferResultDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional group-commit front end for {@link BeneficioService#transfer}. Callers enqueue
+ * transfers into a bounded queue; a single writer thread drains it whenever
+ * {@code max-batch-size} requests are waiting or {@code max-linger-ms} has passed since
+ * the first one arrived, and settles the whole micro-batch in one transaction through
+ * {@link BeneficioService#transferBatch} in best-effort mode. Each caller's future is
+ * completed with the outcome of its own item, so results are the same as running the
+ * transfers one after another, but the commit cost is paid once per batch. Each
+ * transfer is recorded in {@link BeneficioMetrics} from submission to outcome, queue
+ * wait included, and the batch records its phases once.
+ */
+@Component
+public class TransferPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferPipeline.class);
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BeneficioMetrics metrics;
+
+    @Value("${beneficio.transfer.pipeline.enabled:false}")
+    private boolean enabled;
+
+    @Value("${beneficio.transfer.pipeline.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${beneficio.transfer.pipeline.max-batch-size:200}")
+    private int maxBatchSize = 200;
+
+    @Value("${beneficio.transfer.pipeline.max-linger-ms:5}")
+    private long maxLingerMs = 5;
+
+    @Value("${beneficio.transfer.pipeline.wait-timeout-ms:10000}")
+    private long waitTimeoutMs = 10000;
+
+    private BlockingQueue<PendingTransfer> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private DistributionSummary batchSize;
+    private Timer queueWait;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSize = DistributionSummary.builder("beneficio.transfer.pipeline.batch.size")
+                .description("Transfers settled per group commit")
+                .register(meterRegistry);
+        queueWait = Timer.builder("beneficio.transfer.pipeline.queue.wait")
+                .description("Time a transfer waits in the queue before its batch is applied")
+                .register(meterRegistry);
+        meterRegistry.gauge("beneficio.transfer.pipeline.queue.depth", queue, BlockingQueue::size);
+
+        running = true;
+        writer = new Thread(this::drainLoop, "transfer-pipeline-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        PendingTransfer left;
+        while ((left = queue.poll()) != null) {
+            fail(left, new RejectedExecutionException("Transfer pipeline is shutting down"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Void> submit(TransferRequestDTO request) {
+        if (!running) {
+            throw new RejectedExecutionException("Transfer pipeline is not running");
+        }
+        long start = metrics.started();
+        // Malformed requests are rejected right away and never take a queue slot
+        try {
+            service.validateTransferRequest(request);
+        } catch (IllegalArgumentException e) {
+            metrics.rejected(start, e);
+            throw e;
+        }
+        PendingTransfer pending = new PendingTransfer(request, start);
+        if (!queue.offer(pending)) {
+            metrics.failed(start);
+            throw new RejectedExecutionException("Transfer pipeline queue is full");
+        }
+        return pending.future;
+    }
+
+    /**
+     * Blocking variant of {@link #submit}: waits for the batch containing this transfer
+     * and rethrows its failure, mirroring {@link BeneficioService#transfer}. Gives up
+     * after {@code wait-timeout-ms}; the transfer may still be applied afterwards.
+     */
+    public void transfer(TransferRequestDTO request) {
+        try {
+            submit(request).get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BeneficioException(ErrorCode.TRANSFER_PIPELINE_TIMEOUT, waitTimeoutMs);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for transfer", e);
+        }
+    }
+
+    private void drainLoop() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMs);
+        while (running) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingTransfer next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    failAll(batch, new RejectedExecutionException("Transfer pipeline is shutting down"));
+                    return;
+                }
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (Throwable t) {
+                    // Whatever escaped the batch must not take the only writer down with it
+                    log.error("Transfer pipeline batch of {} failed", batch.size(), t);
+                    failAll(batch, t);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingTransfer> batch) {
+        long now = System.nanoTime();
+        List<TransferRequestDTO> requests = new ArrayList<>(batch.size());
+        for (PendingTransfer pending : batch) {
+            queueWait.record(now - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+            requests.add(pending.request);
+        }
+        batchSize.record(batch.size());
+
+        try {
+            BatchTransferResultDTO result = service.settleBatch(requests, BatchTransferMode.BEST_EFFORT);
+            for (int i = 0; i < batch.size(); i++) {
+                TransferResultDTO item = result.getResults().get(i);
+                metrics.settled(batch.get(i).start, item);
+                if (item.getStatus() == TransferResultDTO.Status.APPLIED) {
+                    batch.get(i).future.complete(null);
+                } else {
+                    batch.get(i).future.completeExceptionally(
+                        BeneficioException.withMessage(item.getCode(), item.getMessage()));
+                }
+            }
+        } catch (RuntimeException e) {
+            failAll(batch, e);
+        }
+    }
+
+    private void failAll(List<PendingTransfer> batch, Throwable cause) {
+        for (PendingTransfer pending : batch) {
+            fail(pending, cause);
+        }
+    }
+
+    // Only the first outcome of a transfer is recorded
+    private void fail(PendingTransfer pending, Throwable cause) {
+        if (!pending.future.completeExceptionally(cause)) {
+            return;
+        }
+        if (cause instanceof IllegalArgumentException rejection) {
+            metrics.rejected(pending.start, rejection);
+        } else {
+            metrics.failed(pending.start);
+        }
+    }
+
+    static final class PendingTransfer {
+        final TransferRequestDTO request;
+        // From BeneficioMetrics#started, before validation
+        final long start;
+        final long enqueuedAt = System.nanoTime();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingTransfer(TransferRequestDTO request, long start) {
+            this.request = request;
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backend.service;
+
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Retries a unit of work that failed because of lock contention: lock timeouts,
+ * deadlock victims and optimistic-lock conflicts. Every attempt must run in its
+ * own transaction, so the action is expected to open (and close) it.
+ *
+ * Backoff is exponential with full jitter: attempt {@code n} sleeps a random time
+ * between zero and {@code min(maxBackoff, initialBackoff * 2^n)}.
+ */
+@Component
+public class TransferRetryPolicy {
+
+    @Value("${beneficio.transfer.retry.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${beneficio.transfer.retry.initial-backoff-ms:5}")
+    private long initialBackoffMs = 5;
+
+    @Value("${beneficio.transfer.retry.max-backoff-ms:200}")
+    private long maxBackoffMs = 200;
+
+    public TransferRetryPolicy() {
+    }
+
+    public TransferRetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    public void execute(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        return execute(maxAttempts, action);
+    }
+
+    public <T> T execute(int attempts, Supplier<T> action) {
+        return execute(attempts, attempt -> action.get());
+    }
+
+    /**
+     * Same as {@link #execute(int, Supplier)}, but hands the action its 1-based attempt
+     * number, so the last attempt can be run differently.
+     */
+    public <T> T execute(int attempts, IntFunction<T> action) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return action.apply(attempt);
+            } catch (RuntimeException e) {
+                if (attempt >= attempts || !isRetryable(e)) {
+                    throw e;
+                }
+                backoff(attempt++);
+            }
+        }
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    static boolean isRetryable(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof ConcurrencyFailureException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof OptimisticLockException
+                    || t instanceof SQLTransactionRollbackException
+                    || t instanceof SQLTimeoutException) {
+                return true;
+            }
+            // 40001: serialization failure / deadlock victim
+            if (t instanceof SQLException sql && "40001".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+
+/**
+ * Business rules shared by every transfer path (single transfers, batches and all
+ * {@link TransferStrategy} implementations), so they all reject the same requests
+ * with the same {@link ErrorCode}.
+ */
+final class TransferRules {
+
+    private TransferRules() {
+    }
+
+    static void validate(TransferRequestDTO request) {
+        BeneficioException invalid = check(request);
+        if (invalid != null) {
+            throw invalid;
+        }
+    }
+
+    // Returns why the request is malformed, or null when it is well-formed
+    static BeneficioException check(TransferRequestDTO request) {
+        if (request == null) {
+            return new BeneficioException(ErrorCode.TRANSFER_REQUEST_REQUIRED);
+        }
+        if (request.getFromId() == null || request.getToId() == null) {
+            return new BeneficioException(ErrorCode.TRANSFER_IDS_REQUIRED);
+        }
+        
+        if (request.getAmount() == null || !request.getAmount().isPositive()) {
+            return new BeneficioException(ErrorCode.AMOUNT_NOT_POSITIVE);
+        }
+        
+        if (request.getFromId().equals(request.getToId())) {
+            return new BeneficioException(ErrorCode.SAME_BENEFICIO);
+        }
+        return null;
+    }
+
+    // Returns why the transfer cannot be applied, or null when it can. Balances are in
+    // cents (see Money) so the accepted path allocates nothing
+    static BeneficioException rejection(TransferRequestDTO request, Beneficio from, Beneficio to,
+                                        long available, long credited) {
+        // Validate entities exist
+        if (from == null) {
+            return new BeneficioException(ErrorCode.SOURCE_NOT_FOUND, request.getFromId());
+        }
+        
+        if (to == null) {
+            return new BeneficioException(ErrorCode.DESTINATION_NOT_FOUND, request.getToId());
+        }
+
+        // Validate both beneficios are active
+        if (!from.getAtivo()) {
+            return new BeneficioException(ErrorCode.SOURCE_INACTIVE);
+        }
+        
+        if (!to.getAtivo()) {
+            return new BeneficioException(ErrorCode.DESTINATION_INACTIVE);
+        }
+
+        // Validate sufficient balance
+        long amount = request.getAmount().cents();
+        if (available < amount) {
+            return new BeneficioException(ErrorCode.INSUFFICIENT_BALANCE, Money.ofCents(available), request.getAmount());
+        }
+
+        // Validate the credited balance still fits in DECIMAL(15,2)
+        if (credited > Money.MAX_CENTS - amount) {
+            return new BeneficioException(ErrorCode.BALANCE_LIMIT_EXCEEDED, request.getToId());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+
+/**
+ * Applies one already validated transfer inside the caller's transaction.
+ * Implementations reject business-rule violations with {@link IllegalArgumentException}
+ * and let concurrency failures propagate, so {@link BeneficioService} can roll back
+ * and retry them.
+ *
+ * Implementations are registered under their bean name and the active one is
+ * chosen with {@code beneficio.transfer.strategy}.
+ */
+public interface TransferStrategy {
+
+    void transfer(TransferRequestDTO request);
+
+    /**
+     * Attempts {@link BeneficioService} may make before giving up on retryable
+     * failures; 0 uses {@code beneficio.transfer.retry.max-attempts}.
+     */
+    default int maxAttempts() {
+        return 0;
+    }
+
+    /**
+     * Strategy for the last attempt of the retry budget. Strategies that can lose
+     * races indefinitely return one that takes row locks, so the transfer still
+     * completes instead of failing with a conflict.
+     */
+    default TransferStrategy lastAttempt() {
+        return this;
+    }
+}
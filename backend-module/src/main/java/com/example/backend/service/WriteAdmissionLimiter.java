@@ -0,0 +1,202 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the write endpoints. At most {@link #limit()} writes run at
+ * once; the rest are rejected immediately with {@link AdmissionRejectedException}
+ * instead of queueing on a Tomcat thread for a row lock or a pooled connection.
+ *
+ * The limit adapts with AIMD from the latency of completed writes: a write slower than
+ * {@code latency-target-ms} multiplies it by {@code backoff-ratio}, and a fast one adds
+ * {@code 1/limit} while at least half of the limit is in use, so a full window of fast
+ * writes adds one. Bulk writes, admitted with {@link #acquireBulk}, count against the
+ * limit but do not feed it: their duration grows with their size, not with the load,
+ * and a single target would keep shrinking the limit for everybody. With {@code account-share} above
+ * zero, the writes touching any single beneficio may hold at most that fraction of the
+ * limit, so one hot account cannot starve the others.
+ */
+@Component
+public class WriteAdmissionLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${beneficio.admission.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${beneficio.admission.initial-limit:20}")
+    private int initialLimit = 20;
+
+    @Value("${beneficio.admission.min-limit:2}")
+    private int minLimit = 2;
+
+    @Value("${beneficio.admission.max-limit:200}")
+    private int maxLimit = 200;
+
+    @Value("${beneficio.admission.latency-target-ms:250}")
+    private long latencyTargetMs = 250;
+
+    @Value("${beneficio.admission.backoff-ratio:0.9}")
+    private double backoffRatio = 0.9;
+
+    @Value("${beneficio.admission.account-share:0}")
+    private double accountShare = 0;
+
+    @Value("${beneficio.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds = 1;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<Long, Integer> inFlightByAccount = new ConcurrentHashMap<>();
+    private volatile double limit;
+    private Counter limitRejections;
+    private Counter accountRejections;
+
+    @PostConstruct
+    void start() {
+        limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        Gauge.builder("beneficio.admission.limit", this, WriteAdmissionLimiter::limit)
+                .description("Concurrent writes currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("beneficio.admission.in-flight", inFlight, AtomicInteger::get)
+                .description("Writes holding an admission permit")
+                .register(meterRegistry);
+        limitRejections = rejections("limit");
+        accountRejections = rejections("account");
+    }
+
+    private Counter rejections(String reason) {
+        return Counter.builder("beneficio.admission.rejections")
+                .description("Writes rejected with 429")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits one write touching {@code accounts} (nulls are ignored) or throws
+     * {@link AdmissionRejectedException}. The returned permit must be closed when the
+     * write finishes; its duration feeds the limit.
+     */
+    public Permit acquire(Long... accounts) {
+        return acquire(true, accounts);
+    }
+
+    /**
+     * Like {@link #acquire}, for a write whose work grows with its input (lotes, shards):
+     * its duration does not feed the limit.
+     */
+    public Permit acquireBulk(Long... accounts) {
+        return acquire(false, accounts);
+    }
+
+    private Permit acquire(boolean feedsLimit, Long[] accounts) {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                limitRejections.increment();
+                throw new AdmissionRejectedException("Too many concurrent writes, retry later", retryAfterSeconds);
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+
+        Long[] held = accountShare > 0 ? distinct(accounts) : new Long[0];
+        int perAccount = Math.max(1, (int) (limit * accountShare));
+        for (int i = 0; i < held.length; i++) {
+            if (inFlightByAccount.merge(held[i], 1, Integer::sum) > perAccount) {
+                for (int j = 0; j <= i; j++) {
+                    releaseAccount(held[j]);
+                }
+                inFlight.decrementAndGet();
+                accountRejections.increment();
+                throw new AdmissionRejectedException(
+                    "Too many concurrent writes for beneficio " + held[i] + ", retry later", retryAfterSeconds);
+            }
+        }
+        return new Permit(this, held, feedsLimit ? current + 1 : -1);
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    int inFlight(Long account) {
+        return inFlightByAccount.getOrDefault(account, 0);
+    }
+
+    private void release(Permit permit, long elapsedNanos) {
+        for (Long account : permit.accounts) {
+            releaseAccount(account);
+        }
+        inFlight.decrementAndGet();
+        if (permit.inFlightAtStart >= 0) {
+            adjust(elapsedNanos, permit.inFlightAtStart);
+        }
+    }
+
+    private synchronized void adjust(long elapsedNanos, int inFlightAtStart) {
+        if (elapsedNanos > TimeUnit.MILLISECONDS.toNanos(latencyTargetMs)) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightAtStart * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void releaseAccount(Long account) {
+        // Drops the entry when the last write on the account finishes
+        inFlightByAccount.computeIfPresent(account, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static Long[] distinct(Long[] accounts) {
+        return Arrays.stream(accounts)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+    }
+
+    public static final class Permit implements AutoCloseable {
+        private static final Permit NONE = new Permit(null, new Long[0], 0);
+
+        private final WriteAdmissionLimiter limiter;
+        private final Long[] accounts;
+        // -1 for a bulk write, which does not feed the limit
+        private final int inFlightAtStart;
+        private final long start = System.nanoTime();
+        private boolean closed;
+
+        private Permit(WriteAdmissionLimiter limiter, Long[] accounts, int inFlightAtStart) {
+            this.limiter = limiter;
+            this.accounts = accounts;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        @Override
+        public void close() {
+            if (limiter == null || closed) {
+                return;
+            }
+            closed = true;
+            limiter.release(this, System.nanoTime() - start);
+        }
+    }
+}
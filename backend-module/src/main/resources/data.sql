@@ -1,3 +1,5 @@
-INSERT INTO BENEFICIO (NOME, DESCRICAO, VALOR, ATIVO) VALUES
-('Beneficio A', 'Descrição A', 1000.00, TRUE),
-('Beneficio B', 'Descrição B', 500.00, TRUE);
+-- Keyed on ID, so a second application context on the same in-memory database
+-- does not insert the seed rows again
+MERGE INTO BENEFICIO (ID, NOME, DESCRICAO, VALOR, ATIVO) KEY (ID) VALUES
+(1, 'Beneficio A', 'Descrição A', 1000.00, TRUE),
+(2, 'Beneficio B', 'Descrição B', 500.00, TRUE);
@@ -1,8 +1,110 @@
+-- IDs, handed out by the application in blocks of 50 (the sequence value is the
+-- first ID of the block); 1 and 2 are the seed rows in data.sql. Inserts that
+-- leave ID out take a whole block
+CREATE SEQUENCE IF NOT EXISTS BENEFICIO_ID_SEQ START WITH 3 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS BENEFICIO (
-  ID BIGINT AUTO_INCREMENT PRIMARY KEY,
+  ID BIGINT DEFAULT NEXT VALUE FOR BENEFICIO_ID_SEQ PRIMARY KEY,
   NOME VARCHAR(100) NOT NULL,
   DESCRICAO VARCHAR(255),
   VALOR DECIMAL(15,2) NOT NULL,
   ATIVO BOOLEAN DEFAULT TRUE,
-  VERSION BIGINT DEFAULT 0
+  VERSION BIGINT DEFAULT 0,
+  SHARD_COUNT INT DEFAULT 0 NOT NULL,
+  CHANGE_SEQ BIGINT DEFAULT 0 NOT NULL
+);
+
+-- Values for CHANGE_SEQ, handed out by the application in blocks of 50
+CREATE SEQUENCE IF NOT EXISTS BENEFICIO_CHANGE_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS IDX_BENEFICIO_CHANGE_SEQ ON BENEFICIO (CHANGE_SEQ);
+
+-- Search (GET /api/v1/beneficios/search): nome prefix and order, and valor range and
+-- order. VALOR is only the logical balance of unsharded rows, so SHARD_COUNT leads
+-- that index; it also finds the sharded accounts (SHARD_COUNT > 0)
+CREATE INDEX IF NOT EXISTS IDX_BENEFICIO_NOME ON BENEFICIO (NOME, ID);
+CREATE INDEX IF NOT EXISTS IDX_BENEFICIO_VALOR ON BENEFICIO (SHARD_COUNT, VALOR, ID);
+
+-- Sub-balances of sharded (hot) accounts; the logical balance of a beneficio is
+-- BENEFICIO.VALOR plus the sum of its shards
+CREATE TABLE IF NOT EXISTS BENEFICIO_SHARD (
+  BENEFICIO_ID BIGINT NOT NULL,
+  SHARD INT NOT NULL,
+  VALOR DECIMAL(15,2) NOT NULL,
+  VERSION BIGINT DEFAULT 0,
+  CHANGE_SEQ BIGINT DEFAULT 0 NOT NULL,
+  PRIMARY KEY (BENEFICIO_ID, SHARD),
+  FOREIGN KEY (BENEFICIO_ID) REFERENCES BENEFICIO(ID) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS IDX_BENEFICIO_SHARD_CHANGE_SEQ ON BENEFICIO_SHARD (CHANGE_SEQ);
+
+-- Deleted beneficios, so GET /changes can report deletions to clients that sync
+CREATE TABLE IF NOT EXISTS BENEFICIO_TOMBSTONE (
+  BENEFICIO_ID BIGINT PRIMARY KEY,
+  CHANGE_SEQ BIGINT NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_BENEFICIO_TOMBSTONE_CHANGE_SEQ ON BENEFICIO_TOMBSTONE (CHANGE_SEQ);
+
+-- Committed write transactions, behind the ETag of the collection endpoints. Each
+-- transaction that takes a CHANGE_SEQ value adds one to a randomly chosen stripe;
+-- readers sum all stripes. Rows are created by the application at startup
+CREATE TABLE IF NOT EXISTS BENEFICIO_COMMITS (
+  STRIPE INT PRIMARY KEY,
+  COMMITS BIGINT NOT NULL
+);
+
+-- Running totals behind GET /api/v1/beneficios/stats, kept up to date by every
+-- write in its own transaction. Each transaction adds its deltas to one randomly
+-- chosen stripe, so concurrent writers rarely wait on the same row; readers sum
+-- all stripes. Rows are created by the application at startup
+CREATE TABLE IF NOT EXISTS BENEFICIO_STATS (
+  STRIPE INT PRIMARY KEY,
+  BENEFICIOS BIGINT NOT NULL,
+  ATIVOS BIGINT NOT NULL,
+  VALOR_TOTAL DECIMAL(20,2) NOT NULL
+);
+
+-- Beneficios per balance bucket (histogram), striped like BENEFICIO_STATS
+CREATE TABLE IF NOT EXISTS BENEFICIO_STATS_BUCKET (
+  STRIPE INT NOT NULL,
+  BUCKET INT NOT NULL,
+  BENEFICIOS BIGINT NOT NULL,
+  ATIVOS BIGINT NOT NULL,
+  PRIMARY KEY (STRIPE, BUCKET)
+);
+
+-- Outcomes of transfers sent with an Idempotency-Key header, replayed on retries
+CREATE TABLE IF NOT EXISTS TRANSFER_IDEMPOTENCY (
+  IDEMPOTENCY_KEY VARCHAR(100) PRIMARY KEY,
+  FROM_ID BIGINT,
+  TO_ID BIGINT,
+  AMOUNT DECIMAL(15,2),
+  APPLIED BOOLEAN NOT NULL,
+  MESSAGE VARCHAR(500),
+  ERROR_CODE VARCHAR(50),
+  CREATED_AT TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS IDX_TRANSFER_IDEMPOTENCY_CREATED_AT ON TRANSFER_IDEMPOTENCY (CREATED_AT);
+
+-- Import jobs (POST /api/v1/beneficios/importacoes): the checkpoint written with
+-- each chunk of rows, from which a stopped job resumes
+CREATE TABLE IF NOT EXISTS IMPORT_JOB (
+  ID VARCHAR(36) PRIMARY KEY,
+  SOURCE VARCHAR(1000) NOT NULL,
+  FORMAT VARCHAR(10) NOT NULL,
+  STATUS VARCHAR(20) NOT NULL,
+  SOURCE_SIZE BIGINT NOT NULL,
+  BYTE_OFFSET BIGINT NOT NULL,
+  LINES_READ BIGINT NOT NULL,
+  INSERTED BIGINT NOT NULL,
+  UPDATED BIGINT NOT NULL,
+  REJECTED BIGINT NOT NULL,
+  FAILED BIGINT NOT NULL,
+  REJECTS_SIZE BIGINT NOT NULL,
+  MESSAGE VARCHAR(500),
+  CREATED_AT TIMESTAMP NOT NULL,
+  UPDATED_AT TIMESTAMP NOT NULL
 );
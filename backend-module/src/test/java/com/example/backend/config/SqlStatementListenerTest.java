@@ -0,0 +1,86 @@
+package com.example.backend.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementListenerTest {
+
+    private static final String START = SqlStatementListener.class.getName() + ".start";
+
+    // Runs one statement through the listener as if it had taken elapsedMs
+    private static void execute(SqlStatementListener listener, String sql, long elapsedMs) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setSuccess(true);
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        listener.beforeQuery(execInfo, queries);
+        execInfo.addCustomValue(START, System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(elapsedMs));
+        listener.afterQuery(execInfo, queries);
+    }
+
+    @Test
+    void testCountsStatementsInEveryOpenScope() {
+        SqlStatementListener listener = new SqlStatementListener(100, 0.0, 10, false);
+
+        try (SqlStatements request = SqlStatements.open("GET /api/v1/beneficios/1")) {
+            execute(listener, "select 1", 2);
+            try (SqlStatements inner = SqlStatements.open()) {
+                execute(listener, "select 2", 3);
+                assertEquals(1, inner.count());
+            }
+            assertEquals(2, request.count());
+            assertTrue(request.millis() >= 5);
+        }
+
+        SqlStatements after = SqlStatements.open();
+        after.close();
+        execute(listener, "select 3", 1);
+        assertEquals(0, after.count());
+    }
+
+    @Test
+    void testQueuesSlowStatementsWithRequestLabel() {
+        SqlStatementListener listener = new SqlStatementListener(100, 0.0, 10, false);
+
+        try (SqlStatements request = SqlStatements.open("POST /api/v1/beneficios/transferir")) {
+            execute(listener, "select fast", 5);
+            execute(listener, "select slow", 250);
+        }
+
+        List<SqlStatementListener.Entry> queued = listener.queued();
+        assertEquals(1, queued.size());
+        assertTrue(queued.get(0).slow());
+        assertEquals("POST /api/v1/beneficios/transferir", queued.get(0).request());
+        assertEquals(List.of("select slow"), queued.get(0).queries());
+    }
+
+    @Test
+    void testSampleRateOneQueuesEveryStatement() {
+        SqlStatementListener listener = new SqlStatementListener(100, 1.0, 10, false);
+
+        execute(listener, "select 1", 1);
+        execute(listener, "select 2", 1);
+
+        List<SqlStatementListener.Entry> queued = listener.queued();
+        assertEquals(2, queued.size());
+        assertFalse(queued.get(0).slow());
+        assertNull(queued.get(0).request());
+    }
+
+    @Test
+    void testDropsEntriesWhenQueueIsFull() {
+        SqlStatementListener listener = new SqlStatementListener(0, 0.0, 2, false);
+
+        for (int i = 0; i < 5; i++) {
+            execute(listener, "select " + i, 1);
+        }
+
+        assertEquals(2, listener.queued().size());
+        assertEquals(3, listener.droppedCount());
+    }
+}
@@ -1,8 +1,33 @@
 package com.example.backend.controller;
 
+import com.example.backend.dto.BalanceBucketDTO;
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.BeneficioChangesDTO;
 import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BeneficioStatsDTO;
+import com.example.backend.dto.BulkUpsertResultDTO;
+import com.example.backend.dto.ImportFormat;
+import com.example.backend.dto.ImportJobDTO;
 import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.dto.TransferResultDTO;
+import com.example.backend.entity.ImportJob;
+import com.example.backend.entity.TransferIdempotency;
+import com.example.backend.exception.AdmissionRejectedException;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.service.BeneficioEventBroadcaster;
+import com.example.backend.service.BeneficioImportService;
+import com.example.backend.service.BeneficioMetrics;
+import com.example.backend.service.BeneficioSearchService;
 import com.example.backend.service.BeneficioService;
+import com.example.backend.service.BeneficioStatsService;
+import com.example.backend.service.BeneficioTextIndex;
+import com.example.backend.service.BulkUpsertService;
+import com.example.backend.service.IdempotentTransferService;
+import com.example.backend.service.TransferPipeline;
+import com.example.backend.service.WriteAdmissionLimiter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,12 +35,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,39 +71,291 @@ class BeneficioControllerTest {
     @MockBean
     private BeneficioService service;
 
+    @MockBean
+    private TransferPipeline pipeline;
+
+    @MockBean
+    private IdempotentTransferService idempotentTransfers;
+
+    @MockBean
+    private BeneficioEventBroadcaster broadcaster;
+
+    @MockBean
+    private BeneficioMetrics metrics;
+
+    @MockBean
+    private WriteAdmissionLimiter admission;
+
+    @MockBean
+    private BulkUpsertService bulkUpserts;
+
+    @MockBean
+    private BeneficioImportService imports;
+
+    @MockBean
+    private BeneficioStatsService stats;
+
+    @MockBean
+    private BeneficioSearchService search;
+
+    @MockBean
+    private BeneficioTextIndex textIndex;
+
     @Test
     void testFindAll() throws Exception {
         BeneficioDTO dto1 = new BeneficioDTO(1L, "Beneficio A", "Descrição A", 
-                                             new BigDecimal("1000.00"), true, 0L);
+                                             Money.parse("1000.00"), true, 0L);
         BeneficioDTO dto2 = new BeneficioDTO(2L, "Beneficio B", "Descrição B", 
-                                             new BigDecimal("500.00"), true, 0L);
+                                             Money.parse("500.00"), true, 0L);
 
+        when(service.collectionVersionTag()).thenReturn("2.0.2.0.0");
         when(service.findAll()).thenReturn(Arrays.asList(dto1, dto2));
 
         mockMvc.perform(get("/api/v1/beneficios"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.0.2.0.0\""))
+                .andExpect(header().string("Cache-Control", "no-cache"))
                 .andExpect(jsonPath("$[0].nome").value("Beneficio A"))
                 .andExpect(jsonPath("$[1].nome").value("Beneficio B"));
     }
 
+    @Test
+    void testFindAllNotModified() throws Exception {
+        when(service.collectionVersionTag()).thenReturn("2.0.2.0.0");
+
+        mockMvc.perform(get("/api/v1/beneficios").header("If-None-Match", "\"2.0.2.0.0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2.0.2.0.0\""))
+                .andExpect(content().string(""));
+
+        verify(service, never()).findAll();
+    }
+
+    @Test
+    void testFindAllActiveNotModified() throws Exception {
+        when(service.collectionVersionTag()).thenReturn("2.3.2.0.0");
+
+        mockMvc.perform(get("/api/v1/beneficios/ativos").header("If-None-Match", "\"2.0.2.0.0\", \"2.3.2.0.0\""))
+                .andExpect(status().isNotModified());
+
+        verify(service, never()).findAllActive(any());
+    }
+
+    @Test
+    void testFindAllActiveReadsListAtTheTagOfItsETag() throws Exception {
+        when(service.collectionVersionTag()).thenReturn("2.9");
+        when(service.findAllActive("2.9")).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/beneficios/ativos"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2.9\""));
+
+        verify(service, never()).findAllActive();
+    }
+
+    @Test
+    void testFindAllPage() throws Exception {
+        BeneficioDTO dto1 = new BeneficioDTO(3L, "Beneficio C", "Descrição C",
+                                             Money.parse("100.00"), true, 0L);
+        BeneficioDTO dto2 = new BeneficioDTO(4L, "Beneficio D", "Descrição D",
+                                             Money.parse("200.00"), true, 0L);
+
+        when(service.findPage(2L, 2)).thenReturn(Arrays.asList(dto1, dto2));
+
+        mockMvc.perform(get("/api/v1/beneficios").param("after", "2").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "4"))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(4));
+    }
+
+    @Test
+    void testFindAllLastPage() throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(3L, "Beneficio C", "Descrição C",
+                                            Money.parse("100.00"), true, 0L);
+
+        when(service.findPage(eq(2L), isNull())).thenReturn(List.of(dto));
+
+        mockMvc.perform(get("/api/v1/beneficios").param("after", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStream() throws Exception {
+        BeneficioDTO dto1 = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                             Money.parse("1000.00"), true, 0L);
+        BeneficioDTO dto2 = new BeneficioDTO(2L, "Beneficio B", "Descrição B",
+                                             Money.parse("500.00"), true, 0L);
+
+        when(service.streamAll(any())).thenAnswer(invocation -> {
+            Consumer<List<BeneficioDTO>> consumer = invocation.getArgument(0);
+            consumer.accept(List.of(dto1));
+            consumer.accept(List.of(dto2));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/v1/beneficios/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Beneficio A", objectMapper.readValue(lines[0], BeneficioDTO.class).getNome());
+        assertEquals("Beneficio B", objectMapper.readValue(lines[1], BeneficioDTO.class).getNome());
+    }
+
+    @Test
+    void testFindChanges() throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(2L, "Beneficio B", "Descrição B",
+                                            Money.parse("700.00"), true, 3L);
+
+        when(service.findChanges(15L)).thenReturn(new BeneficioChangesDTO(List.of(dto), List.of(5L), 42L));
+
+        mockMvc.perform(get("/api/v1/beneficios/changes").param("since", "15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changed[0].id").value(2))
+                .andExpect(jsonPath("$.deleted[0]").value(5))
+                .andExpect(jsonPath("$.next").value(42));
+    }
+
+    @Test
+    void testSearch() throws Exception {
+        BeneficioDTO dto1 = new BeneficioDTO(3L, "Beneficio C", null, Money.parse("100.00"), true, 0L);
+        BeneficioDTO dto2 = new BeneficioDTO(4L, "Beneficio D", null, Money.parse("200.00"), true, 0L);
+
+        when(search.search("Bene", Money.parse("50.00"), null, true, BeneficioSearchService.Sort.VALOR, "abc", 2))
+                .thenReturn(List.of(dto1, dto2));
+        when(search.cursor(BeneficioSearchService.Sort.VALOR, dto2)).thenReturn("def");
+
+        mockMvc.perform(get("/api/v1/beneficios/search").param("nome", "Bene").param("valorMin", "50")
+                        .param("ativo", "true").param("sort", "valor").param("after", "abc").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "def"))
+                .andExpect(jsonPath("$[1].valor").value(200.00));
+    }
+
+    @Test
+    void testSearchInvalidSort() throws Exception {
+        mockMvc.perform(get("/api/v1/beneficios/search").param("sort", "descricao"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("SEARCH_SORT_INVALID"));
+
+        verifyNoInteractions(search);
+    }
+
+    @Test
+    void testSearchText() throws Exception {
+        BeneficioDTO dto1 = new BeneficioDTO(4L, "Vale Refeição", null, Money.parse("100.00"), true, 0L);
+        BeneficioDTO dto2 = new BeneficioDTO(3L, "Auxílio", "Inclui refeição", Money.parse("200.00"), true, 0L);
+
+        when(textIndex.search("refei", 20)).thenReturn(List.of(dto1, dto2));
+
+        mockMvc.perform(get("/api/v1/beneficios/search/text").param("q", "refei").param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(4))
+                .andExpect(jsonPath("$[1].id").value(3));
+    }
+
+    @Test
+    void testSearchTextQueryTooShort() throws Exception {
+        when(textIndex.search("ab", null))
+                .thenThrow(new BeneficioException(ErrorCode.TEXT_QUERY_TOO_SHORT, BeneficioTextIndex.MIN_QUERY_LENGTH));
+
+        mockMvc.perform(get("/api/v1/beneficios/search/text").param("q", "ab"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("TEXT_QUERY_TOO_SHORT"));
+    }
+
+    @Test
+    void testStats() throws Exception {
+        when(stats.stats()).thenReturn(new BeneficioStatsDTO(3, 2, new BigDecimal("1250.50"), List.of(
+            new BalanceBucketDTO(Money.ZERO, Money.parse("100.00"), 1, 0),
+            new BalanceBucketDTO(Money.parse("1000000.00"), null, 2, 2))));
+
+        mockMvc.perform(get("/api/v1/beneficios/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.activeCount").value(2))
+                .andExpect(jsonPath("$.valorTotal").value(1250.50))
+                .andExpect(jsonPath("$.buckets[0].max").value(100.00))
+                .andExpect(jsonPath("$.buckets[1].min").value(1000000.00))
+                .andExpect(jsonPath("$.buckets[1].max").doesNotExist())
+                .andExpect(jsonPath("$.buckets[1].activeCount").value(2));
+    }
+
+    @Test
+    void testEventsStreamsChanges() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(broadcaster.subscribe()).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/beneficios/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("beneficio-changed").data("{\"ids\":[1,2],\"membershipChanged\":false}"));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:beneficio-changed")));
+    }
+
+    @Test
+    void testEventsRejectedWhenSubscriberLimitReached() throws Exception {
+        when(broadcaster.subscribe()).thenThrow(new RejectedExecutionException("Too many event subscribers"));
+
+        mockMvc.perform(get("/api/v1/beneficios/events"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     void testFindById() throws Exception {
         BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio A", "Descrição A", 
-                                            new BigDecimal("1000.00"), true, 0L);
+                                            Money.parse("1000.00"), true, 0L);
 
-        when(service.findById(1L)).thenReturn(dto);
+        when(service.versionTag(1L)).thenReturn(Optional.of("1.0"));
+        when(service.findById(1L, "1.0")).thenReturn(dto);
 
-        mockMvc.perform(get("/api/v1/beneficios/1"))
+        mockMvc.perform(get("/api/v1/beneficios/1").header("If-None-Match", "\"1.1\""))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1.0\""))
                 .andExpect(jsonPath("$.nome").value("Beneficio A"));
     }
 
+    @Test
+    void testFindByIdNotModified() throws Exception {
+        when(service.versionTag(1L)).thenReturn(Optional.of("1.0"));
+
+        mockMvc.perform(get("/api/v1/beneficios/1").header("If-None-Match", "\"1.0\""))
+                .andExpect(status().isNotModified());
+
+        verify(service, never()).findById(any(), any());
+    }
+
+    @Test
+    void testFindByIdNotFound() throws Exception {
+        when(service.versionTag(9L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/beneficios/9"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("BENEFICIO_NOT_FOUND"))
+                .andExpect(jsonPath("$.message").value("Beneficio not found: 9"));
+    }
+
     @Test
     void testCreate() throws Exception {
         BeneficioDTO dto = new BeneficioDTO(null, "Novo Beneficio", "Nova Descrição", 
-                                            new BigDecimal("750.00"), true, null);
+                                            Money.parse("750.00"), true, null);
         BeneficioDTO created = new BeneficioDTO(3L, "Novo Beneficio", "Nova Descrição", 
-                                                new BigDecimal("750.00"), true, 0L);
+                                                Money.parse("750.00"), true, 0L);
 
         when(service.create(any(BeneficioDTO.class))).thenReturn(created);
 
@@ -73,12 +364,78 @@ class BeneficioControllerTest {
                 .content(objectMapper.writeValueAsString(dto)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(3));
+
+        verify(metrics).crud(eq("create"), anyLong());
+    }
+
+    // Reads the items the controller parsed, the way BulkUpsertService does
+    private List<String> readBulkItems() {
+        List<String> nomes = new ArrayList<>();
+        when(bulkUpserts.upsert(any())).thenAnswer(invocation -> {
+            Iterator<BeneficioDTO> items = invocation.getArgument(0);
+            BulkUpsertResultDTO result = new BulkUpsertResultDTO();
+            try {
+                while (items.hasNext()) {
+                    nomes.add(items.next().getNome());
+                }
+            } catch (BeneficioException e) {
+                result.setCode(e.getCode());
+                result.setMessage(e.getMessage());
+            }
+            result.setReceived(nomes.size());
+            return result;
+        });
+        return nomes;
+    }
+
+    @Test
+    void testUpsertBulkJsonArray() throws Exception {
+        List<String> nomes = readBulkItems();
+        List<BeneficioDTO> items = List.of(
+            new BeneficioDTO(null, "Novo", null, Money.parse("10.00"), true, null),
+            new BeneficioDTO(1L, "Existente", null, Money.parse("20.00"), true, null));
+
+        mockMvc.perform(post("/api/v1/beneficios/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(items)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2));
+
+        assertEquals(List.of("Novo", "Existente"), nomes);
+        verify(metrics).crud(eq("bulk"), anyLong());
+    }
+
+    @Test
+    void testUpsertBulkNdjson() throws Exception {
+        List<String> nomes = readBulkItems();
+
+        mockMvc.perform(post("/api/v1/beneficios/lote")
+                .contentType("application/x-ndjson")
+                .content("{\"nome\":\"A\",\"valor\":1.00}\n{\"nome\":\"B\",\"valor\":2.00}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2));
+
+        assertEquals(List.of("A", "B"), nomes);
+    }
+
+    @Test
+    void testUpsertBulkMalformedItemEndsTheBody() throws Exception {
+        List<String> nomes = readBulkItems();
+
+        mockMvc.perform(post("/api/v1/beneficios/lote")
+                .contentType("application/x-ndjson")
+                .content("{\"nome\":\"A\",\"valor\":1.00}\n{\"nome\":\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.received").value(1))
+                .andExpect(jsonPath("$.code").value("BULK_ITEM_UNREADABLE"));
+
+        assertEquals(List.of("A"), nomes);
     }
 
     @Test
     void testUpdate() throws Exception {
         BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio Atualizado", "Descrição Atualizada", 
-                                            new BigDecimal("1500.00"), true, 0L);
+                                            Money.parse("1500.00"), true, 0L);
 
         when(service.update(eq(1L), any(BeneficioDTO.class))).thenReturn(dto);
 
@@ -89,6 +446,35 @@ class BeneficioControllerTest {
                 .andExpect(jsonPath("$.nome").value("Beneficio Atualizado"));
     }
 
+    @Test
+    void testUpdateOfMissingBeneficioKeepsTheOldErrorShape() throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(9L, "Beneficio", null, Money.parse("1.00"), true, 0L);
+        when(service.update(eq(9L), any(BeneficioDTO.class)))
+            .thenThrow(new BeneficioException(ErrorCode.BENEFICIO_TO_CHANGE_NOT_FOUND, 9L));
+
+        mockMvc.perform(put("/api/v1/beneficios/9")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("BENEFICIO_TO_CHANGE_NOT_FOUND"))
+                .andExpect(jsonPath("$.message").value("Beneficio not found: 9"))
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.timestamp").exists())
+                .andExpect(jsonPath("$.details").doesNotExist());
+    }
+
+    @Test
+    void testUnexpectedErrorKeepsItsDetails() throws Exception {
+        when(service.versionTag(1L)).thenThrow(new IllegalStateException("pool exhausted"));
+
+        mockMvc.perform(get("/api/v1/beneficios/1"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.code").value("INTERNAL_ERROR"))
+                .andExpect(jsonPath("$.message").value("Erro interno do servidor"))
+                .andExpect(jsonPath("$.details").value("pool exhausted"))
+                .andExpect(jsonPath("$.timestamp").exists());
+    }
+
     @Test
     void testDelete() throws Exception {
         doNothing().when(service).delete(1L);
@@ -97,9 +483,81 @@ class BeneficioControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void testSplitIntoShards() throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                            Money.parse("1000.00"), true, 1L);
+
+        when(service.split(1L, 4)).thenReturn(dto);
+
+        mockMvc.perform(post("/api/v1/beneficios/1/shards").param("count", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.valor").value(1000.00));
+    }
+
+    @Test
+    void testSplitIntoShardsInvalidCount() throws Exception {
+        when(service.split(1L, 1)).thenThrow(new IllegalArgumentException("Shard count must be between 2 and 64"));
+
+        mockMvc.perform(post("/api/v1/beneficios/1/shards").param("count", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testMergeShards() throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                            Money.parse("1000.00"), true, 2L);
+
+        when(service.merge(1L)).thenReturn(dto);
+
+        mockMvc.perform(delete("/api/v1/beneficios/1/shards"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void testStartImportOfServerFile() throws Exception {
+        ImportJobDTO job = new ImportJobDTO();
+        job.setId("job-1");
+        job.setStatus(ImportJob.Status.RUNNING);
+        when(imports.start("parceiro.csv", null)).thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/beneficios/importacoes").param("arquivo", "parceiro.csv"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void testUploadImportTakesFormatFromContentType() throws Exception {
+        ImportJobDTO job = new ImportJobDTO();
+        job.setId("job-2");
+        when(imports.upload(any(), eq(ImportFormat.CSV))).thenReturn(job);
+
+        mockMvc.perform(post("/api/v1/beneficios/importacoes")
+                .contentType("text/csv; charset=UTF-8")
+                .content("nome,valor\nA,1.00\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-2"));
+    }
+
+    @Test
+    void testFindImportAndResumeErrors() throws Exception {
+        when(imports.find("nada")).thenThrow(new BeneficioException(ErrorCode.IMPORT_NOT_FOUND, "nada"));
+        when(imports.resume("feito")).thenThrow(
+            new BeneficioException(ErrorCode.IMPORT_NOT_RESUMABLE, "feito", ImportJob.Status.COMPLETED));
+
+        mockMvc.perform(get("/api/v1/beneficios/importacoes/nada"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("IMPORT_NOT_FOUND"));
+        mockMvc.perform(post("/api/v1/beneficios/importacoes/feito/retomar"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Import feito is COMPLETED"));
+    }
+
     @Test
     void testTransfer() throws Exception {
-        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, new BigDecimal("200.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
 
         doNothing().when(service).transfer(any(TransferRequestDTO.class));
 
@@ -108,4 +566,145 @@ class BeneficioControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void testTransferAmountIsReadAsMoney() throws Exception {
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromId\":1,\"toId\":2,\"amount\":12.5}"))
+                .andExpect(status().isOk());
+
+        verify(service).transfer(argThat(request -> request.getAmount().cents() == 1250));
+    }
+
+    @Test
+    void testTransferAmountWithMoreThanTwoDecimalsIsRejected() throws Exception {
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromId\":1,\"toId\":2,\"amount\":10.005}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INVALID_REQUEST"));
+
+        verify(service, never()).transfer(any());
+    }
+
+    @Test
+    void testTransferInsufficientBalance() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+        doThrow(new BeneficioException(ErrorCode.INSUFFICIENT_BALANCE, Money.parse("50.00"), Money.parse("200.00")))
+            .when(service).transfer(any(TransferRequestDTO.class));
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_BALANCE"))
+                .andExpect(jsonPath("$.message").value("Insufficient balance. Available: 50.00, Required: 200.00"))
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void testTransferOverAdmissionLimitIsShed() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+        when(admission.acquire(1L, 2L)).thenThrow(
+            new AdmissionRejectedException("Too many concurrent writes, retry later", 1));
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.message").value("Too many concurrent writes, retry later"));
+
+        verify(service, never()).transfer(any(TransferRequestDTO.class));
+    }
+
+    @Test
+    void testTransferThroughPipeline() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+        when(pipeline.isEnabled()).thenReturn(true);
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        verify(pipeline).transfer(any(TransferRequestDTO.class));
+        verify(service, never()).transfer(any(TransferRequestDTO.class));
+    }
+
+    @Test
+    void testTransferWithIdempotencyKeyReplaysStoredOutcome() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        TransferIdempotency rejected = new TransferIdempotency("key-1", 1L, 2L, Money.parse("200.00"),
+                false, "Insufficient balance", LocalDateTime.now());
+        rejected.setErrorCode(ErrorCode.INSUFFICIENT_BALANCE);
+
+        when(idempotentTransfers.transfer(eq("key-1"), any(TransferRequestDTO.class))).thenReturn(rejected);
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("INSUFFICIENT_BALANCE"))
+                .andExpect(jsonPath("$.message").value("Insufficient balance"));
+
+        verify(service, never()).transfer(any(TransferRequestDTO.class));
+    }
+
+    @Test
+    void testTransferWithIdempotencyKeyUsedForAnotherTransfer() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+        when(idempotentTransfers.transfer(eq("key-1"), any(TransferRequestDTO.class)))
+            .thenThrow(new BeneficioException(ErrorCode.IDEMPOTENCY_KEY_REUSED, "key-1"));
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir")
+                .header("Idempotency-Key", "key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value("IDEMPOTENCY_KEY_REUSED"));
+    }
+
+    @Test
+    void testTransferBatch() throws Exception {
+        List<TransferRequestDTO> requests = List.of(
+            new TransferRequestDTO(1L, 2L, Money.parse("200.00")),
+            new TransferRequestDTO(2L, 1L, Money.parse("9999.00")));
+        BatchTransferResultDTO result = new BatchTransferResultDTO(BatchTransferMode.BEST_EFFORT, 1, 1, List.of(
+            new TransferResultDTO(0, 1L, 2L, Money.parse("200.00"), TransferResultDTO.Status.APPLIED, null),
+            new TransferResultDTO(1, 2L, 1L, Money.parse("9999.00"), TransferResultDTO.Status.REJECTED,
+                                  "Insufficient balance")));
+
+        when(service.transferBatch(anyList(), eq(BatchTransferMode.BEST_EFFORT))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                .param("mode", "BEST_EFFORT")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(1))
+                .andExpect(jsonPath("$.results[1].status").value("REJECTED"));
+    }
+
+    @Test
+    void testTransferBatchAllOrNothingRejected() throws Exception {
+        List<TransferRequestDTO> requests = List.of(new TransferRequestDTO(1L, 2L, Money.parse("9999.00")));
+        BatchTransferResultDTO result = new BatchTransferResultDTO(BatchTransferMode.ALL_OR_NOTHING, 0, 1, List.of(
+            new TransferResultDTO(0, 1L, 2L, Money.parse("9999.00"), TransferResultDTO.Status.REJECTED,
+                                  "Insufficient balance")));
+
+        when(service.transferBatch(anyList(), eq(BatchTransferMode.ALL_OR_NOTHING))).thenReturn(result);
+
+        mockMvc.perform(post("/api/v1/beneficios/transferir/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.rejected").value(1));
+    }
 }
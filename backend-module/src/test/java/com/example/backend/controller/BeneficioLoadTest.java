@@ -0,0 +1,298 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BulkUpsertResultDTO;
+import com.example.backend.money.Money;
+import com.example.backend.service.BulkUpsertService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load harness: starts the application on a random port over a file-backed H2
+ * database, seeds {@code load.rows} beneficios and drives mixed read, CRUD and
+ * transfer traffic from {@code load.clients} concurrent HTTP clients. Reports
+ * throughput, p50/p99/p99.9 latency and error/conflict rates per endpoint (also
+ * written to {@code target/load-report.txt}) and checks that transfers kept the sum
+ * of VALOR over the seeded rows unchanged.
+ *
+ * Excluded from the default build; run with {@code mvn test -Pload}, tuning with
+ * {@code -Dload.rows}, {@code -Dload.clients}, {@code -Dload.duration-seconds},
+ * {@code -Dload.warmup-seconds}, {@code -Dload.read-percent},
+ * {@code -Dload.crud-percent} (the rest are transfers) and {@code -Dload.hot-accounts}
+ * (transfers only between the first N seeded rows; 0 spreads them over all rows).
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "logging.level.root=WARN"
+})
+class BeneficioLoadTest {
+
+    private static final int ROWS = Integer.getInteger("load.rows", 100_000);
+    private static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int READ_PERCENT = Integer.getInteger("load.read-percent", 70);
+    private static final int CRUD_PERCENT = Integer.getInteger("load.crud-percent", 10);
+    private static final int HOT_ACCOUNTS = Integer.getInteger("load.hot-accounts", 0);
+
+    private static final String BASE_PATH = "/api/v1/beneficios";
+    private static final String INITIAL_VALOR = "1000.00";
+
+    // A fresh database per run; target/ is removed by mvn clean
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        Path dir = Path.of("target", "load-h2", "run-" + System.currentTimeMillis()).toAbsolutePath();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dir.resolve("beneficios"));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BulkUpsertService bulkUpserts;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private volatile Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private long firstSeeded;
+    private long lastSeeded;
+
+    @Test
+    void runMixedLoad() throws Exception {
+        assertTrue(READ_PERCENT >= 0 && CRUD_PERCENT >= 0 && READ_PERCENT + CRUD_PERCENT <= 100,
+            "load.read-percent + load.crud-percent must be between 0 and 100");
+        seed();
+        BigDecimal totalBefore = seededTotal();
+
+        runClients(WARMUP_SECONDS);
+        stats = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        runClients(DURATION_SECONDS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        String report = report(seconds);
+        System.out.print(report);
+        Files.writeString(Path.of("target", "load-report.txt"), report);
+
+        assertEquals(0, totalBefore.compareTo(seededTotal()), "Sum of VALOR over the seeded rows changed");
+        long errors = stats.values().stream().mapToLong(s -> s.errors.sum()).sum();
+        assertEquals(0, errors, "Requests failed with unexpected errors, see the report");
+    }
+
+    // Through the bulk upsert path, so the rows take IDs from the application's blocks
+    private void seed() {
+        Long before = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(ID), 0) FROM BENEFICIO", Long.class);
+        Money valor = Money.parse(INITIAL_VALOR);
+        BulkUpsertResultDTO result = bulkUpserts.upsert(IntStream.rangeClosed(1, ROWS)
+            .mapToObj(x -> new BeneficioDTO(null, "Carga " + x, "Linha de carga " + x, valor, true, null))
+            .iterator());
+        assertEquals(ROWS, result.getInserted());
+        firstSeeded = jdbcTemplate.queryForObject("SELECT MIN(ID) FROM BENEFICIO WHERE ID > ?", Long.class, before);
+        lastSeeded = jdbcTemplate.queryForObject("SELECT MAX(ID) FROM BENEFICIO", Long.class);
+        assertEquals(ROWS, lastSeeded - firstSeeded + 1);
+    }
+
+    // CRUD traffic only creates, updates and deletes rows of its own, above lastSeeded
+    private BigDecimal seededTotal() {
+        BigDecimal base = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(VALOR), 0) FROM BENEFICIO WHERE ID BETWEEN ? AND ?",
+            BigDecimal.class, firstSeeded, lastSeeded);
+        BigDecimal shards = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(VALOR), 0) FROM BENEFICIO_SHARD WHERE BENEFICIO_ID BETWEEN ? AND ?",
+            BigDecimal.class, firstSeeded, lastSeeded);
+        return base.add(shards);
+    }
+
+    private void runClients(int seconds) throws Exception {
+        if (seconds <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            clients.add(pool.submit(() -> {
+                List<Long> owned = new ArrayList<>();
+                while (System.nanoTime() < deadline) {
+                    nextRequest(owned);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> client : clients) {
+            client.get(seconds + 60L, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private void nextRequest(List<Long> owned) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int dice = random.nextInt(100);
+        if (dice < READ_PERCENT) {
+            long id = random.nextLong(firstSeeded, lastSeeded + 1);
+            if (random.nextInt(10) < 7) {
+                send("GET /{id}", get(BASE_PATH + "/" + id));
+            } else {
+                send("GET ?after&limit", get(BASE_PATH + "?after=" + id + "&limit=100"));
+            }
+        } else if (dice < READ_PERCENT + CRUD_PERCENT) {
+            crud(owned, random);
+        } else {
+            long range = HOT_ACCOUNTS > 1 ? HOT_ACCOUNTS : lastSeeded - firstSeeded + 1;
+            long from = firstSeeded + random.nextLong(range);
+            long to = firstSeeded + (from - firstSeeded + 1 + random.nextLong(range - 1)) % range;
+            send("POST /transferir", post(BASE_PATH + "/transferir",
+                "{\"fromId\":" + from + ",\"toId\":" + to + ",\"amount\":1.00}"));
+        }
+    }
+
+    private void crud(List<Long> owned, ThreadLocalRandom random) {
+        int dice = random.nextInt(10);
+        if (owned.isEmpty() || dice < 4) {
+            HttpResponse<String> response = send("POST /", post(BASE_PATH,
+                "{\"nome\":\"Carga CRUD\",\"valor\":" + random.nextInt(1000) + ",\"ativo\":true}"));
+            Long id = response != null ? createdId(response.body()) : null;
+            if (id != null) {
+                owned.add(id);
+            }
+        } else if (dice < 8) {
+            long id = owned.get(random.nextInt(owned.size()));
+            send("PUT /{id}", HttpRequest.newBuilder(uri(BASE_PATH + "/" + id))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                    "{\"nome\":\"Carga CRUD\",\"valor\":" + random.nextInt(1000) + ",\"ativo\":true}")));
+        } else {
+            long id = owned.remove(owned.size() - 1);
+            send("DELETE /{id}", HttpRequest.newBuilder(uri(BASE_PATH + "/" + id)).DELETE());
+        }
+    }
+
+    private static Long createdId(String body) {
+        int start = body.indexOf("\"id\":");
+        if (start < 0) {
+            return null;
+        }
+        int end = start + 5;
+        while (end < body.length() && Character.isDigit(body.charAt(end))) {
+            end++;
+        }
+        return Long.valueOf(body.substring(start + 5, end));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request) {
+        EndpointStats endpointStats = stats.computeIfAbsent(endpoint, e -> new EndpointStats());
+        long start = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = http.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // Counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        endpointStats.latency.recordValue(Math.max(1, (System.nanoTime() - start) / 1000));
+        endpointStats.record(response != null ? response.statusCode() : -1);
+        return response;
+    }
+
+    private String report(double seconds) {
+        StringBuilder out = new StringBuilder();
+        long total = stats.values().stream().mapToLong(s -> s.latency.getTotalCount()).sum();
+        out.append(String.format("%nLoad: rows=%d clients=%d duration=%.1fs hot-accounts=%d mix=%d%% read / %d%% crud / %d%% transfer%n",
+            ROWS, CLIENTS, seconds, HOT_ACCOUNTS, READ_PERCENT, CRUD_PERCENT, 100 - READ_PERCENT - CRUD_PERCENT));
+        out.append(String.format("Total: %d requests, %.1f req/s%n", total, total / seconds));
+        out.append(String.format("%-18s %9s %9s %9s %9s %9s %9s %8s %8s %8s%n",
+            "endpoint", "count", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "error%", "confl%", "rej%"));
+        for (Map.Entry<String, EndpointStats> entry : new TreeMap<>(stats).entrySet()) {
+            EndpointStats s = entry.getValue();
+            Histogram h = s.latency;
+            long count = h.getTotalCount();
+            out.append(String.format("%-18s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %8.3f %8.3f %8.3f%n",
+                entry.getKey(), count, count / seconds,
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                percent(s.errors, count), percent(s.conflicts, count), percent(s.rejected, count)));
+        }
+        return out.toString();
+    }
+
+    private static double percent(LongAdder part, long count) {
+        return count == 0 ? 0 : 100.0 * part.sum() / count;
+    }
+
+    private static final class EndpointStats {
+        // Microseconds, up to one minute, three significant digits
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        // 400 is a business rejection (e.g. insufficient balance); 409, 429 and 503
+        // mean the request lost a race or was shed; anything else is an error
+        private void record(int status) {
+            if (status >= 200 && status < 300 || status == 304) {
+                return;
+            }
+            if (status == 400) {
+                rejected.increment();
+            } else if (status == 409 || status == 429 || status == 503) {
+                conflicts.increment();
+            } else {
+                errors.increment();
+            }
+        }
+    }
+}
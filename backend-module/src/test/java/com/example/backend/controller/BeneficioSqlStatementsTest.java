@@ -0,0 +1,167 @@
+package com.example.backend.controller;
+
+import com.example.backend.config.SqlStatementFilter;
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.money.Money;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Pins the number of SQL statements each endpoint issues, as reported in the
+ * {@code X-Sql-Statements} header, so an N+1 query or a redundant {@code save} fails
+ * here. The near-cache is off so reads always reach the database.
+ *
+ * Writes take a {@code CHANGE_SEQ} value, and one write in every 50 also reserves a new
+ * block from the sequence; inserts take IDs from {@code BENEFICIO_ID_SEQ} the same way.
+ * A write may therefore issue up to two extra statements.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "beneficio.cache.find-by-id.enabled=false",
+    "beneficio.cache.find-all-active.enabled=false"
+})
+@AutoConfigureMockMvc
+class BeneficioSqlStatementsTest {
+
+    private static final String BASE = "/api/v1/beneficios";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        return mockMvc.perform(request)
+                .andExpect(header().exists(SqlStatementFilter.COUNT_HEADER))
+                .andExpect(header().exists(SqlStatementFilter.TIME_HEADER))
+                .andReturn();
+    }
+
+    private static int statements(MvcResult result) {
+        return Integer.parseInt(result.getResponse().getHeader(SqlStatementFilter.COUNT_HEADER));
+    }
+
+    private static void assertReadStatements(int expected, MvcResult result) {
+        assertEquals(expected, statements(result));
+    }
+
+    private static void assertWriteStatements(int expected, MvcResult result) {
+        int actual = statements(result);
+        assertTrue(actual >= expected && actual <= expected + 2,
+            "expected " + expected + " statements (+2 for sequence blocks), got " + actual);
+    }
+
+    private BeneficioDTO create(String nome, String valor) throws Exception {
+        BeneficioDTO dto = new BeneficioDTO(null, nome, null, Money.parse(valor), true, null);
+        MvcResult result = perform(post(BASE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)));
+        assertEquals(201, result.getResponse().getStatus());
+        // One INSERT, then the summary: totals and one batched bucket UPDATE, and the
+        // commit counter
+        assertWriteStatements(4, result);
+        return objectMapper.readValue(result.getResponse().getContentAsString(), BeneficioDTO.class);
+    }
+
+    @Test
+    void testReadsIssueOneQueryPerResult() throws Exception {
+        BeneficioDTO created = create("Leitura", "100.00");
+
+        // ETag version tag + rows
+        assertReadStatements(2, perform(get(BASE)));
+        assertReadStatements(2, perform(get(BASE + "/ativos")));
+        assertReadStatements(2, perform(get(BASE + "/" + created.getId())));
+        // Keyset page and change feed: rows only
+        assertReadStatements(1, perform(get(BASE).param("limit", "10")));
+        assertReadStatements(1, perform(get(BASE + "/changes")));
+        // Version tag finds nothing
+        assertReadStatements(1, perform(get(BASE + "/999999")));
+    }
+
+    @Test
+    void testUpdateLoadsOnceAndWritesOnce() throws Exception {
+        BeneficioDTO created = create("Antes", "100.00");
+        BeneficioDTO changed = new BeneficioDTO(null, "Depois", null, Money.parse("150.00"), true, null);
+
+        MvcResult result = perform(put(BASE + "/" + created.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(changed)));
+
+        assertEquals(200, result.getResponse().getStatus());
+        // SELECT, UPDATE, summary totals and commit counter; the balance stays in the
+        // same bucket
+        assertWriteStatements(4, result);
+    }
+
+    @Test
+    void testDeleteLoadsOnceAndWritesTombstoneWithoutSelect() throws Exception {
+        BeneficioDTO created = create("Removido", "100.00");
+
+        MvcResult result = perform(delete(BASE + "/" + created.getId()));
+
+        assertEquals(204, result.getResponse().getStatus());
+        // SELECT, INSERT tombstone, DELETE, summary totals and bucket, commit counter
+        assertWriteStatements(6, result);
+    }
+
+    @Test
+    void testBulkUpsertBatchesInsertsAndUpdates() throws Exception {
+        BeneficioDTO existing = create("Existente", "100.00");
+        StringBuilder ndjson = new StringBuilder(objectMapper.writeValueAsString(
+            new BeneficioDTO(existing.getId(), "Atualizado", null, Money.parse("150.00"), true, null))).append('\n');
+        int inserts = 120;
+        for (int i = 0; i < inserts; i++) {
+            ndjson.append(objectMapper.writeValueAsString(
+                new BeneficioDTO(null, "Lote " + i, null, Money.parse("10.00"), true, null))).append('\n');
+        }
+
+        MvcResult result = perform(post(BASE + "/lote")
+                .contentType("application/x-ndjson")
+                .content(ndjson.toString()));
+
+        assertEquals(200, result.getResponse().getStatus());
+        // SELECT of the rows to update, one batched INSERT, one batched UPDATE, the
+        // summary totals and bucket, the commit counter, and an ID block per 50 inserts
+        // instead of a statement per row
+        int idBlocks = inserts / Beneficio.ID_BLOCK_SIZE;
+        assertWriteStatements(6 + idBlocks, result);
+    }
+
+    @Test
+    void testTransferLocksBothRowsInOneQuery() throws Exception {
+        BeneficioDTO from = create("Origem", "500.00");
+        BeneficioDTO to = create("Destino", "0.00");
+
+        MvcResult applied = perform(post(BASE + "/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new TransferRequestDTO(from.getId(), to.getId(), Money.parse("100.00")))));
+        MvcResult rejected = perform(post(BASE + "/transferir")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                    new TransferRequestDTO(from.getId(), to.getId(), Money.parse("10000.00")))));
+
+        assertEquals(200, applied.getResponse().getStatus());
+        // SELECT ... FOR UPDATE of both rows, two UPDATEs and, since both balances
+        // change bucket, one batched UPDATE of the summary buckets; totals are unchanged.
+        // Then the commit counter
+        assertWriteStatements(5, applied);
+        assertEquals(400, rejected.getResponse().getStatus());
+        // The lock, then a re-read of SHARD_COUNT in case another instance sharded the source
+        assertReadStatements(2, rejected);
+    }
+}
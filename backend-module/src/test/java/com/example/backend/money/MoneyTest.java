@@ -0,0 +1,80 @@
+package com.example.backend.money;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParseAcceptsPlainDecimals() {
+        assertEquals(1250, Money.parse("12.5").cents());
+        assertEquals(1200, Money.parse("12").cents());
+        assertEquals(-5, Money.parse("-0.05").cents());
+        assertEquals(100, Money.parse("+1.").cents());
+        assertEquals(10, Money.parse(".1").cents());
+        assertEquals(100, Money.parse("1.000").cents());
+        assertEquals(150_000, Money.parse("1.5E3").cents());
+        assertEquals(Money.MAX_CENTS, Money.parse("9999999999999.99").cents());
+    }
+
+    @Test
+    void testParseRejectsWhatDoesNotFitTheColumn() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("10.005"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("10000000000000.00"));
+        assertThrows(ArithmeticException.class, () -> Money.parse("99999999999999999999"));
+        for (String text : new String[] {"", "-", ".", "1,00", "um"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(text), text);
+        }
+    }
+
+    @Test
+    void testArithmeticIsRangeChecked() {
+        Money max = Money.ofCents(Money.MAX_CENTS);
+
+        assertEquals(Money.parse("0.30"), Money.parse("0.10").plus(Money.parse("0.20")));
+        assertEquals(Money.parse("-0.10"), Money.parse("0.10").minus(Money.parse("0.20")));
+        assertSame(max, max.plus(Money.ZERO));
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(-Money.MAX_CENTS).minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testBigDecimalConversionIsExact() {
+        assertEquals(new BigDecimal("12.50"), Money.parse("12.5").toBigDecimal());
+        assertEquals(Money.parse("7.10"), Money.of(new BigDecimal("7.1000")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("7.105")));
+        assertEquals(new BigDecimal("-0.05"), new MoneyConverter().convertToDatabaseColumn(Money.parse("-0.05")));
+        assertNull(new MoneyConverter().convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testToStringHasTwoDecimals() {
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals("12.05", Money.ofCents(1205).toString());
+        assertEquals("-0.50", Money.ofCents(-50).toString());
+        assertEquals("9999999999999.99", Money.ofCents(Money.MAX_CENTS).toString());
+    }
+
+    @Test
+    void testJsonIsANumberWithTwoDecimals() throws Exception {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("12.5"));
+
+        String json = objectMapper.writeValueAsString(request);
+
+        assertTrue(json.contains("\"amount\":12.50"), json);
+        assertEquals(request.getAmount(), objectMapper.readValue(json, TransferRequestDTO.class).getAmount());
+        assertEquals(Money.parse("3.00"), objectMapper.readValue("{\"amount\":\"3\"}", TransferRequestDTO.class).getAmount());
+        assertNull(objectMapper.readValue("{\"amount\":null}", TransferRequestDTO.class).getAmount());
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"amount\":1.001}", TransferRequestDTO.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveTransferStrategyTest {
+
+    @Mock
+    private OptimisticTransferStrategy optimistic;
+
+    @Mock
+    private PessimisticTransferStrategy pessimistic;
+
+    @Spy
+    private ContentionTracker contention = new ContentionTracker();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private AdaptiveTransferStrategy strategy;
+
+    private final TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.ofCents(1000));
+
+    @BeforeEach
+    void setUp() {
+        strategy.registerMetrics();
+    }
+
+    @Test
+    void testUsesOptimisticForUncontendedAccounts() {
+        strategy.transfer(request);
+
+        verify(optimistic).transfer(request);
+        verifyNoInteractions(pessimistic);
+    }
+
+    @Test
+    void testConflictsAreChargedToBothAccounts() {
+        doThrow(new OptimisticLockException()).when(optimistic).transfer(request);
+
+        assertThrows(OptimisticLockException.class, () -> strategy.transfer(request));
+
+        verify(contention).recordConflict(1L);
+        verify(contention).recordConflict(2L);
+    }
+
+    @Test
+    void testBusinessRejectionsAreNotConflicts() {
+        doThrow(new IllegalArgumentException("Insufficient balance")).when(optimistic).transfer(request);
+
+        assertThrows(IllegalArgumentException.class, () -> strategy.transfer(request));
+
+        verify(contention, never()).recordConflict(any());
+    }
+
+    @Test
+    void testFallsBackToPessimisticForContendedAccount() {
+        // One above the threshold, so decay between recording and checking cannot matter
+        for (int i = 0; i < 4; i++) {
+            contention.recordConflict(2L);
+        }
+
+        strategy.transfer(request);
+
+        verify(pessimistic).transfer(request);
+        verify(optimistic, never()).transfer(any());
+        assertEquals(1.0, meterRegistry.get("beneficio.transfer.contention.fallbacks").counter().count());
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.money.Money;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the in-memory part of a transfer before and after {@link Money}: the rule
+ * checks plus the debit and credit of two balances, and the running balances of a
+ * batch. The BigDecimal variants repeat what the code did before (compareTo,
+ * subtract/add, a {@code Map<Long, BigDecimal>} merged per item). Timings shift with
+ * the order the variants run in, so only bytes allocated per item are asserted.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class BalancePathBenchmarkTest {
+
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final int ACCOUNTS = 20;
+    private static final int BATCH_SIZE = 100;
+
+    private final Beneficio from = new Beneficio("Origem", null, Money.parse("1000000.00"), true);
+    private final Beneficio to = new Beneficio("Destino", null, Money.parse("1000000.00"), true);
+    private final TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("12.34"));
+
+    private BigDecimal fromValor = new BigDecimal("1000000.00");
+    private BigDecimal toValor = new BigDecimal("1000000.00");
+    private final BigDecimal amount = new BigDecimal("12.34");
+
+    @Test
+    void compareBigDecimalWithMoney() {
+        Result bigDecimalTransfer = measure("transfer", "BigDecimal", 1, this::bigDecimalTransfer);
+        Result moneyTransfer = measure("transfer", "Money", 1, this::moneyTransfer);
+
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= ACCOUNTS; id++) {
+            ids.add(id);
+        }
+        List<TransferRequestDTO> batch = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            // Pairs of opposite transfers, so balances return to where they started
+            long a = i / 2 % ACCOUNTS + 1;
+            long b = (a * 7) % ACCOUNTS + 1;
+            batch.add(i % 2 == 0 ? new TransferRequestDTO(a, b, request.getAmount())
+                                 : new TransferRequestDTO(b, a, request.getAmount()));
+        }
+        Result bigDecimalBatch = measure("batch", "BigDecimal", BATCH_SIZE, () -> bigDecimalBatch(ids, batch));
+        Result moneyBatch = measure("batch", "Money", BATCH_SIZE, () -> moneyBatch(ids, batch));
+
+        assertTrue(moneyTransfer.bytesPerOp < bigDecimalTransfer.bytesPerOp);
+        assertTrue(moneyBatch.bytesPerOp < bigDecimalBatch.bytesPerOp);
+        assertEquals(fromValor.add(toValor), from.getValor().plus(to.getValor()).toBigDecimal());
+    }
+
+    // Rules, debit and credit as PessimisticTransferStrategy did them with BigDecimal
+    private long bigDecimalTransfer() {
+        if (amount.compareTo(BigDecimal.ZERO) <= 0 || fromValor.compareTo(amount) < 0) {
+            throw new IllegalStateException();
+        }
+        fromValor = fromValor.subtract(amount);
+        toValor = toValor.add(amount);
+        // Swap sides so balances never run out
+        BigDecimal swap = fromValor;
+        fromValor = toValor;
+        toValor = swap;
+        return fromValor.signum();
+    }
+
+    private long moneyTransfer() {
+        if (TransferRules.check(request) != null
+                || TransferRules.rejection(request, from, to, from.getValor().cents(), to.getValor().cents()) != null) {
+            throw new IllegalStateException();
+        }
+        from.setValor(from.getValor().minus(request.getAmount()));
+        to.setValor(to.getValor().plus(request.getAmount()));
+        Money swap = from.getValor();
+        from.setValor(to.getValor());
+        to.setValor(swap);
+        return from.getValor().cents();
+    }
+
+    private long bigDecimalBatch(List<Long> ids, List<TransferRequestDTO> batch) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Long id : ids) {
+            balances.put(id, fromValor);
+        }
+        for (TransferRequestDTO item : batch) {
+            BigDecimal value = amount;
+            if (balances.get(item.getFromId()).compareTo(value) < 0) {
+                throw new IllegalStateException();
+            }
+            balances.merge(item.getFromId(), value, BigDecimal::subtract);
+            balances.merge(item.getToId(), value, BigDecimal::add);
+        }
+        return balances.size();
+    }
+
+    // The running balances of BeneficioService.applyBatch
+    private long moneyBatch(List<Long> ids, List<TransferRequestDTO> batch) {
+        long[] balances = new long[ids.size()];
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = from.getValor().cents();
+        }
+        for (TransferRequestDTO item : batch) {
+            int fromIndex = Collections.binarySearch(ids, item.getFromId());
+            int toIndex = Collections.binarySearch(ids, item.getToId());
+            BeneficioException rejection = TransferRules.rejection(item, from, to, balances[fromIndex], balances[toIndex]);
+            if (rejection != null) {
+                throw rejection;
+            }
+            balances[fromIndex] -= item.getAmount().cents();
+            balances[toIndex] += item.getAmount().cents();
+        }
+        return balances.length;
+    }
+
+    private static Result measure(String path, String variant, int itemsPerCall, LongSupplier call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int calls = ITERATIONS / itemsPerCall;
+        long sink = 0;
+        for (int i = 0; i < WARMUP / itemsPerCall; i++) {
+            sink += call.getAsLong();
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            sink += call.getAsLong();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        Result result = new Result((double) elapsed / ITERATIONS, (double) bytes / ITERATIONS);
+        System.out.printf("%-10s %-10s %8.1f ns/item  %7.1f B/item  (%d)%n",
+            path, variant, result.nanosPerOp, result.bytesPerOp, sink & 1);
+        return result;
+    }
+
+    private record Result(double nanosPerOp, double bytesPerOp) {
+    }
+}
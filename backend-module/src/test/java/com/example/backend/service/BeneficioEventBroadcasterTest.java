@@ -0,0 +1,180 @@
+package com.example.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+class BeneficioEventBroadcasterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BeneficioEventBroadcaster broadcaster;
+    private MockedConstruction<SseEmitter> emitters;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new BeneficioEventBroadcaster();
+        ReflectionTestUtils.setField(broadcaster, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(broadcaster, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(broadcaster, "bufferSize", 2);
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 2);
+        broadcaster.start();
+        emitters = mockConstruction(SseEmitter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.close();
+        broadcaster.stop();
+    }
+
+    private static boolean contains(Set<?> data, String text) {
+        return data.stream().anyMatch(d -> String.valueOf(((DataWithMediaType) d).getData()).contains(text));
+    }
+
+    // Polls the recorded calls instead of verify(timeout(...)): send and complete are
+    // synchronized, and a timed verify holds the emitter's monitor while it waits,
+    // which blocks the very call it is waiting for
+    private static void awaitCall(SseEmitter emitter, String method, Predicate<Object[]> arguments)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mockingDetails(emitter).getInvocations().stream()
+                .noneMatch(i -> i.getMethod().getName().equals(method) && arguments.test(i.getArguments()))) {
+            assertTrue(System.nanoTime() < deadline, method + " was not called");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitSent(SseEmitter emitter, String text) throws InterruptedException {
+        awaitCall(emitter, "send", arguments -> arguments[0] instanceof Set<?> data && contains(data, text));
+    }
+
+    private static void awaitCompleted(SseEmitter emitter) throws InterruptedException {
+        awaitCall(emitter, "complete", arguments -> true);
+    }
+
+    @Test
+    void testCommittedChangeIsSentToEverySubscriber() throws Exception {
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+
+        broadcaster.onChanged(BeneficioChangedEvent.balances(1L, 2L));
+
+        for (SseEmitter emitter : emitters.constructed()) {
+            awaitCall(emitter, "send", arguments -> arguments[0] instanceof Set<?> data
+                && contains(data, BeneficioEventBroadcaster.EVENT_NAME) && contains(data, "\"ids\":[1,2]"));
+        }
+    }
+
+    @Test
+    void testSubscriberWithFullBufferIsDisconnected() throws Exception {
+        // Keep every sender thread busy so nothing is drained
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "sender");
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < sender.getCorePoolSize(); i++) {
+            sender.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        broadcaster.subscribe();
+        broadcaster.onChanged(BeneficioChangedEvent.balances(1L));
+        broadcaster.onChanged(BeneficioChangedEvent.balances(2L));
+
+        assertEquals(0, broadcaster.subscriberCount());
+        assertEquals(1.0, meterRegistry.counter("beneficio.events.dropped").count());
+        // Completed by a sender thread once one is free
+        release.countDown();
+        awaitCompleted(emitters.constructed().get(0));
+    }
+
+    @Test
+    void testStalledSubscribersDoNotStarveTheOthers() throws Exception {
+        ReflectionTestUtils.setField(broadcaster, "maxSubscribers", 3);
+        ReflectionTestUtils.setField(broadcaster, "sendTimeoutMs", 50L);
+        CountDownLatch stuck = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        emitters.close();
+        // The first two clients stop reading: their writes never complete
+        emitters = mockConstruction(SseEmitter.class, (emitter, context) -> {
+            if (context.getCount() <= 2) {
+                doAnswer(invocation -> {
+                    stuck.countDown();
+                    release.await();
+                    throw new IOException("Write timed out");
+                }).when(emitter).send(anySet());
+            }
+        });
+
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+        broadcaster.subscribe();
+        Thread.sleep(100);
+
+        broadcaster.cutOffStalledSends();
+        broadcaster.onChanged(BeneficioChangedEvent.balances(1L));
+
+        SseEmitter healthy = emitters.constructed().get(2);
+        awaitSent(healthy, "\"ids\":[1]");
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(2.0, meterRegistry.counter("beneficio.events.stalled").count());
+
+        release.countDown();
+        awaitCompleted(emitters.constructed().get(0));
+        awaitCompleted(emitters.constructed().get(1));
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) ReflectionTestUtils.getField(broadcaster, "sender");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sender.getCorePoolSize() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, sender.getCorePoolSize());
+        verify(healthy, never()).complete();
+    }
+
+    @Test
+    void testFailedSendClosesSubscriber() throws Exception {
+        emitters.close();
+        emitters = mockConstruction(SseEmitter.class,
+            (emitter, context) -> doThrow(new IOException("Broken pipe")).when(emitter).send(anySet()));
+
+        broadcaster.subscribe();
+
+        // The "connected" comment fails on a sender thread
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (broadcaster.subscriberCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void testSubscriberLimit() {
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+
+        assertThrows(RejectedExecutionException.class, () -> broadcaster.subscribe());
+    }
+}
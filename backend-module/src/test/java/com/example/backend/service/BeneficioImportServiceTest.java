@@ -0,0 +1,209 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.ImportFormat;
+import com.example.backend.dto.ImportJobDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.entity.ImportJob;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.ImportJobRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Import jobs against the real H2 database, with chunks of 10 rows so small files span
+ * several checkpoints.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "beneficio.bulk.chunk-size=10",
+    "beneficio.bulk.jdbc-batch-size=10",
+    "beneficio.import.source-dir=target/import-test/source",
+    "beneficio.import.work-dir=target/import-test/work",
+    "beneficio.import.buffer-size=256"
+})
+class BeneficioImportServiceTest {
+
+    private static final Path SOURCE_DIR = Paths.get("target/import-test/source");
+    private static final Path WORK_DIR = Paths.get("target/import-test/work");
+
+    @Autowired
+    private BeneficioImportService imports;
+
+    @Autowired
+    private BeneficioRepository beneficioRepository;
+
+    @Autowired
+    private ImportJobRepository jobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(SOURCE_DIR);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        jdbcTemplate.update("DELETE FROM BENEFICIO WHERE NOME LIKE 'Import %'");
+        jdbcTemplate.update("DELETE FROM IMPORT_JOB");
+        FileSystemUtils.deleteRecursively(Paths.get("target/import-test"));
+    }
+
+    private ImportJobDTO await(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        ImportJobDTO job = imports.find(id);
+        while (job.getStatus() == ImportJob.Status.RUNNING) {
+            assertTrue(System.currentTimeMillis() < deadline, "import did not finish");
+            Thread.sleep(20);
+            job = imports.find(id);
+        }
+        return job;
+    }
+
+    private List<JsonNode> rejects(String id) throws IOException {
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : Files.readAllLines(imports.rejects(id))) {
+            records.add(objectMapper.readTree(line));
+        }
+        return records;
+    }
+
+    @Test
+    void testCsvImportWritesValidRowsAndRejectsTheRest() throws Exception {
+        Beneficio existing = beneficioRepository.save(new Beneficio("Import existente", null, Money.parse("1.00"), true));
+        StringBuilder csv = new StringBuilder("id,nome,descricao,valor,ativo\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append(",Import ").append(i).append(",\"Linha, com vírgula\",").append(i).append(".50,true\n");
+        }
+        csv.append(",,sem nome,1.00,true\n");                                     // line 27
+        csv.append(",Import negativo,,-1.00,true\n");                             // line 28
+        csv.append(",Import ilegível,,um real,true\n");                           // line 29
+        csv.append(existing.getId()).append(",Import atualizado,,9.00,false\n");  // line 30
+        csv.append(Long.MAX_VALUE).append(",Import inexistente,,1.00,true\n");    // line 31
+        csv.append(",Import ").append("x".repeat(300)).append(",,1.00,true\n");   // line 32
+        Files.writeString(SOURCE_DIR.resolve("beneficios.csv"), csv);
+
+        ImportJobDTO job = await(imports.start("beneficios.csv", null).getId());
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(ImportFormat.CSV, job.getFormat());
+        assertEquals(32, job.getLinesRead());
+        assertEquals(25, job.getInserted());
+        assertEquals(1, job.getUpdated());
+        assertEquals(5, job.getRejected());
+        assertEquals(0, job.getFailed());
+        assertEquals(job.getSourceSize(), job.getBytesRead());
+        assertEquals(100.0, job.getProgress());
+
+        Beneficio updated = beneficioRepository.findById(existing.getId()).orElseThrow();
+        assertEquals("Import atualizado", updated.getNome());
+        assertFalse(updated.getAtivo());
+        assertEquals("Linha, com vírgula", jdbcTemplate.queryForObject(
+            "SELECT DESCRICAO FROM BENEFICIO WHERE NOME = 'Import 7'", String.class));
+
+        List<JsonNode> rejects = rejects(job.getId());
+        assertEquals(5, rejects.size());
+        assertEquals(27, rejects.get(0).get("line").asLong());
+        assertEquals(ErrorCode.NOME_REQUIRED.name(), rejects.get(0).get("code").asText());
+        assertEquals(",,sem nome,1.00,true", rejects.get(0).get("content").asText());
+        assertEquals(ErrorCode.VALOR_NEGATIVE.name(), rejects.get(1).get("code").asText());
+        assertEquals(ErrorCode.BULK_ITEM_UNREADABLE.name(), rejects.get(2).get("code").asText());
+        // Line 32 is read before the last chunk commits, so the missing update is written after it
+        assertEquals(32, rejects.get(3).get("line").asLong());
+        assertEquals(31, rejects.get(4).get("line").asLong());
+        assertEquals(ErrorCode.BENEFICIO_NOT_FOUND.name(), rejects.get(4).get("code").asText());
+        assertTrue(rejects.get(4).get("content").asText().contains("Import inexistente"));
+
+        ImportJob stored = jobRepository.findById(job.getId()).orElseThrow();
+        assertEquals(Files.size(imports.rejects(job.getId())), stored.getRejectsSize());
+    }
+
+    @Test
+    void testResumeContinuesFromTheCheckpoint() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        long offset = 0;
+        for (int i = 0; i < 30; i++) {
+            ndjson.append("{\"nome\":\"Import ").append(i).append("\",\"valor\":1.00}\n");
+            if (i == 19) {
+                offset = ndjson.length();
+            }
+        }
+        Path file = WORK_DIR.resolve("retomada.ndjson");
+        Files.createDirectories(WORK_DIR);
+        Files.writeString(file, ndjson);
+        // A job that committed 20 rows and stopped, leaving half a rejects record behind
+        ImportJob stopped = new ImportJob("retomada", file.toAbsolutePath().toString(), ImportFormat.NDJSON);
+        stopped.setStatus(ImportJob.Status.INTERRUPTED);
+        stopped.setSourceSize(ndjson.length());
+        stopped.setByteOffset(offset);
+        stopped.setLinesRead(20);
+        stopped.setInserted(20);
+        jobRepository.save(stopped);
+        Files.writeString(imports.rejects("retomada"), "{\"line\":21,", StandardOpenOption.CREATE);
+
+        imports.resume("retomada");
+        ImportJobDTO job = await("retomada");
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(30, job.getLinesRead());
+        assertEquals(30, job.getInserted());
+        assertEquals(10, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM BENEFICIO WHERE NOME LIKE 'Import %'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM BENEFICIO WHERE NOME = 'Import 20'", Integer.class));
+        assertEquals(0, Files.size(imports.rejects("retomada")));
+
+        BeneficioException e = assertThrows(BeneficioException.class, () -> imports.resume("retomada"));
+        assertEquals(ErrorCode.IMPORT_NOT_RESUMABLE, e.getCode());
+    }
+
+    @Test
+    void testUploadIsStoredAndImported() throws Exception {
+        byte[] body = "nome,valor\nImport enviado,3.00\n".getBytes(StandardCharsets.UTF_8);
+
+        ImportJobDTO job = await(imports.upload(new ByteArrayInputStream(body), ImportFormat.CSV).getId());
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getInserted());
+        assertTrue(Files.exists(WORK_DIR.resolve(job.getId() + ".csv")));
+    }
+
+    @Test
+    void testOnlyFilesInTheSourceDirectoryCanBeImported() throws IOException {
+        Files.createDirectories(WORK_DIR);
+        Files.writeString(WORK_DIR.resolve("fora.csv"), "nome,valor\n");
+
+        for (String name : new String[] {"../work/fora.csv", "inexistente.csv", ""}) {
+            BeneficioException e = assertThrows(BeneficioException.class, () -> imports.start(name, ImportFormat.CSV));
+            assertEquals(ErrorCode.IMPORT_SOURCE_INVALID, e.getCode());
+        }
+        BeneficioException e = assertThrows(BeneficioException.class, () -> imports.start("dados.txt", null));
+        assertEquals(ErrorCode.IMPORT_FORMAT_REQUIRED, e.getCode());
+    }
+}
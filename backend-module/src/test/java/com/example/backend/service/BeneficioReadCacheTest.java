@@ -0,0 +1,133 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BeneficioReadCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BeneficioReadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = newCache(true);
+    }
+
+    private BeneficioReadCache newCache(boolean enabled) {
+        BeneficioReadCache readCache = new BeneficioReadCache();
+        ReflectionTestUtils.setField(readCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(readCache, "findByIdEnabled", enabled);
+        ReflectionTestUtils.setField(readCache, "findAllActiveEnabled", enabled);
+        readCache.start();
+        return readCache;
+    }
+
+    private static BeneficioDTO dto(Long id, long version) {
+        return new BeneficioDTO(id, "Beneficio " + id, null, Money.parse("100.00"), true, version);
+    }
+
+    private double lookups(String cacheName, String result) {
+        return meterRegistry.get("beneficio.cache.lookups")
+                .tag("cache", cacheName).tag("result", result).counter().count();
+    }
+
+    // Version tag of an unsharded row, as read by BeneficioService.versionTag
+    private static String tag(Long id, long version) {
+        return id + "." + version;
+    }
+
+    @Test
+    void testHitAndMissAreCounted() {
+        assertNull(cache.findById(1L, tag(1L, 0)));
+        cache.put(dto(1L, 0), tag(1L, 0), cache.stamp());
+
+        assertNotNull(cache.findById(1L, tag(1L, 0)));
+        assertEquals(1.0, lookups("find-by-id", "hit"));
+        assertEquals(1.0, lookups("find-by-id", "miss"));
+    }
+
+    @Test
+    void testEntryIsServedOnlyAtTheVersionItWasLoadedAt() {
+        cache.put(dto(1L, 0), tag(1L, 0), cache.stamp());
+
+        // Committed by another instance, or before this instance handled the event
+        assertNull(cache.findById(1L, tag(1L, 1)));
+        assertNotNull(cache.findById(1L, tag(1L, 0)));
+    }
+
+    @Test
+    void testCommittedChangeEvictsEntry() {
+        cache.put(dto(1L, 0), tag(1L, 0), cache.stamp());
+
+        cache.onChanged(BeneficioChangedEvent.balances(1L, 2L));
+
+        assertNull(cache.findById(1L, tag(1L, 0)));
+    }
+
+    @Test
+    void testLoadStartedBeforeInvalidationIsNotCached() {
+        long stamp = cache.stamp();
+        // A transfer commits while the reader is still loading the old row
+        cache.onChanged(BeneficioChangedEvent.balances(1L));
+
+        cache.put(dto(1L, 0), tag(1L, 0), stamp);
+
+        assertNull(cache.findById(1L, tag(1L, 0)));
+    }
+
+    @Test
+    void testOlderVersionNeverReplacesNewer() {
+        cache.put(dto(1L, 5), tag(1L, 5), cache.stamp());
+        cache.put(dto(1L, 4), tag(1L, 4), cache.stamp());
+
+        assertEquals(5L, cache.findById(1L, tag(1L, 5)).getVersion());
+    }
+
+    @Test
+    void testActiveListIsServedOnlyAtTheTagItWasLoadedAt() {
+        cache.putActiveList(List.of(dto(1L, 0), dto(2L, 0)), "2.7", cache.stamp());
+
+        assertEquals(2, cache.activeList("2.7").size());
+        // Committed elsewhere: no event reached this instance
+        assertNull(cache.activeList("2.8"));
+        assertEquals(1.0, lookups("find-all-active", "miss"));
+    }
+
+    @Test
+    void testActiveListDroppedOnAnyChange() {
+        cache.putActiveList(List.of(dto(1L, 0), dto(2L, 0)), "2.7", cache.stamp());
+
+        cache.onChanged(BeneficioChangedEvent.balances(1L));
+
+        assertNull(cache.activeList("2.7"));
+    }
+
+    @Test
+    void testActiveListLoadedBeforeAnInvalidationIsDropped() {
+        long stamp = cache.stamp();
+        cache.onChanged(BeneficioChangedEvent.rows(3L));
+
+        cache.putActiveList(List.of(dto(1L, 0)), "1.7", stamp);
+
+        assertNull(cache.activeList("1.7"));
+    }
+
+    @Test
+    void testDisabledCacheAlwaysMisses() {
+        BeneficioReadCache disabled = newCache(false);
+        disabled.put(dto(1L, 0), tag(1L, 0), disabled.stamp());
+        disabled.putActiveList(List.of(dto(1L, 0)), "1.0", disabled.stamp());
+
+        assertNull(disabled.findById(1L, tag(1L, 0)));
+        assertNull(disabled.activeList("1.0"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.service.BeneficioSearchService.SearchQuery;
+import com.example.backend.service.BeneficioSearchService.Sort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BeneficioSearchServiceTest {
+
+    @Autowired
+    private BeneficioSearchService search;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO BENEFICIO (NOME, VALOR, ATIVO) VALUES "
+                + "('Busca Ana', 100.00, TRUE), ('Busca Bia', 300.00, FALSE), ('Busca Caio', 50.00, TRUE), "
+                + "('BuscaX Eva', 200.00, TRUE)");
+        // Logical balance 250.00, none of it in BENEFICIO.VALOR
+        jdbcTemplate.update("INSERT INTO BENEFICIO (NOME, VALOR, ATIVO, SHARD_COUNT) VALUES ('Busca Dora', 0, TRUE, 2)");
+        Long sharded = jdbcTemplate.queryForObject("SELECT ID FROM BENEFICIO WHERE NOME = 'Busca Dora'", Long.class);
+        jdbcTemplate.update("INSERT INTO BENEFICIO_SHARD (BENEFICIO_ID, SHARD, VALOR) VALUES (?, 0, 120.00), (?, 1, 130.00)",
+                sharded, sharded);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM BENEFICIO WHERE NOME LIKE 'Busca%'");
+    }
+
+    // Follows the cursor until a short page, the way a client would
+    private List<String> allPages(String nome, String valorMin, String valorMax, Boolean ativo, Sort sort, int limit) {
+        List<String> nomes = new ArrayList<>();
+        String after = null;
+        while (true) {
+            List<BeneficioDTO> page = search.search(nome, valorMin != null ? Money.parse(valorMin) : null,
+                    valorMax != null ? Money.parse(valorMax) : null, ativo, sort, after, limit);
+            page.forEach(dto -> nomes.add(dto.getNome()));
+            if (page.size() < limit) {
+                return nomes;
+            }
+            after = search.cursor(sort, page.get(page.size() - 1));
+        }
+    }
+
+    @Test
+    void testNomePrefixPagedInNomeOrder() {
+        assertEquals(List.of("Busca Ana", "Busca Bia", "Busca Caio", "Busca Dora"),
+                allPages("Busca ", null, null, null, Sort.NOME, 2));
+    }
+
+    @Test
+    void testValorRangeMergesShardedAccountsByLogicalBalance() {
+        assertEquals(List.of("Busca Ana", "BuscaX Eva", "Busca Dora", "Busca Bia"),
+                allPages("Busca", "100.00", "300.00", null, Sort.VALOR, 2));
+        assertEquals(List.of("Busca Dora"), allPages("Busca", "250.00", "250.00", null, Sort.ID, 10));
+
+        List<BeneficioDTO> page = search.search("Busca D", null, null, null, Sort.ID, null, 10);
+        assertEquals(Money.parse("250.00"), page.get(0).getValor());
+    }
+
+    @Test
+    void testAtivoFilter() {
+        assertEquals(List.of("Busca Bia"), allPages("Busca", null, null, false, Sort.ID, 10));
+        assertEquals(List.of("Busca Caio", "Busca Ana"), allPages("Busca ", null, "200.00", true, Sort.VALOR, 1));
+    }
+
+    @Test
+    void testPrefixWildcardsAreLiteral() {
+        assertEquals(List.of(), allPages("Busca_", null, null, null, Sort.NOME, 10));
+        assertEquals(List.of(), allPages("%", null, null, null, Sort.NOME, 10));
+    }
+
+    @Test
+    void testInvalidRequests() {
+        String nomeCursor = search.cursor(Sort.NOME, search.search("Busca", null, null, null, Sort.NOME, null, 1).get(0));
+
+        BeneficioException wrongSort = assertThrows(BeneficioException.class,
+                () -> search.search(null, null, null, null, Sort.VALOR, nomeCursor, 10));
+        assertEquals(ErrorCode.SEARCH_CURSOR_INVALID, wrongSort.getCode());
+        assertEquals(ErrorCode.SEARCH_CURSOR_INVALID, assertThrows(BeneficioException.class,
+                () -> search.search(null, null, null, null, Sort.ID, "não é cursor", 10)).getCode());
+        assertEquals(ErrorCode.VALOR_RANGE_INVALID, assertThrows(BeneficioException.class,
+                () -> search.search(null, Money.parse("10.00"), Money.parse("9.99"), null, Sort.ID, null, 10)).getCode());
+        assertEquals(ErrorCode.PAGE_LIMIT_INVALID, assertThrows(BeneficioException.class,
+                () -> search.search(null, null, null, null, Sort.ID, null, 0)).getCode());
+        assertEquals(ErrorCode.SEARCH_SORT_INVALID, assertThrows(BeneficioException.class,
+                () -> Sort.parse("descricao")).getCode());
+        assertEquals(Sort.VALOR, Sort.parse("valor"));
+    }
+
+    @Test
+    void testEveryQueryRunsOnAnIndex() {
+        BeneficioDTO last = new BeneficioDTO(10L, "Busca Ana", null, Money.parse("100.00"), true, 0L);
+        for (Sort sort : Sort.values()) {
+            String cursor = search.cursor(sort, last);
+            for (String after : new String[] {null, cursor}) {
+                List<SearchQuery> queries = new ArrayList<>();
+                queries.addAll(search.queries(null, null, null, null, sort, after, 10));
+                queries.addAll(search.queries(null, null, null, true, sort, after, 10));
+                queries.addAll(search.queries("Busca", null, null, null, sort, after, 10));
+                queries.addAll(search.queries(null, Money.parse("10.00"), Money.parse("500.00"), false, sort, after, 10));
+                queries.addAll(search.queries("Busca", null, Money.parse("500.00"), null, sort, after, 10));
+                for (SearchQuery query : queries) {
+                    String plan = explain(query);
+                    assertFalse(plan.contains("tableScan"), plan);
+                    // The sharded accounts are always found through SHARD_COUNT > 0
+                    if (query.sql().contains(") t ")) {
+                        assertTrue(plan.contains("IDX_BENEFICIO_VALOR: SHARD_COUNT > 0"), plan);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSortedSearchesReadTheirIndexInOrder() {
+        String byNome = explain(search.queries(null, null, null, null, Sort.NOME, null, 10).get(0));
+        assertTrue(byNome.contains("IDX_BENEFICIO_NOME") && byNome.contains("index sorted"), byNome);
+
+        String byPrefix = explain(search.queries("Busca", null, null, null, Sort.NOME, null, 10).get(0));
+        assertTrue(byPrefix.contains("IDX_BENEFICIO_NOME: NOME >= 'Busca'"), byPrefix);
+
+        String byValor = explain(search.queries(null, Money.parse("10.00"), null, null, Sort.VALOR, null, 10).get(0));
+        assertTrue(byValor.contains("IDX_BENEFICIO_VALOR") && byValor.contains("index sorted"), byValor);
+    }
+
+    private String explain(SearchQuery query) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + query.sql(), String.class, query.args());
+    }
+}
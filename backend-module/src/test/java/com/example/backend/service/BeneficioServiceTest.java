@@ -1,26 +1,49 @@
 package com.example.backend.service;
 
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.BeneficioChangesDTO;
 import com.example.backend.dto.BeneficioDTO;
 import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.dto.TransferResultDTO;
 import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
 import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.RowVersion;
+import com.example.backend.repository.BeneficioTombstoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
-import java.math.BigDecimal;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,59 +55,267 @@ class BeneficioServiceTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ShardedBalanceService shardedBalances;
+
+    @Mock
+    private BeneficioReadCache readCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ChangeSequence changes;
+
+    @Mock
+    private BeneficioTombstoneRepository tombstoneRepository;
+
+    @Mock
+    private BeneficioStatsService stats;
+
+    @Mock
+    private BeneficioTextIndex textIndex;
+
+    @Spy
+    private TransferRetryPolicy retryPolicy = new TransferRetryPolicy(3, 0, 0);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BeneficioMetrics metrics = new BeneficioMetrics(meterRegistry);
+
     @InjectMocks
     private BeneficioService service;
 
     private Beneficio beneficio1;
     private Beneficio beneficio2;
+    private BeneficioDTO dto1;
+    private BeneficioDTO dto2;
 
     @BeforeEach
     void setUp() {
-        beneficio1 = new Beneficio("Beneficio A", "Descrição A", new BigDecimal("1000.00"), true);
+        beneficio1 = new Beneficio("Beneficio A", "Descrição A", Money.parse("1000.00"), true);
         beneficio1.setId(1L);
         beneficio1.setVersion(0L);
 
-        beneficio2 = new Beneficio("Beneficio B", "Descrição B", new BigDecimal("500.00"), true);
+        beneficio2 = new Beneficio("Beneficio B", "Descrição B", Money.parse("500.00"), true);
         beneficio2.setId(2L);
         beneficio2.setVersion(0L);
+
+        dto1 = new BeneficioDTO(1L, "Beneficio A", "Descrição A", Money.parse("1000.00"), true, 0L);
+        dto2 = new BeneficioDTO(2L, "Beneficio B", "Descrição B", Money.parse("500.00"), true, 0L);
+
+        // Transfers run through the default strategy, backed by the same repository mock
+        PessimisticTransferStrategy strategy = new PessimisticTransferStrategy();
+        ReflectionTestUtils.setField(strategy, "repository", repository);
+        ReflectionTestUtils.setField(strategy, "changes", changes);
+        ReflectionTestUtils.setField(strategy, "metrics", metrics);
+        ReflectionTestUtils.setField(strategy, "stats", stats);
+        ReflectionTestUtils.setField(service, "transferStrategy", strategy);
+    }
+
+    private long phaseCount(String phase) {
+        return meterRegistry.get("beneficio.transfer.phase").tag("phase", phase).timer().count();
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.get("beneficio.transfer.rejections").tag("reason", reason).counter().count();
     }
 
     @Test
     void testFindAll() {
-        when(repository.findAll()).thenReturn(Arrays.asList(beneficio1, beneficio2));
+        when(repository.findAllDTOs()).thenReturn(Arrays.asList(dto1, dto2));
 
         List<BeneficioDTO> result = service.findAll();
 
         assertEquals(2, result.size());
         assertEquals("Beneficio A", result.get(0).getNome());
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findAllDTOs();
+        verify(repository, never()).findAll();
+    }
+
+    @Test
+    void testFindChangesReturnsChangedRowsAndTombstones() {
+        when(changes.watermark()).thenReturn(40L);
+        when(repository.findIdsChangedBetween(10L, 40L)).thenReturn(List.of(2L));
+        when(shardedBalances.changedBetween(10L, 40L)).thenReturn(List.of(1L));
+        when(repository.findDTOsByIds(any())).thenReturn(List.of(dto1, dto2));
+        when(tombstoneRepository.findIdsChangedBetween(10L, 40L)).thenReturn(List.of(9L));
+
+        BeneficioChangesDTO result = service.findChanges(10L);
+
+        assertEquals(List.of(1L, 2L), result.getChanged().stream().map(BeneficioDTO::getId).toList());
+        assertEquals(List.of(9L), result.getDeleted());
+        assertEquals(40L, result.getNext());
+    }
+
+    @Test
+    void testFindChangesWithoutCursorReturnsEverything() {
+        when(changes.watermark()).thenReturn(40L);
+        when(repository.findAllDTOs()).thenReturn(Arrays.asList(dto1, dto2));
+
+        BeneficioChangesDTO result = service.findChanges(null);
+
+        assertEquals(2, result.getChanged().size());
+        assertEquals(40L, result.getNext());
+    }
+
+    @Test
+    void testFindChangesUpToDateCursorSkipsQueries() {
+        when(changes.watermark()).thenReturn(40L);
+
+        BeneficioChangesDTO result = service.findChanges(40L);
+
+        assertTrue(result.getChanged().isEmpty());
+        assertEquals(40L, result.getNext());
+        verifyNoInteractions(repository, tombstoneRepository);
+    }
+
+    @Test
+    void testFindPage() {
+        when(repository.findDTOsAfter(0L, Limit.of(BeneficioService.DEFAULT_PAGE_SIZE)))
+            .thenReturn(Arrays.asList(dto1, dto2));
+
+        List<BeneficioDTO> result = service.findPage(null, null);
+
+        assertEquals(2, result.size());
+        assertEquals(1L, result.get(0).getId());
+        assertEquals(2L, result.get(1).getId());
+    }
+
+    @Test
+    void testFindPageAfterCursor() {
+        when(repository.findDTOsAfter(1L, Limit.of(10)))
+            .thenReturn(List.of(dto2));
+
+        List<BeneficioDTO> result = service.findPage(1L, 10);
+
+        assertEquals(1, result.size());
+        assertEquals("Beneficio B", result.get(0).getNome());
+    }
+
+    @Test
+    void testFindPageInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> service.findPage(null, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> service.findPage(null, BeneficioService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testStreamAllInChunks() {
+        int total = BeneficioService.STREAM_CHUNK_SIZE + 3;
+        when(repository.streamAllDTOs()).thenReturn(LongStream.rangeClosed(1, total).mapToObj(
+            id -> new BeneficioDTO(id, "Beneficio " + id, null, Money.ofCents(1000), true, 0L)));
+
+        List<Integer> chunkSizes = new ArrayList<>();
+        long count = service.streamAll(chunk -> chunkSizes.add(chunk.size()));
+
+        assertEquals(total, count);
+        assertEquals(List.of(BeneficioService.STREAM_CHUNK_SIZE, 3), chunkSizes);
     }
 
     @Test
     void testFindById() {
-        when(repository.findById(1L)).thenReturn(Optional.of(beneficio1));
+        when(repository.findDTOById(1L)).thenReturn(Optional.of(dto1));
 
         BeneficioDTO result = service.findById(1L);
 
         assertNotNull(result);
         assertEquals("Beneficio A", result.getNome());
-        assertEquals(new BigDecimal("1000.00"), result.getValor());
+        assertEquals(Money.parse("1000.00"), result.getValor());
     }
 
     @Test
     void testFindByIdNotFound() {
-        when(repository.findById(999L)).thenReturn(Optional.empty());
+        when(repository.findDTOById(999L)).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> service.findById(999L));
     }
 
+    @Test
+    void testFindByIdServedFromCacheAtCurrentVersion() {
+        BeneficioDTO cached = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                               Money.parse("1000.00"), true, 3L);
+        when(readCache.isFindByIdEnabled()).thenReturn(true);
+        when(repository.findRowVersionById(1L)).thenReturn(Optional.of(rowVersion(3L)));
+        when(readCache.findById(1L, "1.3")).thenReturn(cached);
+
+        assertSame(cached, service.findById(1L));
+        verify(repository, never()).findDTOById(any());
+    }
+
+    @Test
+    void testFindByIdMissPopulatesCacheWithVersionTag() {
+        when(readCache.isFindByIdEnabled()).thenReturn(true);
+        when(readCache.stamp()).thenReturn(7L);
+        when(repository.findDTOById(1L)).thenReturn(Optional.of(dto1));
+
+        BeneficioDTO result = service.findById(1L, "1.0");
+
+        verify(readCache).put(result, "1.0", 7L);
+    }
+
+    private static RowVersion rowVersion(long version) {
+        return new RowVersion() {
+            public Long getVersion() {
+                return version;
+            }
+
+            public Integer getShardCount() {
+                return 0;
+            }
+
+            public Long getShardVersions() {
+                return 0L;
+            }
+        };
+    }
+
+    @Test
+    void testFindAllActiveServedFromCacheAtCurrentCollectionTag() {
+        when(readCache.activeList("2.7")).thenReturn(List.of(dto1));
+
+        assertEquals(List.of(dto1), service.findAllActive("2.7"));
+        verify(repository, never()).findActiveDTOs();
+    }
+
+    @Test
+    void testFindAllActiveMissCachesListWithCollectionTag() {
+        when(readCache.stamp()).thenReturn(4L);
+        when(readCache.activeList("2.8")).thenReturn(null);
+        when(repository.findActiveDTOs()).thenReturn(List.of(dto1, dto2));
+
+        assertEquals(List.of(dto1, dto2), service.findAllActive("2.8"));
+        verify(readCache).putActiveList(List.of(dto1, dto2), "2.8", 4L);
+    }
+
+    @Test
+    void testTransferPublishesChangeForBothAccounts() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        when(repository.findAllByIdForUpdate(any())).thenReturn(List.of(beneficio1, beneficio2));
+
+        service.transfer(request);
+
+        ArgumentCaptor<BeneficioChangedEvent> event = ArgumentCaptor.forClass(BeneficioChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(List.of(1L, 2L), event.getValue().getIds());
+        assertFalse(event.getValue().isMembershipChanged());
+    }
+
     @Test
     void testCreate() {
         BeneficioDTO dto = new BeneficioDTO(null, "Novo Beneficio", "Nova Descrição", 
-                                            new BigDecimal("750.00"), true, null);
+                                            Money.parse("750.00"), true, null);
         
         Beneficio savedBeneficio = new Beneficio("Novo Beneficio", "Nova Descrição", 
-                                                 new BigDecimal("750.00"), true);
+                                                 Money.parse("750.00"), true);
         savedBeneficio.setId(3L);
 
         when(repository.save(any(Beneficio.class))).thenReturn(savedBeneficio);
@@ -94,20 +325,34 @@ class BeneficioServiceTest {
         assertNotNull(result);
         assertEquals("Novo Beneficio", result.getNome());
         verify(repository, times(1)).save(any(Beneficio.class));
+        verify(stats).added(Money.parse("750.00"), true);
+        verify(textIndex).indexed(savedBeneficio);
     }
 
     @Test
     void testCreateWithInvalidData() {
         BeneficioDTO dto = new BeneficioDTO(null, "", "Descrição", 
-                                            new BigDecimal("100.00"), true, null);
+                                            Money.parse("100.00"), true, null);
 
         assertThrows(IllegalArgumentException.class, () -> service.create(dto));
     }
 
+    @Test
+    void testCreateRejectsValuesLongerThanTheirColumns() {
+        BeneficioDTO longNome = new BeneficioDTO(null, "N".repeat(101), null, Money.parse("100.00"), true, null);
+        BeneficioDTO longDescricao = new BeneficioDTO(null, "Nome", "D".repeat(256), Money.parse("100.00"), true, null);
+
+        assertEquals(ErrorCode.NOME_TOO_LONG,
+            assertThrows(BeneficioException.class, () -> service.create(longNome)).getCode());
+        assertEquals(ErrorCode.DESCRICAO_TOO_LONG,
+            assertThrows(BeneficioException.class, () -> service.create(longDescricao)).getCode());
+        verify(repository, never()).save(any());
+    }
+
     @Test
     void testUpdate() {
         BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio Atualizado", "Nova Descrição", 
-                                            new BigDecimal("1500.00"), true, 0L);
+                                            Money.parse("1500.00"), true, 0L);
 
         when(repository.findById(1L)).thenReturn(Optional.of(beneficio1));
         when(repository.save(any(Beneficio.class))).thenReturn(beneficio1);
@@ -116,55 +361,196 @@ class BeneficioServiceTest {
 
         assertNotNull(result);
         verify(repository, times(1)).save(any(Beneficio.class));
+        verify(textIndex).indexed(beneficio1);
+    }
+
+    @Test
+    void testUpdateShardedBeneficioSpreadsValorAcrossShards() {
+        beneficio1.setShardCount(4);
+        BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                            Money.parse("2000.00"), true, 0L);
+
+        when(repository.findById(1L)).thenReturn(Optional.of(beneficio1));
+        when(repository.save(any(Beneficio.class))).thenReturn(beneficio1);
+
+        service.update(1L, dto);
+
+        verify(shardedBalances).setTotal(beneficio1, Money.parse("2000.00"));
+        assertEquals(Money.parse("1000.00"), beneficio1.getValor());
+    }
+
+    @Test
+    void testUpdateReturnsLogicalTotalOfShardedBeneficio() {
+        beneficio1.setShardCount(4);
+        beneficio1.setValor(Money.parse("10.00"));
+        BeneficioDTO dto = new BeneficioDTO(1L, "Beneficio A", "Descrição A",
+                                            Money.parse("1000.00"), true, 0L);
+        when(repository.findById(1L)).thenReturn(Optional.of(beneficio1));
+        when(repository.save(any(Beneficio.class))).thenReturn(beneficio1);
+        when(shardedBalances.shardTotal(beneficio1)).thenReturn(Money.parse("990.00"));
+
+        assertEquals(Money.parse("1000.00"), service.update(1L, dto).getValor());
+        // The summary sees logical balances on both sides
+        verify(stats).changed(Money.parse("1000.00"), true, Money.parse("1000.00"), true);
     }
 
     @Test
     void testDelete() {
-        when(repository.existsById(1L)).thenReturn(true);
+        when(repository.findById(1L)).thenReturn(Optional.of(beneficio1));
 
         service.delete(1L);
 
-        verify(repository, times(1)).deleteById(1L);
+        verify(repository, times(1)).delete(beneficio1);
+        verify(tombstoneRepository).save(argThat(t -> t.getBeneficioId().equals(1L)));
+        verify(stats).removed(Money.parse("1000.00"), true);
+        verify(textIndex).removed(1L, 0L);
     }
 
     @Test
     void testTransferSuccess() {
-        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, new BigDecimal("200.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
 
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
 
         service.transfer(request);
 
-        assertEquals(new BigDecimal("800.00"), beneficio1.getValor());
-        assertEquals(new BigDecimal("700.00"), beneficio2.getValor());
+        assertEquals(Money.parse("800.00"), beneficio1.getValor());
+        assertEquals(Money.parse("700.00"), beneficio2.getValor());
         verify(repository, times(2)).save(any(Beneficio.class));
+        verify(stats).changed(Money.parse("1000.00"), true, Money.parse("800.00"), true);
+        verify(stats).changed(Money.parse("500.00"), true, Money.parse("700.00"), true);
+    }
+
+    @Test
+    void testTransferRecordsEveryPhase() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        service.transfer(request);
+
+        for (String phase : List.of("validate", "lock", "apply", "commit")) {
+            assertEquals(1, phaseCount(phase), phase);
+        }
+        assertEquals(1, meterRegistry.get("beneficio.transfer").tag("outcome", "success").timer().count());
+        assertEquals(0.0, meterRegistry.get("beneficio.transfer.in-flight").gauge().value());
     }
 
     @Test
     void testTransferInsufficientBalance() {
-        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, new BigDecimal("2000.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("2000.00"));
+
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
+        assertEquals(1.0, rejections("insufficient-balance"));
+        assertEquals(0, phaseCount("commit"));
+    }
+
+    @Test
+    void testTransferLocksInAscendingIdOrder() {
+        TransferRequestDTO request = new TransferRequestDTO(2L, 1L, Money.parse("100.00"));
+
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        service.transfer(request);
+
+        assertEquals(Money.parse("1100.00"), beneficio1.getValor());
+        assertEquals(Money.parse("400.00"), beneficio2.getValor());
+    }
+
+    @Test
+    void testTransferRetriesOnLockFailure() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenThrow(new CannotAcquireLockException("lock timeout"))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        service.transfer(request);
+
+        assertEquals(Money.parse("800.00"), beneficio1.getValor());
+        verify(repository, times(2)).findAllByIdForUpdate(List.of(1L, 2L));
+        assertEquals(2, phaseCount("lock"));
+        assertEquals(1, phaseCount("commit"));
+    }
+
+    @Test
+    void testLastTransferAttemptUsesTheStrategysLastAttempt() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        TransferStrategy locking = mock(TransferStrategy.class);
+        TransferStrategy conflicting = mock(TransferStrategy.class);
+        when(conflicting.lastAttempt()).thenReturn(locking);
+        doThrow(new OptimisticLockException()).when(conflicting).transfer(request);
+
+        service.transfer(request, conflicting);
+
+        // Three attempts in this policy: two optimistic, the last one with locks
+        verify(conflicting, times(2)).transfer(request);
+        verify(locking).transfer(request);
+    }
+
+    @Test
+    void testTransferInvolvingShardedBeneficioUsesShardedBalances() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        when(shardedBalances.involvesSharded(request)).thenReturn(true);
+
+        service.transfer(request);
+
+        verify(shardedBalances).transfer(request);
+        verify(repository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void testTransferFromAccountShardedElsewhereRetriesOnShardedPath() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+        beneficio1.setValor(Money.ZERO);
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(Arrays.asList(beneficio1, beneficio2));
+        when(shardedBalances.involvesSharded(request)).thenReturn(false, true);
+        when(shardedBalances.refresh(1L)).thenReturn(true);
+
+        service.transfer(request);
+
+        verify(shardedBalances).transfer(request);
+    }
+
+    @Test
+    void testInsufficientBalanceOnUnshardedAccountIsNotRetried() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("2000.00"));
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
+
+        verify(shardedBalances).refresh(1L);
+        verify(shardedBalances, never()).transfer(any());
+        verify(repository, times(1)).findAllByIdForUpdate(List.of(1L, 2L));
+    }
+
+    @Test
+    void testTransferDestinationNotFound() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 99L, Money.parse("100.00"));
 
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        when(repository.findAllByIdForUpdate(List.of(1L, 99L))).thenReturn(List.of(beneficio1));
 
         assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
+        assertEquals(Money.parse("1000.00"), beneficio1.getValor());
+        verify(repository, times(1)).findAllByIdForUpdate(any());
     }
 
     @Test
     void testTransferSameBeneficio() {
-        TransferRequestDTO request = new TransferRequestDTO(1L, 1L, new BigDecimal("100.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 1L, Money.parse("100.00"));
 
         assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
+        assertEquals(1.0, rejections("invalid-request"));
     }
 
     @Test
     void testTransferNegativeAmount() {
-        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, new BigDecimal("-100.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("-100.00"));
 
         assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
     }
@@ -172,13 +558,83 @@ class BeneficioServiceTest {
     @Test
     void testTransferInactiveBeneficio() {
         beneficio1.setAtivo(false);
-        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, new BigDecimal("100.00"));
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("100.00"));
 
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
 
         assertThrows(IllegalArgumentException.class, () -> service.transfer(request));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testTransferBatchBestEffort() {
+        Beneficio beneficio3 = new Beneficio("Beneficio C", "Descrição C", Money.parse("50.00"), true);
+        beneficio3.setId(3L);
+        List<TransferRequestDTO> requests = List.of(
+            new TransferRequestDTO(1L, 2L, Money.parse("300.00")),
+            new TransferRequestDTO(3L, 1L, Money.parse("80.00")),
+            new TransferRequestDTO(2L, 2L, Money.parse("10.00")),
+            new TransferRequestDTO(2L, 3L, Money.parse("800.00")));
+
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L, 3L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2, beneficio3));
+
+        BatchTransferResultDTO result = service.transferBatch(requests, BatchTransferMode.BEST_EFFORT);
+
+        assertEquals(2, result.getApplied());
+        assertEquals(2, result.getRejected());
+        assertEquals(TransferResultDTO.Status.APPLIED, result.getResults().get(0).getStatus());
+        assertEquals(TransferResultDTO.Status.REJECTED, result.getResults().get(1).getStatus());
+        assertEquals(TransferResultDTO.Status.REJECTED, result.getResults().get(2).getStatus());
+        // Only possible because item 0 credited 300.00 to account 2 earlier in the batch
+        assertEquals(TransferResultDTO.Status.APPLIED, result.getResults().get(3).getStatus());
+
+        ArgumentCaptor<List<Map.Entry<Long, Money>>> written = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), written.capture(), anyInt(),
+            any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(
+            Map.entry(1L, Money.parse("700.00")),
+            Map.entry(2L, Money.parse("0.00")),
+            Map.entry(3L, Money.parse("850.00"))), written.getValue());
+        verify(repository, never()).save(any(Beneficio.class));
+        verify(stats).changed(Money.parse("500.00"), true, Money.parse("0.00"), true);
+
+        // Every item is a transfer of its own; the batch is one attempt
+        assertEquals(2, meterRegistry.get("beneficio.transfer").tag("outcome", "success").timer().count());
+        assertEquals(2, meterRegistry.get("beneficio.transfer").tag("outcome", "rejected").timer().count());
+        assertEquals(1.0, rejections("insufficient-balance"));
+        assertEquals(1.0, rejections("invalid-request"));
+        assertEquals(0.0, meterRegistry.get("beneficio.transfer.in-flight").gauge().value());
+        for (String phase : List.of("validate", "lock", "apply", "commit")) {
+            assertEquals(1, phaseCount(phase), phase);
+        }
+    }
+
+    @Test
+    void testTransferBatchAllOrNothingWritesNothingOnRejection() {
+        List<TransferRequestDTO> requests = List.of(
+            new TransferRequestDTO(1L, 2L, Money.parse("100.00")),
+            new TransferRequestDTO(2L, 1L, Money.parse("5000.00")));
+
+        when(repository.findAllByIdForUpdate(List.of(1L, 2L)))
+            .thenReturn(Arrays.asList(beneficio1, beneficio2));
+
+        BatchTransferResultDTO result = service.transferBatch(requests, BatchTransferMode.ALL_OR_NOTHING);
+
+        assertEquals(0, result.getApplied());
+        assertEquals(1, result.getRejected());
+        assertEquals(TransferResultDTO.Status.NOT_APPLIED, result.getResults().get(0).getStatus());
+        assertEquals(TransferResultDTO.Status.REJECTED, result.getResults().get(1).getStatus());
+        verifyNoInteractions(jdbcTemplate);
+        // The aborted item is rejected too, but only the failing one has a reason
+        assertEquals(2, meterRegistry.get("beneficio.transfer").tag("outcome", "rejected").timer().count());
+        assertEquals(1.0, rejections("insufficient-balance"));
+    }
+
+    @Test
+    void testTransferBatchEmpty() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.transferBatch(List.of(), BatchTransferMode.BEST_EFFORT));
+    }
 }
@@ -0,0 +1,177 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BeneficioStatsDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.money.Money;
+import com.example.backend.service.BeneficioStatsService.Verification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The summary against the real H2 database. Other tests write rows with plain JDBC,
+ * so every test starts from a verified summary and compares before and after.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "beneficio.stats.stripes=4",
+    "beneficio.stats.verify-threads=3",
+    "beneficio.stats.verify-chunk-size=100",
+    "beneficio.stats.verify-interval-ms=3600000"
+})
+class BeneficioStatsServiceTest {
+
+    @Autowired
+    private BeneficioStatsService stats;
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private Map<String, TransferStrategy> strategies;
+
+    @BeforeEach
+    void setUp() {
+        assertNotEquals(Verification.BUSY, stats.verify());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM BENEFICIO WHERE NOME LIKE 'Stats %'");
+        stats.verify();
+    }
+
+    private BeneficioDTO create(String nome, String valor, boolean ativo) {
+        return service.create(new BeneficioDTO(null, nome, null, Money.parse(valor), ativo, null));
+    }
+
+    private static long bucket(BeneficioStatsDTO summary, int bucket) {
+        return summary.getBuckets().get(bucket).getCount();
+    }
+
+    @Test
+    void testWritesKeepTheSummaryInStep() {
+        BeneficioStatsDTO before = stats.stats();
+
+        BeneficioDTO a = create("Stats A", "50.00", true);
+        BeneficioDTO b = create("Stats B", "600.00", true);
+        BeneficioDTO c = create("Stats C", "20000.00", false);
+        service.update(c.getId(), new BeneficioDTO(null, "Stats C", null, Money.parse("20000.00"), true, null));
+        service.transfer(new TransferRequestDTO(b.getId(), a.getId(), Money.parse("550.00")));
+        service.transferBatch(List.of(new TransferRequestDTO(c.getId(), a.getId(), Money.parse("5000.00"))),
+                BatchTransferMode.ALL_OR_NOTHING);
+        service.delete(b.getId());
+
+        // Left: A with 5600.00 and C with 15000.00, both active
+        BeneficioStatsDTO after = stats.stats();
+        assertEquals(before.getCount() + 2, after.getCount());
+        assertEquals(before.getActiveCount() + 2, after.getActiveCount());
+        assertEquals(before.getValorTotal().add(new BigDecimal("20600.00")), after.getValorTotal());
+        assertEquals(bucket(before, 0), bucket(after, 0));
+        assertEquals(bucket(before, 2), bucket(after, 2));
+        assertEquals(bucket(before, 4) + 1, bucket(after, 4));
+        assertEquals(bucket(before, 5) + 1, bucket(after, 5));
+        assertEquals(Verification.OK, stats.verify());
+    }
+
+    @Test
+    void testGuardedUpdateTransfersMoveBuckets() {
+        BeneficioDTO a = create("Stats A", "50.00", true);
+        BeneficioDTO b = create("Stats B", "600.00", true);
+        BeneficioDTO hot = create("Stats quente", "10400.00", true);
+        service.split(hot.getId(), 4);
+        BeneficioStatsDTO before = stats.stats();
+
+        service.transfer(new TransferRequestDTO(b.getId(), a.getId(), Money.parse("100.00")),
+                strategies.get("conditional-update"));
+        // A debit and a credit on single shards, then one larger than any shard
+        service.transfer(new TransferRequestDTO(hot.getId(), b.getId(), Money.parse("500.00")));
+        service.transfer(new TransferRequestDTO(a.getId(), hot.getId(), Money.parse("100.00")));
+        service.transfer(new TransferRequestDTO(hot.getId(), a.getId(), Money.parse("3000.00")));
+
+        // Left: A with 3050.00, B with 1000.00 and the sharded account with 7000.00
+        BeneficioStatsDTO after = stats.stats();
+        assertEquals(before.getValorTotal(), after.getValorTotal());
+        assertEquals(bucket(before, 0) - 1, bucket(after, 0));
+        assertEquals(bucket(before, 1), bucket(after, 1));
+        assertEquals(bucket(before, 2) - 1, bucket(after, 2));
+        assertEquals(bucket(before, 3) + 2, bucket(after, 3));
+        assertEquals(bucket(before, 4) + 1, bucket(after, 4));
+        assertEquals(bucket(before, 5) - 1, bucket(after, 5));
+        assertEquals(Verification.OK, stats.verify());
+        service.merge(hot.getId());
+    }
+
+    @Test
+    void testRolledBackWriteLeavesTheSummaryAlone() {
+        BeneficioStatsDTO before = stats.stats();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            create("Stats desfeito", "100.00", true);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(before.getCount(), stats.stats().getCount());
+        assertEquals(before.getValorTotal(), stats.stats().getValorTotal());
+        assertEquals(Verification.OK, stats.verify());
+    }
+
+    @Test
+    void testVerifierCorrectsRowsWrittenBehindItsBack() {
+        BeneficioStatsDTO before = stats.stats();
+        jdbcTemplate.update("INSERT INTO BENEFICIO (NOME, VALOR, ATIVO) VALUES ('Stats direto', 2000000.00, TRUE)");
+        jdbcTemplate.update("INSERT INTO BENEFICIO (NOME, VALOR, ATIVO, SHARD_COUNT) VALUES ('Stats sharded', 0, FALSE, 2)");
+        Long sharded = jdbcTemplate.queryForObject("SELECT ID FROM BENEFICIO WHERE NOME = 'Stats sharded'", Long.class);
+        jdbcTemplate.update("INSERT INTO BENEFICIO_SHARD (BENEFICIO_ID, SHARD, VALOR) VALUES (?, 0, 75.00), (?, 1, 75.00)",
+                sharded, sharded);
+
+        assertEquals(Verification.CORRECTED, stats.verify());
+
+        BeneficioStatsDTO after = stats.stats();
+        assertEquals(before.getCount() + 2, after.getCount());
+        assertEquals(before.getActiveCount() + 1, after.getActiveCount());
+        assertEquals(before.getValorTotal().add(new BigDecimal("2000150.00")), after.getValorTotal());
+        // The sharded account counts with its logical balance of 150.00
+        assertEquals(bucket(before, 1) + 1, bucket(after, 1));
+        assertEquals(bucket(before, 8) + 1, bucket(after, 8));
+        assertEquals(Verification.OK, stats.verify());
+    }
+
+    @Test
+    void testVerifierBacksOffWhileAWriteIsOpen() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            changes.next();
+            assertEquals(Verification.BUSY, stats.verify());
+        });
+    }
+
+    @Test
+    void testBucketBoundaries() {
+        assertEquals(0, BeneficioStatsService.bucket(-1));
+        assertEquals(0, BeneficioStatsService.bucket(99_99));
+        assertEquals(1, BeneficioStatsService.bucket(100_00));
+        assertEquals(BeneficioStatsService.BUCKETS - 1, BeneficioStatsService.bucket(Money.MAX_CENTS));
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The index against the real H2 database. Every row here carries the made-up word
+ * "kwyz" so that rows written by other tests never match.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BeneficioTextIndexTest {
+
+    @Autowired
+    private BeneficioTextIndex index;
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ChangeSequence changes;
+
+    @AfterEach
+    void tearDown() {
+        for (Long id : jdbcTemplate.queryForList(
+                "SELECT ID FROM BENEFICIO WHERE LOWER(NOME) LIKE '%kwyz%' OR LOWER(DESCRICAO) LIKE '%kwyz%'", Long.class)) {
+            service.delete(id);
+        }
+    }
+
+    private BeneficioDTO create(String nome, String descricao) {
+        return service.create(new BeneficioDTO(null, nome, descricao, Money.parse("10.00"), true, null));
+    }
+
+    @Test
+    void testCommittedWritesAreSearchable() {
+        BeneficioDTO created = create("Vale Kwyz Refeição", null);
+
+        assertEquals(List.of(created.getId()), index.rankedIds("kwyz refeicao", 10));
+
+        service.update(created.getId(), new BeneficioDTO(null, "Vale Kwyz Transporte", "Ônibus", Money.parse("10.00"),
+                true, null));
+        assertEquals(List.of(), index.rankedIds("kwyz refei", 10));
+        assertEquals(List.of(created.getId()), index.rankedIds("KWYZ TRANSP", 10));
+        assertEquals(List.of(), index.rankedIds("kwyz onibus", 10));
+
+        service.delete(created.getId());
+        assertEquals(List.of(), index.rankedIds("kwyz", 10));
+    }
+
+    @Test
+    void testRolledBackWriteIsNotIndexed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            create("Kwyz desfeito", null);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), index.rankedIds("kwyz", 10));
+    }
+
+    @Test
+    void testRanksNomeMatchesFirstThenEarlierAndShorter() {
+        BeneficioDTO inDescricao = create("Auxílio", "Inclui kwyz");
+        BeneficioDTO late = create("Plano kwyz", null);
+        BeneficioDTO longer = create("Kwyz estendido", null);
+        BeneficioDTO shorter = create("Kwyz", null);
+
+        assertEquals(List.of(shorter.getId(), longer.getId(), late.getId(), inDescricao.getId()),
+                index.rankedIds("kwyz", 10));
+        assertEquals(List.of(shorter.getId(), longer.getId()), index.rankedIds("kwyz", 2));
+
+        List<BeneficioDTO> found = index.search("kwyz", 3);
+        assertEquals(List.of("Kwyz", "Kwyz estendido", "Plano kwyz"), found.stream().map(BeneficioDTO::getNome).toList());
+    }
+
+    @Test
+    void testTrigramsMustBeAdjacent() {
+        // Has every trigram of "kwyz" (kwy, wyz) but not the word itself
+        create("Kwy wyz", "kwyz");
+
+        assertEquals(1, index.rankedIds("kwyz", 10).size());
+        assertEquals(List.of(), index.rankedIds("kwyz kwy", 10));
+    }
+
+    @Test
+    void testOlderUpdateCommittingAfterTheDeleteDoesNotBringTheRowBack() throws Exception {
+        BeneficioDTO created = create("Kwyz apagado", null);
+        CountDownLatch indexed = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        // An update holding a lower change value whose callback runs after the delete's
+        CompletableFuture<Void> update = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    Beneficio beneficio = new Beneficio("Kwyz apagado", null, Money.parse("10.00"), true);
+                    beneficio.setId(created.getId());
+                    beneficio.setChangeSeq(changes.next());
+                    index.indexed(beneficio);
+                    indexed.countDown();
+                    try {
+                        assertTrue(deleted.await(10, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(indexed.await(10, TimeUnit.SECONDS));
+
+        service.delete(created.getId());
+        deleted.countDown();
+        update.get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(), index.rankedIds("kwyz apagado", 10));
+        index.build();
+        assertEquals(List.of(), index.rankedIds("kwyz apagado", 10));
+    }
+
+    @Test
+    void testBuildIndexesRowsAlreadyInTheTable() {
+        jdbcTemplate.update("INSERT INTO BENEFICIO (NOME, VALOR) VALUES ('Kwyz carregado', 1.00)");
+        Long id = jdbcTemplate.queryForObject("SELECT ID FROM BENEFICIO WHERE NOME = 'Kwyz carregado'", Long.class);
+        assertEquals(List.of(), index.rankedIds("kwyz carregado", 10));
+
+        index.build();
+
+        assertEquals(List.of(id), index.rankedIds("kwyz carregado", 10));
+        assertTrue(index.memoryBytes() > 0);
+    }
+
+    @Test
+    void testShortQueryIsRejected() {
+        assertEquals(ErrorCode.TEXT_QUERY_TOO_SHORT,
+                assertThrows(BeneficioException.class, () -> index.rankedIds(" é", 10)).getCode());
+        assertEquals(ErrorCode.PAGE_LIMIT_INVALID,
+                assertThrows(BeneficioException.class, () -> index.search("kwyz", 0)).getCode());
+    }
+}
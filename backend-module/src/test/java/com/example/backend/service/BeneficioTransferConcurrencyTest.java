@@ -0,0 +1,371 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.BeneficioChangesDTO;
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stress test against the real H2 database: many threads transfer back and forth
+ * between a handful of accounts (A→B and B→A at the same time), which deadlocked
+ * with per-row locking in request order.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class BeneficioTransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 8;
+    private static final int TRANSFERS_PER_THREAD = 150;
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Beneficio b = repository.save(
+                new Beneficio("Stress " + i, null, Money.parse("100000.00"), true));
+            ids.add(b.getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllById(ids);
+    }
+
+    @Autowired
+    private Map<String, TransferStrategy> strategies;
+
+    @Test
+    void testConcurrentOpposingTransfersKeepTotalBalance() throws Exception {
+        runOpposingTransfers(service::transfer, "default");
+    }
+
+    @Test
+    void testEveryStrategyKeepsTotalBalanceUnderContention() throws Exception {
+        for (Map.Entry<String, TransferStrategy> entry : strategies.entrySet()) {
+            runOpposingTransfers(request -> service.transfer(request, entry.getValue()), entry.getKey());
+        }
+    }
+
+    private void runOpposingTransfers(Consumer<TransferRequestDTO> transfer, String label) throws Exception {
+        Money totalBefore = totalBalance();
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    transfer.accept(new TransferRequestDTO(
+                        ids.get(from), ids.get(to), Money.ofCents(random.nextInt(1, 100) * 100L)));
+                    completed.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        pool.shutdown();
+
+        assertEquals(THREADS * TRANSFERS_PER_THREAD, completed.get());
+        assertEquals(0, totalBefore.compareTo(totalBalance()));
+        System.out.printf("Transfer stress [%s]: %d transfers, %d threads, %d ms, %.1f transfers/s%n",
+            label, completed.get(), THREADS, elapsedMs, completed.get() * 1000.0 / elapsedMs);
+    }
+
+    @Test
+    void testConcurrentBatchesKeepTotalBalance() throws Exception {
+        Money totalBefore = totalBalance();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<BatchTransferResultDTO>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                List<TransferRequestDTO> batch = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    batch.add(new TransferRequestDTO(ids.get(from), ids.get(to), Money.ofCents(random.nextInt(1, 100) * 100L)));
+                }
+                return service.transferBatch(batch, BatchTransferMode.BEST_EFFORT);
+            }));
+        }
+
+        for (Future<BatchTransferResultDTO> future : futures) {
+            assertEquals(50, future.get(2, TimeUnit.MINUTES).getApplied());
+        }
+        pool.shutdown();
+
+        assertEquals(0, totalBefore.compareTo(totalBalance()));
+    }
+
+    @Autowired
+    private IdempotentTransferService idempotentTransfers;
+
+    @Test
+    void testConcurrentRetriesWithSameIdempotencyKeyTransferOnce() throws Exception {
+        Money fromBefore = service.findById(ids.get(0)).getValor();
+        TransferRequestDTO request = new TransferRequestDTO(ids.get(0), ids.get(1), Money.parse("10.00"));
+        String key = "retry-" + ids.get(0);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> assertTrue(idempotentTransfers.transfer(key, request).getApplied())));
+        }
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(0, fromBefore.minus(Money.parse("10.00")).compareTo(service.findById(ids.get(0)).getValor()));
+    }
+
+    @Test
+    void testShardedHotAccountKeepsTotalBalance() throws Exception {
+        Long hot = ids.get(0);
+        Money hotBefore = service.findById(hot).getValor();
+
+        service.split(hot, 4);
+        assertEquals(0, hotBefore.compareTo(service.findById(hot).getValor()));
+
+        runOpposingTransfers(service::transfer, "sharded");
+        testConcurrentBatchesKeepTotalBalance();
+
+        Money hotAfter = service.findById(hot).getValor();
+        service.merge(hot);
+        assertEquals(0, hotAfter.compareTo(service.findById(hot).getValor()));
+        assertEquals(0, repository.findById(hot).orElseThrow().getShardCount());
+    }
+
+    @Autowired
+    private ShardedBalanceService shardedBalances;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAccountShardedByAnotherInstanceCanBeDebited() {
+        Long hot = ids.get(0);
+        service.split(hot, 4);
+        // What an instance that has not seen the split yet knows
+        Map<Long, Integer> shardCounts = (Map<Long, Integer>) ReflectionTestUtils.getField(shardedBalances, "shardCounts");
+        shardCounts.remove(hot);
+
+        service.transfer(new TransferRequestDTO(hot, ids.get(1), Money.parse("1.00")));
+        assertTrue(shardedBalances.isSharded(hot));
+
+        shardCounts.remove(hot);
+        BatchTransferResultDTO result = service.transferBatch(
+            List.of(new TransferRequestDTO(hot, ids.get(1), Money.parse("1.00"))), BatchTransferMode.ALL_OR_NOTHING);
+        assertEquals(1, result.getApplied());
+
+        assertEquals(0, Money.parse("99998.00").compareTo(service.findById(hot).getValor()));
+        service.merge(hot);
+    }
+
+    @Test
+    void testGuardedCreditOverTheBalanceLimitIsRejected() {
+        Beneficio full = repository.findById(ids.get(1)).orElseThrow();
+        full.setValor(Money.ofCents(Money.MAX_CENTS - 50));
+        repository.save(full);
+
+        BeneficioException e = assertThrows(BeneficioException.class, () -> service.transfer(
+            new TransferRequestDTO(ids.get(0), ids.get(1), Money.parse("1.00")), strategies.get("conditional-update")));
+
+        assertEquals(ErrorCode.BALANCE_LIMIT_EXCEEDED, e.getCode());
+        // The debit that ran first was rolled back with it
+        assertEquals(0, Money.parse("100000.00").compareTo(service.findById(ids.get(0)).getValor()));
+    }
+
+    @Test
+    void testVersionTagsChangeWhenShardedBalanceMoves() {
+        Long hot = ids.get(0);
+        service.split(hot, 4);
+        String rowTag = service.versionTag(hot).orElseThrow();
+        String tableTag = service.collectionVersionTag();
+
+        // A debit on a single shard leaves BENEFICIO.VERSION untouched
+        service.transfer(new TransferRequestDTO(hot, ids.get(1), Money.parse("1.00")));
+
+        assertNotEquals(rowTag, service.versionTag(hot).orElseThrow());
+        assertNotEquals(tableTag, service.collectionVersionTag());
+        assertEquals(service.collectionVersionTag(), service.collectionVersionTag());
+        service.merge(hot);
+    }
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testCollectionTagChangesWhenALowerChangeSeqCommitsLast() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // Takes its CHANGE_SEQ first and commits after the next writer
+            Future<?> slow = pool.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                service.update(ids.get(0), new BeneficioDTO(null, "Stress lento", null, Money.parse("100000.00"), true, null));
+                written.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(written.await(5, TimeUnit.SECONDS));
+            service.update(ids.get(1), new BeneficioDTO(null, "Stress rápido", null, Money.parse("100000.00"), true, null));
+            String tag = service.collectionVersionTag();
+
+            release.countDown();
+            slow.get(5, TimeUnit.SECONDS);
+
+            assertNotEquals(tag, service.collectionVersionTag());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCachedBeneficioIsRevalidatedAgainstChangesFromOtherInstances() {
+        Long plain = ids.get(1);
+        Long hot = ids.get(0);
+        service.split(hot, 2);
+        Money plainBefore = service.findById(plain).getValor();
+        Money hotBefore = service.findById(hot).getValor();
+
+        // Committed by another instance: no change event reaches this one's cache
+        jdbcTemplate.update("UPDATE BENEFICIO SET VALOR = VALOR + 1, VERSION = VERSION + 1 WHERE ID = ?", plain);
+        jdbcTemplate.update("UPDATE BENEFICIO_SHARD SET VALOR = VALOR + 1, VERSION = VERSION + 1 "
+            + "WHERE BENEFICIO_ID = ? AND SHARD = 0", hot);
+
+        assertEquals(0, plainBefore.plus(Money.parse("1.00")).compareTo(service.findById(plain).getValor()));
+        assertEquals(0, hotBefore.plus(Money.parse("1.00")).compareTo(service.findById(hot).getValor()));
+        service.merge(hot);
+    }
+
+    @Test
+    void testCachedActiveListIsRevalidatedAgainstChangesFromOtherInstances() {
+        Long plain = ids.get(1);
+        Money before = activeValor(plain);
+
+        // Committed by another instance, which also counts its commit
+        jdbcTemplate.update("UPDATE BENEFICIO SET VALOR = VALOR + 1, VERSION = VERSION + 1 WHERE ID = ?", plain);
+        jdbcTemplate.update("UPDATE BENEFICIO_COMMITS SET COMMITS = COMMITS + 1 WHERE STRIPE = 0");
+
+        assertEquals(0, before.plus(Money.parse("1.00")).compareTo(activeValor(plain)));
+    }
+
+    private Money activeValor(Long id) {
+        return service.findAllActive().stream()
+            .filter(dto -> dto.getId().equals(id))
+            .findFirst()
+            .orElseThrow()
+            .getValor();
+    }
+
+    @Test
+    void testDeltaSyncConvergesWhileTransfersRun() throws Exception {
+        Long hot = ids.get(0);
+        service.split(hot, 4);
+        Map<Long, Money> local = new HashMap<>();
+        BeneficioChangesDTO snapshot = service.findChanges(null);
+        snapshot.getChanged().forEach(dto -> local.put(dto.getId(), dto.getValor()));
+        long cursor = snapshot.getNext();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 50; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    service.transfer(new TransferRequestDTO(
+                        ids.get(from), ids.get(to), Money.ofCents(random.nextInt(1, 100) * 100L)));
+                }
+                return null;
+            }));
+        }
+        Beneficio temporary = repository.save(new Beneficio("Temporario", null, Money.ofCents(100), true));
+        service.delete(temporary.getId());
+        // Poll while the writers run, as a client would
+        while (futures.stream().anyMatch(f -> !f.isDone())) {
+            cursor = apply(service.findChanges(cursor), local);
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        service.merge(hot);
+        apply(service.findChanges(cursor), local);
+
+        for (Long id : ids) {
+            assertEquals(0, service.findById(id).getValor().compareTo(local.get(id)), "beneficio " + id);
+        }
+        assertFalse(local.containsKey(temporary.getId()));
+    }
+
+    private static long apply(BeneficioChangesDTO changes, Map<Long, Money> local) {
+        changes.getChanged().forEach(dto -> local.put(dto.getId(), dto.getValor()));
+        changes.getDeleted().forEach(local::remove);
+        return changes.getNext();
+    }
+
+    // Logical balances, including the shards of sharded accounts
+    private Money totalBalance() {
+        return ids.stream()
+            .map(id -> service.findById(id).getValor())
+            .reduce(Money.ZERO, Money::plus);
+    }
+}
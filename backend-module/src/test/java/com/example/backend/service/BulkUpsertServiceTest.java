@@ -0,0 +1,156 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.dto.BulkChunkResultDTO;
+import com.example.backend.dto.BulkUpsertResultDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk upserts against the real H2 database, with small chunks so a few hundred items
+ * span several of them.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "beneficio.bulk.chunk-size=100",
+    "beneficio.bulk.jdbc-batch-size=50",
+    "beneficio.bulk.max-reported-errors=3"
+})
+class BulkUpsertServiceTest {
+
+    @Autowired
+    private BulkUpsertService bulkUpserts;
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM BENEFICIO WHERE NOME LIKE 'Bulk %'");
+    }
+
+    private static BeneficioDTO item(Long id, String nome, String valor) {
+        return new BeneficioDTO(id, nome, null, valor != null ? Money.parse(valor) : null, true, null);
+    }
+
+    @Test
+    void testInsertsAndUpdatesAreWrittenPerChunk() {
+        Beneficio existing = repository.save(new Beneficio("Bulk existente", null, Money.parse("100.00"), true));
+        List<BeneficioDTO> items = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            items.add(item(null, "Bulk " + i, "10.00"));
+        }
+        items.set(5, item(null, null, "10.00"));
+        items.set(130, item(null, "Bulk negativo", "-1.00"));
+        items.set(200, item(existing.getId(), "Bulk atualizado", "150.00"));
+        items.set(210, item(Long.MAX_VALUE, "Bulk inexistente", "1.00"));
+
+        BulkUpsertResultDTO result = bulkUpserts.upsert(items.iterator());
+
+        assertEquals(250, result.getReceived());
+        assertEquals(246, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(3, result.getRejected());
+        assertNull(result.getCode());
+        assertEquals(3, result.getChunks().size());
+
+        BulkChunkResultDTO first = result.getChunks().get(0);
+        assertEquals(0, first.getFirstIndex());
+        assertEquals(99, first.getLastIndex());
+        assertEquals(BulkChunkResultDTO.Status.APPLIED, first.getStatus());
+        assertEquals(99, first.getInserted());
+        assertEquals(ErrorCode.NOME_REQUIRED, first.getErrors().get(0).getCode());
+        assertEquals(5, first.getErrors().get(0).getIndex());
+
+        BulkChunkResultDTO last = result.getChunks().get(2);
+        assertEquals(200, last.getFirstIndex());
+        assertEquals(249, last.getLastIndex());
+        assertEquals(48, last.getInserted());
+        assertEquals(1, last.getUpdated());
+        assertEquals(ErrorCode.BENEFICIO_NOT_FOUND, last.getErrors().get(0).getCode());
+        assertEquals(210, last.getErrors().get(0).getIndex());
+
+        Beneficio updated = repository.findById(existing.getId()).orElseThrow();
+        assertEquals("Bulk atualizado", updated.getNome());
+        assertEquals(0, Money.parse("150.00").compareTo(updated.getValor()));
+        assertEquals(246, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM BENEFICIO WHERE NOME LIKE 'Bulk %' AND ID <> ?", Integer.class, existing.getId()));
+    }
+
+    @Test
+    void testInsertedIdsComeFromPooledBlocks() {
+        List<BeneficioDTO> items = new ArrayList<>();
+        for (int i = 0; i < 3 * Beneficio.ID_BLOCK_SIZE; i++) {
+            items.add(item(null, "Bulk " + i, "1.00"));
+        }
+
+        bulkUpserts.upsert(items.iterator());
+
+        // A single writer hands out consecutive blocks, so the IDs have no gaps
+        List<Long> ids = jdbcTemplate.queryForList("SELECT ID FROM BENEFICIO WHERE NOME LIKE 'Bulk %' ORDER BY ID", Long.class);
+        assertEquals(items.size(), ids.size());
+        assertEquals(items.size() - 1, ids.get(ids.size() - 1) - ids.get(0));
+    }
+
+    @Test
+    void testUnreadableItemStopsReadingButKeepsWhatWasRead() {
+        Iterator<BeneficioDTO> items = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public BeneficioDTO next() {
+                if (read == 150) {
+                    throw new BeneficioException(ErrorCode.BULK_ITEM_UNREADABLE, read, "Unexpected character");
+                }
+                if (read > 150) {
+                    throw new NoSuchElementException();
+                }
+                return item(null, "Bulk " + read++, "1.00");
+            }
+        };
+
+        BulkUpsertResultDTO result = bulkUpserts.upsert(items);
+
+        assertEquals(ErrorCode.BULK_ITEM_UNREADABLE, result.getCode());
+        assertEquals(150, result.getInserted());
+        assertEquals(2, result.getChunks().size());
+        assertEquals(149, result.getChunks().get(1).getLastIndex());
+    }
+
+    @Test
+    void testReportedErrorsAreCapped() {
+        List<BeneficioDTO> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(item(null, "Bulk " + i, null));
+        }
+
+        BulkUpsertResultDTO result = bulkUpserts.upsert(items.iterator());
+
+        assertEquals(10, result.getRejected());
+        assertEquals(3, result.getChunks().get(0).getErrors().size());
+        assertEquals(BulkChunkResultDTO.Status.APPLIED, result.getChunks().get(0).getStatus());
+    }
+}
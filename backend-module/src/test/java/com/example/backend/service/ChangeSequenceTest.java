@@ -0,0 +1,138 @@
+package com.example.backend.service;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeSequenceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ChangeSequence changes;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(7L, 101L);
+        changes.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(changes);
+    }
+
+    // Stands in for a transaction: runs the body, then completes it like a commit
+    private long inTransaction(Runnable whileOpen) {
+        TransactionSynchronizationManager.initSynchronization();
+        long seq = changes.next();
+        whileOpen.run();
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        return seq;
+    }
+
+    @Test
+    void testWatermarkStartsAtHighestCommittedValue() {
+        assertEquals(7L, changes.watermark());
+    }
+
+    @Test
+    void testOneValuePerTransaction() {
+        long seq = inTransaction(() -> assertEquals(101L, changes.next()));
+
+        assertEquals(101L, seq);
+        assertEquals(101L, changes.watermark());
+        assertEquals(102L, inTransaction(() -> { }));
+        // One block of values comes from a single sequence call
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void testWatermarkStaysBelowOpenTransaction() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> inTransaction(() -> {
+            taken.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+
+        long fast = inTransaction(() -> { });
+
+        assertEquals(102L, fast);
+        assertEquals(100L, changes.watermark());
+        release.countDown();
+        assertEquals(101L, slow.get(5, TimeUnit.SECONDS));
+        assertEquals(102L, changes.watermark());
+    }
+
+    @Test
+    void testQuietPointIsUnsetWhileATransactionIsOpen() {
+        assertEquals(7L, changes.quietPoint());
+
+        inTransaction(() -> assertEquals(-1L, changes.quietPoint()));
+
+        assertEquals(101L, changes.quietPoint());
+    }
+
+    @Test
+    void testStartCreatesMissingCommitStripes() {
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO BENEFICIO_COMMITS"),
+                eq(IntStream.range(0, ChangeSequence.COMMIT_STRIPES).boxed().toList()),
+                eq(ChangeSequence.COMMIT_STRIPES), any());
+    }
+
+    @Test
+    void testCommitIsCountedAfterTheFlush() {
+        TransactionSynchronizationManager.initSynchronization();
+        changes.next();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        InOrder order = inOrder(entityManager, jdbcTemplate);
+        order.verify(entityManager).flush();
+        order.verify(jdbcTemplate).update(startsWith("UPDATE BENEFICIO_COMMITS SET COMMITS = COMMITS + 1"), anyInt());
+    }
+
+    @Test
+    void testNextOutsideTransactionFails() {
+        assertThrows(IllegalStateException.class, () -> changes.next());
+    }
+}
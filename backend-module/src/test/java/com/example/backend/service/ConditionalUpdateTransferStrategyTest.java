@@ -0,0 +1,117 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.TransferState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConditionalUpdateTransferStrategyTest {
+
+    private static final Money AMOUNT = Money.parse("200.00");
+    private static final Money CEILING = Money.parse("9999999999999.99").minus(AMOUNT);
+
+    @Mock
+    private BeneficioRepository repository;
+
+    @Mock
+    private ChangeSequence changes;
+
+    @Mock
+    private BeneficioStatsService stats;
+
+    @InjectMocks
+    private ConditionalUpdateTransferStrategy strategy;
+
+    private static TransferState state(boolean ativo, String valor) {
+        return new TransferState() {
+            public Boolean getAtivo() {
+                return ativo;
+            }
+
+            public Money getValor() {
+                return Money.parse(valor);
+            }
+        };
+    }
+
+    @Test
+    void testTransferSuccessUpdatesInAscendingIdOrder() {
+        when(repository.debit(2L, AMOUNT, 0L)).thenReturn(1);
+        when(repository.credit(1L, AMOUNT, CEILING, 0L)).thenReturn(1);
+        when(repository.findBalanceById(1L)).thenReturn(Optional.of(Money.parse("600.00")));
+        when(repository.findBalanceById(2L)).thenReturn(Optional.of(Money.parse("50.00")));
+
+        strategy.transfer(new TransferRequestDTO(2L, 1L, AMOUNT));
+
+        InOrder order = inOrder(repository);
+        order.verify(repository).credit(1L, AMOUNT, CEILING, 0L);
+        order.verify(repository).debit(2L, AMOUNT, 0L);
+        verify(repository, never()).findTransferStateById(any());
+        // Balances read back after each UPDATE
+        verify(stats).changed(Money.parse("400.00"), true, Money.parse("600.00"), true);
+        verify(stats).changed(Money.parse("250.00"), true, Money.parse("50.00"), true);
+    }
+
+    @Test
+    void testTransferInsufficientBalance() {
+        when(repository.debit(1L, AMOUNT, 0L)).thenReturn(0);
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(state(true, "50.00")));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> strategy.transfer(new TransferRequestDTO(1L, 2L, AMOUNT)));
+
+        assertTrue(e.getMessage().startsWith("Insufficient balance"));
+        verify(repository, never()).credit(any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void testTransferInactiveSource() {
+        when(repository.debit(1L, AMOUNT, 0L)).thenReturn(0);
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(state(false, "5000.00")));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> strategy.transfer(new TransferRequestDTO(1L, 2L, AMOUNT)));
+
+        assertEquals("Source beneficio is not active", e.getMessage());
+    }
+
+    @Test
+    void testTransferMissingDestination() {
+        when(repository.debit(1L, AMOUNT, 0L)).thenReturn(1);
+        when(repository.credit(2L, AMOUNT, CEILING, 0L)).thenReturn(0);
+        when(repository.findTransferStateById(2L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> strategy.transfer(new TransferRequestDTO(1L, 2L, AMOUNT)));
+
+        assertEquals("Destination beneficio not found: 2", e.getMessage());
+    }
+
+    @Test
+    void testTransferCreditOverTheCeiling() {
+        when(repository.debit(1L, AMOUNT, 0L)).thenReturn(1);
+        when(repository.credit(2L, AMOUNT, CEILING, 0L)).thenReturn(0);
+        when(repository.findTransferStateById(2L)).thenReturn(Optional.of(state(true, "9999999999999.00")));
+
+        BeneficioException e = assertThrows(BeneficioException.class,
+            () -> strategy.transfer(new TransferRequestDTO(1L, 2L, AMOUNT)));
+
+        assertEquals(ErrorCode.BALANCE_LIMIT_EXCEEDED, e.getCode());
+    }
+}
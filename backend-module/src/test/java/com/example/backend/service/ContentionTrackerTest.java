@@ -0,0 +1,49 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContentionTrackerTest {
+
+    private final ContentionTracker tracker = new ContentionTracker();
+
+    @Test
+    void testAccountBecomesContendedAtThreshold() {
+        tracker.recordConflict(1L);
+        tracker.recordConflict(1L);
+        assertFalse(tracker.isContended(1L));
+
+        tracker.recordConflict(1L);
+        assertTrue(tracker.isContended(1L));
+        assertFalse(tracker.isContended(2L));
+    }
+
+    @Test
+    void testScoreDecaysOverTime() throws InterruptedException {
+        ReflectionTestUtils.setField(tracker, "halfLifeMs", 20L);
+        for (int i = 0; i < 4; i++) {
+            tracker.recordConflict(1L);
+        }
+        assertTrue(tracker.isContended(1L));
+
+        Thread.sleep(100);
+
+        assertFalse(tracker.isContended(1L));
+    }
+
+    @Test
+    void testColdAccountsArePrunedWhenFull() throws InterruptedException {
+        ReflectionTestUtils.setField(tracker, "halfLifeMs", 5L);
+        ReflectionTestUtils.setField(tracker, "maxTrackedAccounts", 10);
+        for (long id = 0; id < 10; id++) {
+            tracker.recordConflict(id);
+        }
+        Thread.sleep(50);
+
+        tracker.recordConflict(99L);
+
+        assertEquals(1, tracker.trackedAccounts());
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.TransferIdempotency;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.TransferIdempotencyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotentTransferServiceTest {
+
+    private static final String KEY = "7f1c0a4e-transfer";
+    private static final TransferRequestDTO REQUEST = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+    @Mock
+    private BeneficioService service;
+
+    @Mock
+    private TransferPipeline pipeline;
+
+    @Mock
+    private TransferIdempotencyRepository repository;
+
+    @InjectMocks
+    private IdempotentTransferService idempotentTransfers;
+
+    private void runClaimOnTransfer() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(service).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+    }
+
+    @Test
+    void testFirstRequestStoresKeyInsideTransfer() {
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+        runClaimOnTransfer();
+
+        TransferIdempotency outcome = idempotentTransfers.transfer(KEY, REQUEST);
+
+        assertTrue(outcome.getApplied());
+        verify(repository).saveAndFlush(argThat(row -> KEY.equals(row.getIdempotencyKey()) && row.getApplied()));
+    }
+
+    @Test
+    void testRetryIsServedFromCacheWithoutTransferring() {
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+        runClaimOnTransfer();
+
+        idempotentTransfers.transfer(KEY, REQUEST);
+        TransferIdempotency replayed = idempotentTransfers.transfer(KEY, REQUEST);
+
+        assertTrue(replayed.getApplied());
+        verify(service, times(1)).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+    }
+
+    @Test
+    void testStoredOutcomeIsReplayedFromDatabase() {
+        TransferIdempotency stored = new TransferIdempotency(KEY, 1L, 2L, Money.parse("200.00"),
+                false, "Insufficient balance", LocalDateTime.now());
+        when(repository.findById(KEY)).thenReturn(Optional.of(stored));
+
+        TransferIdempotency outcome = idempotentTransfers.transfer(KEY, REQUEST);
+
+        assertSame(stored, outcome);
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void testRejectionIsStored() {
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+        doThrow(new BeneficioException(ErrorCode.INSUFFICIENT_BALANCE, Money.parse("50.00"), Money.parse("200.00")))
+            .when(service).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+        when(repository.saveAndFlush(any(TransferIdempotency.class))).thenAnswer(i -> i.getArgument(0));
+
+        TransferIdempotency outcome = idempotentTransfers.transfer(KEY, REQUEST);
+
+        assertFalse(outcome.getApplied());
+        assertEquals(ErrorCode.INSUFFICIENT_BALANCE, outcome.getErrorCode());
+        assertEquals("Insufficient balance. Available: 50.00, Required: 200.00", outcome.getMessage());
+        verify(repository).saveAndFlush(argThat(row -> !row.getApplied()));
+    }
+
+    @Test
+    void testTransientFailureIsNotStored() {
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+        doThrow(new CannotAcquireLockException("lock timeout"))
+            .when(service).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+
+        assertThrows(CannotAcquireLockException.class,
+            () -> idempotentTransfers.transfer(KEY, REQUEST));
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testKeyReusedForDifferentTransferIsRejected() {
+        TransferIdempotency stored = new TransferIdempotency(KEY, 1L, 2L, Money.parse("200.00"),
+                true, IdempotentTransferService.APPLIED_MESSAGE, LocalDateTime.now());
+        when(repository.findById(KEY)).thenReturn(Optional.of(stored));
+
+        BeneficioException e = assertThrows(BeneficioException.class, () -> idempotentTransfers.transfer(KEY,
+            new TransferRequestDTO(1L, 2L, Money.parse("300.00"))));
+        assertEquals(ErrorCode.IDEMPOTENCY_KEY_REUSED, e.getCode());
+    }
+
+    @Test
+    void testKeyClaimedByAnotherInstanceReturnsItsOutcome() {
+        TransferIdempotency theirs = new TransferIdempotency(KEY, 1L, 2L, Money.parse("200.00"),
+                true, IdempotentTransferService.APPLIED_MESSAGE, LocalDateTime.now());
+        when(repository.findById(KEY)).thenReturn(Optional.empty()).thenReturn(Optional.empty())
+            .thenReturn(Optional.of(theirs));
+        doThrow(new DuplicateKeyException("duplicate key"))
+            .when(service).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+
+        assertSame(theirs, idempotentTransfers.transfer(KEY, REQUEST));
+    }
+
+    @Test
+    void testInvalidKey() {
+        assertThrows(IllegalArgumentException.class, () -> idempotentTransfers.transfer(" ", REQUEST));
+        assertThrows(IllegalArgumentException.class, () -> idempotentTransfers.transfer("x".repeat(101), REQUEST));
+        verifyNoInteractions(service, repository);
+    }
+
+    @Test
+    void testConcurrentDuplicatesWaitForFirstRequest() throws Exception {
+        CountDownLatch transferStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            transferStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(service).transfer(any(TransferRequestDTO.class), any(Runnable.class));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<TransferIdempotency> first = pool.submit(() -> idempotentTransfers.transfer(KEY, REQUEST));
+        assertTrue(transferStarted.await(5, TimeUnit.SECONDS));
+        Future<TransferIdempotency> duplicate = pool.submit(() -> idempotentTransfers.transfer(KEY, REQUEST));
+        // Give the duplicate time to find the in-flight request and start waiting on it
+        Thread.sleep(100);
+        release.countDown();
+
+        assertTrue(first.get(5, TimeUnit.SECONDS).getApplied());
+        assertTrue(duplicate.get(5, TimeUnit.SECONDS).getApplied());
+        pool.shutdown();
+        verify(service, times(1)).transfer(eq(REQUEST), any(Runnable.class));
+    }
+
+    @Test
+    void testRetryAfterPipelineTimeoutTransfersOnce() {
+        // A pipelined transfer could time out here and still commit afterwards
+        lenient().when(pipeline.isEnabled()).thenReturn(true);
+        lenient().doThrow(new BeneficioException(ErrorCode.TRANSFER_PIPELINE_TIMEOUT, 10000L))
+            .when(pipeline).transfer(REQUEST);
+        when(repository.findById(KEY)).thenReturn(Optional.empty());
+        runClaimOnTransfer();
+
+        assertTrue(idempotentTransfers.transfer(KEY, REQUEST).getApplied());
+        assertTrue(idempotentTransfers.transfer(KEY, REQUEST).getApplied());
+
+        // The key was claimed in the transfer's own transaction
+        verify(service, times(1)).transfer(eq(REQUEST), any(Runnable.class));
+        verify(repository).saveAndFlush(argThat(row -> KEY.equals(row.getIdempotencyKey())));
+        verifyNoInteractions(pipeline);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Line splitting and CSV parsing of import files, with buffers small enough that lines
+ * cross buffer refills.
+ */
+class ImportLineReaderTest {
+
+    private static ImportLineReader reader(String content, int bufferSize, long position) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new ImportLineReader(Channels.newChannel(new ByteArrayInputStream(bytes)), bufferSize, position);
+    }
+
+    private static List<String> readAll(ImportLineReader lines) throws IOException {
+        List<String> read = new ArrayList<>();
+        while (lines.next()) {
+            read.add(lines.isTooLong() ? "<too long>"
+                    : new String(lines.array(), lines.start(), lines.length(), StandardCharsets.UTF_8));
+        }
+        return read;
+    }
+
+    @Test
+    void testSplitsLinesAcrossRefills() throws IOException {
+        String content = "primeira\r\nsegunda\n\nção e acentuação\nsem quebra no fim";
+        ImportLineReader lines = reader(content, 12, 0);
+
+        assertEquals(List.of("primeira", "segunda", "", "ção e acentuação", "sem quebra no fim"),
+                readAll(reader(content, 32, 0)));
+        assertEquals(List.of("primeira", "segunda", "", "<too long>", "<too long>"), readAll(lines));
+        assertEquals(content.getBytes(StandardCharsets.UTF_8).length, lines.position());
+    }
+
+    @Test
+    void testTooLongLineIsSkippedToItsEnd() throws IOException {
+        ImportLineReader lines = reader("curta\n" + "x".repeat(100) + "\nde novo\n", 16, 0);
+
+        assertEquals(List.of("curta", "<too long>", "de novo"), readAll(lines));
+    }
+
+    @Test
+    void testPositionAndOffsetCountFromTheStartingPosition() throws IOException {
+        ImportLineReader lines = reader("ab\r\ncd\n", 4, 1000);
+
+        assertTrue(lines.next());
+        assertEquals(1000, lines.offset());
+        assertEquals(1004, lines.position());
+        assertTrue(lines.next());
+        assertEquals(1004, lines.offset());
+        assertEquals(1007, lines.position());
+        assertFalse(lines.next());
+    }
+
+    @Test
+    void testCsvMapsColumnsByHeaderName() throws IOException {
+        byte[] header = "\uFEFFNome,valor,Ignorada,ativo,descricao,id".getBytes(StandardCharsets.UTF_8);
+        ImportRowParser parser = ImportRowParser.csv(header, 0, header.length);
+        byte[] row = "\"Vale, \"\"refeição\"\"\", 12.50 ,x,FALSE,,7".getBytes(StandardCharsets.UTF_8);
+
+        BeneficioDTO dto = parser.parse(row, 0, row.length);
+
+        assertEquals("Vale, \"refeição\"", dto.getNome());
+        assertEquals(Money.parse("12.50"), dto.getValor());
+        assertEquals(Boolean.FALSE, dto.getAtivo());
+        assertNull(dto.getDescricao());
+        assertEquals(7L, dto.getId());
+    }
+
+    @Test
+    void testCsvRejectsMalformedRowsAndHeaders() {
+        byte[] header = "nome,valor".getBytes(StandardCharsets.UTF_8);
+        ImportRowParser parser = ImportRowParser.csv(header, 0, header.length);
+
+        for (String row : new String[] {"A", "A,1,2", "\"A,1", "\"A\"x,1", "A,um"}) {
+            byte[] bytes = row.getBytes(StandardCharsets.UTF_8);
+            assertThrows(IllegalArgumentException.class, () -> parser.parse(bytes, 0, bytes.length), row);
+        }
+        byte[] noValor = "nome,descricao".getBytes(StandardCharsets.UTF_8);
+        BeneficioException e = assertThrows(BeneficioException.class,
+                () -> ImportRowParser.csv(noValor, 0, noValor.length));
+        assertEquals(ErrorCode.IMPORT_HEADER_INVALID, e.getCode());
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BeneficioDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the DTO projection queries behind {@code findAll} and {@code findAllActive}
+ * with loading managed entities and mapping them afterwards, on the real H2 database.
+ * Reports latency and bytes allocated by the calling thread per call.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "beneficio.cache.find-all-active.enabled=false"
+})
+class ReadPathBenchmarkTest {
+
+    private static final int ROWS = 5000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private BeneficioService service;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        List<Beneficio> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Beneficio("Bench " + i, "Descrição " + i, Money.parse("1000.00"), i % 4 != 0));
+        }
+        repository.saveAll(rows).forEach(b -> ids.add(b.getId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllById(ids);
+    }
+
+    @Test
+    void compareEntityMappingWithProjection() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Supplier<List<BeneficioDTO>> entityFindAll =
+            () -> readOnly.execute(status -> loadAndMap("select b from Beneficio b order by b.id"));
+        Supplier<List<BeneficioDTO>> entityFindAllActive =
+            () -> readOnly.execute(status -> loadAndMap("select b from Beneficio b where b.ativo = true order by b.id"));
+
+        assertEquals(summary(entityFindAll.get()), summary(service.findAll()));
+        assertEquals(summary(entityFindAllActive.get()), summary(service.findAllActive()));
+
+        Result entityAll = measure("findAll", "entity+map", entityFindAll);
+        Result projectionAll = measure("findAll", "projection", service::findAll);
+        Result entityActive = measure("findAllActive", "entity+map", entityFindAllActive);
+        Result projectionActive = measure("findAllActive", "projection", service::findAllActive);
+
+        assertTrue(projectionAll.bytesPerOp < entityAll.bytesPerOp);
+        assertTrue(projectionActive.bytesPerOp < entityActive.bytesPerOp);
+    }
+
+    // What the read path did before: managed entities, mapped field by field
+    private List<BeneficioDTO> loadAndMap(String jpql) {
+        return entityManager.createQuery(jpql, Beneficio.class).getResultList().stream()
+            .map(b -> new BeneficioDTO(b.getId(), b.getNome(), b.getDescricao(), b.getValor(), b.getAtivo(), b.getVersion()))
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> summary(List<BeneficioDTO> dtos) {
+        return dtos.stream()
+            .filter(dto -> dto.getNome().startsWith("Bench "))
+            .map(dto -> dto.getId() + ":" + dto.getValor() + ":" + dto.getAtivo() + ":" + dto.getVersion())
+            .collect(Collectors.toList());
+    }
+
+    private static Result measure(String operation, String variant, Supplier<List<BeneficioDTO>> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            read.get();
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            read.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        Result result = new Result(elapsed / 1e6 / ITERATIONS, bytes / ITERATIONS);
+        System.out.printf("%-14s %-11s rows=%d  %8.3f ms/op  %10d KB/op%n",
+            operation, variant, ROWS, result.millisPerOp, result.bytesPerOp / 1024);
+        return result;
+    }
+
+    private record Result(double millisPerOp, long bytesPerOp) {
+    }
+}
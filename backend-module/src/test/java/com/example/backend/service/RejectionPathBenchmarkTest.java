@@ -0,0 +1,112 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.exception.GlobalExceptionHandler;
+import com.example.backend.money.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the rejected-transfer path before and after typed error codes: a formatted
+ * {@link IllegalArgumentException} with a stack trace and a map body with a timestamp,
+ * against a stackless {@link BeneficioException} rendered through
+ * {@link GlobalExceptionHandler}. Both bodies are serialized to JSON, as Spring would.
+ * Exceptions are created {@value #STACK_DEPTH} frames deep to stand in for the servlet
+ * and proxy frames of a real request.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class RejectionPathBenchmarkTest {
+
+    private static final int STACK_DEPTH = 120;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private final Beneficio active = new Beneficio("Origem", "Bench", Money.parse("50.00"), true);
+    private final Beneficio inactive = new Beneficio("Origem", "Bench", Money.parse("50.00"), false);
+    private final TransferRequestDTO request = new TransferRequestDTO(1L, 2L, Money.parse("200.00"));
+
+    @Test
+    void compareUntypedWithTypedRejections() {
+        Result untypedBalance = measure("insufficient-balance", "untyped", () -> atDepth(STACK_DEPTH, () ->
+            untyped(String.format("Insufficient balance. Available: %s, Required: %s",
+                active.getValor(), request.getAmount()))));
+        Result typedBalance = measure("insufficient-balance", "typed", () -> atDepth(STACK_DEPTH, () ->
+            typed(TransferRules.rejection(request, active, active, active.getValor().cents(), 0))));
+        Result untypedInactive = measure("source-inactive", "untyped", () -> atDepth(STACK_DEPTH, () ->
+            untyped("Source beneficio is not active")));
+        Result typedInactive = measure("source-inactive", "typed", () -> atDepth(STACK_DEPTH, () ->
+            typed(TransferRules.rejection(request, inactive, active, inactive.getValor().cents(), 0))));
+
+        assertTrue(typedBalance.bytesPerOp < untypedBalance.bytesPerOp);
+        assertTrue(typedInactive.bytesPerOp < untypedInactive.bytesPerOp);
+        assertTrue(typed(TransferRules.rejection(request, inactive, active, inactive.getValor().cents(), 0))
+            .contains("\"code\":\"" + ErrorCode.SOURCE_INACTIVE + "\""));
+    }
+
+    // What a rejection cost before: a filled-in stack trace and a fresh map body
+    private String untyped(String message) {
+        IllegalArgumentException e = new IllegalArgumentException(message);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("message", e.getMessage());
+        body.put("status", 400);
+        return serialize(body);
+    }
+
+    private String typed(BeneficioException rejection) {
+        return serialize(handler.handleBeneficioException(rejection).getBody());
+    }
+
+    private String serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String atDepth(int depth, Supplier<String> body) {
+        return depth == 0 ? body.get() : atDepth(depth - 1, body);
+    }
+
+    private static Result measure(String rejection, String variant, Supplier<String> path) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            path.get();
+        }
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            path.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        Result result = new Result(elapsed / 1e3 / ITERATIONS, bytes / ITERATIONS);
+        System.out.printf("%-22s %-8s %8.3f us/op  %6d B/op%n",
+            rejection, variant, result.microsPerOp, result.bytesPerOp);
+        return result;
+    }
+
+    private record Result(double microsPerOp, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.entity.BeneficioShard;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import com.example.backend.repository.BeneficioRepository.TransferState;
+import com.example.backend.repository.BeneficioShardRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShardedBalanceServiceTest {
+
+    private static final Money AMOUNT = Money.parse("200.00");
+
+    @Mock
+    private BeneficioRepository repository;
+
+    @Mock
+    private BeneficioShardRepository shardRepository;
+
+    @Mock
+    private ConditionalUpdateTransferStrategy conditionalUpdate;
+
+    @Mock
+    private ChangeSequence changes;
+
+    @Mock
+    private BeneficioStatsService stats;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BeneficioMetrics metrics = new BeneficioMetrics(new SimpleMeterRegistry());
+
+    @InjectMocks
+    private ShardedBalanceService shardedBalances;
+
+    private Beneficio hot;
+
+    @BeforeEach
+    void setUp() {
+        hot = new Beneficio("Conta quente", null, Money.ZERO, true);
+        hot.setId(1L);
+        hot.setShardCount(2);
+        when(repository.findByShardCountGreaterThan(0)).thenReturn(List.of(hot));
+        shardedBalances.start();
+    }
+
+    private static TransferState active() {
+        return new TransferState() {
+            public Boolean getAtivo() {
+                return true;
+            }
+
+            public Money getValor() {
+                return Money.ZERO;
+            }
+        };
+    }
+
+    private List<BeneficioShard> shards(String... valores) {
+        BeneficioShard[] shards = new BeneficioShard[valores.length];
+        for (int i = 0; i < valores.length; i++) {
+            shards[i] = new BeneficioShard(hot.getId(), i, Money.parse(valores[i]));
+        }
+        return Arrays.asList(shards);
+    }
+
+    @Test
+    void testSplitEvenlyKeepsTotal() {
+        Money[] parts = ShardedBalanceService.splitEvenly(Money.parse("100.01"), 3);
+
+        assertArrayEquals(new Money[] {
+            Money.parse("33.35"), Money.parse("33.33"), Money.parse("33.33")}, parts);
+    }
+
+    @Test
+    void testDebitHitsSingleShard() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, AMOUNT);
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(active()));
+        when(shardRepository.debit(eq(1L), anyInt(), eq(AMOUNT), anyLong())).thenReturn(1);
+        when(repository.findBalanceById(1L)).thenReturn(Optional.of(Money.parse("300.00")));
+
+        shardedBalances.transfer(request);
+
+        verify(conditionalUpdate).credit(request);
+        verify(stats).changed(Money.parse("500.00"), true, Money.parse("300.00"), true);
+        verify(repository, never()).findAllByIdForUpdate(any());
+        verify(shardRepository, never()).findAllForUpdate(any());
+    }
+
+    @Test
+    void testShortShardCollectsFromAllShards() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, AMOUNT);
+        List<BeneficioShard> shards = shards("150.00", "100.00");
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(active()));
+        when(shardRepository.debit(eq(1L), anyInt(), eq(AMOUNT), anyLong())).thenReturn(0);
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(hot));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(shards);
+
+        shardedBalances.transfer(request);
+
+        assertEquals(Money.parse("25.00"), shards.get(0).getValor());
+        assertEquals(Money.parse("25.00"), shards.get(1).getValor());
+        assertEquals(0, Money.ZERO.compareTo(hot.getValor()));
+        assertEquals(1.0, meterRegistry.counter("beneficio.shards.collect.fallbacks").count());
+        verify(stats).changed(Money.parse("250.00"), true, Money.parse("50.00"), true);
+    }
+
+    @Test
+    void testCollectFailsWhenAllShardsAreShort() {
+        TransferRequestDTO request = new TransferRequestDTO(1L, 2L, AMOUNT);
+        List<BeneficioShard> shards = shards("90.00", "60.00");
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(active()));
+        when(shardRepository.debit(eq(1L), anyInt(), eq(AMOUNT), anyLong())).thenReturn(0);
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(hot));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(shards);
+
+        BeneficioException e = assertThrows(BeneficioException.class,
+            () -> shardedBalances.transfer(request));
+
+        assertEquals(ErrorCode.INSUFFICIENT_BALANCE, e.getCode());
+        assertEquals("Insufficient balance. Available: 150.00, Required: " + AMOUNT, e.getMessage());
+        assertEquals(Money.parse("90.00"), shards.get(0).getValor());
+        verify(conditionalUpdate, never()).credit(any());
+    }
+
+    @Test
+    void testCreditFallsBackToBaseRowWhenShardIsGone() {
+        TransferRequestDTO request = new TransferRequestDTO(2L, 1L, AMOUNT);
+        when(repository.findTransferStateById(1L)).thenReturn(Optional.of(active()));
+        when(shardRepository.credit(eq(1L), anyInt(), eq(AMOUNT), anyLong())).thenReturn(0);
+
+        shardedBalances.transfer(request);
+
+        verify(conditionalUpdate).credit(request);
+        verify(conditionalUpdate).debit(request);
+    }
+
+    @Test
+    void testMergeFoldsShardsIntoBaseRow() {
+        hot.setValor(Money.parse("10.00"));
+        List<BeneficioShard> shards = shards("100.00", "50.00");
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(hot));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(shards);
+
+        shardedBalances.merge(1L);
+
+        assertEquals(Money.parse("160.00"), hot.getValor());
+        assertEquals(0, hot.getShardCount());
+        verify(shardRepository).delete(shards.get(0));
+        verify(shardRepository).delete(shards.get(1));
+        assertFalse(shardedBalances.isSharded(1L));
+    }
+
+    @Test
+    void testSplitRejectsInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> shardedBalances.split(1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> shardedBalances.split(1L, 65));
+        verify(repository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void testRebalanceLeavesEvenAccountUntouched() {
+        List<BeneficioShard> shards = shards("100.00", "100.00");
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(hot));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(shards);
+
+        shardedBalances.rebalance(1L);
+
+        verify(changes, never()).next();
+        verifyNoInteractions(eventPublisher);
+        assertTrue(shardedBalances.isSharded(1L));
+    }
+
+    @Test
+    void testRebalanceWritesWhenBaseRowHoldsBalance() {
+        hot.setValor(Money.parse("10.00"));
+        List<BeneficioShard> shards = shards("100.00", "100.00");
+        when(repository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(hot));
+        when(shardRepository.findAllForUpdate(1L)).thenReturn(shards);
+
+        shardedBalances.rebalance(1L);
+
+        assertEquals(Money.ZERO, hot.getValor());
+        assertEquals(Money.parse("105.00"), shards.get(0).getValor());
+        verify(changes).next();
+        verify(eventPublisher).publishEvent(any(BeneficioChangedEvent.class));
+    }
+
+    @Test
+    void testRefreshPicksUpAccountShardedElsewhere() {
+        when(repository.findShardCountById(3L)).thenReturn(Optional.of(4));
+        when(repository.findShardCountById(1L)).thenReturn(Optional.of(0));
+
+        assertTrue(shardedBalances.refresh(3L));
+        assertFalse(shardedBalances.refresh(1L));
+
+        assertTrue(shardedBalances.isSharded(3L));
+        assertFalse(shardedBalances.isSharded(1L));
+    }
+}
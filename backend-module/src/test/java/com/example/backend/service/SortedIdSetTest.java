@@ -0,0 +1,62 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedIdSetTest {
+
+    private static long[] toArray(SortedIdSet set) {
+        long[] ids = new long[set.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = set.get(i);
+        }
+        return ids;
+    }
+
+    @Test
+    void testKeepsIdsSortedAndUnique() {
+        SortedIdSet set = new SortedIdSet();
+
+        assertTrue(set.add(10));
+        assertTrue(set.add(30));
+        assertTrue(set.add(20));
+        assertTrue(set.add(5));
+        assertFalse(set.add(20));
+
+        assertArrayEquals(new long[] {5, 10, 20, 30}, toArray(set));
+        assertTrue(set.contains(20));
+        assertFalse(set.contains(25));
+    }
+
+    @Test
+    void testRemove() {
+        SortedIdSet set = new SortedIdSet();
+        for (long id = 1; id <= 5; id++) {
+            set.add(id);
+        }
+
+        assertTrue(set.remove(3));
+        assertFalse(set.remove(3));
+        assertTrue(set.remove(5));
+        assertTrue(set.remove(1));
+
+        assertArrayEquals(new long[] {2, 4}, toArray(set));
+    }
+
+    @Test
+    void testTrimDropsSpareCapacity() {
+        SortedIdSet set = new SortedIdSet();
+        for (long id = 1; id <= 100; id++) {
+            set.add(id);
+        }
+        long grown = set.bytes();
+
+        set.trim();
+
+        assertTrue(set.bytes() < grown);
+        assertEquals(32 + 8 * 100, set.bytes());
+        assertTrue(set.add(101));
+        assertEquals(101, set.size());
+    }
+}
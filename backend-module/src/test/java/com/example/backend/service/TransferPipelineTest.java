@@ -0,0 +1,177 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BatchTransferMode;
+import com.example.backend.dto.BatchTransferResultDTO;
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.dto.TransferResultDTO;
+import com.example.backend.exception.BeneficioException;
+import com.example.backend.exception.ErrorCode;
+import com.example.backend.money.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferPipelineTest {
+
+    @Mock
+    private BeneficioService service;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final MeterRegistry transferRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private BeneficioMetrics metrics = new BeneficioMetrics(transferRegistry);
+
+    @InjectMocks
+    private TransferPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(pipeline, "enabled", true);
+        ReflectionTestUtils.setField(pipeline, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(pipeline, "maxLingerMs", 50L);
+
+        // Echo back APPLIED for every item unless the amount exceeds 1000
+        lenient().when(service.settleBatch(anyList(), eq(BatchTransferMode.BEST_EFFORT))).thenAnswer(invocation -> {
+            List<TransferRequestDTO> requests = invocation.getArgument(0);
+            List<TransferResultDTO> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                TransferRequestDTO r = requests.get(i);
+                boolean ok = r.getAmount().compareTo(Money.parse("1000")) <= 0;
+                results.add(new TransferResultDTO(i, r.getFromId(), r.getToId(), r.getAmount(),
+                    ok ? TransferResultDTO.Status.APPLIED : TransferResultDTO.Status.REJECTED,
+                    ok ? null : "Insufficient balance"));
+            }
+            return new BatchTransferResultDTO(BatchTransferMode.BEST_EFFORT, 0, 0, results);
+        });
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void testConcurrentSubmissionsAreGroupedIntoOneBatch() throws Exception {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(pipeline.submit(new TransferRequestDTO(1L, 2L, Money.ofCents(100))));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        verify(service, times(1)).settleBatch(anyList(), eq(BatchTransferMode.BEST_EFFORT));
+        assertEquals(10.0, meterRegistry.get("beneficio.transfer.pipeline.batch.size").summary().totalAmount());
+        assertEquals(10, meterRegistry.get("beneficio.transfer.pipeline.queue.wait").timer().count());
+    }
+
+    @Test
+    void testRejectedItemFailsOnlyItsOwnCaller() throws Exception {
+        CompletableFuture<Void> ok = pipeline.submit(new TransferRequestDTO(1L, 2L, Money.ofCents(1000)));
+        CompletableFuture<Void> rejected = pipeline.submit(new TransferRequestDTO(1L, 2L, Money.parse("5000")));
+
+        ok.get(5, TimeUnit.SECONDS);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, e.getCause());
+    }
+
+    @Test
+    void testEveryTransferIsRecordedFromSubmissionToOutcome() throws Exception {
+        CompletableFuture<Void> ok = pipeline.submit(new TransferRequestDTO(1L, 2L, Money.ofCents(1000)));
+        CompletableFuture<Void> rejected = pipeline.submit(new TransferRequestDTO(1L, 2L, Money.parse("5000")));
+        TransferRequestDTO invalid = new TransferRequestDTO(1L, 1L, Money.ofCents(100));
+        doThrow(new BeneficioException(ErrorCode.SAME_BENEFICIO)).when(service).validateTransferRequest(invalid);
+        assertThrows(BeneficioException.class, () -> pipeline.submit(invalid));
+
+        ok.get(5, TimeUnit.SECONDS);
+        assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, transferRegistry.get("beneficio.transfer").tag("outcome", "success").timer().count());
+        assertEquals(2, transferRegistry.get("beneficio.transfer").tag("outcome", "rejected").timer().count());
+        assertEquals(1.0, transferRegistry.get("beneficio.transfer.rejections")
+                .tag("reason", ErrorCode.SAME_BENEFICIO.reason()).counter().count());
+        assertEquals(0.0, transferRegistry.get("beneficio.transfer.in-flight").gauge().value());
+    }
+
+    @Test
+    void testBlockingTransferRethrowsRejection() {
+        assertThrows(IllegalArgumentException.class,
+            () -> pipeline.transfer(new TransferRequestDTO(1L, 2L, Money.parse("5000"))));
+    }
+
+    @Test
+    void testInvalidRequestIsRejectedBeforeQueueing() {
+        TransferRequestDTO invalid = new TransferRequestDTO(1L, 1L, Money.ofCents(100));
+        doThrow(new IllegalArgumentException("Cannot transfer to the same beneficio"))
+            .when(service).validateTransferRequest(invalid);
+
+        assertThrows(IllegalArgumentException.class, () -> pipeline.submit(invalid));
+        verify(service, never()).settleBatch(anyList(), any());
+    }
+
+    @Test
+    void testBlockingTransferGivesUpAfterWaitTimeout() throws Exception {
+        ReflectionTestUtils.setField(pipeline, "waitTimeoutMs", 50L);
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(service.settleBatch(anyList(), eq(BatchTransferMode.BEST_EFFORT))).thenAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            throw new IllegalStateException("released");
+        });
+
+        BeneficioException e = assertThrows(BeneficioException.class,
+            () -> pipeline.transfer(new TransferRequestDTO(1L, 2L, Money.ofCents(100))));
+        assertEquals(ErrorCode.TRANSFER_PIPELINE_TIMEOUT, e.getCode());
+        // The writer may not have picked the batch up within the short timeout
+        assertTrue(flushing.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    void testWriterSurvivesAnErrorInABatch() throws Exception {
+        when(service.settleBatch(anyList(), eq(BatchTransferMode.BEST_EFFORT)))
+            .thenThrow(new OutOfMemoryError("batch"))
+            .thenAnswer(invocation -> {
+                List<TransferRequestDTO> requests = invocation.getArgument(0);
+                List<TransferResultDTO> results = new ArrayList<>();
+                for (int i = 0; i < requests.size(); i++) {
+                    TransferRequestDTO r = requests.get(i);
+                    results.add(new TransferResultDTO(i, r.getFromId(), r.getToId(), r.getAmount(),
+                        TransferResultDTO.Status.APPLIED, null));
+                }
+                return new BatchTransferResultDTO(BatchTransferMode.BEST_EFFORT, 0, 0, results);
+            });
+
+        CompletableFuture<Void> failed = pipeline.submit(new TransferRequestDTO(1L, 2L, Money.ofCents(100)));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, e.getCause());
+
+        pipeline.submit(new TransferRequestDTO(1L, 2L, Money.ofCents(100))).get(5, TimeUnit.SECONDS);
+    }
+}
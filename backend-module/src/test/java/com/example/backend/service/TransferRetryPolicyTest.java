@@ -0,0 +1,76 @@
+package com.example.backend.service;
+
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferRetryPolicyTest {
+
+    private final TransferRetryPolicy policy = new TransferRetryPolicy(3, 1, 2);
+
+    @Test
+    void testRetriesUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> policy.execute(() -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Beneficio", 1L);
+        }));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void testPassesAttemptNumber() {
+        List<Integer> attempts = new ArrayList<>();
+
+        assertThrows(CannotAcquireLockException.class, () -> policy.execute(3, attempt -> {
+            attempts.add(attempt);
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+        assertEquals(List.of(1, 2, 3), attempts);
+    }
+
+    @Test
+    void testDoesNotRetryBusinessErrors() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> policy.execute(() -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Insufficient balance");
+        }));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testIsRetryable() {
+        assertTrue(TransferRetryPolicy.isRetryable(new OptimisticLockException()));
+        assertTrue(TransferRetryPolicy.isRetryable(
+            new DataIntegrityViolationException("wrapped", new SQLException("deadlock", "40001"))));
+        assertFalse(TransferRetryPolicy.isRetryable(new DataIntegrityViolationException("duplicate key")));
+        assertFalse(TransferRetryPolicy.isRetryable(new IllegalStateException()));
+    }
+}
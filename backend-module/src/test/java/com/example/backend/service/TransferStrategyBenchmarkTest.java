@@ -0,0 +1,109 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.TransferRequestDTO;
+import com.example.backend.entity.Beneficio;
+import com.example.backend.money.Money;
+import com.example.backend.repository.BeneficioRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares every registered transfer strategy on the real H2 database, uncontended
+ * (one thread) and contended (many threads over few accounts).
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class TransferStrategyBenchmarkTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int WARMUP = 500;
+    private static final int TRANSFERS = 4000;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private Map<String, TransferStrategy> strategies;
+
+    @Autowired
+    private BeneficioRepository repository;
+
+    @Autowired
+    private BeneficioService service;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids.add(repository.save(new Beneficio("Bench " + i, null, Money.parse("1000000.00"), true)).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllById(ids);
+    }
+
+    @Test
+    void compareStrategies() throws Exception {
+        Money totalBefore = totalBalance();
+        for (Map.Entry<String, TransferStrategy> entry : strategies.entrySet()) {
+            String name = entry.getKey();
+            TransferStrategy strategy = entry.getValue();
+            run(strategy, 1, WARMUP);
+            report(name, 1, run(strategy, 1, TRANSFERS));
+            report(name, THREADS, run(strategy, THREADS, TRANSFERS));
+        }
+        assertEquals(0, totalBefore.compareTo(totalBalance()));
+    }
+
+    private long run(TransferStrategy strategy, int threads, int transfers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transfers / threads; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    TransferRequestDTO request = new TransferRequestDTO(ids.get(from), ids.get(to), Money.ofCents(100));
+                    service.transfer(request, strategy);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String strategy, int threads, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%-20s threads=%-2d transfers=%d  %8.1f ops/s  %7.3f ms/op%n",
+            strategy, threads, TRANSFERS, TRANSFERS / seconds, seconds * 1000 * threads / TRANSFERS);
+    }
+
+    private Money totalBalance() {
+        return repository.findAllById(ids).stream()
+            .map(Beneficio::getValor)
+            .reduce(Money.ZERO, Money::plus);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.backend.service;
+
+import com.example.backend.exception.AdmissionRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAdmissionLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WriteAdmissionLimiter limiter = new WriteAdmissionLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 4);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 6);
+    }
+
+    private double rejections(String reason) {
+        return meterRegistry.counter("beneficio.admission.rejections", "reason", reason).count();
+    }
+
+    @Test
+    void testRejectsWritesOverLimitUntilOneFinishes() {
+        limiter.start();
+        WriteAdmissionLimiter.Permit[] permits = new WriteAdmissionLimiter.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.acquire();
+        }
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> limiter.acquire());
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals(1.0, rejections("limit"));
+
+        permits[0].close();
+        permits[0].close();
+        assertEquals(3, limiter.inFlight());
+        limiter.acquire().close();
+    }
+
+    @Test
+    void testSlowWritesShrinkLimitAndFastOnesGrowIt() {
+        ReflectionTestUtils.setField(limiter, "latencyTargetMs", 0L);
+        limiter.start();
+
+        // Every write is over a 0 ms target: 4 -> 3.6 -> 3.24 -> 2.9 -> 2.6 -> 2.3 -> floor of 2
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().close();
+        }
+        assertEquals(2, limiter.limit());
+
+        // Each fast write adds 1/limit, not one: two at 2 add 1/2 + 1/2.5
+        ReflectionTestUtils.setField(limiter, "latencyTargetMs", 60_000L);
+        WriteAdmissionLimiter.Permit window = limiter.acquire();
+        limiter.acquire().close();
+        window.close();
+        assertEquals(2, limiter.limit());
+
+        // They grow it while at least half of it is in use: with two in flight, up to 4
+        for (int i = 0; i < 10; i++) {
+            WriteAdmissionLimiter.Permit first = limiter.acquire();
+            WriteAdmissionLimiter.Permit second = limiter.acquire();
+            second.close();
+            first.close();
+        }
+        assertEquals(4, limiter.limit());
+
+        // Three in flight reach max-limit
+        for (int i = 0; i < 10; i++) {
+            WriteAdmissionLimiter.Permit first = limiter.acquire();
+            WriteAdmissionLimiter.Permit second = limiter.acquire();
+            limiter.acquire().close();
+            second.close();
+            first.close();
+        }
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    void testBulkWritesTakeAPermitButDoNotMoveTheLimit() {
+        ReflectionTestUtils.setField(limiter, "latencyTargetMs", 0L);
+        limiter.start();
+        WriteAdmissionLimiter.Permit[] permits = new WriteAdmissionLimiter.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = limiter.acquireBulk(1L);
+        }
+
+        assertThrows(AdmissionRejectedException.class, () -> limiter.acquire());
+        for (WriteAdmissionLimiter.Permit permit : permits) {
+            permit.close();
+        }
+
+        // Every one was over a 0 ms target
+        assertEquals(4, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0, limiter.inFlight(1L));
+    }
+
+    @Test
+    void testFastWritesDoNotGrowAnIdleLimit() {
+        ReflectionTestUtils.setField(limiter, "latencyTargetMs", 60_000L);
+        limiter.start();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().close();
+        }
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void testAccountShareKeepsHotAccountFromTakingWholeLimit() {
+        ReflectionTestUtils.setField(limiter, "accountShare", 0.5);
+        limiter.start();
+        WriteAdmissionLimiter.Permit first = limiter.acquire(1L, 2L);
+        WriteAdmissionLimiter.Permit second = limiter.acquire(1L, 3L);
+
+        AdmissionRejectedException e = assertThrows(AdmissionRejectedException.class, () -> limiter.acquire(4L, 1L));
+
+        assertTrue(e.getMessage().contains("beneficio 1"));
+        assertEquals(1.0, rejections("account"));
+        // The rejected write released what it had taken
+        assertEquals(0, limiter.inFlight(4L));
+        assertEquals(2, limiter.inFlight());
+        limiter.acquire(4L, 5L).close();
+
+        first.close();
+        second.close();
+        assertEquals(0, limiter.inFlight(1L));
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void testDisabledLimiterAdmitsEverything() {
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        limiter.start();
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(1L);
+        }
+
+        assertEquals(0, limiter.inFlight());
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.ejb;
 
 import jakarta.persistence.*;
-import java.math.BigDecimal;
 
 @Entity
 @Table(name = "BENEFICIO")
@@ -18,7 +17,7 @@ public class Beneficio {
     private String descricao;
 
     @Column(name = "VALOR", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valor;
+    private Money valor;
 
     @Column(name = "ATIVO")
     private Boolean ativo = true;
@@ -31,7 +30,7 @@ public class Beneficio {
     public Beneficio() {
     }
 
-    public Beneficio(String nome, String descricao, BigDecimal valor, Boolean ativo) {
+    public Beneficio(String nome, String descricao, Money valor, Boolean ativo) {
         this.nome = nome;
         this.descricao = descricao;
         this.valor = valor;
@@ -63,11 +62,11 @@ public class Beneficio {
         this.descricao = descricao;
     }
 
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
 
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
 
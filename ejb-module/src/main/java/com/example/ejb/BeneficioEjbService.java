@@ -1,77 +1,178 @@
 package com.example.ejb;
 
+import jakarta.annotation.Resource;
+import jakarta.ejb.SessionContext;
 import jakarta.ejb.Stateless;
+import jakarta.ejb.TransactionAttribute;
+import jakarta.ejb.TransactionAttributeType;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.LockTimeoutException;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
 import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Stateless
 public class BeneficioEjbService {
 
+    static final int MAX_ATTEMPTS = 5;
+    static final long INITIAL_BACKOFF_MS = 5;
+    static final long MAX_BACKOFF_MS = 200;
+
     @PersistenceContext
     private EntityManager em;
 
+    @Resource
+    private SessionContext context;
+
     /**
      * Transfers amount from one Beneficio to another with proper validation and locking.
+     * Both rows are locked in a single query in ascending ID order, so concurrent
+     * transfers in opposite directions cannot deadlock.
      * 
      * @param fromId Source beneficio ID
      * @param toId Destination beneficio ID
-     * @param amount Amount to transfer
-     * @throws IllegalArgumentException if validation fails
+     * @param amount Amount to transfer, with at most two decimal places
+     * @throws TransferRejectedException if validation fails
      * @throws OptimisticLockException if concurrent modification detected
      */
     public void transfer(Long fromId, Long toId, BigDecimal amount) {
         
         // Validate input parameters
         if (fromId == null || toId == null) {
-            throw new IllegalArgumentException("IDs cannot be null");
+            throw new TransferRejectedException(TransferRejectedException.Code.TRANSFER_IDS_REQUIRED);
         }
         
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be positive");
+        if (amount == null || amount.signum() <= 0) {
+            throw new TransferRejectedException(TransferRejectedException.Code.AMOUNT_NOT_POSITIVE);
         }
-        
+
+        transfer(fromId, toId, money(amount));
+    }
+
+    // Balances are handled as Money once the amount is known to be one
+    private void transfer(Long fromId, Long toId, Money amount) {
         if (fromId.equals(toId)) {
-            throw new IllegalArgumentException("Cannot transfer to the same beneficio");
+            throw new TransferRejectedException(TransferRejectedException.Code.SAME_BENEFICIO);
         }
 
-        // Use pessimistic locking to prevent concurrent modifications
-        Beneficio from = em.find(Beneficio.class, fromId, LockModeType.PESSIMISTIC_WRITE);
-        Beneficio to = em.find(Beneficio.class, toId, LockModeType.PESSIMISTIC_WRITE);
+        // Lock both rows in one round trip, lowest ID first
+        List<Long> ids = fromId < toId ? List.of(fromId, toId) : List.of(toId, fromId);
+        List<Beneficio> locked = em.createQuery(
+                "SELECT b FROM Beneficio b WHERE b.id IN :ids ORDER BY b.id", Beneficio.class)
+            .setParameter("ids", ids)
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .getResultList();
+
+        Beneficio from = null;
+        Beneficio to = null;
+        for (Beneficio b : locked) {
+            if (b.getId().equals(fromId)) {
+                from = b;
+            } else if (b.getId().equals(toId)) {
+                to = b;
+            }
+        }
 
         // Validate entities exist
         if (from == null) {
-            throw new IllegalArgumentException("Source beneficio not found: " + fromId);
+            throw new TransferRejectedException(TransferRejectedException.Code.SOURCE_NOT_FOUND, fromId, null);
         }
         
         if (to == null) {
-            throw new IllegalArgumentException("Destination beneficio not found: " + toId);
+            throw new TransferRejectedException(TransferRejectedException.Code.DESTINATION_NOT_FOUND, toId, null);
         }
 
         // Validate both beneficios are active
         if (!from.getAtivo()) {
-            throw new IllegalArgumentException("Source beneficio is not active");
+            throw new TransferRejectedException(TransferRejectedException.Code.SOURCE_INACTIVE);
         }
         
         if (!to.getAtivo()) {
-            throw new IllegalArgumentException("Destination beneficio is not active");
+            throw new TransferRejectedException(TransferRejectedException.Code.DESTINATION_INACTIVE);
         }
 
         // Validate sufficient balance
-        if (from.getValor().compareTo(amount) < 0) {
-            throw new IllegalArgumentException(
-                String.format("Insufficient balance. Available: %s, Required: %s", 
-                    from.getValor(), amount)
-            );
+        if (from.getValor().isLessThan(amount)) {
+            throw new TransferRejectedException(
+                TransferRejectedException.Code.INSUFFICIENT_BALANCE, from.getValor(), amount);
+        }
+
+        // Validate the credited balance still fits in DECIMAL(15,2)
+        if (to.getValor().cents() > Money.MAX_CENTS - amount.cents()) {
+            throw new TransferRejectedException(TransferRejectedException.Code.BALANCE_LIMIT_EXCEEDED, toId, null);
         }
 
         // Perform the transfer
-        from.setValor(from.getValor().subtract(amount));
-        to.setValor(to.getValor().add(amount));
+        from.setValor(from.getValor().minus(amount));
+        to.setValor(to.getValor().plus(amount));
 
         // EntityManager will automatically merge due to managed entities
         // Transaction will rollback automatically if any exception occurs
     }
+
+    /**
+     * Same as {@link #transfer(Long, Long, BigDecimal)}, but retries lock timeouts,
+     * deadlocks and optimistic-lock conflicts with exponential, jittered backoff.
+     * Runs outside a transaction so that every attempt goes through the business
+     * interface and gets a fresh container-managed transaction.
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void transferWithRetry(Long fromId, Long toId, BigDecimal amount) {
+        BeneficioEjbService self = context.getBusinessObject(BeneficioEjbService.class);
+        int attempt = 1;
+        while (true) {
+            try {
+                self.transfer(fromId, toId, amount);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                backoff(attempt++);
+            }
+        }
+    }
+
+    // A third decimal place would otherwise be rounded away by the DECIMAL(15,2) column
+    private static Money money(BigDecimal amount) {
+        try {
+            return Money.of(amount);
+        } catch (ArithmeticException e) {
+            throw new TransferRejectedException(TransferRejectedException.Code.INVALID_REQUEST, e.getMessage(), null);
+        }
+    }
+
+    static boolean isRetryable(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof OptimisticLockException
+                    || t instanceof PessimisticLockException
+                    || t instanceof LockTimeoutException
+                    || t instanceof SQLTransactionRollbackException
+                    || t instanceof SQLTimeoutException) {
+                return true;
+            }
+            // 40001: serialization failure / deadlock victim
+            if (t instanceof SQLException sql && "40001".equals(sql.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void backoff(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, INITIAL_BACKOFF_MS << Math.min(attempt, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
 }
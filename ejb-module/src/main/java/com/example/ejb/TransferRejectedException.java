@@ -0,0 +1,71 @@
+package com.example.ejb;
+
+import jakarta.ejb.ApplicationException;
+
+/**
+ * A transfer rejected by a business rule. Codes match the ones the REST API returns.
+ *
+ * Rejections are an expected outcome, so this exception records no stack trace and
+ * builds its message only when asked. As an application exception it reaches the
+ * caller as-is (not wrapped in an EJBException) and rolls the transaction back.
+ */
+@ApplicationException(rollback = true)
+public class TransferRejectedException extends IllegalArgumentException {
+
+    public enum Code {
+        TRANSFER_IDS_REQUIRED("IDs cannot be null"),
+        AMOUNT_NOT_POSITIVE("Amount must be positive"),
+        SAME_BENEFICIO("Cannot transfer to the same beneficio"),
+        SOURCE_NOT_FOUND("Source beneficio not found: "),
+        DESTINATION_NOT_FOUND("Destination beneficio not found: "),
+        SOURCE_INACTIVE("Source beneficio is not active"),
+        DESTINATION_INACTIVE("Destination beneficio is not active"),
+        INSUFFICIENT_BALANCE("Insufficient balance. Available: "),
+        BALANCE_LIMIT_EXCEEDED("Balance would exceed the maximum for beneficio: "),
+        INVALID_REQUEST("");
+
+        private final String message;
+
+        Code(String message) {
+            this.message = message;
+        }
+    }
+
+    private final Code code;
+    private final Object available;
+    private final Object required;
+    private String message;
+
+    public TransferRejectedException(Code code) {
+        this(code, null, null);
+    }
+
+    public TransferRejectedException(Code code, Object available, Object required) {
+        this.code = code;
+        this.available = available;
+        this.required = required;
+    }
+
+    public Code getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null) {
+            if (code == Code.INSUFFICIENT_BALANCE) {
+                message = code.message + available + ", Required: " + required;
+            } else if (available != null) {
+                message = code.message + available;
+            } else {
+                message = code.message;
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.ejb;
 
+import jakarta.ejb.SessionContext;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -10,8 +13,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -21,6 +27,9 @@ class BeneficioEjbServiceTest {
     @Mock
     private EntityManager entityManager;
 
+    @Mock
+    private SessionContext context;
+
     @InjectMocks
     private BeneficioEjbService service;
 
@@ -29,35 +38,89 @@ class BeneficioEjbServiceTest {
 
     @BeforeEach
     void setUp() {
-        beneficio1 = new Beneficio("Beneficio A", "Descrição A", new BigDecimal("1000.00"), true);
+        beneficio1 = new Beneficio("Beneficio A", "Descrição A", Money.parse("1000.00"), true);
         beneficio1.setId(1L);
 
-        beneficio2 = new Beneficio("Beneficio B", "Descrição B", new BigDecimal("500.00"), true);
+        beneficio2 = new Beneficio("Beneficio B", "Descrição B", Money.parse("500.00"), true);
         beneficio2.setId(2L);
     }
 
+    @SuppressWarnings("unchecked")
+    private TypedQuery<Beneficio> lockQueryReturning(List<Beneficio> result) {
+        TypedQuery<Beneficio> query = mock(TypedQuery.class, RETURNS_SELF);
+        when(entityManager.createQuery(anyString(), eq(Beneficio.class))).thenReturn(query);
+        when(query.getResultList()).thenReturn(result);
+        return query;
+    }
+
     @Test
     void testTransferSuccess() {
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        lockQueryReturning(List.of(beneficio1, beneficio2));
 
         service.transfer(1L, 2L, new BigDecimal("200.00"));
 
-        assertEquals(new BigDecimal("800.00"), beneficio1.getValor());
-        assertEquals(new BigDecimal("700.00"), beneficio2.getValor());
+        assertEquals(Money.parse("800.00"), beneficio1.getValor());
+        assertEquals(Money.parse("700.00"), beneficio2.getValor());
+    }
+
+    @Test
+    void testTransferLocksBothRowsInAscendingIdOrder() {
+        TypedQuery<Beneficio> query = lockQueryReturning(List.of(beneficio1, beneficio2));
+
+        service.transfer(2L, 1L, new BigDecimal("100.00"));
+
+        verify(query).setParameter("ids", List.of(1L, 2L));
+        verify(query).setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        verify(entityManager, never()).find(any(), any(), any(LockModeType.class));
+        assertEquals(Money.parse("1100.00"), beneficio1.getValor());
+        assertEquals(Money.parse("400.00"), beneficio2.getValor());
+    }
+
+    @Test
+    void testTransferWithRetryRetriesLockConflicts() {
+        BeneficioEjbService self = mock(BeneficioEjbService.class);
+        when(context.getBusinessObject(BeneficioEjbService.class)).thenReturn(self);
+        doThrow(new OptimisticLockException())
+            .doNothing()
+            .when(self).transfer(1L, 2L, new BigDecimal("100.00"));
+
+        service.transferWithRetry(1L, 2L, new BigDecimal("100.00"));
+
+        verify(self, times(2)).transfer(1L, 2L, new BigDecimal("100.00"));
+    }
+
+    @Test
+    void testTransferWithRetryDoesNotRetryValidationErrors() {
+        BeneficioEjbService self = mock(BeneficioEjbService.class);
+        when(context.getBusinessObject(BeneficioEjbService.class)).thenReturn(self);
+        doThrow(new IllegalArgumentException("Insufficient balance"))
+            .when(self).transfer(1L, 2L, new BigDecimal("100.00"));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.transferWithRetry(1L, 2L, new BigDecimal("100.00")));
+        verify(self, times(1)).transfer(1L, 2L, new BigDecimal("100.00"));
     }
 
     @Test
     void testTransferInsufficientBalance() {
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        lockQueryReturning(List.of(beneficio1, beneficio2));
 
-        assertThrows(IllegalArgumentException.class, 
+        TransferRejectedException e = assertThrows(TransferRejectedException.class,
             () -> service.transfer(1L, 2L, new BigDecimal("2000.00")));
+        assertEquals(TransferRejectedException.Code.INSUFFICIENT_BALANCE, e.getCode());
+        assertEquals("Insufficient balance. Available: " + beneficio1.getValor() + ", Required: 2000.00",
+            e.getMessage());
+    }
+
+    @Test
+    void testTransferBeyondTheColumnLimitIsRejected() {
+        beneficio2.setValor(Money.ofCents(Money.MAX_CENTS - 100));
+        lockQueryReturning(List.of(beneficio1, beneficio2));
+
+        TransferRejectedException e = assertThrows(TransferRejectedException.class,
+            () -> service.transfer(1L, 2L, new BigDecimal("1.01")));
+        assertEquals(TransferRejectedException.Code.BALANCE_LIMIT_EXCEEDED, e.getCode());
+        assertEquals(Money.parse("1000.00"), beneficio1.getValor());
     }
 
     @Test
@@ -75,6 +138,14 @@ class BeneficioEjbServiceTest {
             () -> service.transfer(1L, 2L, new BigDecimal("-100.00")));
     }
 
+    @Test
+    void testTransferAmountWithThirdDecimalIsRejected() {
+        TransferRejectedException e = assertThrows(TransferRejectedException.class,
+            () -> service.transfer(1L, 2L, new BigDecimal("100.005")));
+        assertEquals(TransferRejectedException.Code.INVALID_REQUEST, e.getCode());
+        verifyNoInteractions(entityManager);
+    }
+
     @Test
     void testTransferSameBeneficio() {
         assertThrows(IllegalArgumentException.class, 
@@ -83,8 +154,7 @@ class BeneficioEjbServiceTest {
 
     @Test
     void testTransferBeneficioNotFound() {
-        when(entityManager.find(eq(Beneficio.class), eq(999L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(null);
+        lockQueryReturning(List.of(beneficio2));
 
         assertThrows(IllegalArgumentException.class, 
             () -> service.transfer(999L, 2L, new BigDecimal("100.00")));
@@ -94,10 +164,7 @@ class BeneficioEjbServiceTest {
     void testTransferInactiveBeneficio() {
         beneficio1.setAtivo(false);
         
-        when(entityManager.find(eq(Beneficio.class), eq(1L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio1);
-        when(entityManager.find(eq(Beneficio.class), eq(2L), eq(LockModeType.PESSIMISTIC_WRITE)))
-            .thenReturn(beneficio2);
+        lockQueryReturning(List.of(beneficio1, beneficio2));
 
         assertThrows(IllegalArgumentException.class, 
             () -> service.transfer(1L, 2L, new BigDecimal("100.00")));
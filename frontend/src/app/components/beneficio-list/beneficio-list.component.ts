@@ -1,8 +1,10 @@
-import { Component, type OnInit } from "@angular/core"
+import { Component, type OnDestroy, type OnInit } from "@angular/core"
 import { CommonModule } from "@angular/common"
 import { FormsModule } from "@angular/forms"
 import type { BeneficioService } from "../../services/beneficio.service"
 import type { Beneficio, TransferRequest } from "../../models/beneficio.model"
+import type { Subscription } from "rxjs"
+import { debounceTime } from "rxjs/operators"
 
 @Component({
   selector: "app-beneficio-list",
@@ -11,7 +13,7 @@ import type { Beneficio, TransferRequest } from "../../models/beneficio.model"
   templateUrl: "./beneficio-list.component.html",
   styleUrls: ["./beneficio-list.component.css"],
 })
-export class BeneficioListComponent implements OnInit {
+export class BeneficioListComponent implements OnInit, OnDestroy {
   beneficios: Beneficio[] = []
   selectedBeneficio: Beneficio | null = null
   isEditing = false
@@ -33,14 +35,25 @@ export class BeneficioListComponent implements OnInit {
     amount: 0,
   }
 
+  private changes?: Subscription
+
   constructor(private beneficioService: BeneficioService) {}
 
   ngOnInit(): void {
     this.loadBeneficios()
+    // Bursts of transfers collapse into a single delta sync
+    this.changes = this.beneficioService
+      .changeEvents()
+      .pipe(debounceTime(200))
+      .subscribe(() => this.loadBeneficios())
+  }
+
+  ngOnDestroy(): void {
+    this.changes?.unsubscribe()
   }
 
   loadBeneficios(): void {
-    this.beneficioService.getAll().subscribe({
+    this.beneficioService.sync().subscribe({
       next: (data) => {
         this.beneficios = data
         this.clearMessages()
@@ -7,6 +7,17 @@ export interface Beneficio {
   version?: number
 }
 
+export interface BeneficioChanges {
+  changed: Beneficio[]
+  deleted: number[]
+  next: number
+}
+
+export interface BeneficioChangeEvent {
+  ids: number[]
+  membershipChanged: boolean
+}
+
 export interface TransferRequest {
   fromId: number
   toId: number
@@ -1,7 +1,8 @@
 import { Injectable } from "@angular/core"
 import type { HttpClient } from "@angular/common/http"
-import type { Observable } from "rxjs"
-import type { Beneficio, TransferRequest } from "../models/beneficio.model"
+import { Observable } from "rxjs"
+import { map } from "rxjs/operators"
+import type { Beneficio, BeneficioChangeEvent, BeneficioChanges, TransferRequest } from "../models/beneficio.model"
 
 @Injectable({
   providedIn: "root",
@@ -9,6 +10,10 @@ import type { Beneficio, TransferRequest } from "../models/beneficio.model"
 export class BeneficioService {
   private apiUrl = "http://localhost:8080/api/v1/beneficios"
 
+  // Local copy kept up to date by sync(); cursor is the "next" of the last /changes call
+  private local = new Map<number, Beneficio>()
+  private cursor: number | null = null
+
   constructor(private http: HttpClient) {}
 
   getAll(): Observable<Beneficio[]> {
@@ -19,6 +24,39 @@ export class BeneficioService {
     return this.http.get<Beneficio[]>(`${this.apiUrl}/ativos`)
   }
 
+  getChanges(since: number | null): Observable<BeneficioChanges> {
+    const params: Record<string, string> = since === null ? {} : { since: String(since) }
+    return this.http.get<BeneficioChanges>(`${this.apiUrl}/changes`, { params })
+  }
+
+  // Full list on the first call, then only what changed since the previous call
+  sync(): Observable<Beneficio[]> {
+    return this.getChanges(this.cursor).pipe(
+      map((changes) => {
+        if (this.cursor === null) {
+          this.local.clear()
+        }
+        changes.changed.forEach((b) => this.local.set(b.id!, b))
+        changes.deleted.forEach((id) => this.local.delete(id))
+        this.cursor = changes.next
+        return Array.from(this.local.values()).sort((a, b) => a.id! - b.id!)
+      }),
+    )
+  }
+
+  // Committed changes pushed by the server. EventSource reconnects by itself; every
+  // (re)connection is reported as a change, since events may have been missed meanwhile
+  changeEvents(): Observable<BeneficioChangeEvent> {
+    return new Observable<BeneficioChangeEvent>((subscriber) => {
+      const source = new EventSource(`${this.apiUrl}/events`)
+      source.onopen = () => subscriber.next({ ids: [], membershipChanged: true })
+      source.addEventListener("beneficio-changed", (event) =>
+        subscriber.next(JSON.parse((event as MessageEvent).data)),
+      )
+      return () => source.close()
+    })
+  }
+
   getById(id: number): Observable<Beneficio> {
     return this.http.get<Beneficio>(`${this.apiUrl}/${id}`)
   }
@@ -35,7 +73,10 @@ export class BeneficioService {
     return this.http.delete<void>(`${this.apiUrl}/${id}`)
   }
 
-  transfer(request: TransferRequest): Observable<string> {
-    return this.http.post<string>(`${this.apiUrl}/transferir`, request)
+  // Reuse the same key when retrying a transfer so it is applied at most once
+  transfer(request: TransferRequest, idempotencyKey: string = crypto.randomUUID()): Observable<string> {
+    return this.http.post<string>(`${this.apiUrl}/transferir`, request, {
+      headers: { "Idempotency-Key": idempotencyKey },
+    })
   }
 }